@@ -0,0 +1,30 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.array;
+
+/**
+ * Hands out the large primitive arrays used by join hash tables. Borrowed arrays
+ * may be longer than requested and may contain stale data. An array must only be
+ * returned once nothing reads it anymore.
+ */
+public interface ArrayAllocator
+{
+    int[] borrowIntArray(int length);
+
+    void returnArray(int[] array);
+
+    byte[] borrowByteArray(int length);
+
+    void returnArray(byte[] array);
+}
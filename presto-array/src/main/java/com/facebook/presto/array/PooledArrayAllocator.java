@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.array;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps returned arrays, up to a total retained size, and hands them out again
+ * instead of allocating new ones. Reusing the multi-megabyte arrays of join hash
+ * tables avoids repeated humongous allocations, which are expensive for G1.
+ * <p>
+ * An array is reused only if it is at most twice as long as requested.
+ * Arrays held by the pool are not accounted to any query. The general memory
+ * pool of the node is reduced by the maximum retained size of the pool instead.
+ */
+public final class PooledArrayAllocator
+        implements ArrayAllocator
+{
+    private final long maxRetainedSizeInBytes;
+
+    private final ArrayPool<int[]> intArrays = new ArrayPool<>(array -> array.length, array -> sizeOf(array));
+    private final ArrayPool<byte[]> byteArrays = new ArrayPool<>(array -> array.length, array -> sizeOf(array));
+
+    private long retainedSizeInBytes;
+    private long borrowedArrays;
+    private long reusedArrays;
+
+    public PooledArrayAllocator(long maxRetainedSizeInBytes)
+    {
+        if (maxRetainedSizeInBytes < 0) {
+            throw new IllegalArgumentException("maxRetainedSizeInBytes is negative");
+        }
+        this.maxRetainedSizeInBytes = maxRetainedSizeInBytes;
+    }
+
+    @Override
+    public synchronized int[] borrowIntArray(int length)
+    {
+        int[] array = intArrays.poll(length);
+        return array != null ? array : new int[length];
+    }
+
+    @Override
+    public synchronized void returnArray(int[] array)
+    {
+        intArrays.offer(requireNonNull(array, "array is null"));
+    }
+
+    @Override
+    public synchronized byte[] borrowByteArray(int length)
+    {
+        byte[] array = byteArrays.poll(length);
+        return array != null ? array : new byte[length];
+    }
+
+    @Override
+    public synchronized void returnArray(byte[] array)
+    {
+        byteArrays.offer(requireNonNull(array, "array is null"));
+    }
+
+    public synchronized long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    public synchronized long getBorrowedArrays()
+    {
+        return borrowedArrays;
+    }
+
+    public synchronized long getReusedArrays()
+    {
+        return reusedArrays;
+    }
+
+    private class ArrayPool<T>
+    {
+        private final TreeMap<Integer, Deque<T>> arraysByLength = new TreeMap<>();
+        private final ToIntFunction<T> lengthFunction;
+        private final ToLongFunction<T> sizeFunction;
+
+        private ArrayPool(ToIntFunction<T> lengthFunction, ToLongFunction<T> sizeFunction)
+        {
+            this.lengthFunction = lengthFunction;
+            this.sizeFunction = sizeFunction;
+        }
+
+        private T poll(int length)
+        {
+            borrowedArrays++;
+            Map.Entry<Integer, Deque<T>> entry = arraysByLength.ceilingEntry(length);
+            if (entry == null || entry.getKey() > 2L * length) {
+                return null;
+            }
+
+            Deque<T> arrays = entry.getValue();
+            T array = arrays.pop();
+            if (arrays.isEmpty()) {
+                arraysByLength.remove(entry.getKey());
+            }
+            retainedSizeInBytes -= sizeFunction.applyAsLong(array);
+            reusedArrays++;
+            return array;
+        }
+
+        private void offer(T array)
+        {
+            long size = sizeFunction.applyAsLong(array);
+            if (retainedSizeInBytes + size > maxRetainedSizeInBytes) {
+                return;
+            }
+            arraysByLength.computeIfAbsent(lengthFunction.applyAsInt(array), length -> new ArrayDeque<>()).push(array);
+            retainedSizeInBytes += size;
+        }
+    }
+}
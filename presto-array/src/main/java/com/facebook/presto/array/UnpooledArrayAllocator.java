@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.array;
+
+public final class UnpooledArrayAllocator
+        implements ArrayAllocator
+{
+    public static final UnpooledArrayAllocator INSTANCE = new UnpooledArrayAllocator();
+
+    private UnpooledArrayAllocator() {}
+
+    @Override
+    public int[] borrowIntArray(int length)
+    {
+        return new int[length];
+    }
+
+    @Override
+    public void returnArray(int[] array)
+    {
+    }
+
+    @Override
+    public byte[] borrowByteArray(int length)
+    {
+        return new byte[length];
+    }
+
+    @Override
+    public void returnArray(byte[] array)
+    {
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.array;
+
+import org.testng.annotations.Test;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+public class TestPooledArrayAllocator
+{
+    @Test
+    public void testReuse()
+    {
+        PooledArrayAllocator allocator = new PooledArrayAllocator(1024 * 1024);
+
+        int[] intArray = allocator.borrowIntArray(100);
+        assertEquals(intArray.length, 100);
+        allocator.returnArray(intArray);
+        assertEquals(allocator.getRetainedSizeInBytes(), sizeOf(intArray));
+
+        // too long to be reused for a small request
+        assertNotSame(allocator.borrowIntArray(10), intArray);
+        assertSame(allocator.borrowIntArray(80), intArray);
+        assertEquals(allocator.getRetainedSizeInBytes(), 0);
+
+        byte[] byteArray = allocator.borrowByteArray(100);
+        allocator.returnArray(byteArray);
+        assertSame(allocator.borrowByteArray(100), byteArray);
+
+        assertEquals(allocator.getBorrowedArrays(), 5);
+        assertEquals(allocator.getReusedArrays(), 2);
+    }
+
+    @Test
+    public void testRetainedSizeLimit()
+    {
+        PooledArrayAllocator allocator = new PooledArrayAllocator(sizeOf(new int[100]));
+
+        int[] first = allocator.borrowIntArray(100);
+        int[] second = allocator.borrowIntArray(100);
+        allocator.returnArray(first);
+        allocator.returnArray(second);
+        assertEquals(allocator.getRetainedSizeInBytes(), sizeOf(first));
+
+        assertSame(allocator.borrowIntArray(100), first);
+        assertNotSame(allocator.borrowIntArray(100), second);
+    }
+}
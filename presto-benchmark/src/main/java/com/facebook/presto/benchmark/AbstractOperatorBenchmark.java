@@ -61,6 +61,8 @@ import io.airlift.stats.CpuTimer;
 import io.airlift.stats.TestingGcMonitor;
 import io.airlift.units.DataSize;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -294,9 +296,11 @@ public abstract class AbstractOperatorBenchmark
                         false,
                         OptionalInt.empty());
 
+        long gcMillisBefore = getTotalGcMillis();
         CpuTimer cpuTimer = new CpuTimer();
         Map<String, Long> executionStats = execute(taskContext);
         CpuDuration executionTime = cpuTimer.elapsedTime();
+        long gcMillis = getTotalGcMillis() - gcMillisBefore;
 
         TaskStats taskStats = taskContext.getTaskStats();
         long inputRows = taskStats.getRawInputPositions();
@@ -322,7 +326,17 @@ public abstract class AbstractOperatorBenchmark
                 .put("input_bytes", inputBytes)
                 .put("output_rows", outputRows)
                 .put("output_bytes", outputBytes)
+                .put("gc_millis", gcMillis)
 
                 .build();
     }
+
+    private static long getTotalGcMillis()
+    {
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcMillis += Math.max(garbageCollector.getCollectionTime(), 0);
+        }
+        return gcMillis;
+    }
 }
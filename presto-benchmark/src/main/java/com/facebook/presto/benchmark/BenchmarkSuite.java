@@ -48,6 +48,7 @@ public class BenchmarkSuite
                 new Top100Benchmark(localQueryRunner),
                 new OrderByBenchmark(localQueryRunner),
                 new HashBuildBenchmark(localQueryRunner),
+                HashBuildBenchmark.pooledHashBuildBenchmark(localQueryRunner),
                 new HashJoinBenchmark(localQueryRunner),
                 new HashBuildAndJoinBenchmark(localQueryRunner.getDefaultSession(), localQueryRunner),
                 new HashBuildAndJoinBenchmark(optimizeHashSession, localQueryRunner),
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.benchmark;
 
+import com.facebook.presto.array.PooledArrayAllocator;
 import com.facebook.presto.operator.Driver;
 import com.facebook.presto.operator.DriverFactory;
 import com.facebook.presto.operator.HashBuilderOperator.HashBuilderOperatorFactory;
@@ -49,9 +50,25 @@ public class HashBuildBenchmark
 {
     private static final LookupJoinOperators LOOKUP_JOIN_OPERATORS = new LookupJoinOperators();
 
+    private final PagesIndex.Factory pagesIndexFactory;
+
     public HashBuildBenchmark(LocalQueryRunner localQueryRunner)
     {
-        super(localQueryRunner, "hash_build", 4, 5);
+        this(localQueryRunner, "hash_build", new PagesIndex.TestingFactory(false));
+    }
+
+    public HashBuildBenchmark(LocalQueryRunner localQueryRunner, String benchmarkName, PagesIndex.Factory pagesIndexFactory)
+    {
+        super(localQueryRunner, benchmarkName, 4, 5);
+        this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
+    }
+
+    /**
+     * Reuses the hash table arrays of previous iterations instead of allocating them again
+     */
+    public static HashBuildBenchmark pooledHashBuildBenchmark(LocalQueryRunner localQueryRunner)
+    {
+        return new HashBuildBenchmark(localQueryRunner, "hash_build_pooled", new PagesIndex.TestingFactory(false, new PooledArrayAllocator(256 * 1024 * 1024)));
     }
 
     @Override
@@ -82,9 +99,10 @@ public class HashBuildBenchmark
                 Optional.empty(),
                 ImmutableList.of(),
                 1_500_000,
-                new PagesIndex.TestingFactory(false),
+                pagesIndexFactory,
                 false,
-                SingleStreamSpillerFactory.unsupportedSingleStreamSpillerFactory());
+                SingleStreamSpillerFactory.unsupportedSingleStreamSpillerFactory(),
+                Optional.empty());
         DriverFactory hashBuildDriverFactory = new DriverFactory(0, true, true, ImmutableList.of(ordersTableScan, hashBuilder), OptionalInt.empty(), UNGROUPED_EXECUTION);
         Driver hashBuildDriver = hashBuildDriverFactory.createDriver(taskContext.addPipelineContext(0, true, true).addDriverContext());
         hashBuildDriverFactory.noMoreDrivers();
@@ -114,5 +132,6 @@ public class HashBuildBenchmark
     public static void main(String[] args)
     {
         new HashBuildBenchmark(createLocalQueryRunner()).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+        pooledHashBuildBenchmark(createLocalQueryRunner()).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.benchmark;
+
+import com.facebook.presto.testing.LocalQueryRunner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import static com.facebook.presto.benchmark.BenchmarkQueryRunner.createLocalQueryRunner;
+import static java.lang.String.format;
+
+public class SqlSlidingWindowBenchmark
+        extends AbstractSqlBenchmark
+{
+    public SqlSlidingWindowBenchmark(LocalQueryRunner localQueryRunner, String function, int frameSize)
+    {
+        super(localQueryRunner,
+                format("sql_sliding_window_%s_frame_%s", function, frameSize),
+                4,
+                5,
+                format("SELECT %s(quantity) OVER (PARTITION BY linestatus ORDER BY orderkey, linenumber ROWS BETWEEN %s PRECEDING AND CURRENT ROW) " +
+                        "FROM lineitem", function, frameSize - 1));
+    }
+
+    public static void main(String[] args)
+    {
+        LocalQueryRunner localQueryRunner = createLocalQueryRunner(ImmutableMap.of("resource_overcommit", "true"));
+        for (String function : ImmutableList.of("count", "avg", "sum", "max")) {
+            for (int frameSize : ImmutableList.of(10, 100, 1_000, 10_000)) {
+                new SqlSlidingWindowBenchmark(localQueryRunner, function, frameSize).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+            }
+        }
+    }
+}
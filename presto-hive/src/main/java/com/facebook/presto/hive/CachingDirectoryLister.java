@@ -0,0 +1,262 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.metastore.Table;
+import com.facebook.presto.spi.SchemaTableName;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.Duration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Caches the listings of directories belonging to the configured tables. Only complete
+ * listings are cached, so an iteration abandoned half way never leaves a partial listing
+ * behind. Listings expire after a fixed time, and are discarded early when the metastore
+ * commits a write to the listed directory.
+ */
+public class CachingDirectoryLister
+        implements DirectoryLister
+{
+    private final DirectoryLister delegate;
+    private final Cache<Path, List<LocatedFileStatus>> cache;
+    private final List<SchemaTablePattern> tablePatterns;
+    private final TimeStat listingTime = new TimeStat(MILLISECONDS);
+    // incremented on every invalidation, so listings racing with a write are not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Inject
+    public CachingDirectoryLister(HiveClientConfig hiveClientConfig)
+    {
+        this(
+                new HadoopDirectoryLister(),
+                hiveClientConfig.getFileStatusCacheExpireAfterWrite(),
+                hiveClientConfig.getFileStatusCacheMaxSize(),
+                hiveClientConfig.getFileStatusCacheTables());
+    }
+
+    @VisibleForTesting
+    public CachingDirectoryLister(DirectoryLister delegate, Duration expireAfterWrite, long maxSize, List<String> tables)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        requireNonNull(expireAfterWrite, "expireAfterWrite is null");
+        checkArgument(maxSize > 0, "maxSize must be positive");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((Weigher<Path, List<LocatedFileStatus>>) (path, files) -> files.size() + 1)
+                .expireAfterWrite(expireAfterWrite.toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+        this.tablePatterns = requireNonNull(tables, "tables is null").stream()
+                .map(SchemaTablePattern::parse)
+                .collect(toImmutableList());
+    }
+
+    @Override
+    public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
+            throws IOException
+    {
+        if (!isCacheEnabled(new SchemaTableName(table.getDatabaseName(), table.getTableName()))) {
+            return delegate.list(fs, table, path);
+        }
+
+        List<LocatedFileStatus> files = cache.getIfPresent(path);
+        if (files != null) {
+            return new SimpleRemoteIterator(files.iterator());
+        }
+        return new CachingRemoteIterator(path, delegate.list(fs, table, path));
+    }
+
+    @Override
+    public void invalidate(Path path)
+    {
+        invalidations.incrementAndGet();
+        String directory = path.toUri().getPath();
+        String prefix = directory.endsWith("/") ? directory : directory + "/";
+        cache.asMap().keySet().removeIf(cachedPath -> {
+            String cachedDirectory = cachedPath.toUri().getPath();
+            return cachedDirectory.equals(directory) || cachedDirectory.startsWith(prefix);
+        });
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getCachedDirectoryCount()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getRequestCount()
+    {
+        return cache.stats().requestCount();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getListingTime()
+    {
+        return listingTime;
+    }
+
+    private boolean isCacheEnabled(SchemaTableName table)
+    {
+        return tablePatterns.stream().anyMatch(pattern -> pattern.matches(table));
+    }
+
+    private class CachingRemoteIterator
+            implements RemoteIterator<LocatedFileStatus>
+    {
+        private final Path path;
+        private final RemoteIterator<LocatedFileStatus> iterator;
+        private final ImmutableList.Builder<LocatedFileStatus> files = ImmutableList.builder();
+        private final long start = System.nanoTime();
+        private final long invalidationsAtStart = invalidations.get();
+        private boolean done;
+
+        public CachingRemoteIterator(Path path, RemoteIterator<LocatedFileStatus> iterator)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.iterator = requireNonNull(iterator, "iterator is null");
+        }
+
+        @Override
+        public boolean hasNext()
+                throws IOException
+        {
+            boolean hasNext = iterator.hasNext();
+            if (!hasNext && !done) {
+                done = true;
+                listingTime.add(Duration.nanosSince(start));
+                if (invalidations.get() == invalidationsAtStart) {
+                    cache.put(path, files.build());
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public LocatedFileStatus next()
+                throws IOException
+        {
+            LocatedFileStatus status = iterator.next();
+            files.add(status);
+            return status;
+        }
+    }
+
+    private static class SimpleRemoteIterator
+            implements RemoteIterator<LocatedFileStatus>
+    {
+        private final Iterator<LocatedFileStatus> iterator;
+
+        public SimpleRemoteIterator(Iterator<LocatedFileStatus> iterator)
+        {
+            this.iterator = requireNonNull(iterator, "iterator is null");
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public LocatedFileStatus next()
+        {
+            return iterator.next();
+        }
+    }
+
+    private static class SchemaTablePattern
+    {
+        private final String schemaName;
+        private final String tableName;
+
+        private SchemaTablePattern(String schemaName, String tableName)
+        {
+            this.schemaName = requireNonNull(schemaName, "schemaName is null");
+            this.tableName = requireNonNull(tableName, "tableName is null");
+        }
+
+        public static SchemaTablePattern parse(String pattern)
+        {
+            if (pattern.equals("*")) {
+                return new SchemaTablePattern("*", "*");
+            }
+            List<String> parts = Splitter.on('.').splitToList(pattern.toLowerCase(ENGLISH));
+            checkArgument(parts.size() == 2 && !parts.get(0).isEmpty() && !parts.get(1).isEmpty(), "Invalid file status cache table pattern, expected schema.table or schema.*: %s", pattern);
+            return new SchemaTablePattern(parts.get(0), parts.get(1));
+        }
+
+        public boolean matches(SchemaTableName table)
+        {
+            return (schemaName.equals("*") || schemaName.equals(table.getSchemaName())) &&
+                    (tableName.equals("*") || tableName.equals(table.getTableName()));
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import io.airlift.stats.CounterStat;
 import io.airlift.stats.DistributionStat;
 import io.airlift.stats.TimeStat;
 import org.weakref.jmx.Managed;
@@ -29,6 +30,11 @@ public class FileFormatDataSourceStats
     private final TimeStat time100KBto1MB = new TimeStat(MILLISECONDS);
     private final TimeStat time1MBto10MB = new TimeStat(MILLISECONDS);
     private final TimeStat time10MBPlus = new TimeStat(MILLISECONDS);
+    private final CounterStat parquetSkippedRowGroups = new CounterStat();
+    private final CounterStat parquetSkippedPages = new CounterStat();
+    private final CounterStat parquetSkippedBytes = new CounterStat();
+    private final CounterStat orcRowGroupsSkippedByStatistics = new CounterStat();
+    private final CounterStat orcRowGroupsSkippedByBloomFilter = new CounterStat();
 
     @Managed
     @Nested
@@ -72,6 +78,41 @@ public class FileFormatDataSourceStats
         return time10MBPlus;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getParquetSkippedRowGroups()
+    {
+        return parquetSkippedRowGroups;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getParquetSkippedPages()
+    {
+        return parquetSkippedPages;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getParquetSkippedBytes()
+    {
+        return parquetSkippedBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getOrcRowGroupsSkippedByStatistics()
+    {
+        return orcRowGroupsSkippedByStatistics;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getOrcRowGroupsSkippedByBloomFilter()
+    {
+        return orcRowGroupsSkippedByBloomFilter;
+    }
+
     public void readDataBytesPerSecond(long bytes, long nanos)
     {
         readBytes.add(bytes);
@@ -93,4 +134,22 @@ public class FileFormatDataSourceStats
     {
         maxCombinedBytesPerRow.add(bytes);
     }
+
+    public void addParquetSkippedRowGroup(long bytes)
+    {
+        parquetSkippedRowGroups.update(1);
+        parquetSkippedBytes.update(bytes);
+    }
+
+    public void addParquetSkippedPages(long pages, long bytes)
+    {
+        parquetSkippedPages.update(pages);
+        parquetSkippedBytes.update(bytes);
+    }
+
+    public void addOrcSkippedRowGroups(long skippedByStatistics, long skippedByBloomFilter)
+    {
+        orcRowGroupsSkippedByStatistics.update(skippedByStatistics);
+        orcRowGroupsSkippedByBloomFilter.update(skippedByBloomFilter);
+    }
 }
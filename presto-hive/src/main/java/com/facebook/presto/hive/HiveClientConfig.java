@@ -74,6 +74,8 @@ public class HiveClientConfig
     private long metastoreCacheMaximumSize = 10000;
     private long perTransactionMetastoreCacheMaximumSize = 1000;
     private int maxMetastoreRefreshThreads = 100;
+    private int partitionFetchBatchSize = 100;
+    private int partitionFetchConcurrency = 4;
     private HostAndPort metastoreSocksProxy;
     private Duration metastoreTimeout = new Duration(10, TimeUnit.SECONDS);
 
@@ -101,6 +103,10 @@ public class HiveClientConfig
     private boolean useParquetColumnNames;
     private boolean parquetOptimizedReaderEnabled = true;
     private boolean parquetPredicatePushdownEnabled = true;
+    private boolean parquetOptimizedWriterEnabled;
+    private boolean parquetOptimizedWriterValidate;
+    private DataSize parquetWriterBlockSize = new DataSize(128, MEGABYTE);
+    private DataSize parquetWriterPageSize = new DataSize(1, MEGABYTE);
 
     private boolean assumeCanonicalPartitionKeys;
 
@@ -113,6 +119,7 @@ public class HiveClientConfig
     private DataSize orcStreamBufferSize = new DataSize(8, MEGABYTE);
     private DataSize orcMaxReadBlockSize = new DataSize(16, MEGABYTE);
     private boolean orcLazyReadSmallRanges = true;
+    private boolean orcSelectiveReadingEnabled;
     private boolean orcOptimizedWriterEnabled;
     private double orcWriterValidationPercentage = 100.0;
     private OrcWriteValidationMode orcWriterValidationMode = OrcWriteValidationMode.BOTH;
@@ -139,6 +146,10 @@ public class HiveClientConfig
     private int partitionStatisticsSampleSize = 100;
     private boolean collectColumnStatisticsOnWrite;
 
+    private List<String> fileStatusCacheTables = ImmutableList.of();
+    private long fileStatusCacheMaxSize = 1000 * 1000;
+    private Duration fileStatusCacheExpireAfterWrite = new Duration(1, TimeUnit.MINUTES);
+
     public int getMaxInitialSplits()
     {
         return maxInitialSplits;
@@ -412,6 +423,34 @@ public class HiveClientConfig
         return this;
     }
 
+    @Min(1)
+    public int getPartitionFetchBatchSize()
+    {
+        return partitionFetchBatchSize;
+    }
+
+    @Config("hive.metastore.partition-fetch-batch-size")
+    @ConfigDescription("Maximum number of partitions fetched from the metastore in a single call")
+    public HiveClientConfig setPartitionFetchBatchSize(int partitionFetchBatchSize)
+    {
+        this.partitionFetchBatchSize = partitionFetchBatchSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getPartitionFetchConcurrency()
+    {
+        return partitionFetchConcurrency;
+    }
+
+    @Config("hive.metastore.partition-fetch-concurrency")
+    @ConfigDescription("Maximum number of concurrent metastore calls used to fetch the partitions of a single request")
+    public HiveClientConfig setPartitionFetchConcurrency(int partitionFetchConcurrency)
+    {
+        this.partitionFetchConcurrency = partitionFetchConcurrency;
+        return this;
+    }
+
     public HostAndPort getMetastoreSocksProxy()
     {
         return metastoreSocksProxy;
@@ -789,6 +828,19 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isOrcSelectiveReadingEnabled()
+    {
+        return orcSelectiveReadingEnabled;
+    }
+
+    @Config("hive.orc.selective-reading-enabled")
+    @ConfigDescription("Decode only the values of the rows selected by the filter in ORC columns not used by the filter")
+    public HiveClientConfig setOrcSelectiveReadingEnabled(boolean orcSelectiveReadingEnabled)
+    {
+        this.orcSelectiveReadingEnabled = orcSelectiveReadingEnabled;
+        return this;
+    }
+
     public boolean isOrcBloomFiltersEnabled()
     {
         return orcBloomFiltersEnabled;
@@ -923,6 +975,62 @@ public class HiveClientConfig
         return this;
     }
 
+    public boolean isParquetOptimizedWriterEnabled()
+    {
+        return parquetOptimizedWriterEnabled;
+    }
+
+    @Config("hive.parquet.optimized-writer.enabled")
+    @ConfigDescription("Experimental: Use the native Parquet writer instead of the Hive record writer")
+    public HiveClientConfig setParquetOptimizedWriterEnabled(boolean parquetOptimizedWriterEnabled)
+    {
+        this.parquetOptimizedWriterEnabled = parquetOptimizedWriterEnabled;
+        return this;
+    }
+
+    public boolean isParquetOptimizedWriterValidate()
+    {
+        return parquetOptimizedWriterValidate;
+    }
+
+    @Config("hive.parquet.optimized-writer.validate")
+    @ConfigDescription("Validate Parquet files written by the native writer by re-reading the whole file")
+    public HiveClientConfig setParquetOptimizedWriterValidate(boolean parquetOptimizedWriterValidate)
+    {
+        this.parquetOptimizedWriterValidate = parquetOptimizedWriterValidate;
+        return this;
+    }
+
+    @MinDataSize("1MB")
+    @NotNull
+    public DataSize getParquetWriterBlockSize()
+    {
+        return parquetWriterBlockSize;
+    }
+
+    @Config("hive.parquet.writer.block-size")
+    @ConfigDescription("Target row group size of Parquet files written by the native writer")
+    public HiveClientConfig setParquetWriterBlockSize(DataSize parquetWriterBlockSize)
+    {
+        this.parquetWriterBlockSize = parquetWriterBlockSize;
+        return this;
+    }
+
+    @MinDataSize("1kB")
+    @NotNull
+    public DataSize getParquetWriterPageSize()
+    {
+        return parquetWriterPageSize;
+    }
+
+    @Config("hive.parquet.writer.page-size")
+    @ConfigDescription("Target page size of Parquet files written by the native writer")
+    public HiveClientConfig setParquetWriterPageSize(DataSize parquetWriterPageSize)
+    {
+        this.parquetWriterPageSize = parquetWriterPageSize;
+        return this;
+    }
+
     public enum HiveMetastoreAuthenticationType
     {
         NONE,
@@ -1106,4 +1214,47 @@ public class HiveClientConfig
         this.collectColumnStatisticsOnWrite = collectColumnStatisticsOnWrite;
         return this;
     }
+
+    @NotNull
+    public List<String> getFileStatusCacheTables()
+    {
+        return fileStatusCacheTables;
+    }
+
+    @Config("hive.file-status-cache-tables")
+    @ConfigDescription("Comma separated list of tables (schema.table or schema.*) whose directory listings are cached")
+    public HiveClientConfig setFileStatusCacheTables(String fileStatusCacheTables)
+    {
+        this.fileStatusCacheTables = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(fileStatusCacheTables);
+        return this;
+    }
+
+    @Min(1)
+    public long getFileStatusCacheMaxSize()
+    {
+        return fileStatusCacheMaxSize;
+    }
+
+    @Config("hive.file-status-cache-size")
+    @ConfigDescription("Maximum number of file statuses held in the directory listing cache")
+    public HiveClientConfig setFileStatusCacheMaxSize(long fileStatusCacheMaxSize)
+    {
+        this.fileStatusCacheMaxSize = fileStatusCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("0ms")
+    public Duration getFileStatusCacheExpireAfterWrite()
+    {
+        return fileStatusCacheExpireAfterWrite;
+    }
+
+    @Config("hive.file-status-cache-expire-time")
+    @ConfigDescription("Time after which a cached directory listing is reloaded from the file system")
+    public HiveClientConfig setFileStatusCacheExpireAfterWrite(Duration fileStatusCacheExpireAfterWrite)
+    {
+        this.fileStatusCacheExpireAfterWrite = fileStatusCacheExpireAfterWrite;
+        return this;
+    }
 }
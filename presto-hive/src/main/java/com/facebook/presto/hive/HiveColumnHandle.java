@@ -19,7 +19,9 @@ import com.facebook.presto.spi.type.TypeManager;
 import com.facebook.presto.spi.type.TypeSignature;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -30,6 +32,7 @@ import static com.facebook.presto.hive.HiveType.HIVE_LONG;
 import static com.facebook.presto.hive.HiveType.HIVE_STRING;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 
 public class HiveColumnHandle
@@ -60,6 +63,19 @@ public class HiveColumnHandle
     private final int hiveColumnIndex;
     private final ColumnType columnType;
     private final Optional<String> comment;
+    // paths of the nested fields of a struct column that are read, or empty to read the whole column
+    private final List<List<String>> nestedFields;
+
+    public HiveColumnHandle(
+            String name,
+            HiveType hiveType,
+            TypeSignature typeSignature,
+            int hiveColumnIndex,
+            ColumnType columnType,
+            Optional<String> comment)
+    {
+        this(name, hiveType, typeSignature, hiveColumnIndex, columnType, comment, ImmutableList.of());
+    }
 
     @JsonCreator
     public HiveColumnHandle(
@@ -68,7 +84,8 @@ public class HiveColumnHandle
             @JsonProperty("typeSignature") TypeSignature typeSignature,
             @JsonProperty("hiveColumnIndex") int hiveColumnIndex,
             @JsonProperty("columnType") ColumnType columnType,
-            @JsonProperty("comment") Optional<String> comment)
+            @JsonProperty("comment") Optional<String> comment,
+            @JsonProperty("nestedFields") List<List<String>> nestedFields)
     {
         this.name = requireNonNull(name, "name is null");
         checkArgument(hiveColumnIndex >= 0 || columnType == PARTITION_KEY || columnType == SYNTHESIZED, "hiveColumnIndex is negative");
@@ -77,6 +94,9 @@ public class HiveColumnHandle
         this.typeName = requireNonNull(typeSignature, "type is null");
         this.columnType = requireNonNull(columnType, "columnType is null");
         this.comment = requireNonNull(comment, "comment is null");
+        this.nestedFields = requireNonNull(nestedFields, "nestedFields is null").stream()
+                .map(ImmutableList::copyOf)
+                .collect(toImmutableList());
     }
 
     @JsonProperty
@@ -130,10 +150,25 @@ public class HiveColumnHandle
         return columnType;
     }
 
+    /**
+     * Paths of the nested fields of a struct column that are read. The other fields of the
+     * struct may be returned as null. Empty if the whole column is read.
+     */
+    @JsonProperty
+    public List<List<String>> getNestedFields()
+    {
+        return nestedFields;
+    }
+
+    public HiveColumnHandle withNestedFields(List<List<String>> nestedFields)
+    {
+        return new HiveColumnHandle(name, hiveType, typeName, hiveColumnIndex, columnType, comment, nestedFields);
+    }
+
     @Override
     public int hashCode()
     {
-        return Objects.hash(name, hiveColumnIndex, hiveType, columnType, comment);
+        return Objects.hash(name, hiveColumnIndex, hiveType, columnType, comment, nestedFields);
     }
 
     @Override
@@ -150,12 +185,16 @@ public class HiveColumnHandle
                 Objects.equals(this.hiveColumnIndex, other.hiveColumnIndex) &&
                 Objects.equals(this.hiveType, other.hiveType) &&
                 Objects.equals(this.columnType, other.columnType) &&
-                Objects.equals(this.comment, other.comment);
+                Objects.equals(this.comment, other.comment) &&
+                Objects.equals(this.nestedFields, other.nestedFields);
     }
 
     @Override
     public String toString()
     {
+        if (!nestedFields.isEmpty()) {
+            return name + ":" + hiveType + ":" + hiveColumnIndex + ":" + columnType + ":" + nestedFields;
+        }
         return name + ":" + hiveType + ":" + hiveColumnIndex + ":" + columnType;
     }
 
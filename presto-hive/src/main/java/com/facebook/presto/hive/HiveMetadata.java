@@ -24,6 +24,7 @@ import com.facebook.presto.hive.metastore.Partition;
 import com.facebook.presto.hive.metastore.PrincipalPrivileges;
 import com.facebook.presto.hive.metastore.SemiTransactionalHiveMetastore;
 import com.facebook.presto.hive.metastore.SortingColumn;
+import com.facebook.presto.hive.metastore.Storage;
 import com.facebook.presto.hive.metastore.StorageFormat;
 import com.facebook.presto.hive.metastore.Table;
 import com.facebook.presto.hive.statistics.HiveStatisticsProvider;
@@ -79,6 +80,8 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import io.airlift.json.JsonCodec;
 import io.airlift.slice.Slice;
 import org.apache.hadoop.fs.Path;
@@ -101,6 +104,7 @@ import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -123,6 +127,7 @@ import static com.facebook.presto.hive.HiveErrorCode.HIVE_TIMEZONE_MISMATCH;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNKNOWN_ERROR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNSUPPORTED_FORMAT;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_CLOSE_ERROR;
+import static com.facebook.presto.hive.HivePartition.UNPARTITIONED_ID;
 import static com.facebook.presto.hive.HivePartitionManager.extractPartitionKeyValues;
 import static com.facebook.presto.hive.HiveSessionProperties.getHiveStorageFormat;
 import static com.facebook.presto.hive.HiveSessionProperties.isBucketExecutionEnabled;
@@ -190,6 +195,7 @@ import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Streams.stream;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyList;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Function.identity;
@@ -198,6 +204,7 @@ import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 import static org.apache.hadoop.hive.metastore.TableType.EXTERNAL_TABLE;
 import static org.apache.hadoop.hive.metastore.TableType.MANAGED_TABLE;
+import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Category.STRUCT;
 
 public class HiveMetadata
         implements TransactionalMetadata
@@ -223,6 +230,7 @@ public class HiveMetadata
     private final JsonCodec<PartitionUpdate> partitionUpdateCodec;
     private final boolean writesToNonManagedTablesEnabled;
     private final boolean createsOfNonManagedTablesEnabled;
+    private final boolean immutablePartitions;
     private final TypeTranslator typeTranslator;
     private final String prestoVersion;
     private final HiveStatisticsProvider hiveStatisticsProvider;
@@ -236,6 +244,7 @@ public class HiveMetadata
             boolean allowCorruptWritesForTesting,
             boolean writesToNonManagedTablesEnabled,
             boolean createsOfNonManagedTablesEnabled,
+            boolean immutablePartitions,
             TypeManager typeManager,
             LocationService locationService,
             TableParameterCodec tableParameterCodec,
@@ -257,6 +266,7 @@ public class HiveMetadata
         this.partitionUpdateCodec = requireNonNull(partitionUpdateCodec, "partitionUpdateCodec is null");
         this.writesToNonManagedTablesEnabled = writesToNonManagedTablesEnabled;
         this.createsOfNonManagedTablesEnabled = createsOfNonManagedTablesEnabled;
+        this.immutablePartitions = immutablePartitions;
         this.typeTranslator = requireNonNull(typeTranslator, "typeTranslator is null");
         this.prestoVersion = requireNonNull(prestoVersion, "prestoVersion is null");
         this.hiveStatisticsProvider = requireNonNull(hiveStatisticsProvider, "hiveStatisticsProvider is null");
@@ -466,6 +476,52 @@ public class HiveMetadata
         return Optional.empty();
     }
 
+    @Override
+    public Optional<String> getTableLayoutVersion(ConnectorSession session, ConnectorTableLayoutHandle layoutHandle)
+    {
+        // without immutable partitions, files can be added to a partition or an unpartitioned table without any change in the metastore
+        HiveTableLayoutHandle hiveLayoutHandle = (HiveTableLayoutHandle) layoutHandle;
+        if (!immutablePartitions || !hiveLayoutHandle.getPartitions().isPresent()) {
+            return Optional.empty();
+        }
+
+        SchemaTableName tableName = hiveLayoutHandle.getSchemaTableName();
+        Optional<Table> table = metastore.getTable(tableName.getSchemaName(), tableName.getTableName());
+        if (!table.isPresent()) {
+            return Optional.empty();
+        }
+
+        // a partition or table that is dropped and written again has a new DDL time in its parameters
+        Hasher hasher = Hashing.sha256().newHasher();
+        hashStorageVersion(hasher, table.get().getStorage(), table.get().getParameters());
+
+        List<String> partitionNames = hiveLayoutHandle.getPartitions().get().stream()
+                .map(HivePartition::getPartitionId)
+                .filter(partitionName -> !partitionName.equals(UNPARTITIONED_ID))
+                .collect(toImmutableList());
+        if (!partitionNames.isEmpty()) {
+            Map<String, Optional<Partition>> partitions = metastore.getPartitionsByNames(tableName.getSchemaName(), tableName.getTableName(), partitionNames);
+            for (String partitionName : partitionNames) {
+                Optional<Partition> partition = partitions.getOrDefault(partitionName, Optional.empty());
+                if (!partition.isPresent()) {
+                    return Optional.empty();
+                }
+                hasher.putString(partitionName, UTF_8);
+                hashStorageVersion(hasher, partition.get().getStorage(), partition.get().getParameters());
+            }
+        }
+        return Optional.of(hasher.hash().toString());
+    }
+
+    private static void hashStorageVersion(Hasher hasher, Storage storage, Map<String, String> parameters)
+    {
+        hasher.putString(storage.getLocation(), UTF_8);
+        new TreeMap<>(parameters).forEach((key, value) -> {
+            hasher.putString(key, UTF_8);
+            hasher.putString(value, UTF_8);
+        });
+    }
+
     @Override
     public List<SchemaTableName> listTables(ConnectorSession session, String schemaNameOrNull)
     {
@@ -577,6 +633,16 @@ public class HiveMetadata
         return ((HiveColumnHandle) columnHandle).getColumnMetadata(typeManager);
     }
 
+    @Override
+    public Optional<ColumnHandle> pruneNestedFields(ConnectorSession session, ConnectorTableHandle tableHandle, ColumnHandle columnHandle, List<List<String>> fieldPaths)
+    {
+        HiveColumnHandle column = (HiveColumnHandle) columnHandle;
+        if (column.getColumnType() != REGULAR || column.getHiveType().getCategory() != STRUCT) {
+            return Optional.empty();
+        }
+        return Optional.of(column.withNestedFields(fieldPaths));
+    }
+
     @Override
     public void createSchema(ConnectorSession session, String schemaName, Map<String, Object> properties)
     {
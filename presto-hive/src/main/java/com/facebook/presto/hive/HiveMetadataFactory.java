@@ -39,10 +39,12 @@ public class HiveMetadataFactory
     private final boolean skipDeletionForAlter;
     private final boolean writesToNonManagedTablesEnabled;
     private final boolean createsOfNonManagedTablesEnabled;
+    private final boolean immutablePartitions;
     private final long perTransactionCacheMaximumSize;
     private final int maxPartitions;
     private final ExtendedHiveMetastore metastore;
     private final HdfsEnvironment hdfsEnvironment;
+    private final DirectoryLister directoryLister;
     private final HivePartitionManager partitionManager;
     private final DateTimeZone timeZone;
     private final TypeManager typeManager;
@@ -59,6 +61,7 @@ public class HiveMetadataFactory
             HiveClientConfig hiveClientConfig,
             ExtendedHiveMetastore metastore,
             HdfsEnvironment hdfsEnvironment,
+            DirectoryLister directoryLister,
             HivePartitionManager partitionManager,
             @ForHiveClient ExecutorService executorService,
             TypeManager typeManager,
@@ -71,6 +74,7 @@ public class HiveMetadataFactory
         this(
                 metastore,
                 hdfsEnvironment,
+                directoryLister,
                 partitionManager,
                 hiveClientConfig.getDateTimeZone(),
                 hiveClientConfig.getMaxConcurrentFileRenames(),
@@ -78,6 +82,7 @@ public class HiveMetadataFactory
                 hiveClientConfig.isSkipDeletionForAlter(),
                 hiveClientConfig.getWritesToNonManagedTablesEnabled(),
                 hiveClientConfig.getCreatesOfNonManagedTablesEnabled(),
+                hiveClientConfig.isImmutablePartitions(),
                 hiveClientConfig.getPerTransactionMetastoreCacheMaximumSize(),
                 hiveClientConfig.getMaxPartitionsPerScan(),
                 typeManager,
@@ -92,6 +97,7 @@ public class HiveMetadataFactory
     public HiveMetadataFactory(
             ExtendedHiveMetastore metastore,
             HdfsEnvironment hdfsEnvironment,
+            DirectoryLister directoryLister,
             HivePartitionManager partitionManager,
             DateTimeZone timeZone,
             int maxConcurrentFileRenames,
@@ -99,6 +105,7 @@ public class HiveMetadataFactory
             boolean skipDeletionForAlter,
             boolean writesToNonManagedTablesEnabled,
             boolean createsOfNonManagedTablesEnabled,
+            boolean immutablePartitions,
             long perTransactionCacheMaximumSize,
             int maxPartitions,
             TypeManager typeManager,
@@ -113,10 +120,12 @@ public class HiveMetadataFactory
         this.skipDeletionForAlter = skipDeletionForAlter;
         this.writesToNonManagedTablesEnabled = writesToNonManagedTablesEnabled;
         this.createsOfNonManagedTablesEnabled = createsOfNonManagedTablesEnabled;
+        this.immutablePartitions = immutablePartitions;
         this.perTransactionCacheMaximumSize = perTransactionCacheMaximumSize;
 
         this.metastore = requireNonNull(metastore, "metastore is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.directoryLister = requireNonNull(directoryLister, "directoryLister is null");
         this.partitionManager = requireNonNull(partitionManager, "partitionManager is null");
         this.timeZone = requireNonNull(timeZone, "timeZone is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
@@ -142,6 +151,7 @@ public class HiveMetadataFactory
     {
         SemiTransactionalHiveMetastore metastore = new SemiTransactionalHiveMetastore(
                 hdfsEnvironment,
+                directoryLister,
                 CachingHiveMetastore.memoizeMetastore(this.metastore, perTransactionCacheMaximumSize), // per-transaction cache
                 renameExecution,
                 skipDeletionForAlter);
@@ -154,6 +164,7 @@ public class HiveMetadataFactory
                 allowCorruptWritesForTesting,
                 writesToNonManagedTablesEnabled,
                 createsOfNonManagedTablesEnabled,
+                immutablePartitions,
                 typeManager,
                 locationService,
                 tableParameterCodec,
@@ -623,6 +623,10 @@ public class HivePageSource
                 return;
             }
 
+            Optional<int[]> selectedPositions = lazyBlock.getSelectedPositions();
+            if (selectedPositions.isPresent() && block instanceof LazyBlock && !((LazyBlock) block).isLoaded()) {
+                ((LazyBlock) block).setSelectedPositions(selectedPositions.get(), 0, selectedPositions.get().length);
+            }
             lazyBlock.setBlock(coercer.apply(block.getLoadedBlock()));
 
             // clear reference to loader to free resources, since load was successful
@@ -649,6 +653,15 @@ public class HivePageSource
                 return;
             }
 
+            Optional<int[]> selectedPositions = lazyBlock.getSelectedPositions();
+            if (selectedPositions.isPresent() && block instanceof LazyBlock && !((LazyBlock) block).isLoaded()) {
+                // map the selected positions to the positions of the rows to keep in the source block
+                int[] sourcePositions = new int[selectedPositions.get().length];
+                for (int i = 0; i < sourcePositions.length; i++) {
+                    sourcePositions[i] = rowsToKeep.getInt(selectedPositions.get()[i]);
+                }
+                ((LazyBlock) block).setSelectedPositions(sourcePositions, 0, sourcePositions.length);
+            }
             lazyBlock.setBlock(block.getPositions(rowsToKeep.elements(), 0, rowsToKeep.size()));
 
             // clear reference to loader to free resources, since load was successful
@@ -32,6 +32,7 @@ import static com.facebook.presto.spi.session.PropertyMetadata.booleanProperty;
 import static com.facebook.presto.spi.session.PropertyMetadata.doubleProperty;
 import static com.facebook.presto.spi.session.PropertyMetadata.integerProperty;
 import static com.facebook.presto.spi.session.PropertyMetadata.stringProperty;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.spi.type.VarcharType.createUnboundedVarcharType;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -50,6 +51,7 @@ public final class HiveSessionProperties
     private static final String ORC_TINY_STRIPE_THRESHOLD = "orc_tiny_stripe_threshold";
     private static final String ORC_MAX_READ_BLOCK_SIZE = "orc_max_read_block_size";
     private static final String ORC_LAZY_READ_SMALL_RANGES = "orc_lazy_read_small_ranges";
+    private static final String ORC_SELECTIVE_READING_ENABLED = "orc_selective_reading_enabled";
     private static final String ORC_STRING_STATISTICS_LIMIT = "orc_string_statistics_limit";
     private static final String ORC_OPTIMIZED_WRITER_ENABLED = "orc_optimized_writer_enabled";
     private static final String ORC_OPTIMIZED_WRITER_VALIDATE = "orc_optimized_writer_validate";
@@ -64,6 +66,10 @@ public final class HiveSessionProperties
     private static final String PARQUET_PREDICATE_PUSHDOWN_ENABLED = "parquet_predicate_pushdown_enabled";
     private static final String PARQUET_OPTIMIZED_READER_ENABLED = "parquet_optimized_reader_enabled";
     private static final String PARQUET_USE_COLUMN_NAME = "parquet_use_column_names";
+    private static final String PARQUET_OPTIMIZED_WRITER_ENABLED = "parquet_optimized_writer_enabled";
+    private static final String PARQUET_OPTIMIZED_WRITER_VALIDATE = "parquet_optimized_writer_validate";
+    private static final String PARQUET_WRITER_BLOCK_SIZE = "parquet_writer_block_size";
+    private static final String PARQUET_WRITER_PAGE_SIZE = "parquet_writer_page_size";
     private static final String MAX_SPLIT_SIZE = "max_split_size";
     private static final String MAX_INITIAL_SPLIT_SIZE = "max_initial_split_size";
     public static final String RCFILE_OPTIMIZED_WRITER_ENABLED = "rcfile_optimized_writer_enabled";
@@ -72,6 +78,7 @@ public final class HiveSessionProperties
     private static final String STATISTICS_ENABLED = "statistics_enabled";
     private static final String PARTITION_STATISTICS_SAMPLE_SIZE = "partition_statistics_sample_size";
     private static final String COLLECT_COLUMN_STATISTICS_ON_WRITE = "collect_column_statistics_on_write";
+    private static final String SPLIT_LOADER_CONCURRENCY = "split_loader_concurrency";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -151,6 +158,11 @@ public final class HiveSessionProperties
                         "Experimental: ORC: Read small file segments lazily",
                         hiveClientConfig.isOrcLazyReadSmallRanges(),
                         false),
+                booleanProperty(
+                        ORC_SELECTIVE_READING_ENABLED,
+                        "ORC: Decode only the values of the rows selected by the filter for columns not used in the filter",
+                        hiveClientConfig.isOrcSelectiveReadingEnabled(),
+                        false),
                 dataSizeSessionProperty(
                         ORC_STRING_STATISTICS_LIMIT,
                         "ORC: Maximum size of string statistics; drop if exceeding",
@@ -221,6 +233,26 @@ public final class HiveSessionProperties
                         "Experimental: Parquet: Access Parquet columns using names from the file",
                         hiveClientConfig.isUseParquetColumnNames(),
                         false),
+                booleanProperty(
+                        PARQUET_OPTIMIZED_WRITER_ENABLED,
+                        "Experimental: Parquet: Enable optimized writer",
+                        hiveClientConfig.isParquetOptimizedWriterEnabled(),
+                        false),
+                booleanProperty(
+                        PARQUET_OPTIMIZED_WRITER_VALIDATE,
+                        "Experimental: Parquet: Validate writer files",
+                        hiveClientConfig.isParquetOptimizedWriterValidate(),
+                        false),
+                dataSizeSessionProperty(
+                        PARQUET_WRITER_BLOCK_SIZE,
+                        "Experimental: Parquet: Writer block (row group) size",
+                        hiveClientConfig.getParquetWriterBlockSize(),
+                        false),
+                dataSizeSessionProperty(
+                        PARQUET_WRITER_PAGE_SIZE,
+                        "Experimental: Parquet: Writer page size",
+                        hiveClientConfig.getParquetWriterPageSize(),
+                        false),
                 dataSizeSessionProperty(
                         MAX_SPLIT_SIZE,
                         "Max split size",
@@ -260,7 +292,16 @@ public final class HiveSessionProperties
                         COLLECT_COLUMN_STATISTICS_ON_WRITE,
                         "Experimental: Enables automatic column level statistics collection on write",
                         hiveClientConfig.isCollectColumnStatisticsOnWrite(),
-                        false));
+                        false),
+                new PropertyMetadata<>(
+                        SPLIT_LOADER_CONCURRENCY,
+                        "Number of partitions listed concurrently by the split loader of a table scan",
+                        INTEGER,
+                        Integer.class,
+                        hiveClientConfig.getSplitLoaderConcurrency(),
+                        false,
+                        value -> validateSplitLoaderConcurrency(((Number) value).intValue(), hiveClientConfig.getMaxSplitIteratorThreads()),
+                        object -> object));
     }
 
     public List<PropertyMetadata<?>> getSessionProperties()
@@ -323,6 +364,11 @@ public final class HiveSessionProperties
         return session.getProperty(ORC_LAZY_READ_SMALL_RANGES, Boolean.class);
     }
 
+    public static boolean isOrcSelectiveReadingEnabled(ConnectorSession session)
+    {
+        return session.getProperty(ORC_SELECTIVE_READING_ENABLED, Boolean.class);
+    }
+
     public static DataSize getOrcStringStatisticsLimit(ConnectorSession session)
     {
         return session.getProperty(ORC_STRING_STATISTICS_LIMIT, DataSize.class);
@@ -398,6 +444,26 @@ public final class HiveSessionProperties
         return session.getProperty(PARQUET_USE_COLUMN_NAME, Boolean.class);
     }
 
+    public static boolean isParquetOptimizedWriterEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_OPTIMIZED_WRITER_ENABLED, Boolean.class);
+    }
+
+    public static boolean isParquetOptimizedWriterValidate(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_OPTIMIZED_WRITER_VALIDATE, Boolean.class);
+    }
+
+    public static DataSize getParquetWriterBlockSize(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_WRITER_BLOCK_SIZE, DataSize.class);
+    }
+
+    public static DataSize getParquetWriterPageSize(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_WRITER_PAGE_SIZE, DataSize.class);
+    }
+
     public static DataSize getMaxSplitSize(ConnectorSession session)
     {
         return session.getProperty(MAX_SPLIT_SIZE, DataSize.class);
@@ -442,6 +508,28 @@ public final class HiveSessionProperties
         return session.getProperty(COLLECT_COLUMN_STATISTICS_ON_WRITE, Boolean.class);
     }
 
+    public static int getSplitLoaderConcurrency(ConnectorSession session)
+    {
+        int concurrency = session.getProperty(SPLIT_LOADER_CONCURRENCY, Integer.class);
+        if (concurrency < 1) {
+            throw new PrestoException(INVALID_SESSION_PROPERTY, format("%s must be greater than 0: %s", SPLIT_LOADER_CONCURRENCY, concurrency));
+        }
+        return concurrency;
+    }
+
+    private static int validateSplitLoaderConcurrency(int concurrency, int maxSplitIteratorThreads)
+    {
+        if (concurrency < 1) {
+            throw new PrestoException(INVALID_SESSION_PROPERTY, format("%s must be greater than 0: %s", SPLIT_LOADER_CONCURRENCY, concurrency));
+        }
+        if (concurrency > maxSplitIteratorThreads) {
+            throw new PrestoException(
+                    INVALID_SESSION_PROPERTY,
+                    format("%s must not be greater than hive.max-split-iterator-threads (%s): %s", SPLIT_LOADER_CONCURRENCY, maxSplitIteratorThreads, concurrency));
+        }
+        return concurrency;
+    }
+
     public static PropertyMetadata<DataSize> dataSizeSessionProperty(String name, String description, DataSize defaultValue, boolean hidden)
     {
         return new PropertyMetadata<>(
@@ -30,6 +30,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
 import io.airlift.stats.CounterStat;
 import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
 
 import java.io.FileNotFoundException;
 import java.util.List;
@@ -86,6 +87,7 @@ class HiveSplitSource
     private final AtomicInteger remainingInitialSplits;
 
     private final HiveSplitLoader splitLoader;
+    private final Predicate<String> dynamicPartitionFilter;
     private final AtomicReference<State> stateReference;
 
     private final AtomicLong estimatedSplitSizeInBytes = new AtomicLong();
@@ -93,6 +95,10 @@ class HiveSplitSource
     private final CounterStat highMemorySplitSourceCounter;
     private final AtomicBoolean loggedHighMemoryWarning = new AtomicBoolean();
 
+    private final HiveSplitSourceStats stats;
+    private final long createNanos = System.nanoTime();
+    private final AtomicLong loadedSplitCount = new AtomicLong();
+
     private HiveSplitSource(
             ConnectorSession session,
             String databaseName,
@@ -102,8 +108,10 @@ class HiveSplitSource
             int maxInitialSplits,
             DataSize maxOutstandingSplitsSize,
             HiveSplitLoader splitLoader,
+            Predicate<String> dynamicPartitionFilter,
             AtomicReference<State> stateReference,
-            CounterStat highMemorySplitSourceCounter)
+            CounterStat highMemorySplitSourceCounter,
+            HiveSplitSourceStats stats)
     {
         requireNonNull(session, "session is null");
         this.queryId = session.getQueryId();
@@ -113,8 +121,10 @@ class HiveSplitSource
         this.queues = requireNonNull(queues, "queues is null");
         this.maxOutstandingSplitsBytes = toIntExact(maxOutstandingSplitsSize.toBytes());
         this.splitLoader = requireNonNull(splitLoader, "splitLoader is null");
+        this.dynamicPartitionFilter = requireNonNull(dynamicPartitionFilter, "dynamicPartitionFilter is null");
         this.stateReference = requireNonNull(stateReference, "stateReference is null");
         this.highMemorySplitSourceCounter = requireNonNull(highMemorySplitSourceCounter, "highMemorySplitSourceCounter is null");
+        this.stats = requireNonNull(stats, "stats is null");
 
         this.maxSplitSize = getMaxSplitSize(session);
         this.maxInitialSplitSize = getMaxInitialSplitSize(session);
@@ -130,8 +140,10 @@ class HiveSplitSource
             int maxOutstandingSplits,
             DataSize maxOutstandingSplitsSize,
             HiveSplitLoader splitLoader,
+            Predicate<String> dynamicPartitionFilter,
             Executor executor,
-            CounterStat highMemorySplitSourceCounter)
+            CounterStat highMemorySplitSourceCounter,
+            HiveSplitSourceStats stats)
     {
         AtomicReference<State> stateReference = new AtomicReference<>(State.initial());
         return new HiveSplitSource(
@@ -173,8 +185,10 @@ class HiveSplitSource
                 maxInitialSplits,
                 maxOutstandingSplitsSize,
                 splitLoader,
+                dynamicPartitionFilter,
                 stateReference,
-                highMemorySplitSourceCounter);
+                highMemorySplitSourceCounter,
+                stats);
     }
 
     public static HiveSplitSource bucketed(
@@ -186,8 +200,10 @@ class HiveSplitSource
             int maxInitialSplits,
             DataSize maxOutstandingSplitsSize,
             HiveSplitLoader splitLoader,
+            Predicate<String> dynamicPartitionFilter,
             Executor executor,
-            CounterStat highMemorySplitSourceCounter)
+            CounterStat highMemorySplitSourceCounter,
+            HiveSplitSourceStats stats)
     {
         AtomicReference<State> stateReference = new AtomicReference<>(State.initial());
         return new HiveSplitSource(
@@ -249,8 +265,10 @@ class HiveSplitSource
                 maxInitialSplits,
                 maxOutstandingSplitsSize,
                 splitLoader,
+                dynamicPartitionFilter,
                 stateReference,
-                highMemorySplitSourceCounter);
+                highMemorySplitSourceCounter,
+                stats);
     }
 
     /**
@@ -291,6 +309,9 @@ class HiveSplitSource
                     databaseName, tableName, succinctBytes(maxOutstandingSplitsBytes), getBufferedInternalSplitCount()));
         }
         bufferedInternalSplitCount.incrementAndGet();
+        if (loadedSplitCount.getAndIncrement() == 0) {
+            stats.firstSplitLoaded(Duration.nanosSince(createNanos));
+        }
         OptionalInt bucketNumber = split.getBucketNumber();
         return queues.offer(bucketNumber, split);
     }
@@ -298,6 +319,8 @@ class HiveSplitSource
     void noMoreSplits()
     {
         if (setIf(stateReference, State.noMoreSplits(), state -> state.getKind() == INITIAL)) {
+            stats.splitLoadingFinished(loadedSplitCount.get(), Duration.nanosSince(createNanos));
+
             // Stop the split loader before finishing the queue.
             // Once the queue is finished, it will always return a completed future to avoid blocking any caller.
             // This could lead to a short period of busy loop in splitLoader (although unlikely in general setup).
@@ -346,6 +369,12 @@ class HiveSplitSource
             ImmutableList.Builder<ConnectorSplit> resultBuilder = ImmutableList.builder();
             int removedEstimatedSizeInBytes = 0;
             for (InternalHiveSplit internalSplit : internalSplits) {
+                // skip the splits of the partitions that do not match the dynamic filter collected so far
+                if (!dynamicPartitionFilter.test(internalSplit.getPartitionName())) {
+                    removedEstimatedSizeInBytes += internalSplit.getEstimatedSizeInBytes();
+                    continue;
+                }
+
                 long maxSplitBytes = maxSplitSize.toBytes();
                 if (remainingInitialSplits.get() > 0) {
                     if (remainingInitialSplits.getAndDecrement() > 0) {
@@ -369,6 +398,7 @@ class HiveSplitSource
                         internalSplit.getStart(),
                         splitBytes,
                         internalSplit.getFileSize(),
+                        internalSplit.getFileModifiedTime(),
                         internalSplit.getSchema(),
                         internalSplit.getPartitionKeys(),
                         block.getAddresses(),
@@ -390,7 +420,7 @@ class HiveSplitSource
 
             List<InternalHiveSplit> splitsToInsert = splitsToInsertBuilder.build();
             List<ConnectorSplit> result = resultBuilder.build();
-            bufferedInternalSplitCount.addAndGet(splitsToInsert.size() - result.size());
+            bufferedInternalSplitCount.addAndGet(splitsToInsert.size() - internalSplits.size());
 
             return new AsyncQueue.BorrowResult<>(splitsToInsert, result);
         });
@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import io.airlift.stats.DistributionStat;
+import io.airlift.stats.TimeStat;
+import io.airlift.units.Duration;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class HiveSplitSourceStats
+{
+    private final TimeStat timeToFirstSplit = new TimeStat(TimeUnit.MILLISECONDS);
+    private final DistributionStat splitsPerSecond = new DistributionStat();
+
+    public void firstSplitLoaded(Duration elapsed)
+    {
+        timeToFirstSplit.add(elapsed);
+    }
+
+    public void splitLoadingFinished(long splitCount, Duration elapsed)
+    {
+        double seconds = elapsed.getValue(SECONDS);
+        if (splitCount > 0 && seconds > 0) {
+            splitsPerSecond.add(Math.round(splitCount / seconds));
+        }
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getTimeToFirstSplit()
+    {
+        return timeToFirstSplit;
+    }
+
+    @Managed
+    @Nested
+    public DistributionStat getSplitsPerSecond()
+    {
+        return splitsPerSecond;
+    }
+}
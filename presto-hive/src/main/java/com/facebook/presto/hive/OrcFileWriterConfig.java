@@ -17,10 +17,13 @@ import com.facebook.presto.orc.OrcWriterOptions;
 import io.airlift.configuration.Config;
 import io.airlift.units.DataSize;
 
+import javax.validation.constraints.Min;
+
 @SuppressWarnings("unused")
 public class OrcFileWriterConfig
 {
     private OrcWriterOptions options = new OrcWriterOptions();
+    private int encodingThreads = Runtime.getRuntime().availableProcessors();
 
     public OrcWriterOptions toOrcWriterOptions()
     {
@@ -110,4 +113,41 @@ public class OrcFileWriterConfig
         options = options.withMaxCompressionBufferSize(maxCompressionBufferSize);
         return this;
     }
+
+    public int getEncodingParallelism()
+    {
+        return options.getEncodingParallelism();
+    }
+
+    @Config("hive.orc.writer.encoding-parallelism")
+    public OrcFileWriterConfig setEncodingParallelism(int encodingParallelism)
+    {
+        options = options.withEncodingParallelism(encodingParallelism);
+        return this;
+    }
+
+    @Min(1)
+    public int getEncodingThreads()
+    {
+        return encodingThreads;
+    }
+
+    @Config("hive.orc.writer.encoding-threads")
+    public OrcFileWriterConfig setEncodingThreads(int encodingThreads)
+    {
+        this.encodingThreads = encodingThreads;
+        return this;
+    }
+
+    public boolean isPipelinedStripeFlush()
+    {
+        return options.isPipelinedStripeFlush();
+    }
+
+    @Config("hive.orc.writer.pipelined-stripe-flush")
+    public OrcFileWriterConfig setPipelinedStripeFlush(boolean pipelinedStripeFlush)
+    {
+        options = options.withPipelinedStripeFlush(pipelinedStripeFlush);
+        return this;
+    }
 }
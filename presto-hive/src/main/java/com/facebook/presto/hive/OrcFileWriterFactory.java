@@ -45,6 +45,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_UNSUPPORTED_FORMAT;
@@ -62,6 +64,7 @@ import static com.facebook.presto.hive.HiveSessionProperties.getOrcStringStatist
 import static com.facebook.presto.hive.HiveType.toHiveTypes;
 import static com.facebook.presto.orc.OrcEncoding.DWRF;
 import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
@@ -78,6 +81,7 @@ public class OrcFileWriterFactory
     private final FileFormatDataSourceStats readStats;
     private final OrcWriterStats stats = new OrcWriterStats();
     private final OrcWriterOptions orcWriterOptions;
+    private final Executor executor;
 
     @Inject
     public OrcFileWriterFactory(
@@ -86,7 +90,8 @@ public class OrcFileWriterFactory
             NodeVersion nodeVersion,
             HiveClientConfig hiveClientConfig,
             FileFormatDataSourceStats readStats,
-            OrcFileWriterConfig config)
+            OrcFileWriterConfig config,
+            @ForOrcFileWriter ExecutorService executorService)
     {
         this(
                 hdfsEnvironment,
@@ -94,7 +99,8 @@ public class OrcFileWriterFactory
                 nodeVersion,
                 requireNonNull(hiveClientConfig, "hiveClientConfig is null").getDateTimeZone(),
                 readStats,
-                requireNonNull(config, "config is null").toOrcWriterOptions());
+                requireNonNull(config, "config is null").toOrcWriterOptions(),
+                executorService);
     }
 
     public OrcFileWriterFactory(
@@ -104,6 +110,18 @@ public class OrcFileWriterFactory
             DateTimeZone hiveStorageTimeZone,
             FileFormatDataSourceStats readStats,
             OrcWriterOptions orcWriterOptions)
+    {
+        this(hdfsEnvironment, typeManager, nodeVersion, hiveStorageTimeZone, readStats, orcWriterOptions, directExecutor());
+    }
+
+    public OrcFileWriterFactory(
+            HdfsEnvironment hdfsEnvironment,
+            TypeManager typeManager,
+            NodeVersion nodeVersion,
+            DateTimeZone hiveStorageTimeZone,
+            FileFormatDataSourceStats readStats,
+            OrcWriterOptions orcWriterOptions,
+            Executor executor)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
@@ -111,6 +129,7 @@ public class OrcFileWriterFactory
         this.hiveStorageTimeZone = requireNonNull(hiveStorageTimeZone, "hiveStorageTimeZone is null");
         this.readStats = requireNonNull(readStats, "stats is null");
         this.orcWriterOptions = requireNonNull(orcWriterOptions, "orcWriterOptions is null");
+        this.executor = requireNonNull(executor, "executor is null");
     }
 
     @Managed
@@ -207,7 +226,8 @@ public class OrcFileWriterFactory
                     hiveStorageTimeZone,
                     validationInputFactory,
                     getOrcOptimizedWriterValidateMode(session),
-                    stats));
+                    stats,
+                    executor));
         }
         catch (IOException e) {
             throw new PrestoException(HIVE_WRITER_OPEN_ERROR, "Error creating " + orcEncoding + " file", e);
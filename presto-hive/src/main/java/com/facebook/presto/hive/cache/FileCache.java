@@ -0,0 +1,315 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.facebook.presto.hive.HiveConnectorId;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.Path;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.inject.Inject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.hash.Hashing.murmur3_128;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Node-local cache of file data on local disk. Files are cached in fixed size blocks,
+ * identified by the file path, the file length, the file modification time and the block
+ * offset, so a rewritten file never hits stale blocks. Blocks are evicted in least recently
+ * used order once the cache exceeds its maximum size.
+ * <p>
+ * The index of cached blocks is kept in memory only, so the cache directory is emptied
+ * on startup.
+ */
+public class FileCache
+{
+    private static final Logger log = Logger.get(FileCache.class);
+
+    private final Optional<File> directory;
+    private final long maxSizeInBytes;
+    private final int blockSize;
+
+    @GuardedBy("this")
+    private final Map<String, Long> blocks = new LinkedHashMap<>(16, 0.75f, true);
+    @GuardedBy("this")
+    private long cachedBytes;
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat evictions = new CounterStat();
+    private final CounterStat failures = new CounterStat();
+
+    @Inject
+    public FileCache(FileCacheConfig config, HiveConnectorId connectorId)
+    {
+        this(
+                config.isEnabled() ? Optional.of(new File(config.getLocation(), connectorId.toString())) : Optional.empty(),
+                config.getMaxSize(),
+                config.getBlockSize());
+    }
+
+    @VisibleForTesting
+    public FileCache(Optional<File> directory, DataSize maxSize, DataSize blockSize)
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        this.maxSizeInBytes = requireNonNull(maxSize, "maxSize is null").toBytes();
+        this.blockSize = toIntExact(requireNonNull(blockSize, "blockSize is null").toBytes());
+        checkArgument(this.blockSize > 0, "blockSize must be positive");
+        directory.ifPresent(FileCache::initializeDirectory);
+    }
+
+    public static FileCache disabledFileCache()
+    {
+        return new FileCache(Optional.empty(), new DataSize(0, BYTE), new DataSize(1, MEGABYTE));
+    }
+
+    /**
+     * Returns a reader serving reads of the given file from the cache, and loading missing
+     * blocks through the delegate. Returns the delegate if the cache is disabled, or if the
+     * file system does not report a modification time for the file.
+     */
+    public FileRangeReader cached(Path path, long fileSize, long fileModifiedTime, FileRangeReader delegate)
+    {
+        requireNonNull(delegate, "delegate is null");
+        if (!directory.isPresent() || fileModifiedTime <= 0) {
+            return delegate;
+        }
+        String fileId = murmur3_128().hashString(path.toString(), UTF_8) + "-" + fileSize + "-" + fileModifiedTime;
+        return (position, buffer, offset, length) -> {
+            if (position < 0 || position + length > fileSize) {
+                delegate.readFully(position, buffer, offset, length);
+                return;
+            }
+            read(fileId, fileSize, position, buffer, offset, length, delegate);
+        };
+    }
+
+    private void read(String fileId, long fileSize, long position, byte[] buffer, int offset, int length, FileRangeReader delegate)
+            throws IOException
+    {
+        long end = position + length;
+
+        // consecutive missing blocks are loaded with a single read from the delegate
+        long missingStart = -1;
+        long missingEnd = -1;
+
+        long current = position;
+        while (current < end) {
+            long blockStart = current - (current % blockSize);
+            long blockEnd = min(blockStart + blockSize, fileSize);
+            int chunkLength = toIntExact(min(end, blockEnd) - current);
+            int bufferOffset = offset + toIntExact(current - position);
+
+            if (readCachedBlock(blockName(fileId, blockStart), toIntExact(current - blockStart), buffer, bufferOffset, chunkLength)) {
+                hits.update(1);
+                if (missingStart >= 0) {
+                    loadBlocks(fileId, missingStart, missingEnd, position, buffer, offset, length, delegate);
+                    missingStart = -1;
+                }
+            }
+            else {
+                misses.update(1);
+                if (missingStart < 0) {
+                    missingStart = blockStart;
+                }
+                missingEnd = blockEnd;
+            }
+            current = blockEnd;
+        }
+
+        if (missingStart >= 0) {
+            loadBlocks(fileId, missingStart, missingEnd, position, buffer, offset, length, delegate);
+        }
+    }
+
+    private boolean readCachedBlock(String name, int offsetInBlock, byte[] buffer, int bufferOffset, int length)
+    {
+        synchronized (this) {
+            // updates the access order
+            if (blocks.get(name) == null) {
+                return false;
+            }
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(new File(directory.get(), name), "r")) {
+            file.seek(offsetInBlock);
+            file.readFully(buffer, bufferOffset, length);
+            return true;
+        }
+        catch (IOException e) {
+            // the block was evicted concurrently, or the local disk failed
+            synchronized (this) {
+                Long size = blocks.remove(name);
+                if (size != null) {
+                    cachedBytes -= size;
+                }
+            }
+            return false;
+        }
+    }
+
+    private void loadBlocks(String fileId, long start, long end, long position, byte[] buffer, int offset, int length, FileRangeReader delegate)
+            throws IOException
+    {
+        byte[] data = new byte[toIntExact(end - start)];
+        delegate.readFully(start, data, 0, data.length);
+
+        long copyStart = max(start, position);
+        long copyEnd = min(end, position + length);
+        System.arraycopy(data, toIntExact(copyStart - start), buffer, offset + toIntExact(copyStart - position), toIntExact(copyEnd - copyStart));
+
+        for (long blockStart = start; blockStart < end; blockStart += blockSize) {
+            storeBlock(blockName(fileId, blockStart), data, toIntExact(blockStart - start), toIntExact(min(blockSize, end - blockStart)));
+        }
+    }
+
+    private void storeBlock(String name, byte[] data, int offset, int length)
+    {
+        File target = new File(directory.get(), name);
+        File temporary = new File(directory.get(), name + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (OutputStream output = new FileOutputStream(temporary)) {
+                output.write(data, offset, length);
+            }
+            Files.move(temporary.toPath(), target.toPath(), ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            failures.update(1);
+            log.warn(e, "Failed to store block %s in file cache", name);
+            temporary.delete();
+            return;
+        }
+
+        List<String> evicted;
+        synchronized (this) {
+            if (blocks.put(name, (long) length) == null) {
+                cachedBytes += length;
+            }
+            evicted = evict();
+        }
+        for (String evictedName : evicted) {
+            new File(directory.get(), evictedName).delete();
+        }
+    }
+
+    @GuardedBy("this")
+    private List<String> evict()
+    {
+        ImmutableList.Builder<String> evicted = ImmutableList.builder();
+        Iterator<Map.Entry<String, Long>> iterator = blocks.entrySet().iterator();
+        while (cachedBytes > maxSizeInBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            cachedBytes -= entry.getValue();
+            iterator.remove();
+            evictions.update(1);
+            evicted.add(entry.getKey());
+        }
+        return evicted.build();
+    }
+
+    private static String blockName(String fileId, long blockStart)
+    {
+        return fileId + "-" + blockStart;
+    }
+
+    private static void initializeDirectory(File directory)
+    {
+        try {
+            Files.createDirectories(directory.toPath());
+            File[] files = directory.listFiles();
+            if (files == null) {
+                throw new IOException("Cannot list " + directory);
+            }
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize file cache directory " + directory, e);
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return directory.isPresent();
+    }
+
+    @Managed
+    public synchronized long getCachedBytes()
+    {
+        return cachedBytes;
+    }
+
+    @Managed
+    public synchronized long getCachedBlocks()
+    {
+        return blocks.size();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEvictions()
+    {
+        return evictions;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getFailures()
+    {
+        return failures;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotNull;
+
+import java.io.File;
+
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class FileCacheConfig
+{
+    private boolean enabled;
+    private File location;
+    private DataSize maxSize = new DataSize(10, GIGABYTE);
+    private DataSize blockSize = new DataSize(1, MEGABYTE);
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Config("hive.file-cache.enabled")
+    @ConfigDescription("Cache ranges of ORC and Parquet files read from remote storage on local disk")
+    public FileCacheConfig setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+        return this;
+    }
+
+    public File getLocation()
+    {
+        return location;
+    }
+
+    @Config("hive.file-cache.location")
+    @ConfigDescription("Local directory used for cached file ranges")
+    public FileCacheConfig setLocation(File location)
+    {
+        this.location = location;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @Config("hive.file-cache.max-size")
+    @ConfigDescription("Maximum size of the local file cache, least recently used ranges are evicted first")
+    public FileCacheConfig setMaxSize(DataSize maxSize)
+    {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("4kB")
+    @MaxDataSize("64MB")
+    public DataSize getBlockSize()
+    {
+        return blockSize;
+    }
+
+    @Config("hive.file-cache.block-size")
+    @ConfigDescription("Size of the file blocks the cache stores and evicts")
+    public FileCacheConfig setBlockSize(DataSize blockSize)
+    {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    @AssertTrue(message = "hive.file-cache.location must be set when the file cache is enabled")
+    public boolean isLocationSetWhenEnabled()
+    {
+        return !enabled || location != null;
+    }
+}
@@ -28,6 +28,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.airlift.units.Duration;
 import org.weakref.jmx.Managed;
@@ -36,6 +37,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -43,8 +45,8 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_PARTITION_DROPPED_DURING_QUERY;
@@ -52,7 +54,6 @@ import static com.facebook.presto.hive.HiveUtil.toPartitionValues;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Throwables.throwIfInstanceOf;
-import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.cache.CacheLoader.asyncReloading;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
@@ -84,6 +85,9 @@ public class CachingHiveMetastore
     private final LoadingCache<HiveTableName, Optional<List<String>>> partitionNamesCache;
     private final LoadingCache<String, Set<String>> userRolesCache;
     private final LoadingCache<UserTableKey, Set<HivePrivilegeInfo>> userTablePrivileges;
+    private final CoalescingBatchLoader<HivePartitionName, Optional<Partition>> partitionLoader;
+    private final CoalescingBatchLoader<HivePartitionName, PartitionStatistics> partitionStatisticsLoader;
+    private final AtomicLong partitionInvalidations = new AtomicLong();
 
     @Inject
     public CachingHiveMetastore(@ForCachingHiveMetastore ExtendedHiveMetastore delegate, @ForCachingHiveMetastore ExecutorService executor, HiveClientConfig hiveClientConfig)
@@ -93,17 +97,28 @@ public class CachingHiveMetastore
                 executor,
                 hiveClientConfig.getMetastoreCacheTtl(),
                 hiveClientConfig.getMetastoreRefreshInterval(),
-                hiveClientConfig.getMetastoreCacheMaximumSize());
+                hiveClientConfig.getMetastoreCacheMaximumSize(),
+                hiveClientConfig.getPartitionFetchBatchSize(),
+                hiveClientConfig.getPartitionFetchConcurrency());
     }
 
-    public CachingHiveMetastore(ExtendedHiveMetastore delegate, ExecutorService executor, Duration cacheTtl, Duration refreshInterval, long maximumSize)
+    public CachingHiveMetastore(
+            ExtendedHiveMetastore delegate,
+            ExecutorService executor,
+            Duration cacheTtl,
+            Duration refreshInterval,
+            long maximumSize,
+            int partitionFetchBatchSize,
+            int partitionFetchConcurrency)
     {
         this(
                 delegate,
                 executor,
                 OptionalLong.of(cacheTtl.toMillis()),
                 refreshInterval.toMillis() >= cacheTtl.toMillis() ? OptionalLong.empty() : OptionalLong.of(refreshInterval.toMillis()),
-                maximumSize);
+                maximumSize,
+                partitionFetchBatchSize,
+                partitionFetchConcurrency);
     }
 
     public static CachingHiveMetastore memoizeMetastore(ExtendedHiveMetastore delegate, long maximumSize)
@@ -113,14 +128,37 @@ public class CachingHiveMetastore
                 newDirectExecutorService(),
                 OptionalLong.empty(),
                 OptionalLong.empty(),
-                maximumSize);
+                maximumSize,
+                Integer.MAX_VALUE,
+                1);
     }
 
-    private CachingHiveMetastore(ExtendedHiveMetastore delegate, ExecutorService executor, OptionalLong expiresAfterWriteMillis, OptionalLong refreshMills, long maximumSize)
+    private CachingHiveMetastore(
+            ExtendedHiveMetastore delegate,
+            ExecutorService executor,
+            OptionalLong expiresAfterWriteMillis,
+            OptionalLong refreshMills,
+            long maximumSize,
+            int partitionFetchBatchSize,
+            int partitionFetchConcurrency)
     {
         this.delegate = requireNonNull(delegate, "delegate is null");
         requireNonNull(executor, "executor is null");
 
+        partitionLoader = new CoalescingBatchLoader<>(
+                this::loadPartitionsByNames,
+                HivePartitionName::getHiveTableName,
+                partitionFetchBatchSize,
+                partitionFetchConcurrency,
+                executor);
+
+        partitionStatisticsLoader = new CoalescingBatchLoader<>(
+                this::loadPartitionColumnStatistics,
+                HivePartitionName::getHiveTableName,
+                partitionFetchBatchSize,
+                partitionFetchConcurrency,
+                executor);
+
         databaseNamesCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
                 .build(asyncReloading(CacheLoader.from(this::loadAllDatabases), executor));
 
@@ -140,8 +178,9 @@ public class CachingHiveMetastore
                     }
                 }, executor));
 
+        // partition caches reload through the batch loaders, which batch the reloads in the background
         partitionStatisticsCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
-                .build(asyncReloading(new CacheLoader<HivePartitionName, PartitionStatistics>()
+                .build(new CacheLoader<HivePartitionName, PartitionStatistics>()
                 {
                     @Override
                     public PartitionStatistics load(HivePartitionName key)
@@ -152,9 +191,15 @@ public class CachingHiveMetastore
                     @Override
                     public Map<HivePartitionName, PartitionStatistics> loadAll(Iterable<? extends HivePartitionName> keys)
                     {
-                        return loadPartitionColumnStatistics(keys);
+                        return partitionStatisticsLoader.loadAll(keys);
                     }
-                }, executor));
+
+                    @Override
+                    public ListenableFuture<PartitionStatistics> reload(HivePartitionName key, PartitionStatistics oldValue)
+                    {
+                        return partitionStatisticsLoader.reload(key);
+                    }
+                });
 
         tableCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
                 .build(asyncReloading(CacheLoader.from(this::loadTable), executor));
@@ -169,7 +214,7 @@ public class CachingHiveMetastore
                 .build(asyncReloading(CacheLoader.from(this::loadPartitionNamesByParts), executor));
 
         partitionCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
-                .build(asyncReloading(new CacheLoader<HivePartitionName, Optional<Partition>>()
+                .build(new CacheLoader<HivePartitionName, Optional<Partition>>()
                 {
                     @Override
                     public Optional<Partition> load(HivePartitionName partitionName)
@@ -180,9 +225,15 @@ public class CachingHiveMetastore
                     @Override
                     public Map<HivePartitionName, Optional<Partition>> loadAll(Iterable<? extends HivePartitionName> partitionNames)
                     {
-                        return loadPartitionsByNames(partitionNames);
+                        return partitionLoader.loadAll(partitionNames);
                     }
-                }, executor));
+
+                    @Override
+                    public ListenableFuture<Optional<Partition>> reload(HivePartitionName partitionName, Optional<Partition> oldValue)
+                    {
+                        return partitionLoader.reload(partitionName);
+                    }
+                });
 
         userRolesCache = newCacheBuilder(expiresAfterWriteMillis, refreshMills, maximumSize)
                 .build(asyncReloading(CacheLoader.from(this::loadRoles), executor));
@@ -194,6 +245,7 @@ public class CachingHiveMetastore
     @Managed
     public void flushCache()
     {
+        invalidatePartitionLoads();
         databaseNamesCache.invalidateAll();
         tableNamesCache.invalidateAll();
         viewNamesCache.invalidateAll();
@@ -208,6 +260,18 @@ public class CachingHiveMetastore
         userRolesCache.invalidateAll();
     }
 
+    @Managed
+    public long getPartitionBatchLoads()
+    {
+        return partitionLoader.getBatchLoads() + partitionStatisticsLoader.getBatchLoads();
+    }
+
+    @Managed
+    public long getPartitionCoalescedLoads()
+    {
+        return partitionLoader.getCoalescedLoads() + partitionStatisticsLoader.getCoalescedLoads();
+    }
+
     private static <K, V> V get(LoadingCache<K, V> cache, K key)
     {
         try {
@@ -219,16 +283,34 @@ public class CachingHiveMetastore
         }
     }
 
-    private static <K, V> Map<K, V> getAll(LoadingCache<K, V> cache, Iterable<K> keys)
+    private <K, V> Map<K, V> getAll(LoadingCache<K, V> cache, CoalescingBatchLoader<K, V> loader, Iterable<K> keys)
     {
-        try {
-            return cache.getAll(keys);
+        // LoadingCache.getAll neither refreshes stale entries nor coalesces concurrent loads of the
+        // same keys, so cached keys are read one by one and the missing ones are loaded by the batch loader
+        Map<K, V> result = new LinkedHashMap<>();
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            if (cache.asMap().containsKey(key)) {
+                result.put(key, get(cache, key));
+            }
+            else {
+                missing.add(key);
+            }
         }
-        catch (ExecutionException | UncheckedExecutionException e) {
-            throwIfInstanceOf(e.getCause(), PrestoException.class);
-            throwIfUnchecked(e);
-            throw new UncheckedExecutionException(e);
+        if (!missing.isEmpty()) {
+            long invalidations = partitionInvalidations.get();
+            Map<K, V> loaded = loader.loadAll(missing);
+            // values loaded while partitions were invalidated may be stale, and must not be cached
+            if (partitionInvalidations.get() == invalidations) {
+                cache.putAll(loaded);
+                // an invalidation that raced with putAll may have missed the new entries
+                if (partitionInvalidations.get() != invalidations) {
+                    cache.invalidateAll(loaded.keySet());
+                }
+            }
+            result.putAll(loaded);
         }
+        return ImmutableMap.copyOf(result);
     }
 
     @Override
@@ -287,7 +369,7 @@ public class CachingHiveMetastore
         List<HivePartitionName> partitions = partitionNames.stream()
                 .map(partitionName -> HivePartitionName.partition(databaseName, tableName, partitionName))
                 .collect(toImmutableList());
-        Map<HivePartitionName, PartitionStatistics> statistics = getAll(partitionStatisticsCache, partitions);
+        Map<HivePartitionName, PartitionStatistics> statistics = getAll(partitionStatisticsCache, partitionStatisticsLoader, partitions);
         return statistics.entrySet()
                 .stream()
                 .collect(toImmutableMap(entry -> entry.getKey().getPartitionName(), Entry::getValue));
@@ -343,6 +425,7 @@ public class CachingHiveMetastore
             delegate.updatePartitionStatistics(databaseName, tableName, partitionName, update);
         }
         finally {
+            invalidatePartitionLoads();
             partitionStatisticsCache.invalidate(HivePartitionName.partition(databaseName, tableName, partitionName));
         }
     }
@@ -537,7 +620,7 @@ public class CachingHiveMetastore
     {
         Iterable<HivePartitionName> names = transform(partitionNames, name -> HivePartitionName.partition(databaseName, tableName, name));
 
-        Map<HivePartitionName, Optional<Partition>> all = getAll(partitionCache, names);
+        Map<HivePartitionName, Optional<Partition>> all = getAll(partitionCache, partitionLoader, names);
         ImmutableMap.Builder<String, Optional<Partition>> partitionsByName = ImmutableMap.builder();
         for (Entry<HivePartitionName, Optional<Partition>> entry : all.entrySet()) {
             partitionsByName.put(entry.getKey().getPartitionName(), entry.getValue());
@@ -612,8 +695,20 @@ public class CachingHiveMetastore
         }
     }
 
+    /**
+     * Must be called before partitions or partition statistics are invalidated in the caches,
+     * so that loads running concurrently neither cache nor share stale values.
+     */
+    private void invalidatePartitionLoads()
+    {
+        partitionLoader.invalidateAll();
+        partitionStatisticsLoader.invalidateAll();
+        partitionInvalidations.incrementAndGet();
+    }
+
     private void invalidatePartitionCache(String databaseName, String tableName)
     {
+        invalidatePartitionLoads();
         HiveTableName hiveTableName = HiveTableName.table(databaseName, tableName);
         partitionNamesCache.invalidate(hiveTableName);
         partitionCache.asMap().keySet().stream()
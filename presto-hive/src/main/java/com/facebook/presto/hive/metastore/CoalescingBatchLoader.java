@@ -0,0 +1,240 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableListMultimap.toImmutableListMultimap;
+import static com.google.common.collect.Maps.immutableEntry;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Loads values in batches through a bulk loader, coalescing concurrent requests for the same key.
+ * A key requested while another caller is loading it is not loaded again; the caller waits for
+ * the in-flight load instead. The keys a caller has to load are split into batches of keys of
+ * the same group, which are loaded in parallel by the caller and up to {@code concurrency - 1}
+ * threads of the executor. The caller loads batches itself, so a saturated executor delays the
+ * load but cannot deadlock it.
+ * <p>
+ * Reloads are queued and loaded in batches in the background, so a cache refreshing many
+ * entries issues bulk calls instead of one call per entry, and never blocks its readers.
+ */
+@ThreadSafe
+class CoalescingBatchLoader<K, V>
+{
+    private final Function<List<K>, Map<K, V>> loader;
+    private final Function<K, ?> grouping;
+    private final int batchSize;
+    private final int concurrency;
+    private final ExecutorService executor;
+
+    private final ConcurrentMap<K, SettableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Queue<Map.Entry<K, SettableFuture<V>>> pendingReloads = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+
+    private final AtomicLong batchLoads = new AtomicLong();
+    private final AtomicLong coalescedLoads = new AtomicLong();
+
+    /**
+     * @param loader loads a batch of keys of the same group, and returns a value for each of them
+     * @param grouping returns the group of a key, keys of different groups are never loaded in the same batch
+     */
+    public CoalescingBatchLoader(Function<List<K>, Map<K, V>> loader, Function<K, ?> grouping, int batchSize, int concurrency, ExecutorService executor)
+    {
+        this.loader = requireNonNull(loader, "loader is null");
+        this.grouping = requireNonNull(grouping, "grouping is null");
+        checkArgument(batchSize > 0, "batchSize must be positive");
+        checkArgument(concurrency > 0, "concurrency must be positive");
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.executor = requireNonNull(executor, "executor is null");
+    }
+
+    public Map<K, V> loadAll(Iterable<? extends K> keys)
+    {
+        Map<K, SettableFuture<V>> owned = new LinkedHashMap<>();
+        Map<K, SettableFuture<V>> all = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (all.containsKey(key)) {
+                continue;
+            }
+            SettableFuture<V> future = SettableFuture.create();
+            SettableFuture<V> existing = inFlight.putIfAbsent(key, future);
+            if (existing == null) {
+                owned.put(key, future);
+                all.put(key, future);
+            }
+            else {
+                coalescedLoads.incrementAndGet();
+                all.put(key, existing);
+            }
+        }
+
+        // keys owned by this caller must be loaded before waiting for other callers, otherwise
+        // two callers waiting for each other's keys would never complete
+        load(ImmutableList.copyOf(owned.keySet()), owned);
+
+        ImmutableMap.Builder<K, V> result = ImmutableMap.builder();
+        for (Map.Entry<K, SettableFuture<V>> entry : all.entrySet()) {
+            result.put(entry.getKey(), getFutureValue(entry.getValue()));
+        }
+        return result.build();
+    }
+
+    public ListenableFuture<V> reload(K key)
+    {
+        SettableFuture<V> future = SettableFuture.create();
+        SettableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalescedLoads.incrementAndGet();
+            return existing;
+        }
+        pendingReloads.add(immutableEntry(key, future));
+        if (reloadScheduled.compareAndSet(false, true)) {
+            executor.execute(this::loadPendingReloads);
+        }
+        return future;
+    }
+
+    /**
+     * Stops sharing the loads in flight with later callers, which start new loads instead.
+     * Loads in flight still complete the futures of the callers waiting for them.
+     */
+    public void invalidateAll()
+    {
+        inFlight.clear();
+    }
+
+    public long getBatchLoads()
+    {
+        return batchLoads.get();
+    }
+
+    public long getCoalescedLoads()
+    {
+        return coalescedLoads.get();
+    }
+
+    private void loadPendingReloads()
+    {
+        // reset the flag before draining, so a key queued after the drain schedules another one
+        reloadScheduled.set(false);
+
+        List<K> keys = new ArrayList<>();
+        Map<K, SettableFuture<V>> futures = new LinkedHashMap<>();
+        for (Map.Entry<K, SettableFuture<V>> reload = pendingReloads.poll(); reload != null; reload = pendingReloads.poll()) {
+            SettableFuture<V> existing = futures.putIfAbsent(reload.getKey(), reload.getValue());
+            if (existing == null) {
+                keys.add(reload.getKey());
+            }
+            else {
+                // the key was queued again after invalidateAll
+                reload.getValue().setFuture(existing);
+                inFlight.remove(reload.getKey(), reload.getValue());
+            }
+        }
+        if (!keys.isEmpty()) {
+            load(keys, futures);
+        }
+    }
+
+    private void load(List<K> keys, Map<K, SettableFuture<V>> futures)
+    {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        ImmutableListMultimap<?, K> groups = keys.stream()
+                .collect(toImmutableListMultimap(grouping, key -> key));
+        Queue<List<K>> batches = new ConcurrentLinkedQueue<>();
+        for (Collection<K> group : groups.asMap().values()) {
+            batches.addAll(Lists.partition(ImmutableList.copyOf(group), batchSize));
+        }
+
+        Runnable worker = () -> {
+            for (List<K> batch = batches.poll(); batch != null; batch = batches.poll()) {
+                loadBatch(batch, futures);
+            }
+        };
+
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < min(concurrency, batches.size()); i++) {
+            helpers.add(executor.submit(worker));
+        }
+        worker.run();
+
+        // all batches have been taken once the caller's worker returns, so helpers that have not
+        // started are not needed, and waiting for them could block on a saturated executor;
+        // cancel(false) does not interrupt helpers that are running, those still load their
+        // batch and are waited for
+        for (Future<?> helper : helpers) {
+            if (!helper.cancel(false)) {
+                getFutureValue(helper);
+            }
+        }
+    }
+
+    private void loadBatch(List<K> batch, Map<K, SettableFuture<V>> futures)
+    {
+        try {
+            batchLoads.incrementAndGet();
+            Map<K, V> values = loader.apply(batch);
+            for (K key : batch) {
+                V value = values.get(key);
+                if (value == null) {
+                    futures.get(key).setException(new IllegalStateException(format("Loader did not return a value for %s", key)));
+                }
+                else {
+                    futures.get(key).set(value);
+                }
+            }
+        }
+        catch (Throwable t) {
+            for (K key : batch) {
+                futures.get(key).setException(t);
+            }
+        }
+        finally {
+            for (K key : batch) {
+                inFlight.remove(key, futures.get(key));
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive.metastore;
 
+import com.facebook.presto.hive.DirectoryLister;
 import com.facebook.presto.hive.HdfsEnvironment;
 import com.facebook.presto.hive.HdfsEnvironment.HdfsContext;
 import com.facebook.presto.hive.HiveType;
@@ -89,6 +90,7 @@ public class SemiTransactionalHiveMetastore
 
     private final ExtendedHiveMetastore delegate;
     private final HdfsEnvironment hdfsEnvironment;
+    private final DirectoryLister directoryLister;
     private final Executor renameExecutor;
     private final boolean skipDeletionForAlter;
 
@@ -104,9 +106,10 @@ public class SemiTransactionalHiveMetastore
     private State state = State.EMPTY;
     private boolean throwOnCleanupFailure;
 
-    public SemiTransactionalHiveMetastore(HdfsEnvironment hdfsEnvironment, ExtendedHiveMetastore delegate, Executor renameExecutor, boolean skipDeletionForAlter)
+    public SemiTransactionalHiveMetastore(HdfsEnvironment hdfsEnvironment, DirectoryLister directoryLister, ExtendedHiveMetastore delegate, Executor renameExecutor, boolean skipDeletionForAlter)
     {
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
+        this.directoryLister = requireNonNull(directoryLister, "directoryLister is null");
         this.delegate = requireNonNull(delegate, "delegate is null");
         this.renameExecutor = requireNonNull(renameExecutor, "renameExecutor is null");
         this.skipDeletionForAlter = requireNonNull(skipDeletionForAlter, "skipDeletionForAlter is null");
@@ -441,6 +444,7 @@ public class SemiTransactionalHiveMetastore
         HdfsContext context = new HdfsContext(session, databaseName, tableName);
         setExclusive((delegate, hdfsEnvironment) -> {
             RecursiveDeleteResult recursiveDeleteResult = recursiveDeleteFiles(hdfsEnvironment, context, path, ImmutableList.of(""), false);
+            directoryLister.invalidate(path);
             if (!recursiveDeleteResult.getNotDeletedEligibleItems().isEmpty()) {
                 throw new PrestoException(HIVE_FILESYSTEM_ERROR, format(
                         "Error deleting from unpartitioned table %s. These items can not be deleted: %s",
@@ -922,6 +926,8 @@ public class SemiTransactionalHiveMetastore
 
             rollbackShared();
 
+            committer.invalidateDirectoryListings();
+
             throw t;
         }
 
@@ -949,6 +955,9 @@ public class SemiTransactionalHiveMetastore
 
             // Clean up empty staging directories (that may recursively contain empty directories)
             committer.deleteEmptyStagingDirectories(declaredIntentionsToWrite);
+
+            // Directory listings cached before or during the commit may miss the files that were moved in
+            committer.invalidateDirectoryListings();
         }
     }
 
@@ -963,6 +972,7 @@ public class SemiTransactionalHiveMetastore
         private final List<DirectoryDeletionTask> deletionTasksForFinish = new ArrayList<>();
         private final List<DirectoryCleanUpTask> cleanUpTasksForAbort = new ArrayList<>();
         private final List<DirectoryRenameTask> renameTasksForAbort = new ArrayList<>();
+        private final Set<Path> modifiedDirectories = new HashSet<>();
 
         // Metastore
         private final List<CreateTableOperation> addTableOperations = new ArrayList<>();
@@ -1001,6 +1011,7 @@ public class SemiTransactionalHiveMetastore
                 checkArgument(!targetLocation.isEmpty(), "target location is empty");
                 Optional<Path> currentPath = tableAndMore.getCurrentLocation();
                 Path targetPath = new Path(targetLocation);
+                modifiedDirectories.add(targetPath);
                 if (table.getPartitionColumns().isEmpty() && currentPath.isPresent()) {
                     // CREATE TABLE AS SELECT unpartitioned table
                     if (targetPath.equals(currentPath.get())) {
@@ -1052,6 +1063,7 @@ public class SemiTransactionalHiveMetastore
             Table table = tableAndMore.getTable();
             Path targetPath = new Path(table.getStorage().getLocation());
             Path currentPath = tableAndMore.getCurrentLocation().get();
+            modifiedDirectories.add(targetPath);
             cleanUpTasksForAbort.add(new DirectoryCleanUpTask(context, targetPath, false));
             if (!targetPath.equals(currentPath)) {
                 asyncRename(hdfsEnvironment, renameExecutor, fileRenameCancelled, fileRenameFutures, context, currentPath, targetPath, tableAndMore.getFileNames().get());
@@ -1092,6 +1104,7 @@ public class SemiTransactionalHiveMetastore
             }
             String oldPartitionLocation = oldPartition.get().getStorage().getLocation();
             Path oldPartitionPath = new Path(oldPartitionLocation);
+            modifiedDirectories.add(oldPartitionPath);
 
             // Location of the old partition and the new partition can be different because we allow arbitrary directories through LocationService.
             // If the location of the old partition is the same as the location of the new partition:
@@ -1120,6 +1133,7 @@ public class SemiTransactionalHiveMetastore
 
             Path currentPath = partitionAndMore.getCurrentLocation();
             Path targetPath = new Path(targetLocation);
+            modifiedDirectories.add(targetPath);
             if (!targetPath.equals(currentPath)) {
                 renameDirectory(
                         context,
@@ -1143,6 +1157,7 @@ public class SemiTransactionalHiveMetastore
             String targetLocation = partition.getStorage().getLocation();
             Path currentPath = partitionAndMore.getCurrentLocation();
             Path targetPath = new Path(targetLocation);
+            modifiedDirectories.add(targetPath);
 
             SchemaTableName schemaTableName = new SchemaTableName(partition.getDatabaseName(), partition.getTableName());
             PartitionAdder partitionAdder = partitionAdders.computeIfAbsent(
@@ -1168,6 +1183,7 @@ public class SemiTransactionalHiveMetastore
             Partition partition = partitionAndMore.getPartition();
             Path targetPath = new Path(partition.getStorage().getLocation());
             Path currentPath = partitionAndMore.getCurrentLocation();
+            modifiedDirectories.add(targetPath);
             cleanUpTasksForAbort.add(new DirectoryCleanUpTask(context, targetPath, false));
             if (!targetPath.equals(currentPath)) {
                 asyncRename(hdfsEnvironment, renameExecutor, fileRenameCancelled, fileRenameFutures, context, currentPath, targetPath, partitionAndMore.getFileNames());
@@ -1179,6 +1195,13 @@ public class SemiTransactionalHiveMetastore
                     true));
         }
 
+        private void invalidateDirectoryListings()
+        {
+            for (Path path : modifiedDirectories) {
+                directoryLister.invalidate(path);
+            }
+        }
+
         private void executeCleanupTasksForAbort(List<String> filePrefixes)
         {
             for (DirectoryCleanUpTask cleanUpTask : cleanUpTasksForAbort) {
@@ -14,6 +14,7 @@
 package com.facebook.presto.hive.orc;
 
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.cache.FileRangeReader;
 import com.facebook.presto.orc.AbstractOrcDataSource;
 import com.facebook.presto.orc.OrcDataSourceId;
 import com.facebook.presto.spi.PrestoException;
@@ -32,6 +33,7 @@ public class HdfsOrcDataSource
         extends AbstractOrcDataSource
 {
     private final FSDataInputStream inputStream;
+    private final FileRangeReader reader;
     private final FileFormatDataSourceStats stats;
 
     public HdfsOrcDataSource(
@@ -43,9 +45,24 @@ public class HdfsOrcDataSource
             boolean lazyReadSmallRanges,
             FSDataInputStream inputStream,
             FileFormatDataSourceStats stats)
+    {
+        this(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges, inputStream, inputStream::readFully, stats);
+    }
+
+    public HdfsOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            DataSize maxMergeDistance,
+            DataSize maxReadSize,
+            DataSize streamBufferSize,
+            boolean lazyReadSmallRanges,
+            FSDataInputStream inputStream,
+            FileRangeReader reader,
+            FileFormatDataSourceStats stats)
     {
         super(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges);
         this.inputStream = requireNonNull(inputStream, "inputStream is null");
+        this.reader = requireNonNull(reader, "reader is null");
         this.stats = requireNonNull(stats, "stats is null");
     }
 
@@ -61,7 +78,7 @@ public class HdfsOrcDataSource
     {
         try {
             long readStart = System.nanoTime();
-            inputStream.readFully(position, buffer, bufferOffset, bufferLength);
+            reader.readFully(position, buffer, bufferOffset, bufferLength);
             stats.readDataBytesPerSecond(bufferLength, System.nanoTime() - readStart);
         }
         catch (PrestoException e) {
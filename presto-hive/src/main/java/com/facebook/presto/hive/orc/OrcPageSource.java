@@ -33,6 +33,7 @@ import com.google.common.collect.ImmutableList;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_BAD_DATA;
@@ -60,6 +61,7 @@ public class OrcPageSource
     private boolean closed;
 
     private final AggregatedMemoryContext systemMemoryContext;
+    private final boolean selectiveReadingEnabled;
 
     private final FileFormatDataSourceStats stats;
 
@@ -69,6 +71,7 @@ public class OrcPageSource
             List<HiveColumnHandle> columns,
             TypeManager typeManager,
             AggregatedMemoryContext systemMemoryContext,
+            boolean selectiveReadingEnabled,
             FileFormatDataSourceStats stats)
     {
         this.recordReader = requireNonNull(recordReader, "recordReader is null");
@@ -107,6 +110,7 @@ public class OrcPageSource
         columnNames = namesBuilder.build();
 
         this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
+        this.selectiveReadingEnabled = selectiveReadingEnabled;
     }
 
     @Override
@@ -175,6 +179,7 @@ public class OrcPageSource
 
         try {
             stats.addMaxCombinedBytesPerRow(recordReader.getMaxCombinedBytesPerRow());
+            stats.addOrcSkippedRowGroups(recordReader.getRowGroupsSkippedByStatistics(), recordReader.getRowGroupsSkippedByBloomFilter());
             recordReader.close();
         }
         catch (IOException e) {
@@ -235,7 +240,15 @@ public class OrcPageSource
             checkState(batchId == expectedBatchId);
 
             try {
-                Block block = recordReader.readBlock(type, columnIndex);
+                Optional<int[]> selectedPositions = lazyBlock.getSelectedPositions();
+                Block block;
+                if (selectiveReadingEnabled && selectedPositions.isPresent()) {
+                    // skip decoding the values of the rows that were filtered out
+                    block = recordReader.readBlock(type, columnIndex, selectedPositions.get(), selectedPositions.get().length);
+                }
+                else {
+                    block = recordReader.readBlock(type, columnIndex);
+                }
                 lazyBlock.setBlock(block);
             }
             catch (OrcCorruptionException e) {
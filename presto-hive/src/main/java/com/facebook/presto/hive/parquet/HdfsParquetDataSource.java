@@ -14,6 +14,8 @@
 package com.facebook.presto.hive.parquet;
 
 import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.cache.FileCache;
+import com.facebook.presto.hive.cache.FileRangeReader;
 import com.facebook.presto.spi.PrestoException;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
@@ -33,14 +35,21 @@ public class HdfsParquetDataSource
     private final String name;
     private final long size;
     private final FSDataInputStream inputStream;
+    private final FileRangeReader reader;
     private long readBytes;
     private final FileFormatDataSourceStats stats;
 
     public HdfsParquetDataSource(Path path, long size, FSDataInputStream inputStream, FileFormatDataSourceStats stats)
+    {
+        this(path, size, inputStream, inputStream::readFully, stats);
+    }
+
+    public HdfsParquetDataSource(Path path, long size, FSDataInputStream inputStream, FileRangeReader reader, FileFormatDataSourceStats stats)
     {
         this.name = path.toString();
         this.size = size;
         this.inputStream = inputStream;
+        this.reader = reader;
         this.stats = stats;
     }
 
@@ -76,11 +85,17 @@ public class HdfsParquetDataSource
         readBytes += bufferLength;
     }
 
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+
     private void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
     {
         try {
             long readStart = System.nanoTime();
-            inputStream.readFully(position, buffer, bufferOffset, bufferLength);
+            reader.readFully(position, buffer, bufferOffset, bufferLength);
             stats.readDataBytesPerSecond(bufferLength, System.nanoTime() - readStart);
         }
         catch (PrestoException e) {
@@ -111,4 +126,9 @@ public class HdfsParquetDataSource
     {
         return new HdfsParquetDataSource(path, fileSize, inputStream, stats);
     }
+
+    public static HdfsParquetDataSource buildHdfsParquetDataSource(FSDataInputStream inputStream, Path path, long fileSize, long fileModifiedTime, FileFormatDataSourceStats stats, FileCache fileCache)
+    {
+        return new HdfsParquetDataSource(path, fileSize, inputStream, fileCache.cached(path, fileSize, fileModifiedTime, inputStream::readFully), stats);
+    }
 }
@@ -26,6 +26,7 @@ import com.facebook.presto.spi.type.RealType;
 import com.facebook.presto.spi.type.TimestampType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.VarcharType;
+import com.google.common.collect.ImmutableList;
 import parquet.column.ColumnDescriptor;
 import parquet.column.Encoding;
 import parquet.io.ColumnIO;
@@ -36,6 +37,7 @@ import parquet.io.MessageColumnIO;
 import parquet.io.ParquetDecodingException;
 import parquet.io.PrimitiveColumnIO;
 import parquet.schema.DecimalMetadata;
+import parquet.schema.GroupType;
 import parquet.schema.MessageType;
 
 import java.util.Arrays;
@@ -47,6 +49,7 @@ import java.util.Optional;
 
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Optional.empty;
 import static parquet.schema.OriginalType.DECIMAL;
 import static parquet.schema.Type.Repetition.REPEATED;
@@ -226,6 +229,39 @@ public final class ParquetTypeUtils
         return null;
     }
 
+    /**
+     * Returns the type with only the nested struct fields on the specified paths, or the type
+     * itself if no paths are specified.
+     */
+    public static parquet.schema.Type pruneNestedFields(parquet.schema.Type type, List<List<String>> fieldPaths)
+    {
+        if (fieldPaths.isEmpty() || fieldPaths.stream().anyMatch(List::isEmpty)) {
+            return type;
+        }
+        // only plain groups are structs; repeated and annotated groups are arrays and maps
+        if (type.isPrimitive() || type.isRepetition(REPEATED) || type.getOriginalType() != null) {
+            return type;
+        }
+
+        GroupType groupType = type.asGroupType();
+        ImmutableList.Builder<parquet.schema.Type> fields = ImmutableList.builder();
+        for (parquet.schema.Type field : groupType.getFields()) {
+            List<List<String>> nestedFieldPaths = fieldPaths.stream()
+                    .filter(path -> path.get(0).equalsIgnoreCase(field.getName()))
+                    .map(path -> path.subList(1, path.size()))
+                    .collect(toImmutableList());
+            if (!nestedFieldPaths.isEmpty()) {
+                fields.add(pruneNestedFields(field, nestedFieldPaths));
+            }
+        }
+        List<parquet.schema.Type> prunedFields = fields.build();
+        if (prunedFields.isEmpty()) {
+            // none of the fields is in the file
+            return type;
+        }
+        return new GroupType(groupType.getRepetition(), groupType.getName(), prunedFields);
+    }
+
     public static ParquetEncoding getParquetEncoding(Encoding encoding)
     {
         switch (encoding) {
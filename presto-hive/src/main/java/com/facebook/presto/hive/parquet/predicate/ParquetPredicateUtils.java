@@ -112,8 +112,7 @@ public final class ParquetPredicateUtils
 
     public static boolean predicateMatches(ParquetPredicate parquetPredicate, BlockMetaData block, ParquetDataSource dataSource, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain)
     {
-        Map<ColumnDescriptor, Statistics<?>> columnStatistics = getStatistics(block, descriptorsByPath);
-        if (!parquetPredicate.matches(block.getRowCount(), columnStatistics)) {
+        if (!statisticsMatch(parquetPredicate, block, descriptorsByPath)) {
             return false;
         }
 
@@ -121,6 +120,12 @@ public final class ParquetPredicateUtils
         return parquetPredicate.matches(dictionaries);
     }
 
+    public static boolean statisticsMatch(ParquetPredicate parquetPredicate, BlockMetaData block, Map<List<String>, RichColumnDescriptor> descriptorsByPath)
+    {
+        Map<ColumnDescriptor, Statistics<?>> columnStatistics = getStatistics(block, descriptorsByPath);
+        return parquetPredicate.matches(block.getRowCount(), columnStatistics);
+    }
+
     private static Map<ColumnDescriptor, Statistics<?>> getStatistics(BlockMetaData blockMetadata, Map<List<String>, RichColumnDescriptor> descriptorsByPath)
     {
         ImmutableMap.Builder<ColumnDescriptor, Statistics<?>> statistics = ImmutableMap.builder();
@@ -148,7 +153,6 @@ public final class ParquetPredicateUtils
                     dataSource.readFully(columnMetaData.getStartingPos(), buffer);
                     Optional<ParquetDictionaryPage> dictionaryPage = readDictionaryPage(buffer, columnMetaData.getCodec());
                     dictionaries.put(descriptor, new ParquetDictionaryDescriptor(descriptor, dictionaryPage));
-                    break;
                 }
             }
         }
@@ -13,6 +13,9 @@
  */
 package com.facebook.presto.hive.parquet.reader;
 
+import com.facebook.presto.hive.parquet.ParquetDataSource;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -37,6 +40,7 @@ import parquet.schema.PrimitiveType.PrimitiveTypeName;
 import parquet.schema.Type.Repetition;
 import parquet.schema.Types;
 
+import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -100,6 +104,39 @@ public final class ParquetMetadataReader
                 metadataIndex);
         inputStream.seek(metadataIndex);
         FileMetaData fileMetaData = readFileMetaData(inputStream);
+        return toParquetMetadata(fileMetaData, file);
+    }
+
+    public static ParquetMetadata readFooter(ParquetDataSource dataSource, String file)
+            throws IOException
+    {
+        long fileSize = dataSource.getSize();
+        validateParquet(fileSize >= MAGIC.length + PARQUET_METADATA_LENGTH + MAGIC.length, "%s is not a valid Parquet File", file);
+        long metadataLengthIndex = fileSize - PARQUET_METADATA_LENGTH - MAGIC.length;
+
+        byte[] tail = new byte[PARQUET_METADATA_LENGTH + MAGIC.length];
+        dataSource.readFully(metadataLengthIndex, tail);
+        Slice tailSlice = Slices.wrappedBuffer(tail);
+        int metadataLength = tailSlice.getInt(0);
+
+        byte[] magic = tailSlice.getBytes(PARQUET_METADATA_LENGTH, MAGIC.length);
+        validateParquet(Arrays.equals(MAGIC, magic), "Not valid Parquet file: %s expected magic number: %s got: %s", file, Arrays.toString(MAGIC), Arrays.toString(magic));
+
+        long metadataIndex = metadataLengthIndex - metadataLength;
+        validateParquet(
+                metadataIndex >= MAGIC.length && metadataIndex < metadataLengthIndex,
+                "Corrupted Parquet file: %s metadata index: %s out of range",
+                file,
+                metadataIndex);
+        byte[] metadata = new byte[metadataLength];
+        dataSource.readFully(metadataIndex, metadata);
+        FileMetaData fileMetaData = readFileMetaData(new ByteArrayInputStream(metadata));
+        return toParquetMetadata(fileMetaData, file);
+    }
+
+    private static ParquetMetadata toParquetMetadata(FileMetaData fileMetaData, Object file)
+            throws IOException
+    {
         List<SchemaElement> schema = fileMetaData.getSchema();
         validateParquet(!schema.isEmpty(), "Empty Parquet schema in file: %s", file);
 
@@ -17,9 +17,11 @@ import com.facebook.presto.hive.parquet.ParquetDataPage;
 import com.facebook.presto.hive.parquet.ParquetDataPageV1;
 import com.facebook.presto.hive.parquet.ParquetDataPageV2;
 import com.facebook.presto.hive.parquet.ParquetDictionaryPage;
+import com.facebook.presto.hive.parquet.ParquetEncoding;
 import parquet.hadoop.metadata.CompressionCodecName;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -32,6 +34,8 @@ class ParquetPageReader
     private final long valueCount;
     private final List<ParquetDataPage> compressedPages;
     private final ParquetDictionaryPage compressedDictionaryPage;
+    private long skippedPages;
+    private long skippedBytes;
 
     public ParquetPageReader(CompressionCodecName codec,
             List<ParquetDataPage> compressedPages,
@@ -52,6 +56,72 @@ class ParquetPageReader
         return valueCount;
     }
 
+    /**
+     * Returns the data pages not read or skipped yet, without decompressing them.
+     */
+    public List<ParquetDataPage> getCompressedPages()
+    {
+        return Collections.unmodifiableList(compressedPages);
+    }
+
+    public boolean hasNextPage()
+    {
+        return !compressedPages.isEmpty();
+    }
+
+    public int getNextPageValueCount()
+    {
+        return compressedPages.get(0).getValueCount();
+    }
+
+    /**
+     * Drops the next data page without decompressing it, and returns its value count.
+     */
+    public int skipPage()
+    {
+        ParquetDataPage page = compressedPages.remove(0);
+        skippedPages++;
+        skippedBytes += page.getCompressedSize();
+        return page.getValueCount();
+    }
+
+    /**
+     * Number of pages skipped or left unread.
+     */
+    public long getSkippedPages()
+    {
+        return skippedPages + compressedPages.size();
+    }
+
+    /**
+     * Compressed size of the pages skipped or left unread.
+     */
+    public long getSkippedBytes()
+    {
+        long bytes = skippedBytes;
+        for (ParquetDataPage page : compressedPages) {
+            bytes += page.getCompressedSize();
+        }
+        return bytes;
+    }
+
+    /**
+     * Are all data pages of the column chunk dictionary encoded, so the dictionary contains every value of the chunk.
+     */
+    public boolean isDictionaryEncoded()
+    {
+        if (compressedDictionaryPage == null) {
+            return false;
+        }
+        for (ParquetDataPage page : compressedPages) {
+            ParquetEncoding encoding = page instanceof ParquetDataPageV1 ? ((ParquetDataPageV1) page).getValueEncoding() : ((ParquetDataPageV2) page).getDataEncoding();
+            if (!encoding.usesDictionary()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public ParquetDataPage readPage()
     {
         if (compressedPages.isEmpty()) {
@@ -150,6 +150,14 @@ public abstract class ParquetPrimitiveColumnReader
         nextBatchSize = batchSize;
     }
 
+    /**
+     * Skips rows before the next read, e.g. rows excluded by page statistics.
+     */
+    public void skipRows(int rowCount)
+    {
+        readOffset = readOffset + rowCount;
+    }
+
     public ColumnDescriptor getDescriptor()
     {
         return columnDescriptor;
@@ -205,6 +213,13 @@ public abstract class ParquetPrimitiveColumnReader
                 valueCount++;
                 if (valueCount == remainingValueCountInPage) {
                     updateValueCounts(valueCount);
+                    if (isFlat()) {
+                        // a value of a flat column never continues on the next page, so the
+                        // next page is only decompressed when it is read and not skipped
+                        definitionLevel = EMPTY_LEVEL_VALUE;
+                        repetitionLevel = EMPTY_LEVEL_VALUE;
+                        return;
+                    }
                     if (!readNextPage()) {
                         return;
                     }
@@ -227,6 +242,12 @@ public abstract class ParquetPrimitiveColumnReader
         int valuePosition = 0;
         while (valuePosition < readOffset) {
             if (page == null) {
+                if (isFlat() && pageReader.hasNextPage() && pageReader.getNextPageValueCount() <= readOffset - valuePosition) {
+                    int skippedValues = pageReader.skipPage();
+                    valuePosition += skippedValues;
+                    currentValueCount += skippedValues;
+                    continue;
+                }
                 readNextPage();
             }
             int offset = Math.min(remainingValueCountInPage, readOffset - valuePosition);
@@ -236,6 +257,11 @@ public abstract class ParquetPrimitiveColumnReader
         checkArgument(valuePosition == readOffset, "valuePosition %s must be equal to readOffset %s", valuePosition, readOffset);
     }
 
+    private boolean isFlat()
+    {
+        return columnDescriptor.getMaxRepetitionLevel() == 0;
+    }
+
     private boolean readNextPage()
     {
         verify(page == null, "readNextPage has to be called when page is null");
@@ -13,12 +13,18 @@
  */
 package com.facebook.presto.hive.parquet.reader;
 
+import com.facebook.presto.hive.FileFormatDataSourceStats;
 import com.facebook.presto.hive.parquet.Field;
 import com.facebook.presto.hive.parquet.GroupField;
 import com.facebook.presto.hive.parquet.ParquetCorruptionException;
+import com.facebook.presto.hive.parquet.ParquetDataPage;
+import com.facebook.presto.hive.parquet.ParquetDataPageV1;
+import com.facebook.presto.hive.parquet.ParquetDataPageV2;
 import com.facebook.presto.hive.parquet.ParquetDataSource;
 import com.facebook.presto.hive.parquet.PrimitiveField;
 import com.facebook.presto.hive.parquet.RichColumnDescriptor;
+import com.facebook.presto.hive.parquet.predicate.ParquetDictionaryDescriptor;
+import com.facebook.presto.hive.parquet.predicate.ParquetPredicate;
 import com.facebook.presto.memory.context.AggregatedMemoryContext;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.spi.block.ArrayBlock;
@@ -28,11 +34,14 @@ import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.type.MapType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeSignatureParameter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
 import it.unimi.dsi.fastutil.booleans.BooleanList;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import parquet.column.ColumnDescriptor;
+import parquet.column.statistics.Statistics;
 import parquet.hadoop.metadata.BlockMetaData;
 import parquet.hadoop.metadata.ColumnChunkMetaData;
 import parquet.hadoop.metadata.ColumnPath;
@@ -41,6 +50,7 @@ import parquet.io.PrimitiveColumnIO;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -51,6 +61,7 @@ import static com.facebook.presto.spi.type.StandardTypes.ARRAY;
 import static com.facebook.presto.spi.type.StandardTypes.MAP;
 import static com.facebook.presto.spi.type.StandardTypes.ROW;
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
@@ -75,15 +86,41 @@ public class ParquetReader
 
     private AggregatedMemoryContext currentRowGroupMemoryContext;
 
+    private final Optional<ParquetPredicate> predicate;
+    private final List<RichColumnDescriptor> predicateColumns;
+    private final FileFormatDataSourceStats stats;
+    // rows of the current row group that can match the predicate, or null if all rows are read
+    private RowRanges currentRowRanges;
+    private int currentRowRange;
+
     public ParquetReader(MessageColumnIO messageColumnIO,
             List<BlockMetaData> blocks,
             ParquetDataSource dataSource,
             AggregatedMemoryContext systemMemoryContext)
+    {
+        this(messageColumnIO, blocks, dataSource, systemMemoryContext, Optional.empty(), ImmutableList.of(), new FileFormatDataSourceStats());
+    }
+
+    /**
+     * @param predicate when present, pages of the predicate columns whose statistics can not match
+     * the predicate are skipped in all columns, and row groups are skipped when the dictionary of a
+     * fully dictionary encoded predicate column can not match
+     */
+    public ParquetReader(MessageColumnIO messageColumnIO,
+            List<BlockMetaData> blocks,
+            ParquetDataSource dataSource,
+            AggregatedMemoryContext systemMemoryContext,
+            Optional<ParquetPredicate> predicate,
+            List<RichColumnDescriptor> predicateColumns,
+            FileFormatDataSourceStats stats)
     {
         this.blocks = blocks;
         this.dataSource = requireNonNull(dataSource, "dataSource is null");
         this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
         this.currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
+        this.predicate = requireNonNull(predicate, "predicate is null");
+        this.predicateColumns = ImmutableList.copyOf(requireNonNull(predicateColumns, "predicateColumns is null"));
+        this.stats = requireNonNull(stats, "stats is null");
         columns = messageColumnIO.getLeaves();
         columnReaders = new ParquetPrimitiveColumnReader[columns.size()];
     }
@@ -92,6 +129,7 @@ public class ParquetReader
     public void close()
             throws IOException
     {
+        reportSkippedPages();
         currentRowGroupMemoryContext.close();
         dataSource.close();
     }
@@ -103,36 +141,170 @@ public class ParquetReader
 
     public int nextBatch()
     {
-        if (nextRowInGroup >= currentGroupRowCount && !advanceToNextRowGroup()) {
-            return -1;
-        }
+        while (true) {
+            if (nextRowInGroup >= currentGroupRowCount && !advanceToNextRowGroup()) {
+                return -1;
+            }
+
+            long batchStart = nextRowInGroup;
+            long batchEnd = currentGroupRowCount;
+            if (currentRowRanges != null) {
+                while (currentRowRange < currentRowRanges.size() && currentRowRanges.getEnd(currentRowRange) <= nextRowInGroup) {
+                    currentRowRange++;
+                }
+                if (currentRowRange == currentRowRanges.size()) {
+                    // no more rows of this row group can match
+                    nextRowInGroup = currentGroupRowCount;
+                    continue;
+                }
+                batchStart = max(nextRowInGroup, currentRowRanges.getStart(currentRowRange));
+                batchEnd = currentRowRanges.getEnd(currentRowRange);
+            }
 
-        batchSize = toIntExact(min(MAX_VECTOR_LENGTH, currentGroupRowCount - nextRowInGroup));
+            int skippedRows = toIntExact(batchStart - nextRowInGroup);
+            batchSize = toIntExact(min(MAX_VECTOR_LENGTH, batchEnd - batchStart));
 
-        nextRowInGroup += batchSize;
-        currentPosition += batchSize;
-        Arrays.stream(columnReaders)
-                .forEach(reader -> reader.prepareNextRead(batchSize));
-        return batchSize;
+            nextRowInGroup = batchStart + batchSize;
+            currentPosition += batchSize;
+            for (ParquetPrimitiveColumnReader reader : columnReaders) {
+                if (skippedRows > 0) {
+                    reader.skipRows(skippedRows);
+                }
+                reader.prepareNextRead(batchSize);
+            }
+            return batchSize;
+        }
     }
 
     private boolean advanceToNextRowGroup()
     {
+        reportSkippedPages();
         currentRowGroupMemoryContext.close();
         currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
 
-        if (currentBlock == blocks.size()) {
-            return false;
+        while (currentBlock < blocks.size()) {
+            currentBlockMetadata = blocks.get(currentBlock);
+            currentBlock = currentBlock + 1;
+
+            nextRowInGroup = 0L;
+            currentGroupRowCount = currentBlockMetadata.getRowCount();
+            initializeColumnReaders();
+            try {
+                if (selectRows()) {
+                    return true;
+                }
+                stats.addParquetSkippedRowGroup(getUnreadBytes());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            reportSkippedPages();
+            currentRowGroupMemoryContext.close();
+            currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
+        }
+        currentGroupRowCount = 0;
+        return false;
+    }
+
+    /**
+     * Computes the rows of the current row group that can match the predicate, from the dictionaries and
+     * the page statistics of the predicate columns. Returns false if no row can match.
+     */
+    private boolean selectRows()
+            throws IOException
+    {
+        currentRowRanges = null;
+        currentRowRange = 0;
+        if (!predicate.isPresent()) {
+            return true;
+        }
+
+        RowRanges rowRanges = RowRanges.all(currentGroupRowCount);
+        for (RichColumnDescriptor column : predicateColumns) {
+            PrimitiveColumnIO columnIO = getLeaf(column);
+            // page value counts are only row counts for flat columns
+            if (columnIO == null || column.getMaxRepetitionLevel() > 0) {
+                continue;
+            }
+
+            ParquetPrimitiveColumnReader columnReader = columnReaders[columnIO.getId()];
+            if (columnReader.getPageReader() == null) {
+                columnReader.setPageReader(readPages(columnIO.getColumnDescriptor()));
+            }
+            ParquetPageReader pageReader = columnReader.getPageReader();
+
+            if (pageReader.isDictionaryEncoded()) {
+                ParquetDictionaryDescriptor dictionary = new ParquetDictionaryDescriptor(column, Optional.ofNullable(pageReader.readDictionaryPage()));
+                if (!predicate.get().matches(ImmutableMap.of(column, dictionary))) {
+                    return false;
+                }
+            }
+
+            rowRanges = rowRanges.intersect(getMatchingRows(column, pageReader));
+            if (rowRanges.isEmpty()) {
+                return false;
+            }
         }
-        currentBlockMetadata = blocks.get(currentBlock);
-        currentBlock = currentBlock + 1;
 
-        nextRowInGroup = 0L;
-        currentGroupRowCount = currentBlockMetadata.getRowCount();
-        initializeColumnReaders();
+        if (rowRanges.getRowCount() < currentGroupRowCount) {
+            currentRowRanges = rowRanges;
+        }
         return true;
     }
 
+    private RowRanges getMatchingRows(RichColumnDescriptor column, ParquetPageReader pageReader)
+    {
+        RowRanges rowRanges = new RowRanges();
+        long firstRow = 0;
+        for (ParquetDataPage page : pageReader.getCompressedPages()) {
+            Statistics<?> statistics = page instanceof ParquetDataPageV1 ? ((ParquetDataPageV1) page).getStatistics() : ((ParquetDataPageV2) page).getStatistics();
+            if (statistics == null || statistics.isEmpty() || predicate.get().matches(page.getValueCount(), ImmutableMap.of(column, statistics))) {
+                rowRanges.add(firstRow, firstRow + page.getValueCount());
+            }
+            firstRow += page.getValueCount();
+        }
+        return rowRanges;
+    }
+
+    private PrimitiveColumnIO getLeaf(ColumnDescriptor column)
+    {
+        for (PrimitiveColumnIO columnIO : columns) {
+            if (columnIO.getColumnDescriptor().equals(column)) {
+                return columnIO;
+            }
+        }
+        return null;
+    }
+
+    private void reportSkippedPages()
+    {
+        long skippedPages = 0;
+        long skippedBytes = 0;
+        for (ParquetPrimitiveColumnReader columnReader : columnReaders) {
+            if (columnReader != null && columnReader.getPageReader() != null) {
+                skippedPages += columnReader.getPageReader().getSkippedPages();
+                skippedBytes += columnReader.getPageReader().getSkippedBytes();
+            }
+        }
+        if (skippedPages > 0) {
+            stats.addParquetSkippedPages(skippedPages, skippedBytes);
+        }
+        // the readers of a row group are reported once
+        Arrays.fill(columnReaders, null);
+    }
+
+    private long getUnreadBytes()
+            throws IOException
+    {
+        long bytes = 0;
+        for (PrimitiveColumnIO columnIO : columns) {
+            if (columnReaders[columnIO.getId()].getPageReader() == null) {
+                bytes += getColumnChunkMetaData(columnIO.getColumnDescriptor()).getTotalSize();
+            }
+        }
+        return bytes;
+    }
+
     private ColumnChunk readArray(GroupField field)
             throws IOException
     {
@@ -181,7 +353,7 @@ public class ParquetReader
         }
         for (int i = 0; i < fields.size(); i++) {
             if (blocks[i] == null) {
-                blocks[i] = RunLengthEncodedBlock.create(field.getType(), null, columnChunk.getBlock().getPositionCount());
+                blocks[i] = RunLengthEncodedBlock.create(field.getType().getTypeParameters().get(i), null, columnChunk.getBlock().getPositionCount());
             }
         }
         BooleanList structIsNull = ParquetStructColumnReader.calculateStructOffsets(field, columnChunk.getDefinitionLevels(), columnChunk.getRepetitionLevels());
@@ -196,19 +368,25 @@ public class ParquetReader
         ColumnDescriptor columnDescriptor = field.getDescriptor();
         ParquetPrimitiveColumnReader columnReader = columnReaders[field.getId()];
         if (columnReader.getPageReader() == null) {
-            validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
-            ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
-            long startingPosition = metadata.getStartingPos();
-            int totalSize = toIntExact(metadata.getTotalSize());
-            byte[] buffer = allocateBlock(totalSize);
-            dataSource.readFully(startingPosition, buffer);
-            ParquetColumnChunkDescriptor descriptor = new ParquetColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
-            ParquetColumnChunk columnChunk = new ParquetColumnChunk(descriptor, buffer, 0);
-            columnReader.setPageReader(columnChunk.readAllPages());
+            columnReader.setPageReader(readPages(columnDescriptor));
         }
         return columnReader.readPrimitive(field);
     }
 
+    private ParquetPageReader readPages(ColumnDescriptor columnDescriptor)
+            throws IOException
+    {
+        validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
+        ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
+        long startingPosition = metadata.getStartingPos();
+        int totalSize = toIntExact(metadata.getTotalSize());
+        byte[] buffer = allocateBlock(totalSize);
+        dataSource.readFully(startingPosition, buffer);
+        ParquetColumnChunkDescriptor descriptor = new ParquetColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
+        ParquetColumnChunk columnChunk = new ParquetColumnChunk(descriptor, buffer, 0);
+        return columnChunk.readAllPages();
+    }
+
     private byte[] allocateBlock(int length)
     {
         byte[] buffer = new byte[length];
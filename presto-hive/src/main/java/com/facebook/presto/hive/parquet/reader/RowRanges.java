@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.reader;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * Sorted, non-overlapping ranges of rows of a row group, each range including its start and excluding its end.
+ */
+final class RowRanges
+{
+    private final LongArrayList starts = new LongArrayList();
+    private final LongArrayList ends = new LongArrayList();
+
+    public static RowRanges all(long rowCount)
+    {
+        RowRanges rowRanges = new RowRanges();
+        rowRanges.add(0, rowCount);
+        return rowRanges;
+    }
+
+    /**
+     * Adds a range that starts at or after the end of the last range, merging adjacent ranges.
+     */
+    public void add(long start, long end)
+    {
+        checkArgument(start <= end, "start is greater than end");
+        if (start == end) {
+            return;
+        }
+        int last = starts.size() - 1;
+        if (last >= 0) {
+            checkArgument(start >= ends.getLong(last), "ranges must be added in order");
+            if (start == ends.getLong(last)) {
+                ends.set(last, end);
+                return;
+            }
+        }
+        starts.add(start);
+        ends.add(end);
+    }
+
+    public RowRanges intersect(RowRanges other)
+    {
+        RowRanges result = new RowRanges();
+        int left = 0;
+        int right = 0;
+        while (left < size() && right < other.size()) {
+            long start = max(getStart(left), other.getStart(right));
+            long end = min(getEnd(left), other.getEnd(right));
+            if (start < end) {
+                result.add(start, end);
+            }
+            if (getEnd(left) < other.getEnd(right)) {
+                left++;
+            }
+            else {
+                right++;
+            }
+        }
+        return result;
+    }
+
+    public int size()
+    {
+        return starts.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return starts.isEmpty();
+    }
+
+    public long getStart(int index)
+    {
+        return starts.getLong(index);
+    }
+
+    public long getEnd(int index)
+    {
+        return ends.getLong(index);
+    }
+
+    public long getRowCount()
+    {
+        long rowCount = 0;
+        for (int i = 0; i < size(); i++) {
+            rowCount += getEnd(i) - getStart(i);
+        }
+        return rowCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("starts", starts)
+                .add("ends", ends)
+                .toString();
+    }
+}
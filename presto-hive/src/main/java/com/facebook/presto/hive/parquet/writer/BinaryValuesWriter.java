@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.writer;
+
+import com.facebook.presto.spi.block.Block;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.OptionalInt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes BINARY values, or FIXED_LEN_BYTE_ARRAY and INT96 values when a fixed length is given.
+ */
+class BinaryValuesWriter
+        extends DictionaryValuesWriter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BinaryValuesWriter.class).instanceSize();
+
+    public interface SliceValueReader
+    {
+        Slice read(Block block, int position);
+    }
+
+    private final OptionalInt fixedLength;
+    private final SliceValueReader valueReader;
+
+    private final Object2IntOpenHashMap<Slice> dictionaryIds = new Object2IntOpenHashMap<>();
+    private final ObjectArrayList<Slice> dictionary = new ObjectArrayList<>();
+    private long dictionaryBytes;
+    private long dictionaryRetainedBytes;
+
+    public BinaryValuesWriter(OptionalInt fixedLength, SliceValueReader valueReader, long maxDictionaryPageSize, StatisticsBuilder statistics)
+    {
+        super(maxDictionaryPageSize, statistics);
+        this.fixedLength = requireNonNull(fixedLength, "fixedLength is null");
+        this.valueReader = requireNonNull(valueReader, "valueReader is null");
+        dictionaryIds.defaultReturnValue(-1);
+    }
+
+    @Override
+    protected int addToDictionary(Block block, int position)
+    {
+        Slice value = readValue(block, position);
+        statistics.addSlice(value);
+
+        int id = dictionaryIds.getInt(value);
+        if (id == -1) {
+            // copy the value, so the dictionary does not retain the block
+            Slice entry = Slices.copyOf(value);
+            id = dictionary.size();
+            dictionaryIds.put(entry, id);
+            dictionary.add(entry);
+            dictionaryBytes += getPlainSize(entry);
+            dictionaryRetainedBytes += entry.getRetainedSize();
+        }
+        return id;
+    }
+
+    @Override
+    protected void writePlain(Block block, int position, SliceOutput output)
+    {
+        Slice value = readValue(block, position);
+        statistics.addSlice(value);
+        writeValue(value, output);
+    }
+
+    @Override
+    protected void writeDictionaryEntry(int id, SliceOutput output)
+    {
+        writeValue(dictionary.get(id), output);
+    }
+
+    @Override
+    protected int getPlainSize(int id)
+    {
+        return getPlainSize(dictionary.get(id));
+    }
+
+    @Override
+    protected long getDictionaryBytes()
+    {
+        return dictionaryBytes;
+    }
+
+    @Override
+    public int getDictionarySize()
+    {
+        return dictionary.size();
+    }
+
+    @Override
+    protected long getDictionaryRetainedBytes()
+    {
+        // the hash table stores a key and a value for every entry, at a load factor of at most 0.75
+        return INSTANCE_SIZE + dictionaryRetainedBytes + sizeOf(dictionary.elements()) + (long) dictionaryIds.size() * (Long.BYTES + Integer.BYTES) * 4 / 3;
+    }
+
+    @Override
+    protected void resetDictionary()
+    {
+        dictionaryIds.clear();
+        dictionary.clear();
+        dictionaryBytes = 0;
+        dictionaryRetainedBytes = 0;
+    }
+
+    private Slice readValue(Block block, int position)
+    {
+        Slice value = valueReader.read(block, position);
+        checkArgument(!fixedLength.isPresent() || value.length() == fixedLength.getAsInt(), "Expected value of %s bytes, but got %s bytes", fixedLength, value.length());
+        return value;
+    }
+
+    private int getPlainSize(Slice value)
+    {
+        // variable length values are prefixed with their length
+        return fixedLength.isPresent() ? value.length() : Integer.BYTES + value.length();
+    }
+
+    private void writeValue(Slice value, SliceOutput output)
+    {
+        if (!fixedLength.isPresent()) {
+            output.writeInt(value.length());
+        }
+        output.writeBytes(value);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.writer;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import org.openjdk.jol.info.ClassLayout;
+import parquet.format.Encoding;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+import static parquet.format.Encoding.PLAIN;
+
+class BooleanValuesWriter
+        implements ValuesWriter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BooleanValuesWriter.class).instanceSize();
+
+    private final Type type;
+    private final StatisticsBuilder statistics;
+    private final DynamicSliceOutput output = new DynamicSliceOutput(1024);
+
+    // plain encoded booleans are bit-packed, least significant bit first
+    private int currentByte;
+    private int currentBitCount;
+
+    public BooleanValuesWriter(Type type, StatisticsBuilder statistics)
+    {
+        this.type = requireNonNull(type, "type is null");
+        this.statistics = requireNonNull(statistics, "statistics is null");
+    }
+
+    @Override
+    public void write(Block block, int position)
+    {
+        boolean value = type.getBoolean(block, position);
+        statistics.addLong(value ? 1 : 0);
+        if (value) {
+            currentByte |= 1 << currentBitCount;
+        }
+        currentBitCount++;
+        if (currentBitCount == Byte.SIZE) {
+            output.writeByte(currentByte);
+            currentByte = 0;
+            currentBitCount = 0;
+        }
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return output.size() + (currentBitCount > 0 ? 1 : 0);
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        return INSTANCE_SIZE + output.getRetainedSize();
+    }
+
+    @Override
+    public Slice flushPage()
+    {
+        if (currentBitCount > 0) {
+            output.writeByte(currentByte);
+            currentByte = 0;
+            currentBitCount = 0;
+        }
+        Slice page = output.copySlice();
+        output.reset();
+        return page;
+    }
+
+    @Override
+    public Encoding getPageEncoding()
+    {
+        return PLAIN;
+    }
+
+    @Override
+    public Optional<Slice> getDictionaryPage()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public int getDictionarySize()
+    {
+        return 0;
+    }
+
+    @Override
+    public void reset()
+    {
+        output.reset();
+        currentByte = 0;
+        currentBitCount = 0;
+    }
+}
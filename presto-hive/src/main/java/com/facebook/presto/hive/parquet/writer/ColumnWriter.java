@@ -0,0 +1,240 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.writer;
+
+import com.facebook.presto.spi.block.Block;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.Slice;
+import org.openjdk.jol.info.ClassLayout;
+import parquet.format.ColumnChunk;
+import parquet.format.ColumnMetaData;
+import parquet.format.DataPageHeader;
+import parquet.format.DictionaryPageHeader;
+import parquet.format.Encoding;
+import parquet.format.PageHeader;
+import parquet.format.PageType;
+import parquet.format.Type;
+import parquet.hadoop.metadata.CompressionCodecName;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.hive.parquet.ParquetCompressionUtils.compress;
+import static java.util.Objects.requireNonNull;
+import static parquet.format.Encoding.BIT_PACKED;
+import static parquet.format.Encoding.PLAIN_DICTIONARY;
+import static parquet.format.Encoding.RLE;
+import static parquet.format.Util.writePageHeader;
+
+/**
+ * Writes an optional primitive column. The pages of a row group are compressed and buffered
+ * until the row group is flushed, because the dictionary page, which precedes the data pages
+ * in the file, is only complete at the end of the row group.
+ */
+class ColumnWriter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(ColumnWriter.class).instanceSize();
+
+    private final String name;
+    private final Type parquetType;
+    private final ValuesWriter valuesWriter;
+    private final StatisticsBuilder pageStatistics;
+    private final StatisticsBuilder columnChunkStatistics;
+    private final CompressionCodecName codec;
+    private final long maxPageSize;
+
+    // optional columns of a flat schema only have definition levels, and only 0 (null) and 1 (present)
+    private final RunLengthBitPackingHybridEncoder definitionLevels = new RunLengthBitPackingHybridEncoder(1, 1024);
+
+    private int pageValueCount;
+
+    private final List<Slice> pages = new ArrayList<>();
+    private long bufferedPageBytes;
+    private long columnChunkValueCount;
+    private long columnChunkUncompressedSize;
+    private final Set<Encoding> encodings = EnumSet.noneOf(Encoding.class);
+
+    public ColumnWriter(
+            String name,
+            Type parquetType,
+            ValuesWriter valuesWriter,
+            StatisticsBuilder pageStatistics,
+            StatisticsBuilder columnChunkStatistics,
+            CompressionCodecName codec,
+            long maxPageSize)
+    {
+        this.name = requireNonNull(name, "name is null");
+        this.parquetType = requireNonNull(parquetType, "parquetType is null");
+        this.valuesWriter = requireNonNull(valuesWriter, "valuesWriter is null");
+        this.pageStatistics = requireNonNull(pageStatistics, "pageStatistics is null");
+        this.columnChunkStatistics = requireNonNull(columnChunkStatistics, "columnChunkStatistics is null");
+        this.codec = requireNonNull(codec, "codec is null");
+        this.maxPageSize = maxPageSize;
+    }
+
+    public void writeBlock(Block block)
+            throws IOException
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                definitionLevels.writeInt(0);
+                pageStatistics.addNull();
+            }
+            else {
+                definitionLevels.writeInt(1);
+                valuesWriter.write(block, position);
+            }
+            pageValueCount++;
+
+            if (valuesWriter.getBufferedBytes() + definitionLevels.getBufferedBytes() >= maxPageSize) {
+                flushPage();
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the column chunk, including the page being written.
+     */
+    public long getBufferedBytes()
+    {
+        return bufferedPageBytes + valuesWriter.getBufferedBytes() + definitionLevels.getBufferedBytes();
+    }
+
+    public long getRetainedBytes()
+    {
+        return INSTANCE_SIZE + bufferedPageBytes + valuesWriter.getRetainedBytes() + definitionLevels.getRetainedBytes();
+    }
+
+    /**
+     * Writes the column chunk of the row group at the current position of the output, and starts a new column chunk.
+     */
+    public ColumnChunk writeColumnChunk(OutputStreamSliceOutput output)
+            throws IOException
+    {
+        flushPage();
+
+        long dictionaryPageOffset = output.longSize();
+        long compressedSize = 0;
+        long uncompressedSize = columnChunkUncompressedSize;
+
+        Optional<Slice> dictionaryPage = valuesWriter.getDictionaryPage();
+        if (dictionaryPage.isPresent()) {
+            Slice compressedDictionary = compress(codec, dictionaryPage.get());
+            PageHeader header = new PageHeader(PageType.DICTIONARY_PAGE, dictionaryPage.get().length(), compressedDictionary.length());
+            header.setDictionary_page_header(new DictionaryPageHeader(valuesWriter.getDictionarySize(), PLAIN_DICTIONARY));
+            Slice headerBytes = serializePageHeader(header);
+
+            output.writeBytes(headerBytes);
+            output.writeBytes(compressedDictionary);
+            compressedSize += headerBytes.length() + compressedDictionary.length();
+            uncompressedSize += headerBytes.length() + dictionaryPage.get().length();
+            encodings.add(PLAIN_DICTIONARY);
+        }
+
+        long dataPageOffset = output.longSize();
+        for (Slice page : pages) {
+            output.writeBytes(page);
+            compressedSize += page.length();
+        }
+
+        ColumnMetaData metadata = new ColumnMetaData(
+                parquetType,
+                ImmutableList.copyOf(encodings),
+                ImmutableList.of(name),
+                codec.getParquetCompressionCodec(),
+                columnChunkValueCount,
+                uncompressedSize,
+                compressedSize,
+                dataPageOffset);
+        if (dictionaryPage.isPresent()) {
+            metadata.setDictionary_page_offset(dictionaryPageOffset);
+        }
+        metadata.setStatistics(columnChunkStatistics.build());
+
+        ColumnChunk columnChunk = new ColumnChunk(dataPageOffset);
+        columnChunk.setMeta_data(metadata);
+
+        reset();
+        return columnChunk;
+    }
+
+    private void flushPage()
+            throws IOException
+    {
+        if (pageValueCount == 0) {
+            return;
+        }
+
+        Slice definitionLevelBytes = definitionLevels.toSlice();
+        Slice values = valuesWriter.flushPage();
+
+        // data page v1: repetition levels (none for flat columns), length prefixed definition levels, values
+        int uncompressedSize = Integer.BYTES + definitionLevelBytes.length() + values.length();
+        DynamicSliceOutput page = new DynamicSliceOutput(uncompressedSize);
+        page.writeInt(definitionLevelBytes.length());
+        page.writeBytes(definitionLevelBytes);
+        page.writeBytes(values);
+        Slice compressedPage = compress(codec, page.slice());
+
+        DataPageHeader dataPageHeader = new DataPageHeader(pageValueCount, valuesWriter.getPageEncoding(), RLE, BIT_PACKED);
+        dataPageHeader.setStatistics(pageStatistics.build());
+        PageHeader header = new PageHeader(PageType.DATA_PAGE, uncompressedSize, compressedPage.length());
+        header.setData_page_header(dataPageHeader);
+        Slice headerBytes = serializePageHeader(header);
+
+        DynamicSliceOutput pageWithHeader = new DynamicSliceOutput(headerBytes.length() + compressedPage.length());
+        pageWithHeader.writeBytes(headerBytes);
+        pageWithHeader.writeBytes(compressedPage);
+        pages.add(pageWithHeader.slice());
+
+        bufferedPageBytes += pageWithHeader.size();
+        columnChunkValueCount += pageValueCount;
+        columnChunkUncompressedSize += headerBytes.length() + uncompressedSize;
+        encodings.add(RLE);
+        encodings.add(BIT_PACKED);
+        encodings.add(valuesWriter.getPageEncoding());
+        columnChunkStatistics.merge(pageStatistics);
+
+        pageStatistics.reset();
+        pageValueCount = 0;
+    }
+
+    private void reset()
+    {
+        valuesWriter.reset();
+        definitionLevels.reset();
+        pageStatistics.reset();
+        columnChunkStatistics.reset();
+        pages.clear();
+        bufferedPageBytes = 0;
+        pageValueCount = 0;
+        columnChunkValueCount = 0;
+        columnChunkUncompressedSize = 0;
+        encodings.clear();
+    }
+
+    private static Slice serializePageHeader(PageHeader header)
+            throws IOException
+    {
+        DynamicSliceOutput output = new DynamicSliceOutput(64);
+        writePageHeader(header, output);
+        return output.slice();
+    }
+}
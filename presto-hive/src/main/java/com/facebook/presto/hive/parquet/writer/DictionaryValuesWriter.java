@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.writer;
+
+import com.facebook.presto.spi.block.Block;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import parquet.format.Encoding;
+
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static parquet.format.Encoding.PLAIN;
+import static parquet.format.Encoding.PLAIN_DICTIONARY;
+
+/**
+ * Writes values dictionary encoded, and falls back to the plain encoding for the rest of the
+ * column chunk when the dictionary grows beyond the maximum dictionary page size, or when the
+ * dictionary does not make the first page smaller.
+ */
+abstract class DictionaryValuesWriter
+        implements ValuesWriter
+{
+    private final long maxDictionaryPageSize;
+    protected final StatisticsBuilder statistics;
+
+    private final IntArrayList dictionaryIds = new IntArrayList();
+    private final DynamicSliceOutput plainValues = new DynamicSliceOutput(1024);
+
+    private boolean dictionaryEnabled = true;
+    private boolean dictionaryChecked;
+    private boolean dictionaryUsed;
+    // size of the dictionary encoded values of the current page in the plain encoding
+    private long pagePlainSize;
+    private Encoding pageEncoding = PLAIN;
+
+    protected DictionaryValuesWriter(long maxDictionaryPageSize, StatisticsBuilder statistics)
+    {
+        checkArgument(maxDictionaryPageSize >= 0, "maxDictionaryPageSize is negative");
+        this.maxDictionaryPageSize = maxDictionaryPageSize;
+        this.statistics = requireNonNull(statistics, "statistics is null");
+    }
+
+    /**
+     * Adds the value to the dictionary and to the statistics, and returns its dictionary id.
+     */
+    protected abstract int addToDictionary(Block block, int position);
+
+    /**
+     * Writes the value plain encoded, and adds it to the statistics.
+     */
+    protected abstract void writePlain(Block block, int position, SliceOutput output);
+
+    protected abstract void writeDictionaryEntry(int id, SliceOutput output);
+
+    protected abstract int getPlainSize(int id);
+
+    /**
+     * Returns the size of the dictionary in the plain encoding.
+     */
+    protected abstract long getDictionaryBytes();
+
+    protected abstract long getDictionaryRetainedBytes();
+
+    protected abstract void resetDictionary();
+
+    @Override
+    public final void write(Block block, int position)
+    {
+        if (!dictionaryEnabled) {
+            writePlain(block, position, plainValues);
+            return;
+        }
+
+        int id = addToDictionary(block, position);
+        dictionaryIds.add(id);
+        pagePlainSize += getPlainSize(id);
+        if (getDictionaryBytes() > maxDictionaryPageSize) {
+            fallBackToPlain();
+        }
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        if (dictionaryEnabled) {
+            return ((long) dictionaryIds.size() * getBitWidth() + 7) / 8;
+        }
+        return plainValues.size();
+    }
+
+    @Override
+    public long getRetainedBytes()
+    {
+        return sizeOf(dictionaryIds.elements()) + plainValues.getRetainedSize() + getDictionaryRetainedBytes();
+    }
+
+    @Override
+    public Slice flushPage()
+    {
+        if (dictionaryEnabled && !dictionaryChecked) {
+            dictionaryChecked = true;
+            if (getDictionaryBytes() + getBufferedBytes() >= pagePlainSize) {
+                fallBackToPlain();
+            }
+        }
+
+        if (!dictionaryEnabled) {
+            Slice page = plainValues.copySlice();
+            plainValues.reset();
+            pageEncoding = PLAIN;
+            return page;
+        }
+
+        int bitWidth = getBitWidth();
+        RunLengthBitPackingHybridEncoder encoder = new RunLengthBitPackingHybridEncoder(bitWidth, (int) getBufferedBytes() + 16);
+        for (int i = 0; i < dictionaryIds.size(); i++) {
+            encoder.writeInt(dictionaryIds.getInt(i));
+        }
+        Slice ids = encoder.toSlice();
+
+        DynamicSliceOutput page = new DynamicSliceOutput(ids.length() + 1);
+        page.writeByte(bitWidth);
+        page.writeBytes(ids);
+
+        dictionaryIds.clear();
+        pagePlainSize = 0;
+        dictionaryUsed = true;
+        pageEncoding = PLAIN_DICTIONARY;
+        return page.slice();
+    }
+
+    @Override
+    public Encoding getPageEncoding()
+    {
+        return pageEncoding;
+    }
+
+    @Override
+    public Optional<Slice> getDictionaryPage()
+    {
+        if (!dictionaryUsed) {
+            return Optional.empty();
+        }
+        DynamicSliceOutput dictionary = new DynamicSliceOutput((int) getDictionaryBytes());
+        for (int id = 0; id < getDictionarySize(); id++) {
+            writeDictionaryEntry(id, dictionary);
+        }
+        return Optional.of(dictionary.slice());
+    }
+
+    @Override
+    public void reset()
+    {
+        dictionaryIds.clear();
+        plainValues.reset();
+        dictionaryEnabled = true;
+        dictionaryChecked = false;
+        dictionaryUsed = false;
+        pagePlainSize = 0;
+        pageEncoding = PLAIN;
+        resetDictionary();
+    }
+
+    private void fallBackToPlain()
+    {
+        for (int i = 0; i < dictionaryIds.size(); i++) {
+            writeDictionaryEntry(dictionaryIds.getInt(i), plainValues);
+        }
+        dictionaryIds.clear();
+        pagePlainSize = 0;
+        dictionaryEnabled = false;
+
+        // pages written before the fallback still need the dictionary
+        if (!dictionaryUsed) {
+            resetDictionary();
+        }
+    }
+
+    private int getBitWidth()
+    {
+        int maxId = max(getDictionarySize() - 1, 0);
+        return Integer.SIZE - Integer.numberOfLeadingZeros(maxId);
+    }
+}
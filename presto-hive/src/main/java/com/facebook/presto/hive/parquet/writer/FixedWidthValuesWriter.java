@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.writer;
+
+import com.facebook.presto.spi.block.Block;
+import io.airlift.slice.SliceOutput;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes INT32, INT64, FLOAT and DOUBLE values, which are all handled as the bits of the value in a long.
+ */
+class FixedWidthValuesWriter
+        extends DictionaryValuesWriter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FixedWidthValuesWriter.class).instanceSize();
+
+    public interface LongValueReader
+    {
+        long read(Block block, int position);
+    }
+
+    private final int width;
+    private final LongValueReader valueReader;
+
+    private final Long2IntOpenHashMap dictionaryIds = new Long2IntOpenHashMap();
+    private final LongArrayList dictionary = new LongArrayList();
+
+    public FixedWidthValuesWriter(int width, LongValueReader valueReader, long maxDictionaryPageSize, StatisticsBuilder statistics)
+    {
+        super(maxDictionaryPageSize, statistics);
+        checkArgument(width == Integer.BYTES || width == Long.BYTES, "width must be 4 or 8");
+        this.width = width;
+        this.valueReader = requireNonNull(valueReader, "valueReader is null");
+        dictionaryIds.defaultReturnValue(-1);
+    }
+
+    @Override
+    protected int addToDictionary(Block block, int position)
+    {
+        long value = valueReader.read(block, position);
+        statistics.addLong(value);
+
+        int id = dictionaryIds.get(value);
+        if (id == -1) {
+            id = dictionary.size();
+            dictionaryIds.put(value, id);
+            dictionary.add(value);
+        }
+        return id;
+    }
+
+    @Override
+    protected void writePlain(Block block, int position, SliceOutput output)
+    {
+        long value = valueReader.read(block, position);
+        statistics.addLong(value);
+        writeValue(value, output);
+    }
+
+    @Override
+    protected void writeDictionaryEntry(int id, SliceOutput output)
+    {
+        writeValue(dictionary.getLong(id), output);
+    }
+
+    @Override
+    protected int getPlainSize(int id)
+    {
+        return width;
+    }
+
+    @Override
+    protected long getDictionaryBytes()
+    {
+        return (long) dictionary.size() * width;
+    }
+
+    @Override
+    public int getDictionarySize()
+    {
+        return dictionary.size();
+    }
+
+    @Override
+    protected long getDictionaryRetainedBytes()
+    {
+        // the hash table stores a key and a value for every entry, at a load factor of at most 0.75
+        return INSTANCE_SIZE + sizeOf(dictionary.elements()) + (long) dictionaryIds.size() * (Long.BYTES + Integer.BYTES) * 4 / 3;
+    }
+
+    @Override
+    protected void resetDictionary()
+    {
+        dictionaryIds.clear();
+        dictionary.clear();
+    }
+
+    private void writeValue(long value, SliceOutput output)
+    {
+        if (width == Integer.BYTES) {
+            output.writeInt((int) value);
+        }
+        else {
+            output.writeLong(value);
+        }
+    }
+}
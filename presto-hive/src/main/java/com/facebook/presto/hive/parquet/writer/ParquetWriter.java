@@ -0,0 +1,519 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.writer;
+
+import com.facebook.presto.hive.parquet.Field;
+import com.facebook.presto.hive.parquet.ParquetCorruptionException;
+import com.facebook.presto.hive.parquet.ParquetDataSource;
+import com.facebook.presto.hive.parquet.reader.ParquetReader;
+import com.facebook.presto.hive.parquet.writer.BinaryValuesWriter.SliceValueReader;
+import com.facebook.presto.hive.parquet.writer.StatisticsBuilder.StatisticsType;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.AbstractLongType;
+import com.facebook.presto.spi.type.DecimalType;
+import com.facebook.presto.spi.type.Decimals;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jol.info.ClassLayout;
+import parquet.format.ColumnChunk;
+import parquet.format.ConvertedType;
+import parquet.format.FieldRepetitionType;
+import parquet.format.FileMetaData;
+import parquet.format.KeyValue;
+import parquet.format.RowGroup;
+import parquet.format.SchemaElement;
+import parquet.hadoop.metadata.CompressionCodecName;
+import parquet.hadoop.metadata.ParquetMetadata;
+import parquet.io.ColumnIO;
+import parquet.io.MessageColumnIO;
+import parquet.schema.MessageType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.LongUnaryOperator;
+
+import static com.facebook.presto.hive.parquet.ParquetTypeUtils.getColumnIO;
+import static com.facebook.presto.hive.parquet.ParquetTypeUtils.lookupColumnByName;
+import static com.facebook.presto.hive.parquet.reader.ParquetMetadataReader.readFooter;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.Chars.isCharType;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.spi.type.Varchars.isVarcharType;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.floorDiv;
+import static java.lang.Math.floorMod;
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static parquet.format.Util.writeFileMetaData;
+import static parquet.io.ColumnIOConverter.constructField;
+
+/**
+ * Writes flat Parquet files from Presto pages. All columns are optional primitive columns; values are
+ * dictionary encoded until the dictionary of a column chunk grows too large, and every data page and
+ * column chunk carries min/max and null count statistics.
+ */
+public class ParquetWriter
+        implements Closeable
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(ParquetWriter.class).instanceSize();
+
+    private static final Slice MAGIC = Slices.wrappedBuffer("PAR1".getBytes(US_ASCII));
+    private static final String SCHEMA_NAME = "hive_schema";
+    private static final String CREATED_BY = "presto";
+
+    private static final int JULIAN_EPOCH_OFFSET_DAYS = 2_440_588;
+    private static final long MILLIS_IN_DAY = DAYS.toMillis(1);
+    private static final long NANOS_PER_MILLISECOND = MILLISECONDS.toNanos(1);
+
+    private final OutputStreamSliceOutput output;
+    private final List<String> columnNames;
+    private final List<Type> types;
+    private final List<ColumnWriter> columnWriters;
+    private final List<SchemaElement> schema;
+    private final Map<String, String> metadata;
+    private final long maxRowGroupSize;
+    private final DateTimeZone hiveStorageTimeZone;
+
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+    private long rowGroupRowCount;
+    private long fileRowCount;
+    private boolean closed;
+
+    private final boolean validate;
+    private final long[] validationChecksums;
+
+    public ParquetWriter(
+            OutputStream outputStream,
+            List<String> columnNames,
+            List<Type> types,
+            ParquetWriterOptions options,
+            CompressionCodecName codec,
+            DateTimeZone hiveStorageTimeZone,
+            Map<String, String> metadata,
+            boolean validate)
+    {
+        requireNonNull(outputStream, "outputStream is null");
+        this.columnNames = ImmutableList.copyOf(requireNonNull(columnNames, "columnNames is null"));
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        checkArgument(columnNames.size() == types.size(), "columnNames and types size mismatch");
+        requireNonNull(options, "options is null");
+        requireNonNull(codec, "codec is null");
+        this.metadata = ImmutableMap.copyOf(requireNonNull(metadata, "metadata is null"));
+        this.maxRowGroupSize = options.getMaxRowGroupSize().toBytes();
+        this.hiveStorageTimeZone = requireNonNull(hiveStorageTimeZone, "hiveStorageTimeZone is null");
+        this.validate = validate;
+        this.validationChecksums = new long[types.size()];
+
+        ImmutableList.Builder<ColumnWriter> columnWriters = ImmutableList.builder();
+        ImmutableList.Builder<SchemaElement> schema = ImmutableList.builder();
+        SchemaElement root = new SchemaElement(SCHEMA_NAME);
+        root.setNum_children(types.size());
+        schema.add(root);
+        for (int i = 0; i < types.size(); i++) {
+            String name = columnNames.get(i);
+            Type type = types.get(i);
+            checkArgument(isSupportedType(type), "Type not supported by the Parquet writer: %s", type);
+            SchemaElement element = createSchemaElement(name, type);
+            schema.add(element);
+            columnWriters.add(createColumnWriter(name, type, element.getType(), codec, options, this::toStorageTimestamp));
+        }
+        this.columnWriters = columnWriters.build();
+        this.schema = schema.build();
+
+        this.output = new OutputStreamSliceOutput(outputStream);
+        output.writeBytes(MAGIC);
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        return BOOLEAN.equals(type) ||
+                TINYINT.equals(type) ||
+                SMALLINT.equals(type) ||
+                INTEGER.equals(type) ||
+                BIGINT.equals(type) ||
+                DATE.equals(type) ||
+                REAL.equals(type) ||
+                DOUBLE.equals(type) ||
+                TIMESTAMP.equals(type) ||
+                isVarcharType(type) ||
+                isCharType(type) ||
+                VARBINARY.equals(type) ||
+                type instanceof DecimalType;
+    }
+
+    /**
+     * Number of bytes already written to the output.
+     */
+    public long getWrittenBytes()
+    {
+        return output.longSize();
+    }
+
+    /**
+     * Number of pending bytes not yet written to the output.
+     */
+    public long getBufferedBytes()
+    {
+        return columnWriters.stream()
+                .mapToLong(ColumnWriter::getBufferedBytes)
+                .sum();
+    }
+
+    public long getRetainedBytes()
+    {
+        return INSTANCE_SIZE +
+                output.getRetainedSize() +
+                columnWriters.stream()
+                        .mapToLong(ColumnWriter::getRetainedBytes)
+                        .sum();
+    }
+
+    public void write(Page page)
+            throws IOException
+    {
+        requireNonNull(page, "page is null");
+        checkState(!closed, "writer is closed");
+        if (page.getPositionCount() == 0) {
+            return;
+        }
+        checkArgument(page.getChannelCount() == columnWriters.size(), "Expected %s channels, but page has %s", columnWriters.size(), page.getChannelCount());
+
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            Block block = page.getBlock(channel);
+            columnWriters.get(channel).writeBlock(block);
+            if (validate) {
+                validationChecksums[channel] = updateChecksum(validationChecksums[channel], types.get(channel), block, this::toStorageTimestamp);
+            }
+        }
+        rowGroupRowCount += page.getPositionCount();
+
+        if (getBufferedBytes() >= maxRowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    private void flushRowGroup()
+            throws IOException
+    {
+        if (rowGroupRowCount == 0) {
+            return;
+        }
+
+        ImmutableList.Builder<ColumnChunk> columnChunks = ImmutableList.builder();
+        long totalByteSize = 0;
+        for (ColumnWriter columnWriter : columnWriters) {
+            ColumnChunk columnChunk = columnWriter.writeColumnChunk(output);
+            columnChunks.add(columnChunk);
+            totalByteSize += columnChunk.getMeta_data().getTotal_uncompressed_size();
+        }
+        rowGroups.add(new RowGroup(columnChunks.build(), totalByteSize, rowGroupRowCount));
+
+        fileRowCount += rowGroupRowCount;
+        rowGroupRowCount = 0;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            flushRowGroup();
+
+            FileMetaData fileMetaData = new FileMetaData(1, schema, fileRowCount, ImmutableList.copyOf(rowGroups));
+            ImmutableList.Builder<KeyValue> keyValues = ImmutableList.builder();
+            for (Entry<String, String> entry : metadata.entrySet()) {
+                KeyValue keyValue = new KeyValue(entry.getKey());
+                keyValue.setValue(entry.getValue());
+                keyValues.add(keyValue);
+            }
+            fileMetaData.setKey_value_metadata(keyValues.build());
+            fileMetaData.setCreated_by(CREATED_BY);
+
+            long footerStart = output.longSize();
+            writeFileMetaData(fileMetaData, output);
+            output.writeInt(toIntExact(output.longSize() - footerStart));
+            output.writeBytes(MAGIC);
+        }
+        finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Reads back the written file and compares the row count and a checksum of every column with the data
+     * that was written. The writer must be created with validation enabled and must be closed.
+     */
+    public void validate(ParquetDataSource input)
+            throws IOException
+    {
+        checkState(validate, "validation is not enabled");
+        checkState(closed, "writer is not closed");
+
+        ParquetMetadata parquetMetadata = readFooter(input, input.toString());
+        MessageType fileSchema = parquetMetadata.getFileMetaData().getSchema();
+        MessageColumnIO messageColumnIO = getColumnIO(fileSchema, fileSchema);
+
+        List<Field> fields = new ArrayList<>();
+        for (int i = 0; i < types.size(); i++) {
+            ColumnIO columnIO = lookupColumnByName(messageColumnIO, columnNames.get(i));
+            Optional<Field> field = columnIO == null ? Optional.empty() : constructField(types.get(i), columnIO);
+            if (!field.isPresent()) {
+                throw new ParquetCorruptionException("Write validation failed: column %s is missing", columnNames.get(i));
+            }
+            fields.add(field.get());
+        }
+
+        ParquetReader reader = new ParquetReader(messageColumnIO, parquetMetadata.getBlocks(), input, newSimpleAggregatedMemoryContext());
+        long[] checksums = new long[types.size()];
+        long rowCount = 0;
+        for (int batchSize = reader.nextBatch(); batchSize > 0; batchSize = reader.nextBatch()) {
+            for (int i = 0; i < fields.size(); i++) {
+                checksums[i] = updateChecksum(checksums[i], types.get(i), reader.readBlock(fields.get(i)), LongUnaryOperator.identity());
+            }
+            rowCount += batchSize;
+        }
+
+        if (rowCount != fileRowCount) {
+            throw new ParquetCorruptionException("Write validation failed: expected %s rows, but file contains %s rows", fileRowCount, rowCount);
+        }
+        for (int i = 0; i < checksums.length; i++) {
+            if (checksums[i] != validationChecksums[i]) {
+                throw new ParquetCorruptionException("Write validation failed: checksum mismatch for column %s", columnNames.get(i));
+            }
+        }
+    }
+
+    private static long updateChecksum(long checksum, Type type, Block block, LongUnaryOperator timestampConversion)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            long hash;
+            if (block.isNull(position)) {
+                hash = 0x9E3779B97F4A7C15L;
+            }
+            else if (TIMESTAMP.equals(type)) {
+                hash = AbstractLongType.hash(timestampConversion.applyAsLong(type.getLong(block, position)));
+            }
+            else {
+                hash = type.hash(block, position);
+            }
+            checksum = checksum * 31 + hash;
+        }
+        return checksum;
+    }
+
+    private static SchemaElement createSchemaElement(String name, Type type)
+    {
+        SchemaElement element = new SchemaElement(name);
+        element.setRepetition_type(FieldRepetitionType.OPTIONAL);
+        if (BOOLEAN.equals(type)) {
+            element.setType(parquet.format.Type.BOOLEAN);
+        }
+        else if (TINYINT.equals(type)) {
+            element.setType(parquet.format.Type.INT32);
+            element.setConverted_type(ConvertedType.INT_8);
+        }
+        else if (SMALLINT.equals(type)) {
+            element.setType(parquet.format.Type.INT32);
+            element.setConverted_type(ConvertedType.INT_16);
+        }
+        else if (INTEGER.equals(type)) {
+            element.setType(parquet.format.Type.INT32);
+        }
+        else if (DATE.equals(type)) {
+            element.setType(parquet.format.Type.INT32);
+            element.setConverted_type(ConvertedType.DATE);
+        }
+        else if (BIGINT.equals(type)) {
+            element.setType(parquet.format.Type.INT64);
+        }
+        else if (REAL.equals(type)) {
+            element.setType(parquet.format.Type.FLOAT);
+        }
+        else if (DOUBLE.equals(type)) {
+            element.setType(parquet.format.Type.DOUBLE);
+        }
+        else if (TIMESTAMP.equals(type)) {
+            element.setType(parquet.format.Type.INT96);
+        }
+        else if (isVarcharType(type) || isCharType(type)) {
+            element.setType(parquet.format.Type.BYTE_ARRAY);
+            element.setConverted_type(ConvertedType.UTF8);
+        }
+        else if (VARBINARY.equals(type)) {
+            element.setType(parquet.format.Type.BYTE_ARRAY);
+        }
+        else if (type instanceof DecimalType) {
+            DecimalType decimalType = (DecimalType) type;
+            element.setType(parquet.format.Type.FIXED_LEN_BYTE_ARRAY);
+            element.setType_length(getDecimalByteLength(decimalType.getPrecision()));
+            element.setConverted_type(ConvertedType.DECIMAL);
+            element.setPrecision(decimalType.getPrecision());
+            element.setScale(decimalType.getScale());
+        }
+        else {
+            throw new IllegalArgumentException("Type not supported by the Parquet writer: " + type);
+        }
+        return element;
+    }
+
+    private static ColumnWriter createColumnWriter(
+            String name,
+            Type type,
+            parquet.format.Type parquetType,
+            CompressionCodecName codec,
+            ParquetWriterOptions options,
+            LongUnaryOperator timestampConversion)
+    {
+        long maxDictionaryPageSize = options.getMaxDictionaryPageSize().toBytes();
+        StatisticsType statisticsType;
+        ValuesWriter valuesWriter;
+        StatisticsBuilder pageStatistics;
+        switch (parquetType) {
+            case BOOLEAN:
+                statisticsType = StatisticsType.BOOLEAN;
+                pageStatistics = new StatisticsBuilder(statisticsType);
+                valuesWriter = new BooleanValuesWriter(type, pageStatistics);
+                break;
+            case INT32:
+                statisticsType = StatisticsType.INT32;
+                pageStatistics = new StatisticsBuilder(statisticsType);
+                valuesWriter = new FixedWidthValuesWriter(Integer.BYTES, type::getLong, maxDictionaryPageSize, pageStatistics);
+                break;
+            case INT64:
+                statisticsType = StatisticsType.INT64;
+                pageStatistics = new StatisticsBuilder(statisticsType);
+                valuesWriter = new FixedWidthValuesWriter(Long.BYTES, type::getLong, maxDictionaryPageSize, pageStatistics);
+                break;
+            case FLOAT:
+                // REAL values are stored as the int bits of the float
+                statisticsType = StatisticsType.FLOAT;
+                pageStatistics = new StatisticsBuilder(statisticsType);
+                valuesWriter = new FixedWidthValuesWriter(Float.BYTES, type::getLong, maxDictionaryPageSize, pageStatistics);
+                break;
+            case DOUBLE:
+                statisticsType = StatisticsType.DOUBLE;
+                pageStatistics = new StatisticsBuilder(statisticsType);
+                valuesWriter = new FixedWidthValuesWriter(Double.BYTES, (block, position) -> Double.doubleToLongBits(type.getDouble(block, position)), maxDictionaryPageSize, pageStatistics);
+                break;
+            case BYTE_ARRAY:
+                statisticsType = StatisticsType.BINARY;
+                pageStatistics = new StatisticsBuilder(statisticsType);
+                valuesWriter = new BinaryValuesWriter(OptionalInt.empty(), type::getSlice, maxDictionaryPageSize, pageStatistics);
+                break;
+            case INT96:
+                // INT96 and decimal statistics are not ordered by the unsigned byte comparison used by readers, so none are written
+                statisticsType = StatisticsType.NONE;
+                pageStatistics = new StatisticsBuilder(statisticsType);
+                valuesWriter = new BinaryValuesWriter(OptionalInt.of(12), timestampReader(type, timestampConversion), maxDictionaryPageSize, pageStatistics);
+                break;
+            case FIXED_LEN_BYTE_ARRAY:
+                DecimalType decimalType = (DecimalType) type;
+                int length = getDecimalByteLength(decimalType.getPrecision());
+                statisticsType = StatisticsType.NONE;
+                pageStatistics = new StatisticsBuilder(statisticsType);
+                valuesWriter = new BinaryValuesWriter(OptionalInt.of(length), decimalReader(decimalType, length), maxDictionaryPageSize, pageStatistics);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported Parquet type: " + parquetType);
+        }
+        return new ColumnWriter(name, parquetType, valuesWriter, pageStatistics, new StatisticsBuilder(statisticsType), codec, options.getMaxPageSize().toBytes());
+    }
+
+    /**
+     * The Hive record writer hands timestamps to Hive as {@link java.sql.Timestamp}, whose wall clock
+     * time is that of the JVM time zone. INT96 values are instants that Hive shows in its own time zone,
+     * so the same wall clock time is written in the storage time zone. Nothing changes when the storage
+     * time zone is the JVM time zone, which is what the record writer requires.
+     */
+    private long toStorageTimestamp(long millis)
+    {
+        return hiveStorageTimeZone.convertLocalToUTC(DateTimeZone.getDefault().convertUTCToLocal(millis), false);
+    }
+
+    private static SliceValueReader timestampReader(Type type, LongUnaryOperator timestampConversion)
+    {
+        // INT96 timestamps are the nanos of the day followed by the julian day, both little endian
+        Slice buffer = Slices.allocate(12);
+        return (block, position) -> {
+            long millis = timestampConversion.applyAsLong(type.getLong(block, position));
+            buffer.setLong(0, floorMod(millis, MILLIS_IN_DAY) * NANOS_PER_MILLISECOND);
+            buffer.setInt(Long.BYTES, toIntExact(floorDiv(millis, MILLIS_IN_DAY) + JULIAN_EPOCH_OFFSET_DAYS));
+            return buffer;
+        };
+    }
+
+    private static SliceValueReader decimalReader(DecimalType type, int length)
+    {
+        // decimals are the big endian two's complement of the unscaled value, sign extended to the fixed length
+        Slice buffer = Slices.allocate(length);
+        if (type.isShort()) {
+            return (block, position) -> {
+                long value = type.getLong(block, position);
+                for (int i = 0; i < length; i++) {
+                    int shift = (length - 1 - i) * Byte.SIZE;
+                    buffer.setByte(i, shift < Long.SIZE ? (int) (value >> shift) : (int) (value >> (Long.SIZE - 1)));
+                }
+                return buffer;
+            };
+        }
+        return (block, position) -> {
+            BigInteger value = Decimals.decodeUnscaledValue(type.getSlice(block, position));
+            byte[] bytes = value.toByteArray();
+            byte extension = (byte) (value.signum() < 0 ? -1 : 0);
+            int offset = length - bytes.length;
+            for (int i = 0; i < length; i++) {
+                buffer.setByte(i, i < offset ? extension : bytes[i - offset]);
+            }
+            return buffer;
+        };
+    }
+
+    private static int getDecimalByteLength(int precision)
+    {
+        // smallest number of bytes that can hold any unscaled value of the precision, as Hive computes it
+        return (int) Math.ceil((Math.log(Math.pow(10, precision) - 1) / Math.log(2) + 1) / Byte.SIZE);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.writer;
+
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+
+/**
+ * Encodes integers with the Parquet RLE / bit-packing hybrid encoding.
+ * <p>
+ * Runs of at least eight repeated values are written as RLE runs, all other values are
+ * bit-packed in groups of eight. This is the same strategy as the parquet-mr encoder, so
+ * the output is byte for byte identical.
+ */
+class RunLengthBitPackingHybridEncoder
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(RunLengthBitPackingHybridEncoder.class).instanceSize();
+
+    private static final int GROUP_SIZE = 8;
+    // the header of a bit-packed run is a single byte, which limits the run to 63 groups
+    private static final int MAX_BIT_PACKED_GROUPS = 63;
+
+    private final int bitWidth;
+    private final DynamicSliceOutput output;
+
+    private final int[] bufferedValues = new int[GROUP_SIZE];
+    private int bufferedValueCount;
+
+    private int previousValue;
+    private int repeatCount;
+
+    private int bitPackedGroupCount;
+    // position of the header byte of the current bit-packed run, or -1 if there is none
+    private int bitPackedRunHeaderPosition = -1;
+
+    public RunLengthBitPackingHybridEncoder(int bitWidth, int initialCapacity)
+    {
+        checkArgument(bitWidth >= 0 && bitWidth <= 32, "bitWidth must be between 0 and 32");
+        this.bitWidth = bitWidth;
+        this.output = new DynamicSliceOutput(initialCapacity);
+    }
+
+    public void writeInt(int value)
+    {
+        if (value == previousValue) {
+            repeatCount++;
+            if (repeatCount >= GROUP_SIZE) {
+                // this will certainly be an RLE run, so just count the repeats
+                return;
+            }
+        }
+        else {
+            if (repeatCount >= GROUP_SIZE) {
+                writeRleRun();
+            }
+            repeatCount = 1;
+            previousValue = value;
+        }
+
+        bufferedValues[bufferedValueCount] = value;
+        bufferedValueCount++;
+        if (bufferedValueCount == GROUP_SIZE) {
+            writeOrAppendBitPackedRun();
+        }
+    }
+
+    /**
+     * Returns the encoded values, and resets the encoder.
+     */
+    public Slice toSlice()
+    {
+        if (repeatCount >= GROUP_SIZE) {
+            writeRleRun();
+        }
+        else if (bufferedValueCount > 0) {
+            for (int i = bufferedValueCount; i < GROUP_SIZE; i++) {
+                bufferedValues[i] = 0;
+            }
+            writeOrAppendBitPackedRun();
+        }
+        endBitPackedRun();
+
+        Slice slice = output.copySlice();
+        reset();
+        return slice;
+    }
+
+    public long getBufferedBytes()
+    {
+        return output.size() + ((long) bufferedValueCount * bitWidth + 7) / 8;
+    }
+
+    public long getRetainedBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(bufferedValues) + output.getRetainedSize();
+    }
+
+    public void reset()
+    {
+        output.reset();
+        bufferedValueCount = 0;
+        previousValue = 0;
+        repeatCount = 0;
+        bitPackedGroupCount = 0;
+        bitPackedRunHeaderPosition = -1;
+    }
+
+    private void writeOrAppendBitPackedRun()
+    {
+        if (bitPackedGroupCount >= MAX_BIT_PACKED_GROUPS) {
+            endBitPackedRun();
+        }
+        if (bitPackedRunHeaderPosition == -1) {
+            // reserve the header byte, it is written when the run ends
+            bitPackedRunHeaderPosition = output.size();
+            output.writeByte(0);
+        }
+
+        long buffer = 0;
+        int bufferedBits = 0;
+        long mask = (1L << bitWidth) - 1;
+        for (int value : bufferedValues) {
+            buffer |= (value & mask) << bufferedBits;
+            bufferedBits += bitWidth;
+            while (bufferedBits >= Byte.SIZE) {
+                output.writeByte((int) buffer);
+                buffer >>>= Byte.SIZE;
+                bufferedBits -= Byte.SIZE;
+            }
+        }
+
+        bufferedValueCount = 0;
+        // repeated values that were just packed can not be part of an RLE run anymore
+        repeatCount = 0;
+        bitPackedGroupCount++;
+    }
+
+    private void endBitPackedRun()
+    {
+        if (bitPackedRunHeaderPosition == -1) {
+            return;
+        }
+        output.getUnderlyingSlice().setByte(bitPackedRunHeaderPosition, (bitPackedGroupCount << 1) | 1);
+        bitPackedRunHeaderPosition = -1;
+        bitPackedGroupCount = 0;
+    }
+
+    private void writeRleRun()
+    {
+        endBitPackedRun();
+
+        writeUnsignedVarInt(repeatCount << 1);
+        int value = previousValue;
+        for (int i = 0; i < (bitWidth + 7) / 8; i++) {
+            output.writeByte(value);
+            value >>>= Byte.SIZE;
+        }
+
+        repeatCount = 0;
+        bufferedValueCount = 0;
+    }
+
+    private void writeUnsignedVarInt(int value)
+    {
+        while ((value & 0xFFFF_FF80) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.writer;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import parquet.format.Statistics;
+
+import java.nio.ByteBuffer;
+
+import static java.lang.Double.longBitsToDouble;
+import static java.lang.Float.intBitsToFloat;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Builds the statistics of a page or a column chunk. Values are added in the representation
+ * used by the values writers: fixed width values as their bits in a long, and variable width
+ * values as slices.
+ */
+class StatisticsBuilder
+{
+    // larger values are not worth storing in every page header and in the footer
+    private static final int MAX_BINARY_STATISTICS_LENGTH = 4096;
+
+    public enum StatisticsType
+    {
+        INT32(Integer.BYTES),
+        INT64(Long.BYTES),
+        FLOAT(Float.BYTES),
+        DOUBLE(Double.BYTES),
+        BOOLEAN(1),
+        BINARY(0),
+        NONE(0);
+
+        private final int fixedWidth;
+
+        StatisticsType(int fixedWidth)
+        {
+            this.fixedWidth = fixedWidth;
+        }
+    }
+
+    private final StatisticsType type;
+
+    private long nullCount;
+    private boolean hasValues;
+    // NaN has no defined order, so min and max are not written for values containing NaN
+    private boolean hasNaN;
+
+    private long minLong;
+    private long maxLong;
+    private Slice minSlice;
+    private Slice maxSlice;
+
+    public StatisticsBuilder(StatisticsType type)
+    {
+        this.type = requireNonNull(type, "type is null");
+    }
+
+    public void addNull()
+    {
+        nullCount++;
+    }
+
+    public void addLong(long value)
+    {
+        if (type == StatisticsType.NONE) {
+            return;
+        }
+        if ((type == StatisticsType.FLOAT && Float.isNaN(intBitsToFloat((int) value))) || (type == StatisticsType.DOUBLE && Double.isNaN(longBitsToDouble(value)))) {
+            hasNaN = true;
+            return;
+        }
+        if (!hasValues) {
+            minLong = value;
+            maxLong = value;
+            hasValues = true;
+            return;
+        }
+        if (compare(value, minLong) < 0) {
+            minLong = value;
+        }
+        if (compare(value, maxLong) > 0) {
+            maxLong = value;
+        }
+    }
+
+    public void addSlice(Slice value)
+    {
+        if (type == StatisticsType.NONE) {
+            return;
+        }
+        if (!hasValues) {
+            minSlice = Slices.copyOf(value);
+            maxSlice = minSlice;
+            hasValues = true;
+            return;
+        }
+        if (value.compareTo(minSlice) < 0) {
+            minSlice = Slices.copyOf(value);
+        }
+        if (value.compareTo(maxSlice) > 0) {
+            maxSlice = Slices.copyOf(value);
+        }
+    }
+
+    public void merge(StatisticsBuilder other)
+    {
+        nullCount += other.nullCount;
+        hasNaN |= other.hasNaN;
+        if (!other.hasValues) {
+            return;
+        }
+        if (type == StatisticsType.BINARY) {
+            addSlice(other.minSlice);
+            addSlice(other.maxSlice);
+        }
+        else {
+            addLong(other.minLong);
+            addLong(other.maxLong);
+        }
+    }
+
+    public Statistics build()
+    {
+        Statistics statistics = new Statistics();
+        statistics.setNull_count(nullCount);
+        if (!hasValues || hasNaN) {
+            return statistics;
+        }
+        if (type == StatisticsType.BINARY) {
+            if (minSlice.length() <= MAX_BINARY_STATISTICS_LENGTH && maxSlice.length() <= MAX_BINARY_STATISTICS_LENGTH) {
+                statistics.setMin(minSlice.getBytes());
+                statistics.setMax(maxSlice.getBytes());
+            }
+        }
+        else {
+            statistics.setMin(toBytes(minLong));
+            statistics.setMax(toBytes(maxLong));
+        }
+        return statistics;
+    }
+
+    public void reset()
+    {
+        nullCount = 0;
+        hasValues = false;
+        hasNaN = false;
+        minSlice = null;
+        maxSlice = null;
+    }
+
+    private int compare(long left, long right)
+    {
+        switch (type) {
+            case INT32:
+            case BOOLEAN:
+                return Integer.compare((int) left, (int) right);
+            case FLOAT:
+                return Float.compare(intBitsToFloat((int) left), intBitsToFloat((int) right));
+            case DOUBLE:
+                return Double.compare(longBitsToDouble(left), longBitsToDouble(right));
+            default:
+                return Long.compare(left, right);
+        }
+    }
+
+    private byte[] toBytes(long value)
+    {
+        // statistics use the plain encoding of the values, which is little endian
+        ByteBuffer buffer = ByteBuffer.allocate(type.fixedWidth).order(LITTLE_ENDIAN);
+        switch (type.fixedWidth) {
+            case 1:
+                buffer.put((byte) value);
+                break;
+            case Integer.BYTES:
+                buffer.putInt((int) value);
+                break;
+            default:
+                buffer.putLong(value);
+                break;
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.writer;
+
+import com.facebook.presto.spi.block.Block;
+import io.airlift.slice.Slice;
+import parquet.format.Encoding;
+
+import java.util.Optional;
+
+/**
+ * Encodes the non-null values of a column chunk into data pages.
+ */
+interface ValuesWriter
+{
+    void write(Block block, int position);
+
+    /**
+     * Returns the size of the encoded values of the current page.
+     */
+    long getBufferedBytes();
+
+    long getRetainedBytes();
+
+    /**
+     * Returns the encoded values of the current page and starts a new page.
+     */
+    Slice flushPage();
+
+    /**
+     * Returns the encoding of the page returned by the last call to {@link #flushPage()}.
+     */
+    Encoding getPageEncoding();
+
+    /**
+     * Returns the plain encoded dictionary of the column chunk, if any page of the chunk is dictionary encoded.
+     */
+    Optional<Slice> getDictionaryPage();
+
+    int getDictionarySize();
+
+    /**
+     * Starts a new column chunk.
+     */
+    void reset();
+}
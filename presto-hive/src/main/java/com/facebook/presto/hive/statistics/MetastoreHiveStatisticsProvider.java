@@ -50,7 +50,6 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.OptionalLong;
-import java.util.PrimitiveIterator;
 import java.util.function.Function;
 import java.util.stream.DoubleStream;
 
@@ -74,6 +73,7 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Maps.immutableEntry;
 import static com.google.common.hash.Hashing.goodFastHash;
+import static java.lang.Math.min;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Objects.requireNonNull;
 
@@ -136,8 +136,8 @@ public class MetastoreHiveStatisticsProvider
                 dataSize = calculateDataSizeForPartitioningKey(hiveColumnHandle, queriedPartitions, statisticsSample, rowCount, rowsPerPartition);
             }
             else {
-                rangeStatistics.setDistinctValuesCount(calculateDistinctValuesCount(statisticsSample, columnName));
-                nullsFraction = calculateNullsFraction(statisticsSample, queriedPartitionsCount, columnName, rowCount);
+                nullsFraction = calculateNullsFraction(statisticsSample, columnName, rowCount);
+                rangeStatistics.setDistinctValuesCount(calculateDistinctValuesCount(statisticsSample, columnName, rowCount, nullsFraction));
 
                 if (isLowHighSupportedForType(prestoType)) {
                     List<Range> ranges = statisticsSample.values().stream()
@@ -216,9 +216,10 @@ public class MetastoreHiveStatisticsProvider
         return new Estimate(rowsPerPartition.getAsDouble() * queriedPartitionsCount);
     }
 
-    private Estimate calculateDistinctValuesCount(Map<String, PartitionStatistics> statisticsSample, String column)
+    @VisibleForTesting
+    static Estimate calculateDistinctValuesCount(Map<String, PartitionStatistics> statisticsSample, String column, Estimate rowCount, Estimate nullsFraction)
     {
-        return summarizePartitionStatistics(
+        Estimate distinctValuesCount = summarizePartitionStatistics(
                 statisticsSample.values(),
                 column,
                 columnStatistics -> {
@@ -235,9 +236,16 @@ public class MetastoreHiveStatisticsProvider
                     return OptionalDouble.empty();
                 },
                 DoubleStream::max);
+
+        // the maximum over the sampled partitions is a lower bound, but it can never exceed the number of non null values
+        if (distinctValuesCount.isValueUnknown() || rowCount.isValueUnknown() || nullsFraction.isValueUnknown()) {
+            return distinctValuesCount;
+        }
+        return new Estimate(min(distinctValuesCount.getValue(), rowCount.getValue() * (1.0 - nullsFraction.getValue())));
     }
 
-    private Estimate calculateNullsFraction(Map<String, PartitionStatistics> statisticsSample, int totalPartitionsCount, String column, Estimate rowCount)
+    @VisibleForTesting
+    static Estimate calculateNullsFraction(Map<String, PartitionStatistics> statisticsSample, String column, Estimate rowCount)
     {
         if (rowCount.isValueUnknown()) {
             return Estimate.unknownValue();
@@ -246,33 +254,24 @@ public class MetastoreHiveStatisticsProvider
             return Estimate.zeroValue();
         }
 
-        Estimate totalNullsCount = summarizePartitionStatistics(
-                statisticsSample.values(),
-                column,
-                columnStatistics -> {
-                    if (!columnStatistics.getNullsCount().isPresent()) {
-                        return OptionalDouble.empty();
-                    }
-                    return OptionalDouble.of(columnStatistics.getNullsCount().getAsLong());
-                },
-                nullsCountStream -> {
-                    double nullsCount = 0;
-                    long partitionsWithStatisticsCount = 0;
-                    for (PrimitiveIterator.OfDouble nullsCountIterator = nullsCountStream.iterator(); nullsCountIterator.hasNext(); ) {
-                        nullsCount += nullsCountIterator.nextDouble();
-                        partitionsWithStatisticsCount++;
-                    }
-
-                    if (partitionsWithStatisticsCount == 0) {
-                        return OptionalDouble.empty();
-                    }
-                    return OptionalDouble.of(totalPartitionsCount / partitionsWithStatisticsCount * nullsCount);
-                });
+        // weight the nulls count by the number of rows in each sampled partition,
+        // ignoring partitions that do not have both statistics
+        double knownNullsCount = 0;
+        double knownRowCount = 0;
+        for (PartitionStatistics statistics : statisticsSample.values()) {
+            OptionalLong partitionRowCount = statistics.getBasicStatistics().getRowCount();
+            HiveColumnStatistics columnStatistics = statistics.getColumnStatistics().get(column);
+            if (!partitionRowCount.isPresent() || columnStatistics == null || !columnStatistics.getNullsCount().isPresent()) {
+                continue;
+            }
+            knownNullsCount += columnStatistics.getNullsCount().getAsLong();
+            knownRowCount += partitionRowCount.getAsLong();
+        }
 
-        if (totalNullsCount.isValueUnknown()) {
+        if (knownRowCount == 0) {
             return Estimate.unknownValue();
         }
-        return new Estimate(totalNullsCount.getValue() / rowCount.getValue());
+        return new Estimate(min(knownNullsCount / knownRowCount, 1.0));
     }
 
     private Estimate calculateDataSize(Map<String, PartitionStatistics> statisticsSample, String columnName, Estimate rowCount)
@@ -319,6 +318,7 @@ public class MetastoreHiveStatisticsProvider
         return new Estimate(partitions.stream()
                 .map(HivePartition::getKeys)
                 .map(keys -> keys.get(partitionColumn))
+                .filter(value -> !value.isNull())
                 .distinct()
                 .count());
     }
@@ -343,7 +343,12 @@ public class MetastoreHiveStatisticsProvider
         double estimatedNullsCount = queriedPartitions.stream()
                 .filter(partition -> partition.getKeys().get(partitionColumn).isNull())
                 .map(HivePartition::getPartitionId)
-                .mapToDouble(partitionId -> orElse(statisticsSample.get(partitionId).getBasicStatistics().getRowCount(), rowsPerPartition.getAsDouble()))
+                .mapToDouble(partitionId -> orElse(
+                        Optional.ofNullable(statisticsSample.get(partitionId))
+                                .orElseGet(PartitionStatistics::empty)
+                                .getBasicStatistics()
+                                .getRowCount(),
+                        rowsPerPartition.getAsDouble()))
                 .sum();
         return new Estimate(estimatedNullsCount / rowCount.getValue());
     }
@@ -389,7 +394,7 @@ public class MetastoreHiveStatisticsProvider
         return new Estimate(knownDataSize / knownRowCount * rowCount.getValue());
     }
 
-    private Estimate summarizePartitionStatistics(
+    private static Estimate summarizePartitionStatistics(
             Collection<PartitionStatistics> partitionStatistics,
             String column,
             Function<HiveColumnStatistics, OptionalDouble> valueExtractFunction,
@@ -116,6 +116,8 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collection;
@@ -133,6 +135,7 @@ import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 
@@ -230,6 +233,7 @@ import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.transformValues;
 import static com.google.common.collect.Maps.uniqueIndex;
 import static com.google.common.collect.MoreCollectors.onlyElement;
 import static com.google.common.collect.Sets.difference;
@@ -259,6 +263,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.joda.time.DateTimeZone.UTC;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -714,7 +719,9 @@ public abstract class AbstractTestHiveClient
                 executor,
                 Duration.valueOf("1m"),
                 Duration.valueOf("15s"),
-                10000);
+                10000,
+                100,
+                4);
 
         setup(databaseName, hiveClientConfig, metastore);
     }
@@ -730,25 +737,7 @@ public abstract class AbstractTestHiveClient
         hdfsEnvironment = new HdfsEnvironment(hdfsConfiguration, hiveClientConfig, new NoHdfsAuthentication());
         locationService = new HiveLocationService(hdfsEnvironment);
         JsonCodec<PartitionUpdate> partitionUpdateCodec = JsonCodec.jsonCodec(PartitionUpdate.class);
-        metadataFactory = new HiveMetadataFactory(
-                metastoreClient,
-                hdfsEnvironment,
-                new HivePartitionManager(TYPE_MANAGER, hiveClientConfig),
-                timeZone,
-                10,
-                true,
-                false,
-                false,
-                true,
-                1000,
-                getHiveClientConfig().getMaxPartitionsPerScan(),
-                TYPE_MANAGER,
-                locationService,
-                new TableParameterCodec(),
-                partitionUpdateCodec,
-                newFixedThreadPool(2),
-                new HiveTypeTranslator(),
-                TEST_SERVER_VERSION);
+        metadataFactory = createMetadataFactory(hiveClientConfig, metastoreClient, false);
         transactionManager = new HiveTransactionManager();
         splitManager = new HiveSplitManager(
                 transactionHandle -> ((HiveMetadata) transactionManager.get(transactionHandle)).getMetastore(),
@@ -763,7 +752,6 @@ public abstract class AbstractTestHiveClient
                 hiveClientConfig.getMinPartitionBatchSize(),
                 hiveClientConfig.getMaxPartitionBatchSize(),
                 hiveClientConfig.getMaxInitialSplits(),
-                hiveClientConfig.getSplitLoaderConcurrency(),
                 false);
         pageSinkProvider = new HivePageSinkProvider(
                 getDefaultHiveFileWriterFactories(hiveClientConfig),
@@ -782,6 +770,31 @@ public abstract class AbstractTestHiveClient
         pageSourceProvider = new HivePageSourceProvider(hiveClientConfig, hdfsEnvironment, getDefaultHiveRecordCursorProvider(hiveClientConfig), getDefaultHiveDataStreamFactories(hiveClientConfig), TYPE_MANAGER);
     }
 
+    private HiveMetadataFactory createMetadataFactory(HiveClientConfig hiveClientConfig, ExtendedHiveMetastore metastore, boolean immutablePartitions)
+    {
+        return new HiveMetadataFactory(
+                metastore,
+                hdfsEnvironment,
+                new HadoopDirectoryLister(),
+                new HivePartitionManager(TYPE_MANAGER, hiveClientConfig),
+                timeZone,
+                10,
+                true,
+                false,
+                false,
+                true,
+                immutablePartitions,
+                1000,
+                getHiveClientConfig().getMaxPartitionsPerScan(),
+                TYPE_MANAGER,
+                locationService,
+                new TableParameterCodec(),
+                JsonCodec.jsonCodec(PartitionUpdate.class),
+                newFixedThreadPool(2),
+                new HiveTypeTranslator(),
+                TEST_SERVER_VERSION);
+    }
+
     /**
      * Allow subclass to change default configuration.
      */
@@ -2661,6 +2674,86 @@ public abstract class AbstractTestHiveClient
         }
     }
 
+    @Test
+    public void testTableLayoutVersion()
+            throws Exception
+    {
+        SchemaTableName tableName = temporaryTable("table_layout_version");
+        try {
+            createDummyPartitionedTable(tableName, STATISTICS_PARTITIONED_TABLE_COLUMNS);
+
+            // without immutable partitions files can be added to a partition without any metastore change
+            assertFalse(getTableLayoutVersion(metadataFactory, tableName).isPresent());
+
+            HiveMetadataFactory immutablePartitionsMetadataFactory = createMetadataFactory(getHiveClientConfig(), metastoreClient, true);
+            String initialVersion = getTableLayoutVersion(immutablePartitionsMetadataFactory, tableName).get();
+            assertEquals(getTableLayoutVersion(immutablePartitionsMetadataFactory, tableName).get(), initialVersion);
+
+            ExtendedHiveMetastore metastoreClient = getMetastoreClient();
+            List<String> partitionValues = ImmutableList.of("2016-01-01");
+            String partitionName = makePartName(ImmutableList.of("ds"), partitionValues);
+            Partition partition = metastoreClient.getPartition(tableName.getSchemaName(), tableName.getTableName(), partitionValues).get();
+            PartitionStatistics statistics = metastoreClient.getPartitionStatistics(tableName.getSchemaName(), tableName.getTableName(), ImmutableSet.of(partitionName)).get(partitionName);
+
+            // change the parameters of the partition
+            Partition modifiedPartition = Partition.builder(partition)
+                    .setParameters(ImmutableMap.<String, String>builder()
+                            .putAll(partition.getParameters())
+                            .put("test_layout_version", "1")
+                            .build())
+                    .build();
+            metastoreClient.alterPartition(tableName.getSchemaName(), tableName.getTableName(), new PartitionWithStatistics(modifiedPartition, partitionName, statistics));
+            String parametersVersion = getTableLayoutVersion(immutablePartitionsMetadataFactory, tableName).get();
+            assertNotEquals(parametersVersion, initialVersion);
+
+            // the file metastore keeps managed partitions in the table directory, so the moved location is only reported to the metadata
+            HiveMetadataFactory movedPartitionsMetadataFactory = createMetadataFactory(getHiveClientConfig(), movePartitions(metastoreClient, "_moved"), true);
+            String locationVersion = getTableLayoutVersion(movedPartitionsMetadataFactory, tableName).get();
+            assertNotEquals(locationVersion, initialVersion);
+            assertNotEquals(locationVersion, parametersVersion);
+        }
+        finally {
+            dropTable(tableName);
+        }
+    }
+
+    private Optional<String> getTableLayoutVersion(HiveMetadataFactory metadataFactory, SchemaTableName tableName)
+    {
+        // a new metadata does not see the metastore cache of a previous transaction
+        ConnectorSession session = newSession();
+        HiveMetadata metadata = metadataFactory.get();
+        ConnectorTableHandle tableHandle = getTableHandle(metadata, tableName);
+        List<ConnectorTableLayoutResult> tableLayoutResults = metadata.getTableLayouts(session, tableHandle, Constraint.alwaysTrue(), Optional.empty());
+        return metadata.getTableLayoutVersion(session, getOnlyElement(tableLayoutResults).getTableLayout().getHandle());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ExtendedHiveMetastore movePartitions(ExtendedHiveMetastore metastore, String locationSuffix)
+    {
+        Function<Partition, Partition> movePartition = partition -> Partition.builder(partition)
+                .withStorage(storage -> storage.setLocation(partition.getStorage().getLocation() + locationSuffix))
+                .build();
+        return (ExtendedHiveMetastore) Proxy.newProxyInstance(
+                ExtendedHiveMetastore.class.getClassLoader(),
+                new Class<?>[] {ExtendedHiveMetastore.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(metastore, args);
+                    }
+                    catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("getPartition")) {
+                        return ((Optional<Partition>) result).map(movePartition);
+                    }
+                    if (method.getName().equals("getPartitionsByNames")) {
+                        return ImmutableMap.copyOf(transformValues((Map<String, Optional<Partition>>) result, partition -> partition.map(movePartition)));
+                    }
+                    return result;
+                });
+    }
+
     private void createDummyTable(SchemaTableName tableName)
     {
         try (Transaction transaction = newTransaction()) {
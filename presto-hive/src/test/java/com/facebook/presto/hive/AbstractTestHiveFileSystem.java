@@ -171,6 +171,7 @@ public abstract class AbstractTestHiveFileSystem
                 config,
                 metastoreClient,
                 hdfsEnvironment,
+                new HadoopDirectoryLister(),
                 hivePartitionManager,
                 newDirectExecutorService(),
                 TYPE_MANAGER,
@@ -193,7 +194,6 @@ public abstract class AbstractTestHiveFileSystem
                 config.getMinPartitionBatchSize(),
                 config.getMaxPartitionBatchSize(),
                 config.getMaxInitialSplits(),
-                config.getSplitLoaderConcurrency(),
                 config.getRecursiveDirWalkerEnabled());
         pageSinkProvider = new HivePageSinkProvider(
                 getDefaultHiveFileWriterFactories(config),
@@ -48,7 +48,9 @@ import java.net.URI;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.facebook.presto.hive.BackgroundHiveSplitLoader.BucketSplitInfo.createBucketSplitInfo;
 import static com.facebook.presto.hive.HiveColumnHandle.pathColumnHandle;
@@ -66,7 +68,9 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.slice.Slices.utf8Slice;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.Collections.nCopies;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertThrows;
 
@@ -199,6 +203,42 @@ public class TestBackgroundHiveSplitLoader
         assertThrows(RuntimeException.class, () -> hiveSplitSource.isFinished());
     }
 
+    @Test
+    public void testPartitionsListedConcurrently()
+            throws Exception
+    {
+        assertEquals(getMaxConcurrentListings(1), 1);
+        assertEquals(getMaxConcurrentListings(4), 4);
+    }
+
+    private static int getMaxConcurrentListings(int loaderConcurrency)
+            throws Exception
+    {
+        int partitionCount = 8;
+        ConcurrencyTrackingDirectoryLister directoryLister = new ConcurrencyTrackingDirectoryLister(TEST_FILES, loaderConcurrency);
+        BackgroundHiveSplitLoader backgroundHiveSplitLoader = new BackgroundHiveSplitLoader(
+                SIMPLE_TABLE,
+                nCopies(partitionCount, new HivePartitionMetadata(
+                        new HivePartition(new SchemaTableName("testSchema", "table_name")),
+                        Optional.empty(),
+                        ImmutableMap.of())),
+                TupleDomain.all(),
+                createBucketSplitInfo(Optional.empty(), Optional.empty()),
+                SESSION,
+                new TestingHdfsEnvironment(),
+                new NamenodeStats(),
+                directoryLister,
+                EXECUTOR,
+                loaderConcurrency,
+                false);
+
+        HiveSplitSource hiveSplitSource = hiveSplitSource(backgroundHiveSplitLoader, TupleDomain.all());
+        backgroundHiveSplitLoader.start(hiveSplitSource);
+
+        assertEquals(drain(hiveSplitSource).size(), partitionCount * TEST_FILES.size());
+        return directoryLister.getMaxConcurrentListings();
+    }
+
     private static List<String> drain(HiveSplitSource source)
             throws Exception
     {
@@ -323,8 +363,10 @@ public class TestBackgroundHiveSplitLoader
                 1,
                 new DataSize(32, MEGABYTE),
                 backgroundHiveSplitLoader,
+                partitionName -> true,
                 EXECUTOR,
-                new CounterStat());
+                new CounterStat(),
+                new HiveSplitSourceStats());
     }
 
     private static Table table(
@@ -398,7 +440,7 @@ public class TestBackgroundHiveSplitLoader
         }
 
         @Override
-        public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path)
+        public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
         {
             return new RemoteIterator<LocatedFileStatus>()
             {
@@ -419,6 +461,44 @@ public class TestBackgroundHiveSplitLoader
         }
     }
 
+    private static class ConcurrencyTrackingDirectoryLister
+            extends TestingDirectoryLister
+    {
+        private final CountDownLatch expectedListingsStarted;
+        private final AtomicInteger concurrentListings = new AtomicInteger();
+        private final AtomicInteger maxConcurrentListings = new AtomicInteger();
+
+        public ConcurrencyTrackingDirectoryLister(List<LocatedFileStatus> files, int expectedConcurrentListings)
+        {
+            super(files);
+            this.expectedListingsStarted = new CountDownLatch(expectedConcurrentListings);
+        }
+
+        @Override
+        public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
+        {
+            maxConcurrentListings.accumulateAndGet(concurrentListings.incrementAndGet(), Math::max);
+            try {
+                // hold the first listings until the expected number of them runs at the same time
+                expectedListingsStarted.countDown();
+                expectedListingsStarted.await(10, SECONDS);
+                return super.list(fs, table, path);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            finally {
+                concurrentListings.decrementAndGet();
+            }
+        }
+
+        public int getMaxConcurrentListings()
+        {
+            return maxConcurrentListings.get();
+        }
+    }
+
     private static class TestingHdfsEnvironment
             extends HdfsEnvironment
     {
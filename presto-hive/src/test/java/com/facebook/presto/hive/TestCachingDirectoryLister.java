@@ -0,0 +1,217 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.metastore.Column;
+import com.facebook.presto.hive.metastore.StorageFormat;
+import com.facebook.presto.hive.metastore.Table;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.hadoop.hive.metastore.TableType;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.hive.HiveType.HIVE_STRING;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+
+public class TestCachingDirectoryLister
+{
+    private static final Path TABLE_PATH = new Path("hdfs://VOL1:9000/db_name/table_name");
+    private static final Path PARTITION_PATH = new Path(TABLE_PATH, "ds=2018-01-01");
+    private static final List<LocatedFileStatus> FILES = ImmutableList.of(
+            locatedFileStatus(new Path(PARTITION_PATH, "file1")),
+            locatedFileStatus(new Path(PARTITION_PATH, "file2")));
+
+    @Test
+    public void testCachedListing()
+            throws IOException
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister(FILES);
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.*"));
+
+        assertEquals(list(lister, table("test_dbname", "test_table"), PARTITION_PATH), FILES);
+        assertEquals(list(lister, table("test_dbname", "test_table"), PARTITION_PATH), FILES);
+        assertEquals(delegate.getListCount(), 1);
+        assertEquals(lister.getHitCount(), 1);
+        assertEquals(lister.getMissCount(), 1);
+        assertEquals(lister.getCachedDirectoryCount(), 1);
+    }
+
+    @Test
+    public void testTableNotCached()
+            throws IOException
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister(FILES);
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.other_table"));
+
+        assertEquals(list(lister, table("test_dbname", "test_table"), PARTITION_PATH), FILES);
+        assertEquals(list(lister, table("test_dbname", "test_table"), PARTITION_PATH), FILES);
+        assertEquals(delegate.getListCount(), 2);
+        assertEquals(lister.getRequestCount(), 0);
+        assertEquals(lister.getCachedDirectoryCount(), 0);
+    }
+
+    @Test
+    public void testPartialListingNotCached()
+            throws IOException
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister(FILES);
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(5, MINUTES), 1000, ImmutableList.of("*"));
+
+        RemoteIterator<LocatedFileStatus> iterator = lister.list(null, table("test_dbname", "test_table"), PARTITION_PATH);
+        iterator.next();
+        assertEquals(lister.getCachedDirectoryCount(), 0);
+
+        assertEquals(list(lister, table("test_dbname", "test_table"), PARTITION_PATH), FILES);
+        assertEquals(delegate.getListCount(), 2);
+        assertEquals(lister.getCachedDirectoryCount(), 1);
+    }
+
+    @Test
+    public void testInvalidate()
+            throws IOException
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister(FILES);
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(5, MINUTES), 1000, ImmutableList.of("test_dbname.test_table"));
+        Path otherPartitionPath = new Path(TABLE_PATH, "ds=2018-01-02");
+
+        list(lister, table("test_dbname", "test_table"), PARTITION_PATH);
+        list(lister, table("test_dbname", "test_table"), otherPartitionPath);
+        assertEquals(lister.getCachedDirectoryCount(), 2);
+
+        lister.invalidate(PARTITION_PATH);
+        assertEquals(lister.getCachedDirectoryCount(), 1);
+
+        list(lister, table("test_dbname", "test_table"), PARTITION_PATH);
+        assertEquals(delegate.getListCount(), 3);
+
+        // invalidating a directory discards the listings of its sub-directories
+        lister.invalidate(TABLE_PATH);
+        assertEquals(lister.getCachedDirectoryCount(), 0);
+    }
+
+    @Test
+    public void testListingRacingWithInvalidationNotCached()
+            throws IOException
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister(FILES);
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new Duration(5, MINUTES), 1000, ImmutableList.of("*"));
+
+        RemoteIterator<LocatedFileStatus> iterator = lister.list(null, table("test_dbname", "test_table"), PARTITION_PATH);
+        lister.invalidate(PARTITION_PATH);
+        while (iterator.hasNext()) {
+            iterator.next();
+        }
+        assertEquals(lister.getCachedDirectoryCount(), 0);
+    }
+
+    private static List<LocatedFileStatus> list(DirectoryLister lister, Table table, Path path)
+            throws IOException
+    {
+        ImmutableList.Builder<LocatedFileStatus> files = ImmutableList.builder();
+        RemoteIterator<LocatedFileStatus> iterator = lister.list(null, table, path);
+        while (iterator.hasNext()) {
+            files.add(iterator.next());
+        }
+        return files.build();
+    }
+
+    private static Table table(String schemaName, String tableName)
+    {
+        Table.Builder tableBuilder = Table.builder();
+        tableBuilder.getStorageBuilder()
+                .setStorageFormat(
+                        StorageFormat.create(
+                                "com.facebook.hive.orc.OrcSerde",
+                                "org.apache.hadoop.hive.ql.io.RCFileInputFormat",
+                                "org.apache.hadoop.hive.ql.io.RCFileInputFormat"))
+                .setLocation(TABLE_PATH.toString());
+
+        return tableBuilder
+                .setDatabaseName(schemaName)
+                .setOwner("testOwner")
+                .setTableName(tableName)
+                .setTableType(TableType.MANAGED_TABLE.toString())
+                .setDataColumns(ImmutableList.of(new Column("col1", HIVE_STRING, Optional.empty())))
+                .setParameters(ImmutableMap.of())
+                .build();
+    }
+
+    private static LocatedFileStatus locatedFileStatus(Path path)
+    {
+        return new LocatedFileStatus(
+                0L,
+                false,
+                0,
+                0L,
+                0L,
+                0L,
+                null,
+                null,
+                null,
+                null,
+                path,
+                new BlockLocation[] {});
+    }
+
+    private static class CountingDirectoryLister
+            implements DirectoryLister
+    {
+        private final List<LocatedFileStatus> files;
+        private int listCount;
+
+        public CountingDirectoryLister(List<LocatedFileStatus> files)
+        {
+            this.files = files;
+        }
+
+        @Override
+        public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Table table, Path path)
+        {
+            listCount++;
+            return new RemoteIterator<LocatedFileStatus>()
+            {
+                private final Iterator<LocatedFileStatus> iterator = files.iterator();
+
+                @Override
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public LocatedFileStatus next()
+                {
+                    return iterator.next();
+                }
+            };
+        }
+
+        public int getListCount()
+        {
+            return listCount;
+        }
+    }
+}
@@ -50,6 +50,8 @@ public class TestHiveClientConfig
                 .setMetastoreCacheMaximumSize(10000)
                 .setPerTransactionMetastoreCacheMaximumSize(1000)
                 .setMaxMetastoreRefreshThreads(100)
+                .setPartitionFetchBatchSize(100)
+                .setPartitionFetchConcurrency(4)
                 .setMetastoreSocksProxy(null)
                 .setMetastoreTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setMinPartitionBatchSize(10)
@@ -80,6 +82,10 @@ public class TestHiveClientConfig
                 .setWriteValidationThreads(16)
                 .setTextMaxLineLength(new DataSize(100, Unit.MEGABYTE))
                 .setUseParquetColumnNames(false)
+                .setParquetOptimizedWriterEnabled(false)
+                .setParquetOptimizedWriterValidate(false)
+                .setParquetWriterBlockSize(new DataSize(128, Unit.MEGABYTE))
+                .setParquetWriterPageSize(new DataSize(1, Unit.MEGABYTE))
                 .setUseOrcColumnNames(false)
                 .setParquetPredicatePushdownEnabled(true)
                 .setParquetOptimizedReaderEnabled(true)
@@ -92,6 +98,7 @@ public class TestHiveClientConfig
                 .setOrcTinyStripeThreshold(new DataSize(8, Unit.MEGABYTE))
                 .setOrcMaxReadBlockSize(new DataSize(16, Unit.MEGABYTE))
                 .setOrcLazyReadSmallRanges(true)
+                .setOrcSelectiveReadingEnabled(false)
                 .setRcfileOptimizedWriterEnabled(true)
                 .setRcfileWriterValidate(false)
                 .setOrcOptimizedWriterEnabled(false)
@@ -108,7 +115,10 @@ public class TestHiveClientConfig
                 .setCreatesOfNonManagedTablesEnabled(true)
                 .setHdfsWireEncryptionEnabled(false)
                 .setPartitionStatisticsSampleSize(100)
-                .setCollectColumnStatisticsOnWrite(false));
+                .setCollectColumnStatisticsOnWrite(false)
+                .setFileStatusCacheTables("")
+                .setFileStatusCacheMaxSize(1000 * 1000)
+                .setFileStatusCacheExpireAfterWrite(new Duration(1, TimeUnit.MINUTES)));
     }
 
     @Test
@@ -127,6 +137,8 @@ public class TestHiveClientConfig
                 .put("hive.metastore-cache-maximum-size", "5000")
                 .put("hive.per-transaction-metastore-cache-maximum-size", "500")
                 .put("hive.metastore-refresh-max-threads", "2500")
+                .put("hive.metastore.partition-fetch-batch-size", "50")
+                .put("hive.metastore.partition-fetch-concurrency", "8")
                 .put("hive.metastore.thrift.client.socks-proxy", "localhost:1080")
                 .put("hive.metastore-timeout", "20s")
                 .put("hive.metastore.partition-batch-size.min", "1")
@@ -157,6 +169,10 @@ public class TestHiveClientConfig
                 .put("hive.assume-canonical-partition-keys", "true")
                 .put("hive.text.max-line-length", "13MB")
                 .put("hive.parquet.use-column-names", "true")
+                .put("hive.parquet.optimized-writer.enabled", "true")
+                .put("hive.parquet.optimized-writer.validate", "true")
+                .put("hive.parquet.writer.block-size", "64MB")
+                .put("hive.parquet.writer.page-size", "512kB")
                 .put("hive.orc.use-column-names", "true")
                 .put("hive.parquet-predicate-pushdown.enabled", "false")
                 .put("hive.parquet-optimized-reader.enabled", "false")
@@ -168,6 +184,7 @@ public class TestHiveClientConfig
                 .put("hive.orc.tiny-stripe-threshold", "61kB")
                 .put("hive.orc.max-read-block-size", "66kB")
                 .put("hive.orc.lazy-read-small-ranges", "false")
+                .put("hive.orc.selective-reading-enabled", "true")
                 .put("hive.rcfile-optimized-writer.enabled", "false")
                 .put("hive.rcfile.writer.validate", "true")
                 .put("hive.orc.optimized-writer.enabled", "true")
@@ -186,6 +203,9 @@ public class TestHiveClientConfig
                 .put("hive.hdfs.wire-encryption.enabled", "true")
                 .put("hive.partition-statistics-sample-size", "1234")
                 .put("hive.collect-column-statistics-on-write", "true")
+                .put("hive.file-status-cache-tables", "foo.bar1, foo.bar2")
+                .put("hive.file-status-cache-size", "1000")
+                .put("hive.file-status-cache-expire-time", "30m")
                 .build();
 
         HiveClientConfig expected = new HiveClientConfig()
@@ -201,6 +221,8 @@ public class TestHiveClientConfig
                 .setMetastoreCacheMaximumSize(5000)
                 .setPerTransactionMetastoreCacheMaximumSize(500)
                 .setMaxMetastoreRefreshThreads(2500)
+                .setPartitionFetchBatchSize(50)
+                .setPartitionFetchConcurrency(8)
                 .setMetastoreSocksProxy(HostAndPort.fromParts("localhost", 1080))
                 .setMetastoreTimeout(new Duration(20, TimeUnit.SECONDS))
                 .setMinPartitionBatchSize(1)
@@ -230,6 +252,10 @@ public class TestHiveClientConfig
                 .setS3FileSystemType(S3FileSystemType.EMRFS)
                 .setTextMaxLineLength(new DataSize(13, Unit.MEGABYTE))
                 .setUseParquetColumnNames(true)
+                .setParquetOptimizedWriterEnabled(true)
+                .setParquetOptimizedWriterValidate(true)
+                .setParquetWriterBlockSize(new DataSize(64, Unit.MEGABYTE))
+                .setParquetWriterPageSize(new DataSize(512, Unit.KILOBYTE))
                 .setUseOrcColumnNames(true)
                 .setParquetPredicatePushdownEnabled(false)
                 .setParquetOptimizedReaderEnabled(false)
@@ -242,6 +268,7 @@ public class TestHiveClientConfig
                 .setOrcTinyStripeThreshold(new DataSize(61, Unit.KILOBYTE))
                 .setOrcMaxReadBlockSize(new DataSize(66, Unit.KILOBYTE))
                 .setOrcLazyReadSmallRanges(false)
+                .setOrcSelectiveReadingEnabled(true)
                 .setRcfileOptimizedWriterEnabled(false)
                 .setRcfileWriterValidate(true)
                 .setOrcOptimizedWriterEnabled(true)
@@ -259,7 +286,10 @@ public class TestHiveClientConfig
                 .setCreatesOfNonManagedTablesEnabled(false)
                 .setHdfsWireEncryptionEnabled(true)
                 .setPartitionStatisticsSampleSize(1234)
-                .setCollectColumnStatisticsOnWrite(true);
+                .setCollectColumnStatisticsOnWrite(true)
+                .setFileStatusCacheTables("foo.bar1,foo.bar2")
+                .setFileStatusCacheMaxSize(1000)
+                .setFileStatusCacheExpireAfterWrite(new Duration(30, TimeUnit.MINUTES));
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
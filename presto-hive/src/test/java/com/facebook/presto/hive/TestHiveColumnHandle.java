@@ -14,6 +14,7 @@
 package com.facebook.presto.hive;
 
 import com.facebook.presto.spi.type.StandardTypes;
+import com.google.common.collect.ImmutableList;
 import io.airlift.json.JsonCodec;
 import org.testng.annotations.Test;
 
@@ -49,6 +50,15 @@ public class TestHiveColumnHandle
         testRoundTrip(expectedRegularColumn);
     }
 
+    @Test
+    public void testNestedFields()
+    {
+        HiveType hiveType = HiveType.valueOf("struct<a:bigint,b:struct<c:string,d:double>>");
+        HiveColumnHandle column = new HiveColumnHandle("name", hiveType, hiveType.getTypeSignature(), 88, REGULAR, Optional.empty())
+                .withNestedFields(ImmutableList.of(ImmutableList.of("a"), ImmutableList.of("b", "d")));
+        testRoundTrip(column);
+    }
+
     private void testRoundTrip(HiveColumnHandle expected)
     {
         String json = codec.toJson(expected);
@@ -58,5 +68,7 @@ public class TestHiveColumnHandle
         assertEquals(actual.getHiveType(), expected.getHiveType());
         assertEquals(actual.getHiveColumnIndex(), expected.getHiveColumnIndex());
         assertEquals(actual.isPartitionKey(), expected.isPartitionKey());
+        assertEquals(actual.getNestedFields(), expected.getNestedFields());
+        assertEquals(actual, expected);
     }
 }
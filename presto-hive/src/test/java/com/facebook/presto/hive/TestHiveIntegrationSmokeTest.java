@@ -15,6 +15,8 @@ package com.facebook.presto.hive;
 
 import com.facebook.presto.Session;
 import com.facebook.presto.connector.ConnectorId;
+import com.facebook.presto.execution.QueryInfo;
+import com.facebook.presto.execution.QueryStats;
 import com.facebook.presto.hive.HiveSessionProperties.InsertExistingPartitionsBehavior;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.metadata.QualifiedObjectName;
@@ -22,6 +24,7 @@ import com.facebook.presto.metadata.TableHandle;
 import com.facebook.presto.metadata.TableLayout;
 import com.facebook.presto.metadata.TableLayoutResult;
 import com.facebook.presto.metadata.TableMetadata;
+import com.facebook.presto.operator.OperatorStats;
 import com.facebook.presto.spi.CatalogSchemaTableName;
 import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.ConnectorSession;
@@ -29,6 +32,7 @@ import com.facebook.presto.spi.Constraint;
 import com.facebook.presto.spi.security.Identity;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeSignature;
+import com.facebook.presto.sql.analyzer.FeaturesConfig.JoinDistributionType;
 import com.facebook.presto.sql.planner.planPrinter.IOPlanPrinter.ColumnConstraint;
 import com.facebook.presto.sql.planner.planPrinter.IOPlanPrinter.FormattedDomain;
 import com.facebook.presto.sql.planner.planPrinter.IOPlanPrinter.FormattedMarker;
@@ -39,6 +43,7 @@ import com.facebook.presto.testing.MaterializedResult;
 import com.facebook.presto.testing.MaterializedRow;
 import com.facebook.presto.tests.AbstractTestIntegrationSmokeTest;
 import com.facebook.presto.tests.DistributedQueryRunner;
+import com.facebook.presto.tests.ResultWithQueryId;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.io.Files;
@@ -59,8 +64,11 @@ import java.util.stream.LongStream;
 
 import static com.facebook.presto.SystemSessionProperties.COLOCATED_JOIN;
 import static com.facebook.presto.SystemSessionProperties.CONCURRENT_LIFESPANS_PER_NODE;
+import static com.facebook.presto.SystemSessionProperties.DYNAMIC_FILTERING_ENABLED;
+import static com.facebook.presto.SystemSessionProperties.DYNAMIC_FILTERING_WAIT_TIMEOUT;
 import static com.facebook.presto.SystemSessionProperties.GROUPED_EXECUTION_FOR_AGGREGATION;
 import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static com.facebook.presto.SystemSessionProperties.PUSHDOWN_DEREFERENCES;
 import static com.facebook.presto.hive.HiveColumnHandle.BUCKET_COLUMN_NAME;
 import static com.facebook.presto.hive.HiveColumnHandle.PATH_COLUMN_NAME;
 import static com.facebook.presto.hive.HiveQueryRunner.HIVE_CATALOG;
@@ -88,6 +96,7 @@ import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.spi.type.VarcharType.createUnboundedVarcharType;
 import static com.facebook.presto.spi.type.VarcharType.createVarcharType;
 import static com.facebook.presto.sql.analyzer.FeaturesConfig.JoinDistributionType.BROADCAST;
+import static com.facebook.presto.sql.analyzer.FeaturesConfig.JoinDistributionType.PARTITIONED;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
 import static com.facebook.presto.testing.assertions.Assert.assertEquals;
@@ -101,10 +110,12 @@ import static com.google.common.io.Files.createTempDir;
 import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.airlift.testing.Assertions.assertLessThan;
 import static io.airlift.tpch.TpchTable.CUSTOMER;
 import static io.airlift.tpch.TpchTable.ORDERS;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ENGLISH;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -1767,6 +1778,42 @@ public class TestHiveIntegrationSmokeTest
                 "SELECT 1, cast(null as bigint)");
     }
 
+    @Test
+    public void testPrunedRows()
+    {
+        testPrunedRows(HiveStorageFormat.ORC);
+        testPrunedRows(HiveStorageFormat.PARQUET);
+    }
+
+    private void testPrunedRows(HiveStorageFormat storageFormat)
+    {
+        String tableName = "test_pruned_rows_" + storageFormat.name().toLowerCase(ENGLISH);
+        Session session = Session.builder(getSession())
+                .setSystemProperty(PUSHDOWN_DEREFERENCES, "true")
+                .setCatalogSessionProperty(catalog, "parquet_optimized_reader_enabled", "true")
+                .build();
+
+        String rowType = "ROW(b ROW(c BIGINT, e VARCHAR), d BIGINT)";
+        assertUpdate(
+                "CREATE TABLE " + tableName + " WITH (format = '" + storageFormat + "') AS " +
+                        "SELECT * FROM (VALUES " +
+                        "  (1, CAST(ROW(ROW(BIGINT '10', 'x'), BIGINT '100') AS " + rowType + ")), " +
+                        "  (2, CAST(ROW(ROW(BIGINT '20', 'y'), BIGINT '200') AS " + rowType + ")), " +
+                        "  (3, CAST(NULL AS " + rowType + ")), " +
+                        "  (4, CAST(ROW(NULL, BIGINT '400') AS " + rowType + "))) t(id, a)",
+                4);
+
+        assertQuery(session, "SELECT id, a.b.c, a.d FROM " + tableName + " WHERE a.b.c > 10", "SELECT 2, 20, 200");
+        assertQuery(session, "SELECT id, a.b.e FROM " + tableName, "VALUES (1, 'x'), (2, 'y'), (3, NULL), (4, NULL)");
+        assertQuery(session, "SELECT a.b.c, a.b.e FROM " + tableName + " WHERE a.d = 100", "SELECT 10, 'x'");
+        assertQuery(session, "SELECT id FROM " + tableName + " WHERE a.d IS NULL", "SELECT 3");
+        assertQuery(session, "SELECT id FROM " + tableName + " WHERE a.b IS NULL", "VALUES 3, 4");
+        // the whole column is read when it is referenced outside of dereferences
+        assertQuery(session, "SELECT id, a.d FROM " + tableName + " WHERE a IS NOT NULL", "VALUES (1, 100), (2, 200), (4, 400)");
+
+        assertUpdate("DROP TABLE " + tableName);
+    }
+
     @Test
     public void testComplex()
     {
@@ -1809,6 +1856,83 @@ public class TestHiveIntegrationSmokeTest
                 "SELECT custkey, COUNT(*) FROM orders GROUP BY custkey");
     }
 
+    @Test
+    public void testDynamicFiltering()
+    {
+        @Language("SQL") String query = "SELECT o.orderkey, o.custkey FROM orders o JOIN customer c ON o.custkey = c.custkey WHERE c.nationkey = 1";
+
+        // the build side runs in the same task as the probe, which collects and applies the filter
+        Session enabled = dynamicFilteringSession(true, BROADCAST);
+        Session disabled = dynamicFilteringSession(false, BROADCAST);
+
+        // customer is not loaded into H2, so the results are checked against the query without dynamic filtering
+        assertEqualsIgnoreOrder(computeActual(enabled, query).getMaterializedRows(), computeActual(disabled, query).getMaterializedRows());
+        assertTrue(getDynamicFilterPrunedPositions(getQueryStats(enabled, query)) > 0);
+        assertEquals(getDynamicFilterPrunedPositions(getQueryStats(disabled, query)), 0L);
+    }
+
+    @Test
+    public void testDynamicFilteringPartitionedJoin()
+    {
+        assertUpdate("" +
+                        "CREATE TABLE test_dynamic_filtering_partitioned_join " +
+                        "WITH (partitioned_by = ARRAY['orderpriority']) " +
+                        "AS SELECT orderkey, custkey, orderpriority FROM tpch.tiny.orders",
+                15000);
+        try {
+            // the probe side is scanned in another stage than the join, so the filter is collected by the coordinator,
+            // and the build side values of neither the partition key nor the other key can be inferred from the query
+            @Language("SQL") String query = "" +
+                    "SELECT o.orderkey, o.custkey, o.orderpriority " +
+                    "FROM test_dynamic_filtering_partitioned_join o " +
+                    "JOIN (SELECT custkey, orderpriority FROM orders WHERE orderkey IN (1, 2, 3)) b " +
+                    "ON o.custkey = b.custkey AND o.orderpriority = b.orderpriority";
+            @Language("SQL") String expected = query.replace("test_dynamic_filtering_partitioned_join", "orders");
+
+            Session enabled = Session.builder(dynamicFilteringSession(true, PARTITIONED))
+                    .setSystemProperty(DYNAMIC_FILTERING_WAIT_TIMEOUT, "30s")
+                    .build();
+            assertQuery(enabled, query, expected);
+            QueryStats enabledStats = getQueryStats(enabled, query);
+
+            Session disabled = dynamicFilteringSession(false, PARTITIONED);
+            assertQuery(disabled, query, expected);
+            QueryStats disabledStats = getQueryStats(disabled, query);
+
+            // the splits of the partitions not matching the filter are skipped, and the rows of the other partitions are filtered
+            assertLessThan(enabledStats.getTotalDrivers(), disabledStats.getTotalDrivers());
+            assertLessThan(enabledStats.getRawInputPositions(), disabledStats.getRawInputPositions());
+            assertTrue(getDynamicFilterPrunedPositions(enabledStats) > 0);
+            assertEquals(getDynamicFilterPrunedPositions(disabledStats), 0L);
+        }
+        finally {
+            assertUpdate("DROP TABLE test_dynamic_filtering_partitioned_join");
+        }
+    }
+
+    private Session dynamicFilteringSession(boolean enabled, JoinDistributionType joinDistributionType)
+    {
+        return Session.builder(getSession())
+                .setSystemProperty(DYNAMIC_FILTERING_ENABLED, String.valueOf(enabled))
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, joinDistributionType.name())
+                .build();
+    }
+
+    private QueryStats getQueryStats(Session session, @Language("SQL") String query)
+    {
+        DistributedQueryRunner queryRunner = (DistributedQueryRunner) getQueryRunner();
+        ResultWithQueryId<MaterializedResult> result = queryRunner.executeWithQueryId(session, query);
+        QueryInfo queryInfo = queryRunner.getQueryInfo(result.getQueryId());
+        return queryInfo.getQueryStats();
+    }
+
+    private static long getDynamicFilterPrunedPositions(QueryStats queryStats)
+    {
+        return queryStats.getOperatorSummaries().stream()
+                .mapToLong(OperatorStats::getDynamicFilterPrunedPositions)
+                .sum();
+    }
+
     @Test
     public void testScaleWriters()
     {
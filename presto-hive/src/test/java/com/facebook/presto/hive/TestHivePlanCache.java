@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.execution.SqlQueryManagerStats;
+import com.facebook.presto.spi.security.Identity;
+import com.facebook.presto.tests.AbstractTestQueryFramework;
+import com.facebook.presto.tests.DistributedQueryRunner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.hive.HiveQueryRunner.HIVE_CATALOG;
+import static com.facebook.presto.hive.HiveQueryRunner.TPCH_SCHEMA;
+import static com.facebook.presto.hive.HiveQueryRunner.createQueryRunner;
+import static com.facebook.presto.testing.TestingAccessControlManager.TestingPrivilegeType.SELECT_COLUMN;
+import static com.facebook.presto.testing.TestingAccessControlManager.privilege;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static io.airlift.tpch.TpchTable.ORDERS;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestHivePlanCache
+        extends AbstractTestQueryFramework
+{
+    public TestHivePlanCache()
+    {
+        super(() -> createQueryRunner(ImmutableList.of(ORDERS), ImmutableMap.of("query.plan-cache.max-size", "100")));
+    }
+
+    @Test
+    public void testRepeatedQuery()
+    {
+        @Language("SQL") String sql = "SELECT orderstatus, count(*), sum(totalprice) FROM orders WHERE orderkey < 1000 GROUP BY orderstatus";
+        assertQuery(sql);
+
+        long hits = getStats().getPlanCacheHits().getTotalCount();
+        assertQuery(sql);
+        assertQuery(sql);
+        assertEquals(getStats().getPlanCacheHits().getTotalCount(), hits + 2);
+    }
+
+    @Test
+    public void testAccessCheckedForCachedPlan()
+    {
+        @Language("SQL") String sql = "SELECT count(*) FROM orders WHERE orderkey < 2000";
+        assertQuery(sql);
+
+        // the user is part of the key, so another user plans the query, and has no privilege on the table
+        Session otherUser = testSessionBuilder()
+                .setCatalog(HIVE_CATALOG)
+                .setSchema(TPCH_SCHEMA)
+                .setIdentity(new Identity("other_user", Optional.empty()))
+                .build();
+        assertQueryFails(otherUser, sql, "Access Denied: .*");
+
+        // the privileges of the same user are checked again before the cached plan is reused
+        getQueryRunner().getAccessControl().deny(privilege(getSession().getUser(), "orders", SELECT_COLUMN));
+        try {
+            assertQueryFails(sql, "Access Denied: Cannot select from columns .*");
+        }
+        finally {
+            getQueryRunner().getAccessControl().reset();
+        }
+
+        long hits = getStats().getPlanCacheHits().getTotalCount();
+        assertQuery(sql);
+        assertEquals(getStats().getPlanCacheHits().getTotalCount(), hits + 1);
+    }
+
+    @Test
+    public void testChangedTable()
+    {
+        assertUpdate("CREATE TABLE test_plan_cache_changed_table AS SELECT 1 a", 1);
+        try {
+            @Language("SQL") String sql = "SELECT a FROM test_plan_cache_changed_table";
+            assertQuery(sql, "SELECT 1");
+            long hits = getStats().getPlanCacheHits().getTotalCount();
+            assertQuery(sql, "SELECT 1");
+            assertEquals(getStats().getPlanCacheHits().getTotalCount(), hits + 1);
+
+            // the column handles of the new table differ, so the query is planned again
+            assertUpdate("DROP TABLE test_plan_cache_changed_table");
+            assertUpdate("CREATE TABLE test_plan_cache_changed_table AS SELECT 'x' a", 1);
+            long misses = getStats().getPlanCacheMisses().getTotalCount();
+            assertQuery(sql, "SELECT 'x'");
+            assertEquals(getStats().getPlanCacheMisses().getTotalCount(), misses + 1);
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS test_plan_cache_changed_table");
+        }
+    }
+
+    @Test
+    public void testChangedLayout()
+    {
+        assertUpdate("CREATE TABLE test_plan_cache_changed_layout WITH (partitioned_by = ARRAY['p']) AS SELECT 1 a, 1 p", 1);
+        try {
+            @Language("SQL") String sql = "SELECT a, p FROM test_plan_cache_changed_layout";
+            assertQuery(sql, "SELECT 1, 1");
+            long hits = getStats().getPlanCacheHits().getTotalCount();
+            assertQuery(sql, "SELECT 1, 1");
+            assertEquals(getStats().getPlanCacheHits().getTotalCount(), hits + 1);
+
+            // the predicate of the layout covers the partitions, so a new partition forces a new plan
+            assertUpdate("INSERT INTO test_plan_cache_changed_layout SELECT 2 a, 2 p", 1);
+            long misses = getStats().getPlanCacheMisses().getTotalCount();
+            assertQuery(sql, "VALUES (1, 1), (2, 2)");
+            assertEquals(getStats().getPlanCacheMisses().getTotalCount(), misses + 1);
+        }
+        finally {
+            assertUpdate("DROP TABLE IF EXISTS test_plan_cache_changed_layout");
+        }
+    }
+
+    private SqlQueryManagerStats getStats()
+    {
+        return ((DistributedQueryRunner) getQueryRunner()).getCoordinator().getQueryManager().getStats();
+    }
+}
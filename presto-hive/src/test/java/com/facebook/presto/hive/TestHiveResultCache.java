@@ -0,0 +1,166 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.execution.QueryInfo;
+import com.facebook.presto.execution.QueryResultCache;
+import com.facebook.presto.execution.QueryResultCacheConfig;
+import com.facebook.presto.testing.MaterializedResult;
+import com.facebook.presto.tests.AbstractTestQueryFramework;
+import com.facebook.presto.tests.DistributedQueryRunner;
+import com.facebook.presto.tests.ResultWithQueryId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static com.facebook.presto.SystemSessionProperties.BYPASS_RESULT_CACHE;
+import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_EXECUTION_TIME;
+import static com.facebook.presto.execution.QueryState.FINISHED;
+import static com.facebook.presto.hive.HiveQueryRunner.HIVE_CATALOG;
+import static com.facebook.presto.hive.HiveQueryRunner.createQueryRunner;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.tpch.TpchTable.ORDERS;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+@Test(singleThreaded = true)
+public class TestHiveResultCache
+        extends AbstractTestQueryFramework
+{
+    public TestHiveResultCache()
+    {
+        super(TestHiveResultCache::createResultCacheQueryRunner);
+    }
+
+    private static DistributedQueryRunner createResultCacheQueryRunner()
+            throws Exception
+    {
+        // the result cache is only bound on the coordinator
+        Map<String, String> coordinatorProperties = ImmutableMap.of(
+                "query.result-cache.max-size", "100MB",
+                "query.result-cache.path", createTempDirectory("result-cache").toString());
+        return createQueryRunner(ImmutableList.of(ORDERS), ImmutableMap.of(), coordinatorProperties, "sql-standard", ImmutableMap.of("hive.immutable-partitions", "true"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteResultCache()
+            throws IOException
+    {
+        String path = getDistributedQueryRunner().getCoordinator().getInstance(Key.get(QueryResultCacheConfig.class)).getPath();
+        deleteRecursively(Paths.get(path), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testRepeatedQuery()
+    {
+        // the result spans several pages, so the cached result is read over several requests of the statement protocol
+        @Language("SQL") String sql = "SELECT * FROM orders";
+        long hits = getResultCache().getHits().getTotalCount();
+        long misses = getResultCache().getMisses().getTotalCount();
+
+        ResultWithQueryId<MaterializedResult> expected = getDistributedQueryRunner().executeWithQueryId(getSession(), sql);
+        assertEquals(getResultCache().getMisses().getTotalCount(), misses + 1);
+
+        ResultWithQueryId<MaterializedResult> cached = getDistributedQueryRunner().executeWithQueryId(getSession(), sql);
+        assertEquals(getResultCache().getHits().getTotalCount(), hits + 1);
+        assertEquals(getResultCache().getMisses().getTotalCount(), misses + 1);
+        assertEquals(cached.getResult().getTypes(), expected.getResult().getTypes());
+        assertEquals(cached.getResult().getMaterializedRows(), expected.getResult().getMaterializedRows());
+
+        // a query served from the cache finishes without scheduling any stages
+        QueryInfo queryInfo = getDistributedQueryRunner().getCoordinator().getQueryManager().getFullQueryInfo(cached.getQueryId());
+        assertEquals(queryInfo.getState(), FINISHED);
+        assertEquals(queryInfo.getFieldNames(), getDistributedQueryRunner().getCoordinator().getQueryManager().getFullQueryInfo(expected.getQueryId()).getFieldNames());
+        assertFalse(queryInfo.getOutputStage().isPresent());
+    }
+
+    @Test
+    public void testSessionIsPartOfKey()
+    {
+        @Language("SQL") String sql = "SELECT orderstatus, count(*) FROM orders GROUP BY orderstatus";
+        assertQuery(sql);
+        long hits = getResultCache().getHits().getTotalCount();
+        long misses = getResultCache().getMisses().getTotalCount();
+
+        assertQuery(sql);
+        assertEquals(getResultCache().getHits().getTotalCount(), hits + 1);
+
+        Session systemProperty = Session.builder(getSession())
+                .setSystemProperty(QUERY_MAX_EXECUTION_TIME, "1h")
+                .build();
+        assertQuery(systemProperty, sql);
+        assertEquals(getResultCache().getMisses().getTotalCount(), misses + 1);
+
+        Session catalogProperty = Session.builder(getSession())
+                .setCatalogSessionProperty(HIVE_CATALOG, "orc_bloom_filters_enabled", "true")
+                .build();
+        assertQuery(catalogProperty, sql);
+        assertEquals(getResultCache().getMisses().getTotalCount(), misses + 2);
+
+        // the cache is neither read nor written
+        Session bypass = Session.builder(getSession())
+                .setSystemProperty(BYPASS_RESULT_CACHE, "true")
+                .build();
+        assertQuery(bypass, sql);
+        assertEquals(getResultCache().getHits().getTotalCount(), hits + 1);
+        assertEquals(getResultCache().getMisses().getTotalCount(), misses + 2);
+    }
+
+    @Test
+    public void testChangedTable()
+    {
+        assertUpdate("CREATE TABLE test_result_cache_partitioned WITH (partitioned_by = ARRAY['orderstatus']) AS SELECT orderkey, orderstatus FROM orders WHERE orderstatus = 'F'", "SELECT count(*) FROM orders WHERE orderstatus = 'F'");
+        try {
+            @Language("SQL") String sql = "SELECT count(*), sum(orderkey) FROM test_result_cache_partitioned";
+            assertQuery(sql, "SELECT count(*), sum(orderkey) FROM orders WHERE orderstatus = 'F'");
+            long hits = getResultCache().getHits().getTotalCount();
+            long misses = getResultCache().getMisses().getTotalCount();
+
+            assertQuery(sql, "SELECT count(*), sum(orderkey) FROM orders WHERE orderstatus = 'F'");
+            assertEquals(getResultCache().getHits().getTotalCount(), hits + 1);
+
+            // a new partition changes the version of the table layout
+            assertUpdate("INSERT INTO test_result_cache_partitioned SELECT orderkey, orderstatus FROM orders WHERE orderstatus = 'O'", "SELECT count(*) FROM orders WHERE orderstatus = 'O'");
+            assertQuery(sql, "SELECT count(*), sum(orderkey) FROM orders WHERE orderstatus IN ('F', 'O')");
+            assertEquals(getResultCache().getHits().getTotalCount(), hits + 1);
+            assertEquals(getResultCache().getMisses().getTotalCount(), misses + 1);
+
+            assertQuery(sql, "SELECT count(*), sum(orderkey) FROM orders WHERE orderstatus IN ('F', 'O')");
+            assertEquals(getResultCache().getHits().getTotalCount(), hits + 2);
+        }
+        finally {
+            assertUpdate("DROP TABLE test_result_cache_partitioned");
+        }
+    }
+
+    private QueryResultCache getResultCache()
+    {
+        return getDistributedQueryRunner().getCoordinator().getInstance(Key.get(QueryResultCache.class));
+    }
+
+    private DistributedQueryRunner getDistributedQueryRunner()
+    {
+        return (DistributedQueryRunner) getQueryRunner();
+    }
+}
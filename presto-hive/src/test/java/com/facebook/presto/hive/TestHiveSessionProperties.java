@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.session.PropertyMetadata;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_SESSION_PROPERTY;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+public class TestHiveSessionProperties
+{
+    @Test
+    public void testSplitLoaderConcurrencyLimit()
+    {
+        HiveClientConfig config = new HiveClientConfig()
+                .setMaxSplitIteratorThreads(8);
+        PropertyMetadata<?> property = getProperty(new HiveSessionProperties(config, new OrcFileWriterConfig()), "split_loader_concurrency");
+
+        assertEquals(property.decode(8), 8);
+        assertInvalid(property, 9, "split_loader_concurrency must not be greater than hive.max-split-iterator-threads (8): 9");
+        assertInvalid(property, 0, "split_loader_concurrency must be greater than 0: 0");
+    }
+
+    private static PropertyMetadata<?> getProperty(HiveSessionProperties sessionProperties, String name)
+    {
+        return sessionProperties.getSessionProperties().stream()
+                .filter(property -> property.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no session property " + name));
+    }
+
+    private static void assertInvalid(PropertyMetadata<?> property, int value, String message)
+    {
+        try {
+            property.decode(value);
+            fail("expected PrestoException");
+        }
+        catch (PrestoException e) {
+            assertEquals(e.getErrorCode(), INVALID_SESSION_PROPERTY.toErrorCode());
+            assertEquals(e.getMessage(), message);
+        }
+    }
+}
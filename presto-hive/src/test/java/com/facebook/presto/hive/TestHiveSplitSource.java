@@ -28,12 +28,14 @@ import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import static com.facebook.presto.hive.HiveTestUtils.SESSION;
 import static com.facebook.presto.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
+import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.testing.Assertions.assertContains;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
@@ -56,8 +58,10 @@ public class TestHiveSplitSource
                 10,
                 new DataSize(1, MEGABYTE),
                 new TestingHiveSplitLoader(),
+                partitionName -> true,
                 Executors.newFixedThreadPool(5),
-                new CounterStat());
+                new CounterStat(),
+                new HiveSplitSourceStats());
 
         // add 10 splits
         for (int i = 0; i < 10; i++) {
@@ -78,6 +82,71 @@ public class TestHiveSplitSource
         assertEquals(hiveSplitSource.getBufferedInternalSplitCount(), 0);
     }
 
+    @Test
+    public void testDynamicPartitionFilter()
+    {
+        Set<String> prunedPartitions = newConcurrentHashSet();
+        HiveSplitSource hiveSplitSource = HiveSplitSource.allAtOnce(
+                SESSION,
+                "database",
+                "table",
+                TupleDomain.all(),
+                10,
+                10,
+                new DataSize(1, MEGABYTE),
+                new TestingHiveSplitLoader(),
+                partitionName -> !prunedPartitions.contains(partitionName),
+                Executors.newFixedThreadPool(5),
+                new CounterStat(),
+                new HiveSplitSourceStats());
+
+        // add 10 splits, in partitions 0 to 4
+        for (int i = 0; i < 10; i++) {
+            hiveSplitSource.addToQueue(new TestSplit(i, "partition-" + (i % 5)));
+        }
+        assertEquals(getSplits(hiveSplitSource, 2).size(), 2);
+
+        // the splits of the pruned partitions are skipped from then on
+        prunedPartitions.add("partition-2");
+        prunedPartitions.add("partition-3");
+        List<ConnectorSplit> splits = getSplits(hiveSplitSource, 20);
+        assertEquals(splits.size(), 4);
+        for (ConnectorSplit split : splits) {
+            String partitionName = ((HiveSplit) split).getPartitionName();
+            assertTrue(partitionName.equals("partition-0") || partitionName.equals("partition-1") || partitionName.equals("partition-4"), partitionName);
+        }
+        assertEquals(hiveSplitSource.getBufferedInternalSplitCount(), 0);
+    }
+
+    @Test
+    public void testSplitSourceStats()
+    {
+        HiveSplitSourceStats stats = new HiveSplitSourceStats();
+        HiveSplitSource hiveSplitSource = HiveSplitSource.allAtOnce(
+                SESSION,
+                "database",
+                "table",
+                TupleDomain.all(),
+                10,
+                10,
+                new DataSize(1, MEGABYTE),
+                new TestingHiveSplitLoader(),
+                partitionName -> true,
+                Executors.newFixedThreadPool(5),
+                new CounterStat(),
+                stats);
+
+        for (int i = 0; i < 3; i++) {
+            hiveSplitSource.addToQueue(new TestSplit(i));
+        }
+        assertEquals(stats.getTimeToFirstSplit().getAllTime().getCount(), 1.0);
+        assertEquals(stats.getSplitsPerSecond().getAllTime().getCount(), 0.0);
+
+        hiveSplitSource.noMoreSplits();
+        assertEquals(stats.getTimeToFirstSplit().getAllTime().getCount(), 1.0);
+        assertEquals(stats.getSplitsPerSecond().getAllTime().getCount(), 1.0);
+    }
+
     @Test
     public void testFail()
     {
@@ -90,8 +159,10 @@ public class TestHiveSplitSource
                 10,
                 new DataSize(1, MEGABYTE),
                 new TestingHiveSplitLoader(),
+                partitionName -> true,
                 Executors.newFixedThreadPool(5),
-                new CounterStat());
+                new CounterStat(),
+                new HiveSplitSourceStats());
 
         // add some splits
         for (int i = 0; i < 5; i++) {
@@ -148,8 +219,10 @@ public class TestHiveSplitSource
                 10,
                 new DataSize(1, MEGABYTE),
                 new TestingHiveSplitLoader(),
+                partitionName -> true,
                 Executors.newFixedThreadPool(5),
-                new CounterStat());
+                new CounterStat(),
+                new HiveSplitSourceStats());
 
         final SettableFuture<ConnectorSplit> splits = SettableFuture.create();
 
@@ -207,8 +280,10 @@ public class TestHiveSplitSource
                 10000,
                 maxOutstandingSplitsSize,
                 new TestingHiveSplitLoader(),
+                partitionName -> true,
                 Executors.newFixedThreadPool(5),
-                new CounterStat());
+                new CounterStat(),
+                new HiveSplitSourceStats());
         int testSplitSizeInBytes = new TestSplit(0).getEstimatedSizeInBytes();
 
         int maxSplitCount = toIntExact(maxOutstandingSplitsSize.toBytes()) / testSplitSizeInBytes;
@@ -244,8 +319,10 @@ public class TestHiveSplitSource
                 10,
                 new DataSize(1, MEGABYTE),
                 new TestingHiveSplitLoader(),
+                partitionName -> true,
                 Executors.newFixedThreadPool(5),
-                new CounterStat());
+                new CounterStat(),
+                new HiveSplitSourceStats());
         hiveSplitSource.addToQueue(new TestSplit(0, OptionalInt.of(2)));
         hiveSplitSource.noMoreSplits();
         assertEquals(getSplits(hiveSplitSource, OptionalInt.of(0), 10).size(), 0);
@@ -292,13 +369,24 @@ public class TestHiveSplitSource
         }
 
         private TestSplit(int id, OptionalInt bucketNumber)
+        {
+            this(id, "partition-name", bucketNumber);
+        }
+
+        private TestSplit(int id, String partitionName)
+        {
+            this(id, partitionName, OptionalInt.empty());
+        }
+
+        private TestSplit(int id, String partitionName, OptionalInt bucketNumber)
         {
             super(
-                    "partition-name",
+                    partitionName,
                     "path",
                     0,
                     100,
                     100,
+                    0,
                     properties("id", String.valueOf(id)),
                     ImmutableList.of(),
                     ImmutableList.of(new InternalHiveBlock(0, 100, ImmutableList.of())),
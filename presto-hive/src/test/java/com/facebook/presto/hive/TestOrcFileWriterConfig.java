@@ -38,7 +38,10 @@ public class TestOrcFileWriterConfig
                 .setRowGroupMaxRowCount(10_000)
                 .setDictionaryMaxMemory(new DataSize(16, MEGABYTE))
                 .setStringStatisticsLimit(new DataSize(64, BYTE))
-                .setMaxCompressionBufferSize(new DataSize(256, KILOBYTE)));
+                .setMaxCompressionBufferSize(new DataSize(256, KILOBYTE))
+                .setEncodingParallelism(1)
+                .setEncodingThreads(Runtime.getRuntime().availableProcessors())
+                .setPipelinedStripeFlush(false));
     }
 
     @Test
@@ -52,6 +55,9 @@ public class TestOrcFileWriterConfig
                 .put("hive.orc.writer.dictionary-max-memory", "13MB")
                 .put("hive.orc.writer.string-statistics-limit", "17MB")
                 .put("hive.orc.writer.max-compression-buffer-size", "19MB")
+                .put("hive.orc.writer.encoding-parallelism", "4")
+                .put("hive.orc.writer.encoding-threads", "7")
+                .put("hive.orc.writer.pipelined-stripe-flush", "true")
                 .build();
 
         OrcFileWriterConfig expected = new OrcFileWriterConfig()
@@ -61,7 +67,10 @@ public class TestOrcFileWriterConfig
                 .setRowGroupMaxRowCount(11)
                 .setDictionaryMaxMemory(new DataSize(13, MEGABYTE))
                 .setStringStatisticsLimit(new DataSize(17, MEGABYTE))
-                .setMaxCompressionBufferSize(new DataSize(19, MEGABYTE));
+                .setMaxCompressionBufferSize(new DataSize(19, MEGABYTE))
+                .setEncodingParallelism(4)
+                .setEncodingThreads(7)
+                .setPipelinedStripeFlush(true);
 
         assertFullMapping(properties, expected);
     }
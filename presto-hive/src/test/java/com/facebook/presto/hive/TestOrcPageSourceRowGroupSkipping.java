@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.orc.OrcPageSourceFactory;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.testing.TestingConnectorSession;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.FileSinkOperator.RecordWriter;
+import org.apache.hadoop.hive.ql.io.orc.OrcInputFormat;
+import org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat;
+import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
+import org.apache.hadoop.hive.serde2.objectinspector.SettableStructObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.JobConf;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Properties;
+
+import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.hive.HiveTestUtils.HDFS_ENVIRONMENT;
+import static com.facebook.presto.hive.HiveTestUtils.TYPE_MANAGER;
+import static com.facebook.presto.hive.HiveType.HIVE_LONG;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.FILE_INPUT_FORMAT;
+import static org.apache.hadoop.hive.serde.serdeConstants.SERIALIZATION_LIB;
+import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory.getStandardStructObjectInspector;
+import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaLongObjectInspector;
+import static org.testng.Assert.assertEquals;
+
+public class TestOrcPageSourceRowGroupSkipping
+{
+    private static final int ROWS_IN_ROW_GROUP = 10_000;
+    private static final HiveColumnHandle COLUMN = new HiveColumnHandle("test", HIVE_LONG, BIGINT.getTypeSignature(), 0, REGULAR, Optional.empty());
+
+    private File tempDir;
+    private File file;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        tempDir = createTempDir();
+        file = new File(tempDir, "data.orc");
+
+        // a single stripe with the even values 0 to 59998, in the row groups [0, 19998], [20000, 39998] and [40000, 59998]
+        writeEvenValuesWithBloomFilter(file, 3 * ROWS_IN_ROW_GROUP);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        deleteRecursively(tempDir.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testRowGroupsSkippedByStatistics()
+            throws Exception
+    {
+        // 20002 is in the second row group, and the min/max statistics exclude the other two
+        FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
+        assertEquals(readRows(20_002L, true, stats), ROWS_IN_ROW_GROUP);
+        assertEquals(stats.getOrcRowGroupsSkippedByStatistics().getTotalCount(), 2);
+        assertEquals(stats.getOrcRowGroupsSkippedByBloomFilter().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testRowGroupsSkippedByBloomFilter()
+            throws Exception
+    {
+        // 20001 is in the min/max range of the second row group only, and only its bloom filter excludes it
+        FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
+        assertEquals(readRows(20_001L, true, stats), 0);
+        assertEquals(stats.getOrcRowGroupsSkippedByStatistics().getTotalCount(), 2);
+        assertEquals(stats.getOrcRowGroupsSkippedByBloomFilter().getTotalCount(), 1);
+
+        // the counts of several page sources add up
+        assertEquals(readRows(20_001L, true, stats), 0);
+        assertEquals(stats.getOrcRowGroupsSkippedByStatistics().getTotalCount(), 4);
+        assertEquals(stats.getOrcRowGroupsSkippedByBloomFilter().getTotalCount(), 2);
+    }
+
+    @Test
+    public void testBloomFiltersDisabled()
+            throws Exception
+    {
+        FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
+        assertEquals(readRows(20_001L, false, stats), ROWS_IN_ROW_GROUP);
+        assertEquals(stats.getOrcRowGroupsSkippedByStatistics().getTotalCount(), 2);
+        assertEquals(stats.getOrcRowGroupsSkippedByBloomFilter().getTotalCount(), 0);
+    }
+
+    private int readRows(long value, boolean bloomFiltersEnabled, FileFormatDataSourceStats stats)
+            throws IOException
+    {
+        HiveClientConfig config = new HiveClientConfig().setOrcBloomFiltersEnabled(bloomFiltersEnabled);
+        ConnectorSession session = new TestingConnectorSession(new HiveSessionProperties(config, new OrcFileWriterConfig()).getSessionProperties());
+
+        Properties schema = new Properties();
+        schema.setProperty("columns", COLUMN.getName());
+        schema.setProperty("columns.types", HIVE_LONG.getHiveTypeName().toString());
+        schema.setProperty(FILE_INPUT_FORMAT, OrcInputFormat.class.getName());
+        schema.setProperty(SERIALIZATION_LIB, OrcSerde.class.getName());
+
+        OrcPageSourceFactory orcPageSourceFactory = new OrcPageSourceFactory(TYPE_MANAGER, false, HDFS_ENVIRONMENT, stats);
+        int rows = 0;
+        try (ConnectorPageSource pageSource = HivePageSourceProvider.createHivePageSource(
+                ImmutableSet.of(),
+                ImmutableSet.of(orcPageSourceFactory),
+                new Configuration(),
+                session,
+                new Path(file.toURI()),
+                OptionalInt.empty(),
+                0,
+                file.length(),
+                file.length(),
+                file.lastModified(),
+                schema,
+                TupleDomain.withColumnDomains(ImmutableMap.of(COLUMN, Domain.singleValue(BIGINT, value))),
+                ImmutableList.of(COLUMN),
+                ImmutableList.of(),
+                DateTimeZone.UTC,
+                TYPE_MANAGER,
+                ImmutableMap.of(),
+                Optional.empty())
+                .get()) {
+            while (!pageSource.isFinished()) {
+                Page page = pageSource.getNextPage();
+                if (page != null) {
+                    rows += page.getPositionCount();
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void writeEvenValuesWithBloomFilter(File file, int count)
+            throws Exception
+    {
+        JobConf jobConf = new JobConf();
+        jobConf.set("hive.exec.orc.write.format", "0.12");
+
+        Properties tableProperties = new Properties();
+        tableProperties.setProperty("columns", COLUMN.getName());
+        tableProperties.setProperty("columns.types", HIVE_LONG.getHiveTypeName().toString());
+        tableProperties.setProperty("orc.bloom.filter.columns", COLUMN.getName());
+        tableProperties.setProperty("orc.bloom.filter.fpp", "0.001");
+
+        RecordWriter writer = new OrcOutputFormat().getHiveRecordWriter(jobConf, new Path(file.toURI()), Text.class, false, tableProperties, () -> {});
+
+        OrcSerde serde = new OrcSerde();
+        SettableStructObjectInspector objectInspector = getStandardStructObjectInspector(ImmutableList.of(COLUMN.getName()), ImmutableList.of(javaLongObjectInspector));
+        Object row = objectInspector.create();
+        List<? extends StructField> fields = objectInspector.getAllStructFieldRefs();
+
+        for (int i = 0; i < count; i++) {
+            objectInspector.setStructFieldData(row, fields.get(0), 2L * i);
+            writer.write(serde.serialize(row, objectInspector));
+        }
+
+        writer.close(false);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static com.facebook.presto.hive.cache.FileCache.disabledFileCache;
+import static com.google.common.io.Files.createTempDir;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+@Test(singleThreaded = true)
+public class TestFileCache
+{
+    private static final Path PATH = new Path("s3://bucket/table/file.orc");
+    private static final int BLOCK_SIZE = 100;
+    private static final long MODIFIED_TIME = 1_500_000_000_000L;
+
+    private final byte[] fileData = new byte[1050];
+    private File directory;
+    private CountingReader remoteReader;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        for (int i = 0; i < fileData.length; i++) {
+            fileData[i] = (byte) i;
+        }
+        directory = createTempDir();
+        remoteReader = new CountingReader();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        assertSame(disabledFileCache().cached(PATH, fileData.length, MODIFIED_TIME, remoteReader), remoteReader);
+    }
+
+    @Test
+    public void testHitsAndMisses()
+            throws IOException
+    {
+        FileCache fileCache = createFileCache(10_000);
+        FileRangeReader reader = fileCache.cached(PATH, fileData.length, MODIFIED_TIME, remoteReader);
+
+        assertRead(reader, 150, 100);
+        assertEquals(remoteReader.reads, 1);
+        assertEquals(remoteReader.bytes, 200);
+        assertEquals(fileCache.getCachedBlocks(), 2);
+        assertEquals(fileCache.getMisses().getTotalCount(), 2);
+
+        // served from local disk
+        assertRead(reader, 110, 50);
+        assertRead(reader, 100, 200);
+        assertEquals(remoteReader.reads, 1);
+        assertEquals(fileCache.getHits().getTotalCount(), 3);
+
+        // only the missing blocks are read, and the last block is shorter
+        assertRead(reader, 50, 1000);
+        assertEquals(remoteReader.reads, 3);
+        assertEquals(remoteReader.bytes, 200 + 100 + 750);
+        assertEquals(fileCache.getCachedBytes(), fileData.length);
+
+        // a file with the same path but another length is a different file
+        fileCache.cached(PATH, fileData.length - 1, MODIFIED_TIME, remoteReader).readFully(0, new byte[10], 0, 10);
+        assertEquals(remoteReader.reads, 4);
+
+        // a file rewritten with the same length is a different file
+        fileCache.cached(PATH, fileData.length, MODIFIED_TIME + 1, remoteReader).readFully(0, new byte[10], 0, 10);
+        assertEquals(remoteReader.reads, 5);
+    }
+
+    @Test
+    public void testUnknownModificationTime()
+    {
+        assertSame(createFileCache(10_000).cached(PATH, fileData.length, 0, remoteReader), remoteReader);
+    }
+
+    @Test
+    public void testEviction()
+            throws IOException
+    {
+        FileCache fileCache = createFileCache(300);
+        FileRangeReader reader = fileCache.cached(PATH, fileData.length, MODIFIED_TIME, remoteReader);
+
+        assertRead(reader, 0, 300);
+        assertEquals(fileCache.getCachedBytes(), 300);
+
+        // touch the first block so that the second one is evicted
+        assertRead(reader, 0, 10);
+        assertRead(reader, 300, 10);
+        assertEquals(fileCache.getCachedBytes(), 300);
+        assertEquals(fileCache.getEvictions().getTotalCount(), 1);
+        assertEquals(directory.listFiles().length, 3);
+
+        int reads = remoteReader.reads;
+        assertRead(reader, 0, 10);
+        assertEquals(remoteReader.reads, reads);
+        assertRead(reader, 100, 10);
+        assertEquals(remoteReader.reads, reads + 1);
+    }
+
+    @Test
+    public void testDirectoryIsClearedOnStartup()
+            throws IOException
+    {
+        FileRangeReader reader = createFileCache(10_000).cached(PATH, fileData.length, MODIFIED_TIME, remoteReader);
+        assertRead(reader, 0, 300);
+        assertEquals(directory.listFiles().length, 3);
+
+        FileCache fileCache = createFileCache(10_000);
+        assertEquals(directory.listFiles().length, 0);
+        assertRead(fileCache.cached(PATH, fileData.length, MODIFIED_TIME, remoteReader), 0, 300);
+        assertEquals(remoteReader.reads, 2);
+    }
+
+    private FileCache createFileCache(long maxSizeInBytes)
+    {
+        return new FileCache(Optional.of(directory), new DataSize(maxSizeInBytes, BYTE), new DataSize(BLOCK_SIZE, BYTE));
+    }
+
+    private void assertRead(FileRangeReader reader, int position, int length)
+            throws IOException
+    {
+        byte[] buffer = new byte[length + 20];
+        reader.readFully(position, buffer, 10, length);
+        assertEquals(Arrays.copyOfRange(buffer, 10, 10 + length), Arrays.copyOfRange(fileData, position, position + length));
+    }
+
+    private class CountingReader
+            implements FileRangeReader
+    {
+        private int reads;
+        private long bytes;
+
+        @Override
+        public void readFully(long position, byte[] buffer, int offset, int length)
+        {
+            reads++;
+            bytes += length;
+            System.arraycopy(fileData, (int) position, buffer, offset, length);
+        }
+    }
+}
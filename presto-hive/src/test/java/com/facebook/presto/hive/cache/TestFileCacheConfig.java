@@ -0,0 +1,60 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.cache;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class TestFileCacheConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(FileCacheConfig.class)
+                .setEnabled(false)
+                .setLocation(null)
+                .setMaxSize(new DataSize(10, GIGABYTE))
+                .setBlockSize(new DataSize(1, MEGABYTE)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("hive.file-cache.enabled", "true")
+                .put("hive.file-cache.location", "/tmp/cache")
+                .put("hive.file-cache.max-size", "100GB")
+                .put("hive.file-cache.block-size", "256kB")
+                .build();
+
+        FileCacheConfig expected = new FileCacheConfig()
+                .setEnabled(true)
+                .setLocation(new File("/tmp/cache"))
+                .setMaxSize(new DataSize(100, GIGABYTE))
+                .setBlockSize(new DataSize(256, KILOBYTE));
+
+        assertFullMapping(properties, expected);
+    }
+}
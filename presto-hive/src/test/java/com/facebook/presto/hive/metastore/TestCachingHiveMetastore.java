@@ -26,9 +26,11 @@ import io.airlift.units.Duration;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.presto.hive.metastore.thrift.MockHiveMetastoreClient.BAD_DATABASE;
 import static com.facebook.presto.hive.metastore.thrift.MockHiveMetastoreClient.TEST_DATABASE;
@@ -61,7 +63,9 @@ public class TestCachingHiveMetastore
                 executor,
                 new Duration(5, TimeUnit.MINUTES),
                 new Duration(1, TimeUnit.MINUTES),
-                1000);
+                1000,
+                100,
+                4);
         stats = thriftHiveMetastore.getStats();
     }
 
@@ -198,6 +202,76 @@ public class TestCachingHiveMetastore
         assertEquals(mockClient.getAccessCount(), 4);
     }
 
+    @Test
+    public void testGetPartitionsByNamesInBatches()
+    {
+        ListeningExecutorService executor = listeningDecorator(newCachedThreadPool(daemonThreadsNamed("test-%s")));
+        CachingHiveMetastore batchingMetastore = new CachingHiveMetastore(
+                new BridgingHiveMetastore(new ThriftHiveMetastore(new MockHiveCluster(mockClient))),
+                executor,
+                new Duration(5, TimeUnit.MINUTES),
+                new Duration(1, TimeUnit.MINUTES),
+                1000,
+                1,
+                2);
+        try {
+            assertEquals(mockClient.getAccessCount(), 0);
+
+            // Each partition is fetched in its own batch
+            assertEquals(batchingMetastore.getPartitionsByNames(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2)).size(), 2);
+            assertEquals(mockClient.getAccessCount(), 2);
+            assertEquals(batchingMetastore.getPartitionBatchLoads(), 2);
+
+            // Cached partitions do not hit the client
+            assertEquals(batchingMetastore.getPartitionsByNames(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1, TEST_PARTITION2)).size(), 2);
+            assertEquals(mockClient.getAccessCount(), 2);
+            assertEquals(batchingMetastore.getPartitionBatchLoads(), 2);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPartitionsInvalidatedDuringLoadAreNotCached()
+    {
+        AtomicReference<Runnable> duringLoad = new AtomicReference<>(() -> {});
+        ExtendedHiveMetastore delegate = new BridgingHiveMetastore(new ThriftHiveMetastore(new MockHiveCluster(mockClient)))
+        {
+            @Override
+            public Map<String, Optional<Partition>> getPartitionsByNames(String databaseName, String tableName, List<String> partitionNames)
+            {
+                Map<String, Optional<Partition>> partitions = super.getPartitionsByNames(databaseName, tableName, partitionNames);
+                duringLoad.getAndSet(() -> {}).run();
+                return partitions;
+            }
+        };
+        ListeningExecutorService executor = listeningDecorator(newCachedThreadPool(daemonThreadsNamed("test-%s")));
+        CachingHiveMetastore invalidatedMetastore = new CachingHiveMetastore(
+                delegate,
+                executor,
+                new Duration(5, TimeUnit.MINUTES),
+                new Duration(1, TimeUnit.MINUTES),
+                1000,
+                100,
+                4);
+        try {
+            duringLoad.set(invalidatedMetastore::flushCache);
+            assertEquals(invalidatedMetastore.getPartitionsByNames(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1)).size(), 1);
+            assertEquals(mockClient.getAccessCount(), 1);
+
+            // the partition was flushed while it was loaded, so it is loaded again
+            assertEquals(invalidatedMetastore.getPartitionsByNames(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1)).size(), 1);
+            assertEquals(mockClient.getAccessCount(), 2);
+
+            assertEquals(invalidatedMetastore.getPartitionsByNames(TEST_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1)).size(), 1);
+            assertEquals(mockClient.getAccessCount(), 2);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     public void testInvalidGetPartitionsByNames()
     {
         Map<String, Optional<Partition>> partitionsByNames = metastore.getPartitionsByNames(BAD_DATABASE, TEST_TABLE, ImmutableList.of(TEST_PARTITION1));
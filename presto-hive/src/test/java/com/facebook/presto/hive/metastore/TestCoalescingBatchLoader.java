@@ -0,0 +1,211 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.metastore;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestCoalescingBatchLoader
+{
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-coalescing-batch-loader-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testBatching()
+    {
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        CoalescingBatchLoader<String, String> loader = new CoalescingBatchLoader<>(
+                keys -> {
+                    batches.add(keys);
+                    return keys.stream().collect(toImmutableMap(key -> key, String::toUpperCase));
+                },
+                key -> key.charAt(0),
+                2,
+                3,
+                executor);
+
+        Map<String, String> values = loader.loadAll(ImmutableList.of("a1", "a2", "a3", "b1", "a1"));
+        assertEquals(values, ImmutableMap.of("a1", "A1", "a2", "A2", "a3", "A3", "b1", "B1"));
+
+        // keys of different groups are never loaded together
+        assertEquals(batches.size(), 3);
+        assertTrue(batches.contains(ImmutableList.of("a1", "a2")));
+        assertTrue(batches.contains(ImmutableList.of("a3")));
+        assertTrue(batches.contains(ImmutableList.of("b1")));
+        assertEquals(loader.getBatchLoads(), 3);
+        assertEquals(loader.getCoalescedLoads(), 0);
+    }
+
+    @Test
+    public void testCoalescing()
+            throws Exception
+    {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        CoalescingBatchLoader<String, String> loader = new CoalescingBatchLoader<>(
+                keys -> {
+                    batches.add(keys);
+                    loading.countDown();
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException(e);
+                    }
+                    return keys.stream().collect(toImmutableMap(key -> key, String::toUpperCase));
+                },
+                key -> "",
+                10,
+                1,
+                executor);
+
+        Future<Map<String, String>> first = executor.submit(() -> loader.loadAll(ImmutableList.of("a", "b")));
+        assertTrue(loading.await(10, SECONDS));
+
+        // the second request only loads the key that is not in flight
+        Future<Map<String, String>> second = executor.submit(() -> loader.loadAll(ImmutableList.of("b", "c")));
+        while (batches.size() < 2) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        assertEquals(first.get(10, SECONDS), ImmutableMap.of("a", "A", "b", "B"));
+        assertEquals(second.get(10, SECONDS), ImmutableMap.of("b", "B", "c", "C"));
+        assertEquals(batches, ImmutableList.of(ImmutableList.of("a", "b"), ImmutableList.of("c")));
+        assertEquals(loader.getCoalescedLoads(), 1);
+    }
+
+    @Test
+    public void testInvalidateAll()
+            throws Exception
+    {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        CoalescingBatchLoader<String, String> loader = new CoalescingBatchLoader<>(
+                keys -> {
+                    batches.add(keys);
+                    loading.countDown();
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException(e);
+                    }
+                    return keys.stream().collect(toImmutableMap(key -> key, String::toUpperCase));
+                },
+                key -> "",
+                10,
+                1,
+                executor);
+
+        Future<Map<String, String>> first = executor.submit(() -> loader.loadAll(ImmutableList.of("a", "b")));
+        assertTrue(loading.await(10, SECONDS));
+        loader.invalidateAll();
+
+        // a load started before the invalidation is not shared with later callers
+        Future<Map<String, String>> second = executor.submit(() -> loader.loadAll(ImmutableList.of("b", "c")));
+        while (batches.size() < 2) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        assertEquals(first.get(10, SECONDS), ImmutableMap.of("a", "A", "b", "B"));
+        assertEquals(second.get(10, SECONDS), ImmutableMap.of("b", "B", "c", "C"));
+        assertEquals(batches, ImmutableList.of(ImmutableList.of("a", "b"), ImmutableList.of("b", "c")));
+        assertEquals(loader.getCoalescedLoads(), 0);
+    }
+
+    @Test
+    public void testReload()
+            throws Exception
+    {
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        CoalescingBatchLoader<String, String> loader = new CoalescingBatchLoader<>(
+                keys -> {
+                    batches.add(keys);
+                    return keys.stream().collect(toImmutableMap(key -> key, String::toUpperCase));
+                },
+                key -> "",
+                10,
+                1,
+                executor);
+
+        assertEquals(loader.reload("a").get(10, SECONDS), "A");
+        assertEquals(batches, ImmutableList.of(ImmutableList.of("a")));
+    }
+
+    @Test
+    public void testLoaderFailure()
+    {
+        CoalescingBatchLoader<String, String> loader = new CoalescingBatchLoader<>(
+                keys -> {
+                    throw new IllegalArgumentException("test failure");
+                },
+                key -> "",
+                10,
+                1,
+                executor);
+
+        try {
+            loader.loadAll(ImmutableList.of("a"));
+            fail("expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage(), "test failure");
+        }
+
+        // failed keys are not left in flight
+        try {
+            loader.loadAll(ImmutableList.of("a"));
+            fail("expected exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage(), "test failure");
+        }
+        assertEquals(loader.getBatchLoads(), 2);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+import parquet.schema.MessageType;
+import parquet.schema.Type;
+
+import static com.facebook.presto.hive.parquet.ParquetTypeUtils.pruneNestedFields;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static parquet.schema.MessageTypeParser.parseMessageType;
+
+public class TestParquetTypeUtils
+{
+    private static final MessageType SCHEMA = parseMessageType("message hive_schema { " +
+            "  optional group a { " +
+            "    optional group b { " +
+            "      optional int64 c; " +
+            "      optional int64 e; " +
+            "    } " +
+            "    optional int64 d; " +
+            "    optional group m (MAP) { " +
+            "      repeated group map { " +
+            "        required binary key (UTF8); " +
+            "        optional int64 value; " +
+            "      } " +
+            "    } " +
+            "  } " +
+            "} ");
+
+    private final Type column = SCHEMA.getType("a");
+
+    @Test
+    public void testNoFieldPaths()
+    {
+        assertSame(pruneNestedFields(column, ImmutableList.of()), column);
+        assertSame(pruneNestedFields(column, ImmutableList.of(ImmutableList.of("d"), ImmutableList.of())), column);
+    }
+
+    @Test
+    public void testPruneFields()
+    {
+        assertEquals(
+                pruneNestedFields(column, ImmutableList.of(ImmutableList.of("b", "c"), ImmutableList.of("d"))),
+                parseType("optional group a { optional group b { optional int64 c; } optional int64 d; }"));
+    }
+
+    @Test
+    public void testNestedFieldReadWhole()
+    {
+        assertEquals(
+                pruneNestedFields(column, ImmutableList.of(ImmutableList.of("b"))),
+                parseType("optional group a { optional group b { optional int64 c; optional int64 e; } }"));
+    }
+
+    @Test
+    public void testCaseInsensitive()
+    {
+        assertEquals(
+                pruneNestedFields(column, ImmutableList.of(ImmutableList.of("B", "E"))),
+                parseType("optional group a { optional group b { optional int64 e; } }"));
+    }
+
+    @Test
+    public void testMapIsNotPruned()
+    {
+        assertEquals(
+                pruneNestedFields(column, ImmutableList.of(ImmutableList.of("m", "key"))),
+                parseType("optional group a { optional group m (MAP) { repeated group map { required binary key (UTF8); optional int64 value; } } }"));
+    }
+
+    @Test
+    public void testFieldsNotInFile()
+    {
+        // the file was written before the field was added to the table
+        assertSame(pruneNestedFields(column, ImmutableList.of(ImmutableList.of("f"))), column);
+        assertEquals(
+                pruneNestedFields(column, ImmutableList.of(ImmutableList.of("d"), ImmutableList.of("f"))),
+                parseType("optional group a { optional int64 d; }"));
+    }
+
+    @Test
+    public void testPrimitive()
+    {
+        Type primitive = SCHEMA.getType("a").asGroupType().getType("d");
+        assertSame(pruneNestedFields(primitive, ImmutableList.of(ImmutableList.of("x"))), primitive);
+    }
+
+    private static Type parseType(String type)
+    {
+        return parseMessageType("message hive_schema { " + type + " }").getType(0);
+    }
+}
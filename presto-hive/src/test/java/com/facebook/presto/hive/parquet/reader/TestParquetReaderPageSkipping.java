@@ -0,0 +1,307 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.reader;
+
+import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.HiveColumnHandle;
+import com.facebook.presto.hive.parquet.Field;
+import com.facebook.presto.hive.parquet.ParquetDataSource;
+import com.facebook.presto.hive.parquet.RichColumnDescriptor;
+import com.facebook.presto.hive.parquet.writer.ParquetWriter;
+import com.facebook.presto.hive.parquet.writer.ParquetWriterOptions;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import parquet.column.ColumnDescriptor;
+import parquet.hadoop.metadata.ParquetMetadata;
+import parquet.io.MessageColumnIO;
+import parquet.schema.MessageType;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+import static com.facebook.presto.hive.HiveColumnHandle.ColumnType.REGULAR;
+import static com.facebook.presto.hive.HiveType.HIVE_LONG;
+import static com.facebook.presto.hive.parquet.HdfsParquetDataSource.buildHdfsParquetDataSource;
+import static com.facebook.presto.hive.parquet.ParquetTypeUtils.getColumnIO;
+import static com.facebook.presto.hive.parquet.ParquetTypeUtils.getDescriptors;
+import static com.facebook.presto.hive.parquet.ParquetTypeUtils.lookupColumnByName;
+import static com.facebook.presto.hive.parquet.predicate.ParquetPredicateUtils.buildParquetPredicate;
+import static com.facebook.presto.hive.parquet.predicate.ParquetPredicateUtils.getParquetTupleDomain;
+import static com.facebook.presto.hive.parquet.reader.ParquetMetadataReader.readFooter;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.spi.predicate.Range.greaterThanOrEqual;
+import static com.facebook.presto.spi.predicate.Range.lessThanOrEqual;
+import static com.facebook.presto.spi.predicate.Range.range;
+import static com.facebook.presto.spi.predicate.ValueSet.ofRanges;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static parquet.io.ColumnIOConverter.constructField;
+
+@Test(singleThreaded = true)
+public class TestParquetReaderPageSkipping
+{
+    private static final int ROW_COUNT = 10_000;
+
+    // a is the row number, b is derived from a, and c has few distinct values
+    private static final HiveColumnHandle COLUMN_A = new HiveColumnHandle("a", HIVE_LONG, BIGINT.getTypeSignature(), 0, REGULAR, Optional.empty());
+    private static final HiveColumnHandle COLUMN_C = new HiveColumnHandle("c", HIVE_LONG, BIGINT.getTypeSignature(), 2, REGULAR, Optional.empty());
+    private static final LongUnaryOperator PLAIN_C = row -> row / 1000;
+    private static final LongUnaryOperator DICTIONARY_C = row -> (row % 4) * 2;
+
+    private File directory;
+    private File plainFile;
+    private File dictionaryFile;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        directory = createTempDirectory("parquet-page-skipping").toFile();
+
+        // small pages, and the values of b are wider than the values of a, so the columns have different page boundaries
+        plainFile = new File(directory, "plain.parquet");
+        writeFile(plainFile, new ParquetWriterOptions().withMaxPageSize(new DataSize(1, KILOBYTE)).withMaxDictionaryPageSize(new DataSize(0, BYTE)), PLAIN_C);
+
+        dictionaryFile = new File(directory, "dictionary.parquet");
+        writeFile(dictionaryFile, new ParquetWriterOptions().withMaxPageSize(new DataSize(1, KILOBYTE)), DICTIONARY_C);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        plainFile.delete();
+        dictionaryFile.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void testNoPredicate()
+            throws IOException
+    {
+        FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
+        List<Long> rows = readRows(plainFile, PLAIN_C, TupleDomain.all(), stats);
+        assertEquals(rows, LongStream.range(0, ROW_COUNT).boxed().collect(toImmutableList()));
+        assertEquals(stats.getParquetSkippedPages().getTotalCount(), 0);
+        assertEquals(stats.getParquetSkippedRowGroups().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testPagesSkippedByStatistics()
+            throws IOException
+    {
+        FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
+        List<Long> rows = readRows(
+                plainFile,
+                PLAIN_C,
+                TupleDomain.withColumnDomains(ImmutableMap.of(COLUMN_A, Domain.create(ofRanges(range(BIGINT, 5000L, true, 5099L, true)), false))),
+                stats);
+
+        // only the pages containing the matching rows are read
+        assertContainsRange(rows, 5000, 5100);
+        assertTrue(rows.size() < ROW_COUNT / 10, "read " + rows.size() + " rows");
+        assertTrue(stats.getParquetSkippedPages().getTotalCount() > 0);
+        assertTrue(stats.getParquetSkippedBytes().getTotalCount() > 0);
+        assertEquals(stats.getParquetSkippedRowGroups().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testDisjointRowRanges()
+            throws IOException
+    {
+        FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
+        List<Long> rows = readRows(
+                plainFile,
+                PLAIN_C,
+                TupleDomain.withColumnDomains(ImmutableMap.of(COLUMN_A, Domain.multipleValues(BIGINT, ImmutableList.of(100L, 9000L)))),
+                stats);
+
+        assertContainsRange(rows, 100, 101);
+        assertContainsRange(rows, 9000, 9001);
+        assertTrue(rows.size() < ROW_COUNT / 10, "read " + rows.size() + " rows");
+        assertTrue(stats.getParquetSkippedPages().getTotalCount() > 0);
+    }
+
+    @Test
+    public void testRowRangesOfSeveralColumns()
+            throws IOException
+    {
+        // the pages of a and c have different boundaries, and only rows matching both can be returned
+        FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
+        List<Long> rows = readRows(
+                plainFile,
+                PLAIN_C,
+                TupleDomain.withColumnDomains(ImmutableMap.of(
+                        COLUMN_A, Domain.create(ofRanges(greaterThanOrEqual(BIGINT, 4000L)), false),
+                        COLUMN_C, Domain.create(ofRanges(lessThanOrEqual(BIGINT, 4L)), false))),
+                stats);
+
+        assertContainsRange(rows, 4000, 5000);
+        assertTrue(rows.size() < 2000, "read " + rows.size() + " rows");
+        assertTrue(stats.getParquetSkippedPages().getTotalCount() > 0);
+    }
+
+    @Test
+    public void testRowGroupSkippedByDictionary()
+            throws IOException
+    {
+        // 3 is within the min and max statistics of every page of c, but is not in the dictionary
+        FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
+        List<Long> rows = readRows(
+                dictionaryFile,
+                DICTIONARY_C,
+                TupleDomain.withColumnDomains(ImmutableMap.of(COLUMN_C, Domain.singleValue(BIGINT, 3L))),
+                stats);
+
+        assertEquals(rows, ImmutableList.of());
+        assertEquals(stats.getParquetSkippedRowGroups().getTotalCount(), 1);
+        assertTrue(stats.getParquetSkippedBytes().getTotalCount() > 0);
+    }
+
+    @Test
+    public void testRowGroupMatchingDictionary()
+            throws IOException
+    {
+        FileFormatDataSourceStats stats = new FileFormatDataSourceStats();
+        List<Long> rows = readRows(
+                dictionaryFile,
+                DICTIONARY_C,
+                TupleDomain.withColumnDomains(ImmutableMap.of(COLUMN_C, Domain.singleValue(BIGINT, 4L))),
+                stats);
+
+        // the dictionary matches and the page statistics do not exclude any page
+        assertEquals(rows, LongStream.range(0, ROW_COUNT).boxed().collect(toImmutableList()));
+        assertEquals(stats.getParquetSkippedRowGroups().getTotalCount(), 0);
+        assertEquals(stats.getParquetSkippedPages().getTotalCount(), 0);
+    }
+
+    private static void writeFile(File file, ParquetWriterOptions options, LongUnaryOperator columnC)
+            throws IOException
+    {
+        BlockBuilder a = BIGINT.createBlockBuilder(null, ROW_COUNT);
+        BlockBuilder b = VARCHAR.createBlockBuilder(null, ROW_COUNT);
+        BlockBuilder c = BIGINT.createBlockBuilder(null, ROW_COUNT);
+        for (long row = 0; row < ROW_COUNT; row++) {
+            BIGINT.writeLong(a, row);
+            VARCHAR.writeSlice(b, utf8Slice(bValue(row)));
+            BIGINT.writeLong(c, columnC.applyAsLong(row));
+        }
+
+        try (ParquetWriter writer = new ParquetWriter(
+                new FileOutputStream(file),
+                ImmutableList.of("a", "b", "c"),
+                ImmutableList.of(BIGINT, VARCHAR, BIGINT),
+                options,
+                UNCOMPRESSED,
+                DateTimeZone.UTC,
+                ImmutableMap.of(),
+                false)) {
+            writer.write(new Page(a.build(), b.build(), c.build()));
+        }
+    }
+
+    /**
+     * Reads the rows the reader returns for the predicate, checks that the values of
+     * all columns belong to the same rows, and returns the values of a.
+     */
+    private static List<Long> readRows(File file, LongUnaryOperator columnC, TupleDomain<HiveColumnHandle> effectivePredicate, FileFormatDataSourceStats stats)
+            throws IOException
+    {
+        Path path = new Path(file.toURI());
+        FileSystem fileSystem = path.getFileSystem(new Configuration());
+        FSDataInputStream inputStream = fileSystem.open(path);
+        ParquetMetadata parquetMetadata = readFooter(inputStream, path, file.length());
+        MessageType fileSchema = parquetMetadata.getFileMetaData().getSchema();
+        MessageColumnIO messageColumnIO = getColumnIO(fileSchema, fileSchema);
+
+        Map<List<String>, RichColumnDescriptor> descriptorsByPath = getDescriptors(fileSchema, fileSchema);
+        TupleDomain<ColumnDescriptor> parquetTupleDomain = getParquetTupleDomain(descriptorsByPath, effectivePredicate);
+        List<RichColumnDescriptor> predicateColumns = descriptorsByPath.values().stream()
+                .filter(descriptor -> parquetTupleDomain.getDomains().get().containsKey(descriptor))
+                .collect(toImmutableList());
+
+        ParquetDataSource dataSource = buildHdfsParquetDataSource(inputStream, path, file.length(), stats);
+        ImmutableList.Builder<Long> rows = ImmutableList.builder();
+        try (ParquetReader reader = new ParquetReader(
+                messageColumnIO,
+                parquetMetadata.getBlocks(),
+                dataSource,
+                newSimpleAggregatedMemoryContext(),
+                Optional.of(buildParquetPredicate(fileSchema, parquetTupleDomain, descriptorsByPath)),
+                predicateColumns,
+                stats)) {
+            Field a = constructField(BIGINT, lookupColumnByName(messageColumnIO, "a")).get();
+            Field b = constructField(VARCHAR, lookupColumnByName(messageColumnIO, "b")).get();
+            Field c = constructField(BIGINT, lookupColumnByName(messageColumnIO, "c")).get();
+
+            long lastRow = -1;
+            for (int batchSize = reader.nextBatch(); batchSize > 0; batchSize = reader.nextBatch()) {
+                Block aBlock = reader.readBlock(a);
+                Block bBlock = reader.readBlock(b);
+                Block cBlock = reader.readBlock(c);
+                assertEquals(aBlock.getPositionCount(), batchSize);
+                assertEquals(bBlock.getPositionCount(), batchSize);
+                assertEquals(cBlock.getPositionCount(), batchSize);
+                for (int position = 0; position < batchSize; position++) {
+                    long row = BIGINT.getLong(aBlock, position);
+                    assertTrue(row > lastRow, "rows are returned in order");
+                    lastRow = row;
+                    assertEquals(VARCHAR.getSlice(bBlock, position).toStringUtf8(), bValue(row));
+                    assertEquals(BIGINT.getLong(cBlock, position), columnC.applyAsLong(row));
+                    rows.add(row);
+                }
+            }
+        }
+        return rows.build();
+    }
+
+    private static String bValue(long row)
+    {
+        return "value_" + row;
+    }
+
+    private static void assertContainsRange(List<Long> rows, long start, long end)
+    {
+        for (long row = start; row < end; row++) {
+            assertTrue(rows.contains(row), "missing row " + row);
+        }
+    }
+}
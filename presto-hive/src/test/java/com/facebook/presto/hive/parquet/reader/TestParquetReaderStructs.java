@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.reader;
+
+import com.facebook.presto.hive.FileFormatDataSourceStats;
+import com.facebook.presto.hive.parquet.Field;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.ColumnarRow;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.RowType;
+import com.google.common.collect.ImmutableList;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import parquet.example.data.Group;
+import parquet.example.data.simple.SimpleGroupFactory;
+import parquet.hadoop.ParquetWriter;
+import parquet.hadoop.example.GroupWriteSupport;
+import parquet.hadoop.metadata.ParquetMetadata;
+import parquet.io.MessageColumnIO;
+import parquet.schema.MessageType;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.facebook.presto.hive.parquet.HdfsParquetDataSource.buildHdfsParquetDataSource;
+import static com.facebook.presto.hive.parquet.ParquetTypeUtils.getColumnIO;
+import static com.facebook.presto.hive.parquet.ParquetTypeUtils.lookupColumnByName;
+import static com.facebook.presto.hive.parquet.reader.ParquetMetadataReader.readFooter;
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.spi.block.ColumnarRow.toColumnarRow;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.RowType.field;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static parquet.io.ColumnIOConverter.constructField;
+import static parquet.schema.MessageTypeParser.parseMessageType;
+
+@Test(singleThreaded = true)
+public class TestParquetReaderStructs
+{
+    private static final int ROW_COUNT = 1000;
+
+    // the file was written before b was added to the struct
+    private static final MessageType FILE_SCHEMA = parseMessageType("message test { optional group s { optional int64 a; } }");
+    private static final RowType STRUCT_TYPE = RowType.from(ImmutableList.of(field("a", BIGINT), field("b", VARCHAR)));
+
+    private File directory;
+    private File file;
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        directory = createTempDirectory("parquet-structs").toFile();
+        file = new File(directory, "struct.parquet");
+
+        Configuration configuration = new Configuration();
+        GroupWriteSupport.setSchema(FILE_SCHEMA, configuration);
+        SimpleGroupFactory groupFactory = new SimpleGroupFactory(FILE_SCHEMA);
+        try (ParquetWriter<Group> writer = new ParquetWriter<>(
+                new Path(file.toURI()),
+                new GroupWriteSupport(),
+                UNCOMPRESSED,
+                ParquetWriter.DEFAULT_BLOCK_SIZE,
+                ParquetWriter.DEFAULT_PAGE_SIZE,
+                ParquetWriter.DEFAULT_PAGE_SIZE,
+                ParquetWriter.DEFAULT_IS_DICTIONARY_ENABLED,
+                ParquetWriter.DEFAULT_IS_VALIDATING_ENABLED,
+                ParquetWriter.DEFAULT_WRITER_VERSION,
+                configuration)) {
+            for (long row = 0; row < ROW_COUNT; row++) {
+                Group group = groupFactory.newGroup();
+                group.addGroup("s").append("a", row);
+                writer.write(group);
+            }
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        new File(directory, ".struct.parquet.crc").delete();
+        file.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void testFieldMissingFromFile()
+            throws IOException
+    {
+        Path path = new Path(file.toURI());
+        FileSystem fileSystem = path.getFileSystem(new Configuration());
+        FSDataInputStream inputStream = fileSystem.open(path);
+        ParquetMetadata parquetMetadata = readFooter(inputStream, path, file.length());
+        MessageType fileSchema = parquetMetadata.getFileMetaData().getSchema();
+        MessageColumnIO messageColumnIO = getColumnIO(fileSchema, fileSchema);
+
+        long rows = 0;
+        try (ParquetReader reader = new ParquetReader(
+                messageColumnIO,
+                parquetMetadata.getBlocks(),
+                buildHdfsParquetDataSource(inputStream, path, file.length(), new FileFormatDataSourceStats()),
+                newSimpleAggregatedMemoryContext())) {
+            Field struct = constructField(STRUCT_TYPE, lookupColumnByName(messageColumnIO, "s")).get();
+            for (int batchSize = reader.nextBatch(); batchSize > 0; batchSize = reader.nextBatch()) {
+                ColumnarRow columnarRow = toColumnarRow(reader.readBlock(struct));
+                assertEquals(columnarRow.getPositionCount(), batchSize);
+                Block a = columnarRow.getField(0);
+                Block b = columnarRow.getField(1);
+                for (int position = 0; position < batchSize; position++) {
+                    assertFalse(columnarRow.isNull(position));
+                    assertEquals(BIGINT.getLong(a, position), rows + position);
+                    assertTrue(b.isNull(position));
+                }
+
+                // the missing field is filled with nulls of its own type, not of the struct type
+                assertTrue(b instanceof RunLengthEncodedBlock);
+                Block nullValue = ((RunLengthEncodedBlock) b).getValue();
+                assertEquals(nullValue.getClass(), VARCHAR.createBlockBuilder(null, 1).appendNull().build().getClass());
+                rows += batchSize;
+            }
+        }
+        assertEquals(rows, ROW_COUNT);
+    }
+}
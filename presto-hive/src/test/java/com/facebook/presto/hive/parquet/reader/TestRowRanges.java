@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.reader;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestRowRanges
+{
+    @Test
+    public void testAdd()
+    {
+        RowRanges rowRanges = new RowRanges();
+        rowRanges.add(0, 10);
+        rowRanges.add(10, 20);
+        rowRanges.add(20, 20);
+        rowRanges.add(30, 40);
+
+        assertRanges(rowRanges, new long[] {0, 30}, new long[] {20, 40});
+        assertEquals(rowRanges.getRowCount(), 30);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testAddOutOfOrder()
+    {
+        RowRanges rowRanges = new RowRanges();
+        rowRanges.add(10, 20);
+        rowRanges.add(5, 8);
+    }
+
+    @Test
+    public void testIntersect()
+    {
+        RowRanges left = new RowRanges();
+        left.add(0, 100);
+        left.add(200, 300);
+
+        RowRanges right = new RowRanges();
+        right.add(50, 250);
+        right.add(280, 400);
+
+        assertRanges(left.intersect(right), new long[] {50, 200, 280}, new long[] {100, 250, 300});
+        assertRanges(RowRanges.all(1000).intersect(left), new long[] {0, 200}, new long[] {100, 300});
+
+        RowRanges disjoint = new RowRanges();
+        disjoint.add(100, 200);
+        assertTrue(left.intersect(disjoint).isEmpty());
+    }
+
+    private static void assertRanges(RowRanges rowRanges, long[] starts, long[] ends)
+    {
+        assertEquals(rowRanges.size(), starts.length);
+        for (int i = 0; i < starts.length; i++) {
+            assertEquals(rowRanges.getStart(i), starts[i]);
+            assertEquals(rowRanges.getEnd(i), ends[i]);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet.writer;
+
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+import parquet.column.values.rle.RunLengthBitPackingHybridDecoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestRunLengthBitPackingHybridEncoder
+{
+    @Test
+    public void testRepeatedValues()
+            throws IOException
+    {
+        int[] values = new int[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i / 100) % 2;
+        }
+        assertRoundTrip(1, values);
+    }
+
+    @Test
+    public void testMixedRuns()
+            throws IOException
+    {
+        Random random = new Random(42);
+        int[] values = new int[10_000];
+        for (int i = 0; i < values.length; i++) {
+            // alternate between long runs and random values so both run types are exercised
+            values[i] = (i / 500) % 2 == 0 ? 5 : random.nextInt(1 << 7);
+        }
+        assertRoundTrip(7, values);
+    }
+
+    @Test
+    public void testPartialGroup()
+            throws IOException
+    {
+        assertRoundTrip(3, new int[] {1, 2, 3, 4, 5});
+        assertRoundTrip(20, new int[] {1 << 19, 0, 17});
+    }
+
+    @Test
+    public void testReuse()
+            throws IOException
+    {
+        RunLengthBitPackingHybridEncoder encoder = new RunLengthBitPackingHybridEncoder(2, 16);
+        for (int round = 0; round < 3; round++) {
+            int[] values = new int[100 + round];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (i + round) % 4;
+            }
+            assertDecodes(2, encoder, values);
+        }
+    }
+
+    private static void assertRoundTrip(int bitWidth, int[] values)
+            throws IOException
+    {
+        assertDecodes(bitWidth, new RunLengthBitPackingHybridEncoder(bitWidth, 16), values);
+    }
+
+    private static void assertDecodes(int bitWidth, RunLengthBitPackingHybridEncoder encoder, int[] values)
+            throws IOException
+    {
+        for (int value : values) {
+            encoder.writeInt(value);
+        }
+        Slice encoded = encoder.toSlice();
+
+        RunLengthBitPackingHybridDecoder decoder = new RunLengthBitPackingHybridDecoder(bitWidth, new ByteArrayInputStream(encoded.getBytes()));
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(decoder.readInt(), values[i], "position " + i);
+        }
+    }
+}
@@ -13,12 +13,21 @@
  */
 package com.facebook.presto.hive.statistics;
 
+import com.facebook.presto.hive.HiveBasicStatistics;
 import com.facebook.presto.hive.HivePartition;
+import com.facebook.presto.hive.PartitionStatistics;
+import com.facebook.presto.hive.metastore.HiveColumnStatistics;
 import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.statistics.Estimate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.testng.annotations.Test;
 
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static com.facebook.presto.hive.statistics.MetastoreHiveStatisticsProvider.calculateDistinctValuesCount;
+import static com.facebook.presto.hive.statistics.MetastoreHiveStatisticsProvider.calculateNullsFraction;
 import static com.facebook.presto.hive.statistics.MetastoreHiveStatisticsProvider.getPartitionsSample;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.Assert.assertEquals;
@@ -46,6 +55,45 @@ public class TestMetastoreHiveStatisticsProvider
                 .contains(partition("p1"), partition("p3"));
     }
 
+    @Test
+    public void testCalculateNullsFraction()
+    {
+        Map<String, PartitionStatistics> statistics = ImmutableMap.of(
+                "p1", partitionStatistics(OptionalLong.of(1000), OptionalLong.of(100), OptionalLong.empty()),
+                "p2", partitionStatistics(OptionalLong.of(3000), OptionalLong.of(0), OptionalLong.empty()),
+                "p3", partitionStatistics(OptionalLong.of(5000), OptionalLong.empty(), OptionalLong.empty()));
+
+        // weighted by the row count of the partitions that have a nulls count
+        assertEquals(calculateNullsFraction(statistics, "column", new Estimate(9000)), new Estimate(0.025));
+        assertEquals(calculateNullsFraction(statistics, "column", new Estimate(0)), Estimate.zeroValue());
+        assertEquals(calculateNullsFraction(statistics, "column", Estimate.unknownValue()), Estimate.unknownValue());
+        assertEquals(calculateNullsFraction(statistics, "unknown_column", new Estimate(9000)), Estimate.unknownValue());
+    }
+
+    @Test
+    public void testCalculateDistinctValuesCount()
+    {
+        Map<String, PartitionStatistics> statistics = ImmutableMap.of(
+                "p1", partitionStatistics(OptionalLong.of(1000), OptionalLong.of(0), OptionalLong.of(800)),
+                "p2", partitionStatistics(OptionalLong.of(1000), OptionalLong.of(0), OptionalLong.of(900)));
+
+        assertEquals(calculateDistinctValuesCount(statistics, "column", new Estimate(2000), Estimate.zeroValue()), new Estimate(900));
+        assertEquals(calculateDistinctValuesCount(statistics, "column", Estimate.unknownValue(), Estimate.unknownValue()), new Estimate(900));
+        // capped by the number of non null values
+        assertEquals(calculateDistinctValuesCount(statistics, "column", new Estimate(1000), new Estimate(0.5)), new Estimate(500));
+        assertEquals(calculateDistinctValuesCount(statistics, "unknown_column", new Estimate(2000), Estimate.zeroValue()), Estimate.unknownValue());
+    }
+
+    private static PartitionStatistics partitionStatistics(OptionalLong rowCount, OptionalLong nullsCount, OptionalLong distinctValuesCount)
+    {
+        return new PartitionStatistics(
+                new HiveBasicStatistics(OptionalLong.empty(), rowCount, OptionalLong.empty(), OptionalLong.empty()),
+                ImmutableMap.of("column", HiveColumnStatistics.builder()
+                        .setNullsCount(nullsCount)
+                        .setDistinctValuesCount(distinctValuesCount)
+                        .build()));
+    }
+
     private static HivePartition partition(String name)
     {
         return new HivePartition(new SchemaTableName("schema", "table"), name, ImmutableMap.of());
@@ -20,12 +20,17 @@ import com.facebook.presto.sql.planner.TypeProvider;
 import com.facebook.presto.sql.planner.iterative.Lookup;
 import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.AggregationNode.Aggregation;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.SymbolReference;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.sql.planner.plan.Patterns.aggregation;
+import static java.lang.Double.NaN;
 import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
@@ -77,21 +82,47 @@ public class AggregationStatsRule
             int nullRow = (symbolStatistics.getNullsFraction() == 0.0) ? 0 : 1;
             rowsCount *= symbolStatistics.getDistinctValuesCount() + nullRow;
         }
-        result.setOutputRowCount(min(rowsCount, sourceStats.getOutputRowCount()));
+        double outputRowCount = min(rowsCount, sourceStats.getOutputRowCount());
+        result.setOutputRowCount(outputRowCount);
 
         for (Map.Entry<Symbol, Aggregation> aggregationEntry : aggregations.entrySet()) {
-            result.addSymbolStatistics(aggregationEntry.getKey(), estimateAggregationStats(aggregationEntry.getValue(), sourceStats));
+            result.addSymbolStatistics(aggregationEntry.getKey(), estimateAggregationStats(aggregationEntry.getValue(), sourceStats, outputRowCount));
         }
 
         return result.build();
     }
 
-    private static SymbolStatsEstimate estimateAggregationStats(Aggregation aggregation, PlanNodeStatsEstimate sourceStats)
+    private static SymbolStatsEstimate estimateAggregationStats(Aggregation aggregation, PlanNodeStatsEstimate sourceStats, double outputRowCount)
     {
         requireNonNull(aggregation, "aggregation is null");
         requireNonNull(sourceStats, "sourceStats is null");
 
-        // TODO implement simple aggregations like: min, max, count, sum
-        return SymbolStatsEstimate.UNKNOWN_STATS;
+        switch (aggregation.getSignature().getName()) {
+            case "count":
+            case "count_if":
+            case "approx_distinct":
+                // never null and bounded by the number of input rows
+                return SymbolStatsEstimate.builder()
+                        .setLowValue(0)
+                        .setHighValue(sourceStats.getOutputRowCount())
+                        .setNullsFraction(0)
+                        .setAverageRowSize(BIGINT.getFixedSize())
+                        .build();
+            case "min":
+            case "max":
+            case "arbitrary":
+                // the result is one of the input values
+                List<Expression> arguments = aggregation.getCall().getArguments();
+                if (arguments.size() != 1 || !(arguments.get(0) instanceof SymbolReference)) {
+                    return SymbolStatsEstimate.UNKNOWN_STATS;
+                }
+                SymbolStatsEstimate inputStats = sourceStats.getSymbolStatistics(Symbol.from(arguments.get(0)));
+                return SymbolStatsEstimate.buildFrom(inputStats)
+                        .setDistinctValuesCount(min(inputStats.getDistinctValuesCount(), outputRowCount))
+                        .setNullsFraction(inputStats.getNullsFraction() == 0 ? 0 : NaN)
+                        .build();
+            default:
+                return SymbolStatsEstimate.UNKNOWN_STATS;
+        }
     }
 }
@@ -29,14 +29,19 @@ import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.FilterNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
 import com.facebook.presto.sql.planner.plan.LimitNode;
+import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
 import com.facebook.presto.sql.planner.plan.OutputNode;
 import com.facebook.presto.sql.planner.plan.PlanNode;
 import com.facebook.presto.sql.planner.plan.PlanVisitor;
 import com.facebook.presto.sql.planner.plan.ProjectNode;
 import com.facebook.presto.sql.planner.plan.SemiJoinNode;
+import com.facebook.presto.sql.planner.plan.SortNode;
 import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.planner.plan.TopNNode;
+import com.facebook.presto.sql.planner.plan.UnionNode;
 import com.facebook.presto.sql.planner.plan.ValuesNode;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
@@ -47,6 +52,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.function.IntSupplier;
 
+import static com.facebook.presto.cost.AggregationStatsRule.groupBy;
 import static com.facebook.presto.cost.PlanNodeCostEstimate.UNKNOWN_COST;
 import static com.facebook.presto.cost.PlanNodeCostEstimate.ZERO_COST;
 import static com.facebook.presto.cost.PlanNodeCostEstimate.cpuCost;
@@ -163,6 +169,40 @@ public class CostCalculatorUsingExchanges
             return new PlanNodeCostEstimate(cpuCost, memoryCost, 0);
         }
 
+        @Override
+        public PlanNodeCostEstimate visitMarkDistinct(MarkDistinctNode node, Void context)
+        {
+            PlanNodeStatsEstimate sourceStats = getStats(node.getSource());
+            double cpuCost = sourceStats.getOutputSizeInBytes(node.getSource().getOutputSymbols(), types);
+            // memory is used for the set of distinct values seen so far
+            double memoryCost = groupBy(sourceStats, node.getDistinctSymbols(), ImmutableMap.of())
+                    .getOutputSizeInBytes(node.getDistinctSymbols(), types);
+            return new PlanNodeCostEstimate(cpuCost, memoryCost, 0);
+        }
+
+        @Override
+        public PlanNodeCostEstimate visitSort(SortNode node, Void context)
+        {
+            double sourceSize = getStats(node.getSource()).getOutputSizeInBytes(node.getSource().getOutputSymbols(), types);
+            return new PlanNodeCostEstimate(sourceSize, sourceSize, 0);
+        }
+
+        @Override
+        public PlanNodeCostEstimate visitTopN(TopNNode node, Void context)
+        {
+            double cpuCost = getStats(node.getSource()).getOutputSizeInBytes(node.getSource().getOutputSymbols(), types);
+            double memoryCost = getStats(node).getOutputSizeInBytes(node.getOutputSymbols(), types);
+            return new PlanNodeCostEstimate(cpuCost, memoryCost, 0);
+        }
+
+        @Override
+        public PlanNodeCostEstimate visitUnion(UnionNode node, Void context)
+        {
+            // the union itself only concatenates its inputs; the cost of moving the data is accounted
+            // either for the exchanges in the plan or in CostCalculatorWithEstimatedExchanges
+            return ZERO_COST;
+        }
+
         @Override
         public PlanNodeCostEstimate visitJoin(JoinNode node, Void context)
         {
@@ -26,6 +26,7 @@ import com.facebook.presto.sql.planner.plan.JoinNode;
 import com.facebook.presto.sql.planner.plan.PlanNode;
 import com.facebook.presto.sql.planner.plan.PlanVisitor;
 import com.facebook.presto.sql.planner.plan.SemiJoinNode;
+import com.facebook.presto.sql.planner.plan.UnionNode;
 
 import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
@@ -127,6 +128,20 @@ public class CostCalculatorWithEstimatedExchanges
             return remoteRepartitionCost.add(localRepartitionCost);
         }
 
+        @Override
+        public PlanNodeCostEstimate visitUnion(UnionNode node, Void context)
+        {
+            // assume that all union inputs are gathered over the network, which is not always true,
+            // but returning an unknown cost here would make the cost of every plan above the union unknown
+            return CostCalculatorUsingExchanges.calculateExchangeCost(
+                    numberOfNodes,
+                    getStats(node),
+                    node.getOutputSymbols(),
+                    REPARTITION,
+                    REMOTE,
+                    types);
+        }
+
         @Override
         public PlanNodeCostEstimate visitJoin(JoinNode node, Void context)
         {
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.matching.Pattern;
+import com.facebook.presto.sql.planner.TypeProvider;
+import com.facebook.presto.sql.planner.iterative.Lookup;
+import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
+
+import java.util.Optional;
+
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.sql.planner.plan.Patterns.markDistinct;
+import static java.lang.Math.min;
+
+public class MarkDistinctStatsRule
+        extends SimpleStatsRule<MarkDistinctNode>
+{
+    private static final Pattern<MarkDistinctNode> PATTERN = markDistinct();
+
+    public MarkDistinctStatsRule(StatsNormalizer normalizer)
+    {
+        super(normalizer);
+    }
+
+    @Override
+    public Pattern<MarkDistinctNode> getPattern()
+    {
+        return PATTERN;
+    }
+
+    @Override
+    protected Optional<PlanNodeStatsEstimate> doCalculate(MarkDistinctNode node, StatsProvider statsProvider, Lookup lookup, Session session, TypeProvider types)
+    {
+        PlanNodeStatsEstimate sourceStats = statsProvider.getStats(node.getSource());
+        return Optional.of(PlanNodeStatsEstimate.buildFrom(sourceStats)
+                .addSymbolStatistics(node.getMarkerSymbol(), SymbolStatsEstimate.builder()
+                        .setDistinctValuesCount(min(2, sourceStats.getOutputRowCount()))
+                        .setNullsFraction(0.0)
+                        .setAverageRowSize(BOOLEAN.getFixedSize())
+                        .build())
+                .build());
+    }
+}
@@ -52,6 +52,9 @@ public class StatsCalculatorModule
         rules.add(new UnionStatsRule(normalizer));
         rules.add(new AssignUniqueIdStatsRule());
         rules.add(new SemiJoinStatsRule());
+        rules.add(new SortStatsRule());
+        rules.add(new TopNStatsRule(normalizer));
+        rules.add(new MarkDistinctStatsRule(normalizer));
 
         return new ComposableStatsCalculator(rules.build());
     }
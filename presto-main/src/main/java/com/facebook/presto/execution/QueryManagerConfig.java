@@ -60,6 +60,9 @@ public class QueryManagerConfig
     private int initializationRequiredWorkers = 1;
     private Duration initializationTimeout = new Duration(5, TimeUnit.MINUTES);
 
+    private int planCacheMaxSize;
+    private Duration planCacheTtl = new Duration(10, TimeUnit.MINUTES);
+
     @Min(1)
     public int getScheduleSplitBatchSize()
     {
@@ -330,4 +333,32 @@ public class QueryManagerConfig
         this.initializationTimeout = initializationTimeout;
         return this;
     }
+
+    @Min(0)
+    public int getPlanCacheMaxSize()
+    {
+        return planCacheMaxSize;
+    }
+
+    @Config("query.plan-cache.max-size")
+    @ConfigDescription("Maximum number of optimized plans cached by the coordinator for reuse by identical queries; 0 disables the cache")
+    public QueryManagerConfig setPlanCacheMaxSize(int planCacheMaxSize)
+    {
+        this.planCacheMaxSize = planCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1ms")
+    public Duration getPlanCacheTtl()
+    {
+        return planCacheTtl;
+    }
+
+    @Config("query.plan-cache.ttl")
+    public QueryManagerConfig setPlanCacheTtl(Duration planCacheTtl)
+    {
+        this.planCacheTtl = planCacheTtl;
+        return this;
+    }
 }
@@ -0,0 +1,475 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.connector.ConnectorId;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.metadata.QualifiedObjectName;
+import com.facebook.presto.metadata.TableHandle;
+import com.facebook.presto.metadata.TableLayout;
+import com.facebook.presto.metadata.TableLayoutHandle;
+import com.facebook.presto.metadata.TableLayoutResult;
+import com.facebook.presto.security.AccessControl;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.Constraint;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.type.TimeZoneKey;
+import com.facebook.presto.sql.SqlPath;
+import com.facebook.presto.sql.analyzer.Analysis;
+import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.plan.IndexSourceNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.SimplePlanRewriter;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.tree.CurrentTime;
+import com.facebook.presto.sql.tree.DefaultTraversalVisitor;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.FunctionCall;
+import com.facebook.presto.sql.tree.Node;
+import com.facebook.presto.sql.tree.QualifiedName;
+import com.facebook.presto.sql.tree.Query;
+import com.facebook.presto.sql.tree.Statement;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import javax.inject.Inject;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.SystemSessionProperties.isBypassPlanCache;
+import static com.facebook.presto.metadata.TableLayoutResult.computeEnforced;
+import static com.facebook.presto.sql.ExpressionFormatter.formatExpression;
+import static com.facebook.presto.sql.SqlFormatter.formatSql;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Caches optimized plans of read-only queries on the coordinator, so that a query
+ * which is textually identical to a recent one, with the same parameter values and
+ * planning-relevant session, skips analysis and optimization. A cached plan is only
+ * reused after its tables are verified to be unchanged, the access checks are
+ * repeated for the new query, and table layouts are re-selected in the new
+ * transaction; otherwise the entry is dropped and the query is planned from scratch.
+ */
+public class QueryPlanCache
+{
+    // these functions are folded to the start time of the query during planning
+    private static final Set<QualifiedName> START_TIME_FUNCTIONS = ImmutableSet.of(
+            QualifiedName.of("current_date"),
+            QualifiedName.of("current_time"),
+            QualifiedName.of("current_timestamp"),
+            QualifiedName.of("now"),
+            QualifiedName.of("localtime"),
+            QualifiedName.of("localtimestamp"));
+
+    private final Metadata metadata;
+    private final SqlQueryManagerStats stats;
+    private final Optional<Cache<PlanCacheKey, CachedPlan>> cache;
+
+    @Inject
+    public QueryPlanCache(QueryManagerConfig config, Metadata metadata, SqlQueryManagerStats stats)
+    {
+        requireNonNull(config, "config is null");
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.stats = requireNonNull(stats, "stats is null");
+
+        if (config.getPlanCacheMaxSize() == 0) {
+            this.cache = Optional.empty();
+        }
+        else {
+            this.cache = Optional.of(CacheBuilder.newBuilder()
+                    .maximumSize(config.getPlanCacheMaxSize())
+                    .expireAfterWrite(config.getPlanCacheTtl().toMillis(), MILLISECONDS)
+                    .<PlanCacheKey, CachedPlan>removalListener(notification -> {
+                        if (notification.wasEvicted()) {
+                            stats.planCacheEviction();
+                        }
+                    })
+                    .build());
+        }
+    }
+
+    /**
+     * Returns the cache key of the statement, or empty if the plan of the statement
+     * must not be cached.
+     */
+    public Optional<PlanCacheKey> createKey(Session session, Statement statement, List<Expression> parameters)
+    {
+        requireNonNull(session, "session is null");
+        requireNonNull(statement, "statement is null");
+        requireNonNull(parameters, "parameters is null");
+
+        // queries in an explicit transaction may observe uncommitted changes of that transaction
+        if (!cache.isPresent() || isBypassPlanCache(session) || session.getTransactionId().isPresent() || !(statement instanceof Query)) {
+            return Optional.empty();
+        }
+        if (dependsOnStartTime(statement) || parameters.stream().anyMatch(QueryPlanCache::dependsOnStartTime)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new PlanCacheKey(
+                formatSql(statement, Optional.empty()),
+                parameters.stream()
+                        .map(parameter -> formatExpression(parameter, Optional.empty()))
+                        .collect(toImmutableList()),
+                session.getUser(),
+                session.getCatalog(),
+                session.getSchema(),
+                session.getPath(),
+                session.getTimeZoneKey(),
+                session.getLocale(),
+                session.getSystemProperties(),
+                session.getConnectorProperties()));
+    }
+
+    /**
+     * Returns the cached plan for the key, bound to the transaction of the session.
+     */
+    public Optional<CachedPlan> lookup(PlanCacheKey key, Session session, AccessControl accessControl)
+    {
+        requireNonNull(key, "key is null");
+        requireNonNull(session, "session is null");
+        requireNonNull(accessControl, "accessControl is null");
+
+        CachedPlan cachedPlan = cache.get().getIfPresent(key);
+        if (cachedPlan == null) {
+            stats.planCacheMiss();
+            return Optional.empty();
+        }
+
+        Optional<CachedPlan> boundPlan = cachedPlan.bind(session, metadata, accessControl);
+        if (!boundPlan.isPresent()) {
+            // only drop the stale entry, not one a concurrent query may have stored in the meantime
+            cache.get().asMap().remove(key, cachedPlan);
+            stats.planCacheMiss();
+            return Optional.empty();
+        }
+        stats.planCacheHit();
+        return boundPlan;
+    }
+
+    public void store(PlanCacheKey key, Session session, Analysis analysis, Plan plan, Set<ConnectorId> connectors)
+    {
+        requireNonNull(key, "key is null");
+        requireNonNull(session, "session is null");
+        requireNonNull(analysis, "analysis is null");
+        requireNonNull(plan, "plan is null");
+        requireNonNull(connectors, "connectors is null");
+
+        if (connectors.stream().anyMatch(ConnectorId::isInternalSystemConnector) ||
+                searchFrom(plan.getRoot()).where(IndexSourceNode.class::isInstance).matches()) {
+            return;
+        }
+
+        Map<QualifiedObjectName, Set<String>> tableColumnReferences = new HashMap<>();
+        analysis.getTableColumnReferences().values().forEach(references ->
+                references.forEach((table, columns) -> tableColumnReferences.computeIfAbsent(table, name -> new HashSet<>()).addAll(columns)));
+
+        ImmutableMap.Builder<QualifiedObjectName, TableHandle> tableHandles = ImmutableMap.builder();
+        ImmutableMap.Builder<QualifiedObjectName, Map<String, ColumnHandle>> columnHandles = ImmutableMap.builder();
+        for (QualifiedObjectName table : tableColumnReferences.keySet()) {
+            // a view can be redefined without changing any table it reads from
+            if (metadata.getView(session, table).isPresent()) {
+                return;
+            }
+            Optional<TableHandle> tableHandle = metadata.getTableHandle(session, table);
+            if (!tableHandle.isPresent()) {
+                return;
+            }
+            tableHandles.put(table, tableHandle.get());
+            columnHandles.put(table, metadata.getColumnHandles(session, tableHandle.get()));
+        }
+
+        // a scan replaced by values, e.g. because no partition matched the filter, must be planned again for every query
+        List<TableScanNode> tableScans = searchFrom(plan.getRoot()).where(TableScanNode.class::isInstance).findAll();
+        if (tableScans.size() != analysis.getTables().size() ||
+                !tableScans.stream().map(TableScanNode::getTable).collect(toImmutableSet()).equals(ImmutableSet.copyOf(analysis.getTables()))) {
+            return;
+        }
+
+        ImmutableMap.Builder<PlanNodeId, TableLayout> layouts = ImmutableMap.builder();
+        for (TableScanNode tableScan : tableScans) {
+            if (!tableScan.getLayout().isPresent()) {
+                return;
+            }
+            layouts.put(tableScan.getId(), metadata.getLayout(session, tableScan.getLayout().get()));
+        }
+
+        cache.get().put(key, new CachedPlan(
+                plan,
+                connectors,
+                tableColumnReferences,
+                tableHandles.build(),
+                columnHandles.build(),
+                layouts.build()));
+    }
+
+    static boolean dependsOnStartTime(Node node)
+    {
+        StartTimeVisitor visitor = new StartTimeVisitor();
+        visitor.process(node, null);
+        return visitor.isFound();
+    }
+
+    private static class StartTimeVisitor
+            extends DefaultTraversalVisitor<Void, Void>
+    {
+        private boolean found;
+
+        public boolean isFound()
+        {
+            return found;
+        }
+
+        @Override
+        protected Void visitCurrentTime(CurrentTime node, Void context)
+        {
+            found = true;
+            return null;
+        }
+
+        @Override
+        protected Void visitFunctionCall(FunctionCall node, Void context)
+        {
+            if (START_TIME_FUNCTIONS.contains(node.getName())) {
+                found = true;
+            }
+            return super.visitFunctionCall(node, context);
+        }
+    }
+
+    public static final class PlanCacheKey
+    {
+        private final String statement;
+        private final List<String> parameters;
+        private final String user;
+        private final Optional<String> catalog;
+        private final Optional<String> schema;
+        private final SqlPath path;
+        private final TimeZoneKey timeZoneKey;
+        private final Locale locale;
+        private final Map<String, String> systemProperties;
+        private final Map<ConnectorId, Map<String, String>> connectorProperties;
+
+        private PlanCacheKey(
+                String statement,
+                List<String> parameters,
+                String user,
+                Optional<String> catalog,
+                Optional<String> schema,
+                SqlPath path,
+                TimeZoneKey timeZoneKey,
+                Locale locale,
+                Map<String, String> systemProperties,
+                Map<ConnectorId, Map<String, String>> connectorProperties)
+        {
+            this.statement = requireNonNull(statement, "statement is null");
+            this.parameters = requireNonNull(parameters, "parameters is null");
+            this.user = requireNonNull(user, "user is null");
+            this.catalog = requireNonNull(catalog, "catalog is null");
+            this.schema = requireNonNull(schema, "schema is null");
+            this.path = requireNonNull(path, "path is null");
+            this.timeZoneKey = requireNonNull(timeZoneKey, "timeZoneKey is null");
+            this.locale = requireNonNull(locale, "locale is null");
+            this.systemProperties = ImmutableMap.copyOf(requireNonNull(systemProperties, "systemProperties is null"));
+            this.connectorProperties = ImmutableMap.copyOf(requireNonNull(connectorProperties, "connectorProperties is null"));
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PlanCacheKey that = (PlanCacheKey) o;
+            return Objects.equals(statement, that.statement) &&
+                    Objects.equals(parameters, that.parameters) &&
+                    Objects.equals(user, that.user) &&
+                    Objects.equals(catalog, that.catalog) &&
+                    Objects.equals(schema, that.schema) &&
+                    Objects.equals(path, that.path) &&
+                    Objects.equals(timeZoneKey, that.timeZoneKey) &&
+                    Objects.equals(locale, that.locale) &&
+                    Objects.equals(systemProperties, that.systemProperties) &&
+                    Objects.equals(connectorProperties, that.connectorProperties);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(statement, parameters, user, catalog, schema, path, timeZoneKey, locale, systemProperties, connectorProperties);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("statement", statement)
+                    .add("parameters", parameters)
+                    .add("user", user)
+                    .toString();
+        }
+    }
+
+    public static final class CachedPlan
+    {
+        private final Plan plan;
+        private final Set<ConnectorId> connectors;
+        private final Map<QualifiedObjectName, Set<String>> tableColumnReferences;
+        private final Map<QualifiedObjectName, TableHandle> tableHandles;
+        private final Map<QualifiedObjectName, Map<String, ColumnHandle>> columnHandles;
+        private final Map<PlanNodeId, TableLayout> layouts;
+
+        private CachedPlan(
+                Plan plan,
+                Set<ConnectorId> connectors,
+                Map<QualifiedObjectName, Set<String>> tableColumnReferences,
+                Map<QualifiedObjectName, TableHandle> tableHandles,
+                Map<QualifiedObjectName, Map<String, ColumnHandle>> columnHandles,
+                Map<PlanNodeId, TableLayout> layouts)
+        {
+            this.plan = requireNonNull(plan, "plan is null");
+            this.connectors = ImmutableSet.copyOf(requireNonNull(connectors, "connectors is null"));
+            this.tableColumnReferences = requireNonNull(tableColumnReferences, "tableColumnReferences is null").entrySet().stream()
+                    .collect(toImmutableMap(Map.Entry::getKey, entry -> ImmutableSet.copyOf(entry.getValue())));
+            this.tableHandles = ImmutableMap.copyOf(requireNonNull(tableHandles, "tableHandles is null"));
+            this.columnHandles = ImmutableMap.copyOf(requireNonNull(columnHandles, "columnHandles is null"));
+            this.layouts = ImmutableMap.copyOf(requireNonNull(layouts, "layouts is null"));
+        }
+
+        public Plan getPlan()
+        {
+            return plan;
+        }
+
+        public Set<ConnectorId> getConnectors()
+        {
+            return connectors;
+        }
+
+        private Optional<CachedPlan> bind(Session session, Metadata metadata, AccessControl accessControl)
+        {
+            // resolving the tables also registers their catalogs with the transaction of the session
+            for (Map.Entry<QualifiedObjectName, TableHandle> entry : tableHandles.entrySet()) {
+                Optional<TableHandle> tableHandle = metadata.getTableHandle(session, entry.getKey());
+                if (!tableHandle.isPresent() || !tableHandle.get().equals(entry.getValue()) ||
+                        !metadata.getColumnHandles(session, tableHandle.get()).equals(columnHandles.get(entry.getKey()))) {
+                    return Optional.empty();
+                }
+            }
+
+            tableColumnReferences.forEach((table, columns) ->
+                    accessControl.checkCanSelectFromColumns(session.getRequiredTransactionId(), session.getIdentity(), table, columns));
+
+            ImmutableMap.Builder<PlanNodeId, TableLayoutHandle> boundLayouts = ImmutableMap.builder();
+            for (TableScanNode tableScan : searchFrom(plan.getRoot()).where(TableScanNode.class::isInstance).<TableScanNode>findAll()) {
+                Optional<TableLayoutHandle> layout = selectLayout(session, metadata, tableScan, layouts.get(tableScan.getId()));
+                if (!layout.isPresent()) {
+                    return Optional.empty();
+                }
+                boundLayouts.put(tableScan.getId(), layout.get());
+            }
+
+            PlanNode root = SimplePlanRewriter.rewriteWith(new LayoutRewriter(boundLayouts.build()), plan.getRoot());
+            return Optional.of(new CachedPlan(new Plan(root, plan.getTypes()), connectors, tableColumnReferences, tableHandles, columnHandles, layouts));
+        }
+
+        /**
+         * Picks a layout in the current transaction that is interchangeable with the cached one:
+         * it has the same properties the plan was optimized for, and it enforces at least
+         * the constraint the plan relies on, as the plan has no filter for that part.
+         */
+        private static Optional<TableLayoutHandle> selectLayout(Session session, Metadata metadata, TableScanNode tableScan, TableLayout cachedLayout)
+        {
+            if (tableScan.getCurrentConstraint().isNone()) {
+                return Optional.empty();
+            }
+
+            // the current constraint of the scan is narrowed to the predicate of the cached layout, e.g. to the
+            // partitions that existed when the plan was cached, so the layout is requested with the constraint
+            // the plan enforces on those columns instead, and a changed predicate is rejected below
+            Set<ColumnHandle> predicateColumns = cachedLayout.getPredicate().getDomains()
+                    .map(Map::keySet)
+                    .orElse(ImmutableSet.of());
+            TupleDomain<ColumnHandle> constraint = tableScan.getCurrentConstraint()
+                    .transform(column -> predicateColumns.contains(column) ? null : column)
+                    .intersect(tableScan.getEnforcedConstraint());
+
+            List<TableLayoutResult> layouts = metadata.getLayouts(
+                    session,
+                    tableScan.getTable(),
+                    new Constraint<>(constraint),
+                    Optional.of(tableScan.getOutputSymbols().stream()
+                            .map(tableScan.getAssignments()::get)
+                            .collect(toImmutableSet())));
+
+            for (TableLayoutResult result : layouts) {
+                TableLayout layout = result.getLayout();
+                if (result.hasAllOutputs(tableScan) &&
+                        layout.getPredicate().equals(cachedLayout.getPredicate()) &&
+                        layout.getColumns().equals(cachedLayout.getColumns()) &&
+                        layout.getTablePartitioning().equals(cachedLayout.getTablePartitioning()) &&
+                        layout.getStreamPartitioningColumns().equals(cachedLayout.getStreamPartitioningColumns()) &&
+                        layout.getLocalProperties().equals(cachedLayout.getLocalProperties()) &&
+                        tableScan.getEnforcedConstraint().contains(computeEnforced(constraint, result.getUnenforcedConstraint()))) {
+                    return Optional.of(layout.getHandle());
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private static class LayoutRewriter
+            extends SimplePlanRewriter<Void>
+    {
+        private final Map<PlanNodeId, TableLayoutHandle> layouts;
+
+        public LayoutRewriter(Map<PlanNodeId, TableLayoutHandle> layouts)
+        {
+            this.layouts = requireNonNull(layouts, "layouts is null");
+        }
+
+        @Override
+        public PlanNode visitTableScan(TableScanNode node, RewriteContext<Void> context)
+        {
+            return new TableScanNode(
+                    node.getId(),
+                    node.getTable(),
+                    node.getOutputSymbols(),
+                    node.getAssignments(),
+                    Optional.of(layouts.get(node.getId())),
+                    node.getCurrentConstraint(),
+                    node.getEnforcedConstraint());
+        }
+    }
+}
@@ -0,0 +1,549 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.plan.IndexSourceNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.SampleNode;
+import com.facebook.presto.sql.planner.plan.SimplePlanRewriter;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.tree.Query;
+import com.facebook.presto.sql.tree.Statement;
+import com.facebook.presto.transaction.TransactionManager;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.airlift.json.JsonCodec;
+import io.airlift.log.Logger;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.stats.CounterStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static com.facebook.presto.SystemSessionProperties.isBypassResultCache;
+import static com.facebook.presto.execution.QueryPlanCache.dependsOnStartTime;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readSerializedPages;
+import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeSerializedPage;
+import static com.facebook.presto.sql.planner.DeterminismEvaluator.isDeterministic;
+import static com.facebook.presto.sql.planner.ExpressionExtractor.extractExpressions;
+import static com.facebook.presto.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Caches the results of read-only queries on the local disk of the coordinator, so
+ * that a query whose plan is identical to a recent one is answered without scheduling
+ * any stages. A result is only cached when the plan is deterministic and every table
+ * it reads reports a version of the data read through its layout, and the versions are
+ * part of the cache key, so a change of the data makes the cached result unreachable.
+ * <p>
+ * The query execution registers a reader or a writer for each query which uses the cache,
+ * and the statement protocol claims it once the output of the query is known.
+ */
+@ThreadSafe
+public class QueryResultCache
+{
+    private static final Logger log = Logger.get(QueryResultCache.class);
+
+    private static final String RESULT_FILE_SUFFIX = ".result";
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 4 * 1024;
+    // registrations which are never claimed, e.g. because the client went away, are dropped after this time
+    private static final long UNCLAIMED_REGISTRATION_TIMEOUT_MINUTES = 5;
+
+    private final Metadata metadata;
+    private final TransactionManager transactionManager;
+    private final JsonCodec<PlanNode> planCodec;
+    private final long maxSize;
+    private final long maxEntrySize;
+    private final Optional<Path> path;
+
+    @GuardedBy("this")
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    @GuardedBy("this")
+    private long currentSize;
+
+    private final Cache<QueryId, ResultReader> readers = CacheBuilder.newBuilder()
+            .expireAfterWrite(UNCLAIMED_REGISTRATION_TIMEOUT_MINUTES, MINUTES)
+            .<QueryId, ResultReader>removalListener(notification -> {
+                if (notification.wasEvicted()) {
+                    notification.getValue().close();
+                }
+            })
+            .build();
+    private final Cache<QueryId, ResultWriter> writers = CacheBuilder.newBuilder()
+            .expireAfterWrite(UNCLAIMED_REGISTRATION_TIMEOUT_MINUTES, MINUTES)
+            .<QueryId, ResultWriter>removalListener(notification -> {
+                if (notification.wasEvicted()) {
+                    notification.getValue().abort();
+                }
+            })
+            .build();
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat evictions = new CounterStat();
+
+    @Inject
+    public QueryResultCache(QueryResultCacheConfig config, Metadata metadata, TransactionManager transactionManager, JsonCodec<PlanNode> planCodec)
+    {
+        requireNonNull(config, "config is null");
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.transactionManager = requireNonNull(transactionManager, "transactionManager is null");
+        this.planCodec = requireNonNull(planCodec, "planCodec is null");
+        this.maxSize = config.getMaxSize().toBytes();
+        this.maxEntrySize = config.getMaxEntrySize().toBytes();
+
+        if (maxSize == 0) {
+            this.path = Optional.empty();
+        }
+        else {
+            this.path = Optional.of(Paths.get(requireNonNull(config.getPath(), "path is null")));
+            initializeDirectory(path.get());
+        }
+    }
+
+    private static void initializeDirectory(Path path)
+    {
+        try {
+            Files.createDirectories(path);
+            // results cached before a restart are not indexed, and the data may have changed since
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(path)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(RESULT_FILE_SUFFIX) || name.endsWith(TEMPORARY_FILE_SUFFIX)) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize query result cache in " + path, e);
+        }
+    }
+
+    /**
+     * Returns the cache key of the statement planned in the transaction of the session,
+     * or empty if the result of the statement must not be cached.
+     */
+    public Optional<String> createKey(Session session, Statement statement, Plan plan)
+    {
+        requireNonNull(session, "session is null");
+        requireNonNull(statement, "statement is null");
+        requireNonNull(plan, "plan is null");
+
+        // queries in an explicit transaction may observe uncommitted changes of that transaction
+        if (!path.isPresent() || isBypassResultCache(session) || !(statement instanceof Query)) {
+            return Optional.empty();
+        }
+        if (!transactionManager.getTransactionInfo(session.getRequiredTransactionId()).isAutoCommitContext()) {
+            return Optional.empty();
+        }
+        if (searchFrom(plan.getRoot()).where(node -> node instanceof SampleNode || node instanceof IndexSourceNode).matches()) {
+            return Optional.empty();
+        }
+        if (extractExpressions(plan.getRoot()).stream().anyMatch(expression -> !isDeterministic(expression) || dependsOnStartTime(expression))) {
+            return Optional.empty();
+        }
+
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (TableScanNode tableScan : searchFrom(plan.getRoot()).where(TableScanNode.class::isInstance).<TableScanNode>findAll()) {
+            if (!tableScan.getLayout().isPresent()) {
+                return Optional.empty();
+            }
+            Optional<String> version = metadata.getLayoutVersion(session, tableScan.getLayout().get());
+            if (!version.isPresent()) {
+                return Optional.empty();
+            }
+            hasher.putString(tableScan.getId().toString(), UTF_8)
+                    .putString(version.get(), UTF_8)
+                    .putString(tableScan.getCurrentConstraint().toString(session.toConnectorSession()), UTF_8)
+                    .putString(tableScan.getEnforcedConstraint().toString(session.toConnectorSession()), UTF_8);
+        }
+
+        // layout handles are bound to the transaction of the query, the versions above identify the data instead,
+        // and the constraints, which require a layout, are already part of the key
+        PlanNode root = SimplePlanRewriter.rewriteWith(new LayoutRemover(), plan.getRoot());
+        try {
+            hasher.putString(planCodec.toJson(root), UTF_8);
+        }
+        catch (IllegalArgumentException e) {
+            log.debug(e, "Plan of query %s can not be serialized, result is not cached", session.getQueryId());
+            return Optional.empty();
+        }
+        new TreeMap<>(plan.getTypes().allTypes()).forEach((symbol, type) ->
+                hasher.putString(symbol.getName(), UTF_8).putString(type.getTypeSignature().toString(), UTF_8));
+
+        hasher.putString(session.getUser(), UTF_8)
+                .putString(session.getTimeZoneKey().getId(), UTF_8)
+                .putString(session.getLocale().toLanguageTag(), UTF_8);
+        new TreeMap<>(session.getSystemProperties()).forEach((name, value) -> hasher.putString(name, UTF_8).putString(value, UTF_8));
+        session.getConnectorProperties().forEach((connectorId, properties) -> new TreeMap<>(properties).forEach((name, value) ->
+                hasher.putString(connectorId.toString(), UTF_8).putString(name, UTF_8).putString(value, UTF_8)));
+        return Optional.of(hasher.hash().toString());
+    }
+
+    /**
+     * Registers a reader of the cached result for the query, or a writer of a new entry
+     * if the result is not cached. Returns true if the result is read from the cache,
+     * in which case the query must not be scheduled.
+     */
+    public synchronized boolean register(QueryId queryId, String key, List<String> columnNames, List<Type> columnTypes)
+    {
+        requireNonNull(queryId, "queryId is null");
+        requireNonNull(key, "key is null");
+        requireNonNull(columnNames, "columnNames is null");
+        requireNonNull(columnTypes, "columnTypes is null");
+        checkArgument(path.isPresent(), "query result cache is disabled");
+
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            try {
+                // the file is opened while holding the lock, so it can not be evicted before it is read
+                readers.put(queryId, new ResultReader(entry.getFile(), Files.newInputStream(entry.getFile()), columnNames, columnTypes));
+                hits.update(1);
+                return true;
+            }
+            catch (IOException e) {
+                log.warn(e, "Failed to open cached result %s", entry.getFile());
+                removeEntry(key);
+            }
+        }
+        misses.update(1);
+
+        Path file = path.get().resolve(key + "-" + queryId + TEMPORARY_FILE_SUFFIX);
+        try {
+            writers.put(queryId, new ResultWriter(key, file, new OutputStreamSliceOutput(Files.newOutputStream(file), BUFFER_SIZE)));
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to create cached result file %s", file);
+        }
+        return false;
+    }
+
+    public Optional<ResultReader> claimReader(QueryId queryId)
+    {
+        return Optional.ofNullable(readers.asMap().remove(queryId));
+    }
+
+    public Optional<ResultWriter> claimWriter(QueryId queryId)
+    {
+        return Optional.ofNullable(writers.asMap().remove(queryId));
+    }
+
+    private synchronized void commit(String key, Path temporaryFile)
+    {
+        try {
+            long size = Files.size(temporaryFile);
+            // a concurrent query with the same key may have committed its result first
+            if (entries.containsKey(key) || size > maxSize) {
+                Files.deleteIfExists(temporaryFile);
+                return;
+            }
+            Path file = path.get().resolve(key + RESULT_FILE_SUFFIX);
+            Files.move(temporaryFile, file, ATOMIC_MOVE);
+            entries.put(key, new Entry(file, size));
+            currentSize += size;
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to commit cached result file %s", temporaryFile);
+            deleteQuietly(temporaryFile);
+            return;
+        }
+
+        // entries are kept in access order, so the first entry is the least recently used one
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (currentSize > maxSize && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            deleteEntryFile(entry);
+            evictions.update(1);
+        }
+    }
+
+    @GuardedBy("this")
+    private void removeEntry(String key)
+    {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            deleteEntryFile(entry);
+        }
+    }
+
+    @GuardedBy("this")
+    private void deleteEntryFile(Entry entry)
+    {
+        currentSize -= entry.getSize();
+        // readers which already opened the file can still read it after it is deleted
+        deleteQuietly(entry.getFile());
+    }
+
+    private static void deleteQuietly(Path file)
+    {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to delete cached result file %s", file);
+        }
+    }
+
+    @Managed
+    public synchronized long getEntryCount()
+    {
+        return entries.size();
+    }
+
+    @Managed
+    public synchronized long getSizeInBytes()
+    {
+        return currentSize;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEvictions()
+    {
+        return evictions;
+    }
+
+    @VisibleForTesting
+    synchronized boolean contains(String key)
+    {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Reads the serialized pages of a cached result. Not thread safe, the statement
+     * protocol only reads while holding the lock of the query.
+     */
+    public static class ResultReader
+    {
+        private final Path file;
+        private final InputStream input;
+        private final Iterator<SerializedPage> pages;
+        private final List<String> columnNames;
+        private final List<Type> columnTypes;
+        private boolean finished;
+
+        private ResultReader(Path file, InputStream input, List<String> columnNames, List<Type> columnTypes)
+        {
+            this.file = requireNonNull(file, "file is null");
+            this.input = requireNonNull(input, "input is null");
+            this.pages = readSerializedPages(new InputStreamSliceInput(input, BUFFER_SIZE));
+            this.columnNames = ImmutableList.copyOf(requireNonNull(columnNames, "columnNames is null"));
+            this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
+        }
+
+        public List<String> getColumnNames()
+        {
+            return columnNames;
+        }
+
+        public List<Type> getColumnTypes()
+        {
+            return columnTypes;
+        }
+
+        /**
+         * Returns the next page, or null when all pages have been read.
+         */
+        public SerializedPage pollPage()
+        {
+            if (finished) {
+                return null;
+            }
+            if (!pages.hasNext()) {
+                close();
+                return null;
+            }
+            return pages.next();
+        }
+
+        public boolean isFinished()
+        {
+            return finished;
+        }
+
+        public void close()
+        {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            try {
+                input.close();
+            }
+            catch (IOException e) {
+                log.warn(e, "Failed to close cached result file %s", file);
+            }
+        }
+    }
+
+    /**
+     * Writes the serialized pages of a result to a new entry, which is added to the
+     * cache only when the query finishes successfully. Not thread safe, the statement
+     * protocol only writes while holding the lock of the query.
+     */
+    public class ResultWriter
+    {
+        private final String key;
+        private final Path file;
+        private final SliceOutput output;
+        private long size;
+        private boolean done;
+
+        private ResultWriter(String key, Path file, SliceOutput output)
+        {
+            this.key = requireNonNull(key, "key is null");
+            this.file = requireNonNull(file, "file is null");
+            this.output = requireNonNull(output, "output is null");
+        }
+
+        public void append(SerializedPage page)
+        {
+            requireNonNull(page, "page is null");
+            if (done) {
+                return;
+            }
+
+            // results too large to cache are abandoned, the query itself is not affected
+            size += page.getSizeInBytes();
+            if (size > maxEntrySize) {
+                abort();
+                return;
+            }
+            try {
+                writeSerializedPage(output, page);
+            }
+            catch (UncheckedIOException e) {
+                log.warn(e, "Failed to write cached result file %s", file);
+                abort();
+            }
+        }
+
+        public void commit()
+        {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                output.close();
+            }
+            catch (IOException | UncheckedIOException e) {
+                log.warn(e, "Failed to write cached result file %s", file);
+                deleteQuietly(file);
+                return;
+            }
+            QueryResultCache.this.commit(key, file);
+        }
+
+        public void abort()
+        {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                output.close();
+            }
+            catch (IOException | UncheckedIOException e) {
+                // the file is deleted anyway
+            }
+            deleteQuietly(file);
+        }
+    }
+
+    private static class Entry
+    {
+        private final Path file;
+        private final long size;
+
+        public Entry(Path file, long size)
+        {
+            this.file = requireNonNull(file, "file is null");
+            this.size = size;
+        }
+
+        public Path getFile()
+        {
+            return file;
+        }
+
+        public long getSize()
+        {
+            return size;
+        }
+    }
+
+    private static class LayoutRemover
+            extends SimplePlanRewriter<Void>
+    {
+        @Override
+        public PlanNode visitTableScan(TableScanNode node, RewriteContext<Void> context)
+        {
+            return new TableScanNode(
+                    node.getId(),
+                    node.getTable(),
+                    node.getOutputSymbols(),
+                    node.getAssignments());
+        }
+    }
+}
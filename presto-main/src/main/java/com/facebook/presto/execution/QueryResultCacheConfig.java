@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotNull;
+
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class QueryResultCacheConfig
+{
+    private static final String RESULT_CACHE_MAX_SIZE = "query.result-cache.max-size";
+    private static final String RESULT_CACHE_PATH = "query.result-cache.path";
+
+    private DataSize maxSize = new DataSize(0, BYTE);
+    private DataSize maxEntrySize = new DataSize(16, MEGABYTE);
+    private String path;
+
+    @NotNull
+    public DataSize getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @Config(RESULT_CACHE_MAX_SIZE)
+    @ConfigDescription("Maximum size of the query results cached on the local disk of the coordinator; 0 disables the cache")
+    public QueryResultCacheConfig setMaxSize(DataSize maxSize)
+    {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxEntrySize()
+    {
+        return maxEntrySize;
+    }
+
+    @Config("query.result-cache.max-entry-size")
+    @ConfigDescription("Results of queries larger than this are not cached")
+    public QueryResultCacheConfig setMaxEntrySize(DataSize maxEntrySize)
+    {
+        this.maxEntrySize = maxEntrySize;
+        return this;
+    }
+
+    public String getPath()
+    {
+        return path;
+    }
+
+    @Config(RESULT_CACHE_PATH)
+    public QueryResultCacheConfig setPath(String path)
+    {
+        this.path = path;
+        return this;
+    }
+
+    @AssertTrue(message = RESULT_CACHE_PATH + " must be configured when " + RESULT_CACHE_MAX_SIZE + " is set")
+    public boolean isPathConfiguredIfEnabled()
+    {
+        return maxSize.toBytes() == 0 || path != null;
+    }
+}
@@ -131,6 +131,10 @@ public class QueryStateMachine
 
     private final AtomicReference<Long> totalPlanningStartNanos = new AtomicReference<>();
     private final AtomicReference<Duration> totalPlanningTime = new AtomicReference<>();
+    private final AtomicReference<Duration> semanticAnalysisTime = new AtomicReference<>();
+    private final AtomicReference<Duration> logicalPlanningTime = new AtomicReference<>();
+    private final AtomicReference<Duration> planOptimizationTime = new AtomicReference<>();
+    private final AtomicReference<Duration> planFragmentationTime = new AtomicReference<>();
 
     private final AtomicReference<Long> resourceWaitingStartNanos = new AtomicReference<>();
     private final AtomicReference<Duration> resourceWaitingTime = new AtomicReference<>();
@@ -500,6 +504,10 @@ public class QueryStateMachine
                 analysisTime.get(),
                 distributedPlanningTime.get(),
                 totalPlanningTime.get(),
+                semanticAnalysisTime.get(),
+                logicalPlanningTime.get(),
+                planOptimizationTime.get(),
+                planFragmentationTime.get(),
                 finishingTime.get(),
 
                 totalTasks,
@@ -884,6 +892,26 @@ public class QueryStateMachine
         analysisTime.compareAndSet(null, nanosSince(analysisStart).convertToMostSuccinctTimeUnit());
     }
 
+    public void recordSemanticAnalysisTime(long semanticAnalysisStart)
+    {
+        semanticAnalysisTime.compareAndSet(null, nanosSince(semanticAnalysisStart).convertToMostSuccinctTimeUnit());
+    }
+
+    public void recordLogicalPlanningTime(Duration logicalPlanningDuration)
+    {
+        logicalPlanningTime.compareAndSet(null, logicalPlanningDuration.convertToMostSuccinctTimeUnit());
+    }
+
+    public void recordPlanOptimizationTime(Duration planOptimizationDuration)
+    {
+        planOptimizationTime.compareAndSet(null, planOptimizationDuration.convertToMostSuccinctTimeUnit());
+    }
+
+    public void recordPlanFragmentationTime(long planFragmentationStart)
+    {
+        planFragmentationTime.compareAndSet(null, nanosSince(planFragmentationStart).convertToMostSuccinctTimeUnit());
+    }
+
     public void recordDistributedPlanningTime(long distributedPlanningStart)
     {
         distributedPlanningTime.compareAndSet(null, nanosSince(distributedPlanningStart).convertToMostSuccinctTimeUnit());
@@ -984,6 +1012,10 @@ public class QueryStateMachine
                 queryStats.getAnalysisTime(),
                 queryStats.getDistributedPlanningTime(),
                 queryStats.getTotalPlanningTime(),
+                queryStats.getSemanticAnalysisTime(),
+                queryStats.getLogicalPlanningTime(),
+                queryStats.getPlanOptimizationTime(),
+                queryStats.getPlanFragmentationTime(),
                 queryStats.getFinishingTime(),
                 queryStats.getTotalTasks(),
                 queryStats.getRunningTasks(),
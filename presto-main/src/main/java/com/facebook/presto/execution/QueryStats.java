@@ -53,6 +53,10 @@ public class QueryStats
     private final Duration analysisTime;
     private final Duration distributedPlanningTime;
     private final Duration totalPlanningTime;
+    private final Duration semanticAnalysisTime;
+    private final Duration logicalPlanningTime;
+    private final Duration planOptimizationTime;
+    private final Duration planFragmentationTime;
     private final Duration finishingTime;
 
     private final int totalTasks;
@@ -107,6 +111,10 @@ public class QueryStats
         this.analysisTime = null;
         this.distributedPlanningTime = null;
         this.totalPlanningTime = null;
+        this.semanticAnalysisTime = null;
+        this.logicalPlanningTime = null;
+        this.planOptimizationTime = null;
+        this.planFragmentationTime = null;
         this.finishingTime = null;
         this.totalTasks = 0;
         this.runningTasks = 0;
@@ -152,6 +160,10 @@ public class QueryStats
             @JsonProperty("analysisTime") Duration analysisTime,
             @JsonProperty("distributedPlanningTime") Duration distributedPlanningTime,
             @JsonProperty("totalPlanningTime") Duration totalPlanningTime,
+            @JsonProperty("semanticAnalysisTime") Duration semanticAnalysisTime,
+            @JsonProperty("logicalPlanningTime") Duration logicalPlanningTime,
+            @JsonProperty("planOptimizationTime") Duration planOptimizationTime,
+            @JsonProperty("planFragmentationTime") Duration planFragmentationTime,
             @JsonProperty("finishingTime") Duration finishingTime,
 
             @JsonProperty("totalTasks") int totalTasks,
@@ -204,6 +216,10 @@ public class QueryStats
         this.analysisTime = analysisTime;
         this.distributedPlanningTime = distributedPlanningTime;
         this.totalPlanningTime = totalPlanningTime;
+        this.semanticAnalysisTime = semanticAnalysisTime;
+        this.logicalPlanningTime = logicalPlanningTime;
+        this.planOptimizationTime = planOptimizationTime;
+        this.planFragmentationTime = planFragmentationTime;
         this.finishingTime = finishingTime;
 
         checkArgument(totalTasks >= 0, "totalTasks is negative");
@@ -332,6 +348,30 @@ public class QueryStats
         return totalPlanningTime;
     }
 
+    @JsonProperty
+    public Duration getSemanticAnalysisTime()
+    {
+        return semanticAnalysisTime;
+    }
+
+    @JsonProperty
+    public Duration getLogicalPlanningTime()
+    {
+        return logicalPlanningTime;
+    }
+
+    @JsonProperty
+    public Duration getPlanOptimizationTime()
+    {
+        return planOptimizationTime;
+    }
+
+    @JsonProperty
+    public Duration getPlanFragmentationTime()
+    {
+        return planFragmentationTime;
+    }
+
     @JsonProperty
     public Duration getFinishingTime()
     {
@@ -16,10 +16,14 @@ package com.facebook.presto.execution;
 import com.facebook.presto.OutputBuffers;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.Map;
+
 public interface RemoteTask
 {
     TaskId getTaskId();
@@ -40,6 +44,12 @@ public interface RemoteTask
 
     void setOutputBuffers(OutputBuffers outputBuffers);
 
+    /**
+     * Adds or replaces the dynamic filters of table scans in the task. The filters
+     * are passed to the task when it is created, and updated as they are collected.
+     */
+    void addDynamicFilters(Map<PlanNodeId, TupleDomain<ColumnHandle>> dynamicFilters);
+
     void addStateChangeListener(StateChangeListener<TaskStatus> stateChangeListener);
 
     ListenableFuture<?> whenSplitQueueHasSpace(int threshold);
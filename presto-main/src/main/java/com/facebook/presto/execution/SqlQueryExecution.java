@@ -18,7 +18,10 @@ import com.facebook.presto.OutputBuffers.OutputBufferId;
 import com.facebook.presto.Session;
 import com.facebook.presto.SystemSessionProperties;
 import com.facebook.presto.connector.ConnectorId;
+import com.facebook.presto.execution.QueryPlanCache.CachedPlan;
+import com.facebook.presto.execution.QueryPlanCache.PlanCacheKey;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
+import com.facebook.presto.execution.scheduler.DistributedDynamicFilters;
 import com.facebook.presto.execution.scheduler.ExecutionPolicy;
 import com.facebook.presto.execution.scheduler.NodeScheduler;
 import com.facebook.presto.execution.scheduler.SplitSchedulerStats;
@@ -49,12 +52,14 @@ import com.facebook.presto.sql.planner.NodePartitioningManager;
 import com.facebook.presto.sql.planner.OutputExtractor;
 import com.facebook.presto.sql.planner.PartitioningHandle;
 import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.PlanFragment;
 import com.facebook.presto.sql.planner.PlanFragmenter;
 import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
 import com.facebook.presto.sql.planner.PlanOptimizers;
 import com.facebook.presto.sql.planner.StageExecutionPlan;
 import com.facebook.presto.sql.planner.SubPlan;
 import com.facebook.presto.sql.planner.optimizations.PlanOptimizer;
+import com.facebook.presto.sql.planner.plan.OutputNode;
 import com.facebook.presto.sql.tree.Explain;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.Statement;
@@ -86,7 +91,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Throwables.throwIfInstanceOf;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.succinctBytes;
+import static io.airlift.units.Duration.succinctNanos;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 @ThreadSafe
@@ -118,7 +125,12 @@ public class SqlQueryExecution
     private final NodeTaskMap nodeTaskMap;
     private final ExecutionPolicy executionPolicy;
     private final SplitSchedulerStats schedulerStats;
-    private final Analysis analysis;
+    private final QueryPlanCache planCache;
+    private final Optional<PlanCacheKey> planCacheKey;
+    private final Optional<CachedPlan> cachedPlan;
+    private final Optional<Analysis> analysis;
+    private final Statement statement;
+    private final QueryResultCache resultCache;
 
     public SqlQueryExecution(QueryId queryId,
             String query,
@@ -144,7 +156,9 @@ public class SqlQueryExecution
             QueryExplainer queryExplainer,
             ExecutionPolicy executionPolicy,
             List<Expression> parameters,
-            SplitSchedulerStats schedulerStats)
+            SplitSchedulerStats schedulerStats,
+            QueryPlanCache planCache,
+            QueryResultCache resultCache)
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", queryId)) {
             this.metadata = requireNonNull(metadata, "metadata is null");
@@ -161,6 +175,9 @@ public class SqlQueryExecution
             this.nodeTaskMap = requireNonNull(nodeTaskMap, "nodeTaskMap is null");
             this.executionPolicy = requireNonNull(executionPolicy, "executionPolicy is null");
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
+            this.planCache = requireNonNull(planCache, "planCache is null");
+            this.statement = requireNonNull(statement, "statement is null");
+            this.resultCache = requireNonNull(resultCache, "resultCache is null");
 
             checkArgument(scheduleSplitBatchSize > 0, "scheduleSplitBatchSize must be greater than 0");
             this.scheduleSplitBatchSize = scheduleSplitBatchSize;
@@ -171,11 +188,20 @@ public class SqlQueryExecution
             requireNonNull(self, "self is null");
             this.stateMachine = QueryStateMachine.begin(queryId, query, session, self, false, transactionManager, accessControl, queryExecutor, metadata);
 
-            // analyze query
-            Analyzer analyzer = new Analyzer(stateMachine.getSession(), metadata, sqlParser, accessControl, Optional.of(queryExplainer), parameters);
-            this.analysis = analyzer.analyze(statement);
+            // reuse the plan of an identical recent query, otherwise analyze query
+            long semanticAnalysisStart = System.nanoTime();
+            this.planCacheKey = planCache.createKey(session, statement, parameters);
+            this.cachedPlan = planCacheKey.flatMap(key -> planCache.lookup(key, stateMachine.getSession(), accessControl));
+            if (cachedPlan.isPresent()) {
+                this.analysis = Optional.empty();
+            }
+            else {
+                Analyzer analyzer = new Analyzer(stateMachine.getSession(), metadata, sqlParser, accessControl, Optional.of(queryExplainer), parameters);
+                this.analysis = Optional.of(analyzer.analyze(statement));
+            }
+            stateMachine.recordSemanticAnalysisTime(semanticAnalysisStart);
 
-            stateMachine.setUpdateType(analysis.getUpdateType());
+            analysis.map(Analysis::getUpdateType).ifPresent(stateMachine::setUpdateType);
 
             // when the query finishes cache the final query info, and clear the reference to the output stage
             stateMachine.addStateChangeListener(state -> {
@@ -292,6 +318,12 @@ public class SqlQueryExecution
 
                 metadata.beginQuery(getSession(), plan.getConnectors());
 
+                // serve the result of an identical query from the cache without scheduling any stages
+                if (plan.getResultCacheKey().isPresent() && registerWithResultCache(plan)) {
+                    startFromResultCache(plan);
+                    return;
+                }
+
                 // plan distribution of query
                 planDistribution(plan);
 
@@ -356,10 +388,9 @@ public class SqlQueryExecution
         // time analysis phase
         long analysisStart = System.nanoTime();
 
-        // plan query
-        PlanNodeIdAllocator idAllocator = new PlanNodeIdAllocator();
-        LogicalPlanner logicalPlanner = new LogicalPlanner(stateMachine.getSession(), planOptimizers, idAllocator, metadata, sqlParser);
-        Plan plan = logicalPlanner.plan(analysis);
+        // a cached plan has already been bound to the transaction of this query
+        Plan plan = cachedPlan.map(CachedPlan::getPlan).orElseGet(() -> createLogicalPlan(analysis.get()));
+        Set<ConnectorId> connectors = cachedPlan.map(CachedPlan::getConnectors).orElseGet(() -> extractConnectors(analysis.get()));
         queryPlan.set(plan);
 
         // extract inputs
@@ -371,13 +402,36 @@ public class SqlQueryExecution
         stateMachine.setOutput(output);
 
         // fragment the plan
+        long planFragmentationStart = System.nanoTime();
         SubPlan fragmentedPlan = planFragmenter.createSubPlans(stateMachine.getSession(), metadata, nodePartitioningManager, plan, false);
+        stateMachine.recordPlanFragmentationTime(planFragmentationStart);
+
+        if (!cachedPlan.isPresent()) {
+            planCacheKey.ifPresent(key -> planCache.store(key, stateMachine.getSession(), analysis.get(), plan, connectors));
+        }
+        Optional<String> resultCacheKey = resultCache.createKey(stateMachine.getSession(), statement, plan);
 
         // record analysis time
         stateMachine.recordAnalysisTime(analysisStart);
 
-        boolean explainAnalyze = analysis.getStatement() instanceof Explain && ((Explain) analysis.getStatement()).isAnalyze();
-        return new PlanRoot(fragmentedPlan, !explainAnalyze, extractConnectors(analysis));
+        boolean explainAnalyze = analysis.isPresent() && analysis.get().getStatement() instanceof Explain && ((Explain) analysis.get().getStatement()).isAnalyze();
+        return new PlanRoot(fragmentedPlan, !explainAnalyze, connectors, resultCacheKey);
+    }
+
+    private Plan createLogicalPlan(Analysis analysis)
+    {
+        // plan query
+        long logicalPlanningStart = System.nanoTime();
+        PlanNodeIdAllocator idAllocator = new PlanNodeIdAllocator();
+        LogicalPlanner logicalPlanner = new LogicalPlanner(stateMachine.getSession(), planOptimizers, idAllocator, metadata, sqlParser);
+        Plan plan = logicalPlanner.plan(analysis);
+
+        // the optimizers run inside of the logical planner, so report their time separately
+        Duration planOptimizationTime = logicalPlanner.getPlanOptimizationTime();
+        long logicalPlanningNanos = System.nanoTime() - logicalPlanningStart - planOptimizationTime.roundTo(NANOSECONDS);
+        stateMachine.recordPlanOptimizationTime(planOptimizationTime);
+        stateMachine.recordLogicalPlanningTime(succinctNanos(Math.max(0, logicalPlanningNanos)));
+        return plan;
     }
 
     private Set<ConnectorId> extractConnectors(Analysis analysis)
@@ -396,14 +450,37 @@ public class SqlQueryExecution
         return connectors.build();
     }
 
+    private boolean registerWithResultCache(PlanRoot plan)
+    {
+        PlanFragment rootFragment = plan.getRoot().getFragment();
+        List<String> columnNames = ((OutputNode) rootFragment.getRoot()).getColumnNames();
+        return resultCache.register(stateMachine.getQueryId(), plan.getResultCacheKey().get(), columnNames, rootFragment.getTypes());
+    }
+
+    private void startFromResultCache(PlanRoot plan)
+    {
+        // the statement protocol reads the cached result, so the query has no output locations
+        PlanFragment rootFragment = plan.getRoot().getFragment();
+        stateMachine.setColumns(((OutputNode) rootFragment.getRoot()).getColumnNames(), rootFragment.getTypes());
+        stateMachine.updateOutputLocations(ImmutableSet.of(), true);
+
+        if (!stateMachine.transitionToStarting()) {
+            // query already started or finished
+            return;
+        }
+        stateMachine.transitionToRunning();
+        stateMachine.transitionToFinishing();
+    }
+
     private void planDistribution(PlanRoot plan)
     {
         // time distribution planning
         long distributedPlanningStart = System.nanoTime();
 
         // plan the execution on the active nodes
+        DistributedDynamicFilters dynamicFilters = DistributedDynamicFilters.create(plan.getRoot(), stateMachine.getSession(), schedulerExecutor);
         DistributedExecutionPlanner distributedPlanner = new DistributedExecutionPlanner(splitManager);
-        StageExecutionPlan outputStageExecutionPlan = distributedPlanner.plan(plan.getRoot(), stateMachine.getSession());
+        StageExecutionPlan outputStageExecutionPlan = distributedPlanner.plan(plan.getRoot(), stateMachine.getSession(), dynamicFilters);
         stateMachine.recordDistributedPlanningTime(distributedPlanningStart);
 
         // ensure split sources are closed
@@ -443,7 +520,8 @@ public class SqlQueryExecution
                 rootOutputBuffers,
                 nodeTaskMap,
                 executionPolicy,
-                schedulerStats);
+                schedulerStats,
+                dynamicFilters);
 
         queryScheduler.set(scheduler);
 
@@ -596,12 +674,14 @@ public class SqlQueryExecution
         private final SubPlan root;
         private final boolean summarizeTaskInfos;
         private final Set<ConnectorId> connectors;
+        private final Optional<String> resultCacheKey;
 
-        public PlanRoot(SubPlan root, boolean summarizeTaskInfos, Set<ConnectorId> connectors)
+        public PlanRoot(SubPlan root, boolean summarizeTaskInfos, Set<ConnectorId> connectors, Optional<String> resultCacheKey)
         {
             this.root = requireNonNull(root, "root is null");
             this.summarizeTaskInfos = summarizeTaskInfos;
             this.connectors = ImmutableSet.copyOf(connectors);
+            this.resultCacheKey = requireNonNull(resultCacheKey, "resultCacheKey is null");
         }
 
         public SubPlan getRoot()
@@ -618,6 +698,11 @@ public class SqlQueryExecution
         {
             return connectors;
         }
+
+        public Optional<String> getResultCacheKey()
+        {
+            return resultCacheKey;
+        }
     }
 
     public static class SqlQueryExecutionFactory
@@ -644,6 +729,8 @@ public class SqlQueryExecution
         private final Map<String, ExecutionPolicy> executionPolicies;
         private final ClusterMemoryManager clusterMemoryManager;
         private final DataSize preAllocateMemoryThreshold;
+        private final QueryPlanCache planCache;
+        private final QueryResultCache resultCache;
 
         @Inject
         SqlQueryExecutionFactory(QueryManagerConfig config,
@@ -666,7 +753,9 @@ public class SqlQueryExecution
                 QueryExplainer queryExplainer,
                 Map<String, ExecutionPolicy> executionPolicies,
                 SplitSchedulerStats schedulerStats,
-                ClusterMemoryManager clusterMemoryManager)
+                ClusterMemoryManager clusterMemoryManager,
+                QueryPlanCache planCache,
+                QueryResultCache resultCache)
         {
             requireNonNull(config, "config is null");
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
@@ -691,6 +780,8 @@ public class SqlQueryExecution
             this.clusterMemoryManager = requireNonNull(clusterMemoryManager, "clusterMemoryManager is null");
             this.preAllocateMemoryThreshold = requireNonNull(featuresConfig, "featuresConfig is null").getPreAllocateMemoryThreshold();
             this.planOptimizers = planOptimizers.get();
+            this.planCache = requireNonNull(planCache, "planCache is null");
+            this.resultCache = requireNonNull(resultCache, "resultCache is null");
         }
 
         @Override
@@ -725,7 +816,9 @@ public class SqlQueryExecution
                     queryExplainer,
                     executionPolicy,
                     parameters,
-                    schedulerStats);
+                    schedulerStats,
+                    planCache,
+                    resultCache);
 
             if (preAllocateMemoryThreshold.toBytes() > 0 && session.getResourceEstimates().getPeakMemory().isPresent() &&
                     session.getResourceEstimates().getPeakMemory().get().compareTo(preAllocateMemoryThreshold) >= 0) {
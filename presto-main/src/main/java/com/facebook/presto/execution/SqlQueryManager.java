@@ -152,7 +152,7 @@ public class SqlQueryManager
 
     private final Map<Class<? extends Statement>, QueryExecutionFactory<?>> executionFactories;
 
-    private final SqlQueryManagerStats stats = new SqlQueryManagerStats();
+    private final SqlQueryManagerStats stats;
 
     private final AtomicBoolean acceptQueries = new AtomicBoolean();
 
@@ -171,7 +171,8 @@ public class SqlQueryManager
             SessionSupplier sessionSupplier,
             InternalNodeManager internalNodeManager,
             Map<Class<? extends Statement>, QueryExecutionFactory<?>> executionFactories,
-            Metadata metadata)
+            Metadata metadata,
+            SqlQueryManagerStats stats)
     {
         this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
 
@@ -197,6 +198,8 @@ public class SqlQueryManager
 
         this.internalNodeManager = requireNonNull(internalNodeManager, "internalNodeManager is null");
 
+        this.stats = requireNonNull(stats, "stats is null");
+
         this.path = sqlEnvironmentConfig.getPath();
         this.isIncludeCoordinator = nodeSchedulerConfig.isIncludeCoordinator();
         this.minQueryExpireAge = queryManagerConfig.getMinQueryExpireAge();
@@ -47,6 +47,9 @@ public class SqlQueryManagerStats
     private final TimeStat queuedTime = new TimeStat(MILLISECONDS);
     private final DistributionStat wallInputBytesRate = new DistributionStat();
     private final DistributionStat cpuInputByteRate = new DistributionStat();
+    private final CounterStat planCacheHits = new CounterStat();
+    private final CounterStat planCacheMisses = new CounterStat();
+    private final CounterStat planCacheEvictions = new CounterStat();
 
     public void queryQueued()
     {
@@ -66,6 +69,21 @@ public class SqlQueryManagerStats
         runningQueries.decrementAndGet();
     }
 
+    public void planCacheHit()
+    {
+        planCacheHits.update(1);
+    }
+
+    public void planCacheMiss()
+    {
+        planCacheMisses.update(1);
+    }
+
+    public void planCacheEviction()
+    {
+        planCacheEvictions.update(1);
+    }
+
     public void queryFinished(QueryInfo info)
     {
         completedQueries.update(1);
@@ -245,4 +263,25 @@ public class SqlQueryManagerStats
     {
         return cpuInputByteRate;
     }
+
+    @Managed
+    @Nested
+    public CounterStat getPlanCacheHits()
+    {
+        return planCacheHits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPlanCacheMisses()
+    {
+        return planCacheMisses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getPlanCacheEvictions()
+    {
+        return planCacheEvictions;
+    }
 }
@@ -20,8 +20,10 @@ import com.facebook.presto.execution.scheduler.SplitSchedulerStats;
 import com.facebook.presto.failureDetector.FailureDetector;
 import com.facebook.presto.metadata.RemoteTransactionHandle;
 import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.split.RemoteSplit;
 import com.facebook.presto.sql.planner.PlanFragment;
 import com.facebook.presto.sql.planner.plan.PlanFragmentId;
@@ -48,6 +50,7 @@ import java.util.Map.Entry;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -93,6 +96,9 @@ public final class SqlStageExecution
     private final AtomicReference<OutputBuffers> outputBuffers = new AtomicReference<>();
 
     private final ListenerManager<Set<Lifespan>> completedLifespansChangeListeners = new ListenerManager<>();
+    private final List<StateChangeListener<TaskStatus>> taskStatusListeners = new CopyOnWriteArrayList<>();
+
+    private final Map<PlanNodeId, TupleDomain<ColumnHandle>> dynamicFilters = new ConcurrentHashMap<>();
 
     public SqlStageExecution(
             StageId stageId,
@@ -170,6 +176,14 @@ public final class SqlStageExecution
         completedLifespansChangeListeners.addListener(newlyCompletedDriverGroupConsumer);
     }
 
+    /**
+     * Listens to the status updates of all the tasks of this stage, including the tasks scheduled later.
+     */
+    public void addTaskStatusListener(StateChangeListener<TaskStatus> taskStatusListener)
+    {
+        taskStatusListeners.add(requireNonNull(taskStatusListener, "taskStatusListener is null"));
+    }
+
     public PlanFragment getFragment()
     {
         return stateMachine.getFragment();
@@ -317,6 +331,21 @@ public final class SqlStageExecution
         }
     }
 
+    /**
+     * Adds or replaces the dynamic filters of table scans of this stage. The filters are sent
+     * to the existing tasks, and to the tasks scheduled later when they are created.
+     */
+    public synchronized void addDynamicFilters(Map<PlanNodeId, TupleDomain<ColumnHandle>> dynamicFilters)
+    {
+        requireNonNull(dynamicFilters, "dynamicFilters is null");
+        checkArgument(stateMachine.getFragment().getPartitionedSources().containsAll(dynamicFilters.keySet()), "Invalid table scans");
+
+        this.dynamicFilters.putAll(dynamicFilters);
+        for (RemoteTask task : getAllTasks()) {
+            task.addDynamicFilters(dynamicFilters);
+        }
+    }
+
     // do not synchronize
     // this is used for query info building which should be independent of scheduling work
     public boolean hasTasks()
@@ -404,6 +433,11 @@ public final class SqlStageExecution
                 nodeTaskMap.createPartitionedSplitCountTracker(node, taskId),
                 summarizeTaskInfo);
 
+        // the task must know the table scans receiving dynamic filters before it is planned
+        if (!dynamicFilters.isEmpty()) {
+            task.addDynamicFilters(ImmutableMap.copyOf(dynamicFilters));
+        }
+
         completeSources.forEach(task::noMoreSplits);
 
         allTasks.add(taskId);
@@ -465,6 +499,7 @@ public final class SqlStageExecution
 
                 updateMemoryUsage(taskStatus);
                 updateCompletedDriverGroups(taskStatus);
+                taskStatusListeners.forEach(listener -> listener.stateChanged(taskStatus));
 
                 StageState stageState = getState();
                 if (stageState.isDone()) {
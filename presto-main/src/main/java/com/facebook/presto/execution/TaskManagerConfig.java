@@ -73,6 +73,7 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private int splitQueueStripes = 1;
 
     @MinDuration("1ms")
     @MaxDuration("10s")
@@ -208,6 +209,20 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(1)
+    public int getSplitQueueStripes()
+    {
+        return splitQueueStripes;
+    }
+
+    @Config("task.split-queue-stripes")
+    @ConfigDescription("Number of independently locked partitions of the queue of splits waiting for a worker thread")
+    public TaskManagerConfig setSplitQueueStripes(int splitQueueStripes)
+    {
+        this.splitQueueStripes = splitQueueStripes;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
@@ -13,15 +13,19 @@
  */
 package com.facebook.presto.execution;
 
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.facebook.presto.execution.TaskState.PLANNED;
@@ -58,6 +62,7 @@ public class TaskStatus
     private final URI self;
     private final String nodeId;
     private final Set<Lifespan> completedDriverGroups;
+    private final Map<PlanNodeId, TupleDomain<Integer>> dynamicFilterSummaries;
 
     private final int queuedPartitionedDrivers;
     private final int runningPartitionedDrivers;
@@ -80,6 +85,7 @@ public class TaskStatus
             @JsonProperty("self") URI self,
             @JsonProperty("nodeId") String nodeId,
             @JsonProperty("completedDriverGroups") Set<Lifespan> completedDriverGroups,
+            @JsonProperty("dynamicFilterSummaries") Map<PlanNodeId, TupleDomain<Integer>> dynamicFilterSummaries,
             @JsonProperty("failures") List<ExecutionFailureInfo> failures,
             @JsonProperty("queuedPartitionedDrivers") int queuedPartitionedDrivers,
             @JsonProperty("runningPartitionedDrivers") int runningPartitionedDrivers,
@@ -99,6 +105,7 @@ public class TaskStatus
         this.self = requireNonNull(self, "self is null");
         this.nodeId = requireNonNull(nodeId, "nodeId is null");
         this.completedDriverGroups = requireNonNull(completedDriverGroups, "completedDriverGroups is null");
+        this.dynamicFilterSummaries = ImmutableMap.copyOf(requireNonNull(dynamicFilterSummaries, "dynamicFilterSummaries is null"));
 
         checkArgument(queuedPartitionedDrivers >= 0, "queuedPartitionedDrivers must be positive");
         this.queuedPartitionedDrivers = queuedPartitionedDrivers;
@@ -161,6 +168,16 @@ public class TaskStatus
         return completedDriverGroups;
     }
 
+    /**
+     * Returns the build side summaries of the joins whose probe side is read in other stages,
+     * keyed by the join node and then by the join key index.
+     */
+    @JsonProperty
+    public Map<PlanNodeId, TupleDomain<Integer>> getDynamicFilterSummaries()
+    {
+        return dynamicFilterSummaries;
+    }
+
     @JsonProperty
     public List<ExecutionFailureInfo> getFailures()
     {
@@ -234,6 +251,7 @@ public class TaskStatus
                 location,
                 nodeId,
                 ImmutableSet.of(),
+                ImmutableMap.of(),
                 ImmutableList.of(),
                 0,
                 0,
@@ -255,6 +273,7 @@ public class TaskStatus
                 taskStatus.getSelf(),
                 taskStatus.getNodeId(),
                 taskStatus.getCompletedDriverGroups(),
+                taskStatus.getDynamicFilterSummaries(),
                 exceptions,
                 taskStatus.getQueuedPartitionedDrivers(),
                 taskStatus.getRunningPartitionedDrivers(),
@@ -0,0 +1,28 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.buffer;
+
+/**
+ * Compression used for pages sent through exchanges when exchange compression is enabled.
+ */
+public enum ExchangeCompressionCodec
+{
+    LZ4,
+    ZSTD,
+    /**
+     * Choose between the codecs for each page, based on the compression ratio and
+     * the compression time observed for the previous pages.
+     */
+    ADAPTIVE
+}
@@ -15,24 +15,33 @@ package com.facebook.presto.execution.buffer;
 
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.google.common.collect.ImmutableList;
 import io.airlift.compress.Compressor;
 import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-import static com.facebook.presto.execution.buffer.PageCompression.COMPRESSED;
+import static com.facebook.presto.execution.buffer.PageCompression.LZ4;
 import static com.facebook.presto.execution.buffer.PageCompression.UNCOMPRESSED;
+import static com.facebook.presto.execution.buffer.PageCompression.ZSTD;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readRawPage;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeRawPage;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
-import static io.airlift.compress.lz4.Lz4RawCompressor.maxCompressedLength;
 import static java.lang.Math.toIntExact;
+import static java.util.Comparator.comparingDouble;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
@@ -40,16 +49,28 @@ public class PagesSerde
 {
     private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
 
+    private static final List<PageCompression> ADAPTIVE_CANDIDATES = ImmutableList.of(LZ4, ZSTD);
+    // every candidate is tried once per interval, so the choice follows changes in the data
+    private static final int ADAPTIVE_SAMPLE_INTERVAL = 64;
+    // weighs the bytes saved by a codec against its compression time; 10ns per byte is about 100MB/s per exchange stream
+    private static final double TRANSFER_NANOS_PER_BYTE = 10;
+
     private final BlockEncodingSerde blockEncodingSerde;
-    private final Optional<Compressor> compressor;
-    private final Optional<Decompressor> decompressor;
+    private final Optional<ExchangeCompressionCodec> compressionCodec;
+
+    private final Map<PageCompression, Compressor> compressors = new EnumMap<>(PageCompression.class);
+    private final Map<PageCompression, Decompressor> decompressors = new EnumMap<>(PageCompression.class);
+    private final Map<PageCompression, CompressionStatistics> compressionStatistics = new EnumMap<>(PageCompression.class);
+
+    private long compressedPages;
+    private long compressionNanos;
+    private long bytesSavedByCompression;
+    private long decompressionNanos;
 
-    public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor)
+    public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<ExchangeCompressionCodec> compressionCodec)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
-        this.compressor = requireNonNull(compressor, "compressor is null");
-        this.decompressor = requireNonNull(decompressor, "decompressor is null");
-        checkArgument(compressor.isPresent() == decompressor.isPresent(), "compressor and decompressor must both be present or both be absent");
+        this.compressionCodec = requireNonNull(compressionCodec, "compressionCodec is null");
     }
 
     public SerializedPage serialize(Page page)
@@ -57,21 +78,30 @@ public class PagesSerde
         SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact((page.getSizeInBytes() + Integer.BYTES))); // block length is an int
         writeRawPage(page, serializationBuffer, blockEncodingSerde);
 
-        if (!compressor.isPresent()) {
+        if (!compressionCodec.isPresent()) {
             return new SerializedPage(serializationBuffer.slice(), UNCOMPRESSED, page.getPositionCount(), serializationBuffer.size());
         }
 
-        int maxCompressedLength = maxCompressedLength(serializationBuffer.size());
+        PageCompression compression = selectCompression(compressionCodec.get());
+        Compressor compressor = compressors.computeIfAbsent(compression, PagesSerde::createCompressor);
+
+        int maxCompressedLength = compressor.maxCompressedLength(serializationBuffer.size());
         byte[] compressionBuffer = new byte[maxCompressedLength];
-        int actualCompressedLength = compressor.get().compress(serializationBuffer.slice().getBytes(), 0, serializationBuffer.size(), compressionBuffer, 0, maxCompressedLength);
+        long start = System.nanoTime();
+        int actualCompressedLength = compressor.compress(serializationBuffer.slice().getBytes(), 0, serializationBuffer.size(), compressionBuffer, 0, maxCompressedLength);
+        long nanos = System.nanoTime() - start;
+        compressionNanos += nanos;
+        compressionStatistics.computeIfAbsent(compression, ignored -> new CompressionStatistics())
+                .record(serializationBuffer.size(), actualCompressedLength, nanos);
 
         if (((1.0 * actualCompressedLength) / serializationBuffer.size()) > MINIMUM_COMPRESSION_RATIO) {
             return new SerializedPage(serializationBuffer.slice(), UNCOMPRESSED, page.getPositionCount(), serializationBuffer.size());
         }
 
+        bytesSavedByCompression += serializationBuffer.size() - actualCompressedLength;
         return new SerializedPage(
                 Slices.copyOf(Slices.wrappedBuffer(compressionBuffer, 0, actualCompressedLength)),
-                COMPRESSED,
+                compression,
                 page.getPositionCount(),
                 serializationBuffer.size());
     }
@@ -80,15 +110,119 @@ public class PagesSerde
     {
         checkArgument(serializedPage != null, "serializedPage is null");
 
-        if (!decompressor.isPresent() || serializedPage.getCompression() == UNCOMPRESSED) {
+        if (serializedPage.getCompression() == UNCOMPRESSED) {
             return readRawPage(serializedPage.getPositionCount(), serializedPage.getSlice().getInput(), blockEncodingSerde);
         }
 
+        Decompressor decompressor = decompressors.computeIfAbsent(serializedPage.getCompression(), PagesSerde::createDecompressor);
         int uncompressedSize = serializedPage.getUncompressedSizeInBytes();
         byte[] decompressed = new byte[uncompressedSize];
-        int actualUncompressedSize = decompressor.get().decompress(serializedPage.getSlice().getBytes(), 0, serializedPage.getSlice().length(), decompressed, 0, uncompressedSize);
+        long start = System.nanoTime();
+        int actualUncompressedSize = decompressor.decompress(serializedPage.getSlice().getBytes(), 0, serializedPage.getSlice().length(), decompressed, 0, uncompressedSize);
+        decompressionNanos += System.nanoTime() - start;
         checkState(uncompressedSize == actualUncompressedSize);
 
         return readRawPage(serializedPage.getPositionCount(), Slices.wrappedBuffer(decompressed, 0, uncompressedSize).getInput(), blockEncodingSerde);
     }
+
+    /**
+     * Time spent compressing pages passed to {@link #serialize(Page)}, including pages
+     * that did not compress well enough and were sent uncompressed.
+     */
+    public long getCompressionNanos()
+    {
+        return compressionNanos;
+    }
+
+    /**
+     * Bytes saved by compressing pages passed to {@link #serialize(Page)}.
+     */
+    public long getBytesSavedByCompression()
+    {
+        return bytesSavedByCompression;
+    }
+
+    /**
+     * Time spent decompressing pages passed to {@link #deserialize(SerializedPage)}.
+     */
+    public long getDecompressionNanos()
+    {
+        return decompressionNanos;
+    }
+
+    private PageCompression selectCompression(ExchangeCompressionCodec codec)
+    {
+        switch (codec) {
+            case LZ4:
+                return LZ4;
+            case ZSTD:
+                return ZSTD;
+            case ADAPTIVE:
+                int sample = (int) (compressedPages++ % ADAPTIVE_SAMPLE_INTERVAL);
+                if (sample == 0) {
+                    compressionStatistics.values().forEach(CompressionStatistics::decay);
+                }
+                if (sample < ADAPTIVE_CANDIDATES.size()) {
+                    return ADAPTIVE_CANDIDATES.get(sample);
+                }
+                return ADAPTIVE_CANDIDATES.stream()
+                        .min(comparingDouble(compression -> compressionStatistics.get(compression).getCostPerByte()))
+                        .get();
+        }
+        throw new UnsupportedOperationException("Unsupported exchange compression codec: " + codec);
+    }
+
+    private static Compressor createCompressor(PageCompression compression)
+    {
+        switch (compression) {
+            case LZ4:
+                return new Lz4Compressor();
+            case ZSTD:
+                return new ZstdCompressor();
+        }
+        throw new IllegalArgumentException("Unsupported page compression: " + compression);
+    }
+
+    private static Decompressor createDecompressor(PageCompression compression)
+    {
+        switch (compression) {
+            case LZ4:
+                return new Lz4Decompressor();
+            case ZSTD:
+                return new ZstdDecompressor();
+        }
+        throw new IllegalArgumentException("Unsupported page compression: " + compression);
+    }
+
+    private static class CompressionStatistics
+    {
+        private long uncompressedBytes;
+        private long compressedBytes;
+        private long nanos;
+
+        public void record(long uncompressedBytes, long compressedBytes, long nanos)
+        {
+            this.uncompressedBytes += uncompressedBytes;
+            this.compressedBytes += compressedBytes;
+            this.nanos += nanos;
+        }
+
+        /**
+         * Estimated cost of sending one uncompressed byte, including the compression time.
+         */
+        public double getCostPerByte()
+        {
+            if (uncompressedBytes == 0) {
+                return TRANSFER_NANOS_PER_BYTE;
+            }
+            return (compressedBytes * TRANSFER_NANOS_PER_BYTE + nanos) / uncompressedBytes;
+        }
+
+        public void decay()
+        {
+            uncompressedBytes /= 2;
+            compressedBytes /= 2;
+            nanos /= 2;
+        }
+    }
 }
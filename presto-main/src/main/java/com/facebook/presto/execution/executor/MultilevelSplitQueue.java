@@ -28,55 +28,77 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkState;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+/**
+ * The waiting splits are partitioned into stripes, each with its own lock and level queues.
+ * A thread offers to and takes from the stripe of its own thread id first, and only moves on
+ * to the other stripes when its stripe has no split of the selected level, so runner threads
+ * re-queueing their splits rarely contend with each other. The level selection uses the
+ * global per-level split counts and scheduled times, so the level fairness does not depend on
+ * the number of stripes. Within a level, splits are ordered by priority per stripe only.
+ */
 @ThreadSafe
 public class MultilevelSplitQueue
 {
     static final int[] LEVEL_THRESHOLD_SECONDS = {0, 1, 10, 60, 300};
     static final long LEVEL_CONTRIBUTION_CAP = SECONDS.toNanos(30);
 
-    @GuardedBy("lock")
-    private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
+    private final List<SplitQueueStripe> stripes;
+    private final AtomicInteger[] levelWaitingSplitCount = new AtomicInteger[LEVEL_THRESHOLD_SECONDS.length];
 
     private final AtomicLong[] levelScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
 
     private final AtomicLong[] levelMinPriority;
     private final List<CounterStat> selectedLevelCounters;
 
+    // only used by runner threads waiting for a split
     private final ReentrantLock lock = new ReentrantLock();
     private final Condition notEmpty = lock.newCondition();
+    private final AtomicInteger idleTakers = new AtomicInteger();
 
     private final double levelTimeMultiplier;
 
     @Inject
     public MultilevelSplitQueue(TaskManagerConfig taskManagerConfig)
     {
-        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue());
+        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue(), taskManagerConfig.getSplitQueueStripes());
     }
 
     public MultilevelSplitQueue(double levelTimeMultiplier)
     {
+        this(levelTimeMultiplier, 1);
+    }
+
+    public MultilevelSplitQueue(double levelTimeMultiplier, int stripeCount)
+    {
+        checkArgument(stripeCount > 0, "stripeCount must be at least 1");
+
         this.levelMinPriority = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
-        this.levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
         ImmutableList.Builder<CounterStat> counters = ImmutableList.builder();
 
         for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
             levelScheduledTime[i] = new AtomicLong();
             levelMinPriority[i] = new AtomicLong(-1);
-            levelWaitingSplits.add(new PriorityQueue<>());
+            levelWaitingSplitCount[i] = new AtomicInteger();
             counters.add(new CounterStat());
         }
 
         this.selectedLevelCounters = counters.build();
 
+        ImmutableList.Builder<SplitQueueStripe> stripes = ImmutableList.builder();
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(new SplitQueueStripe());
+        }
+        this.stripes = stripes.build();
+
         this.levelTimeMultiplier = levelTimeMultiplier;
     }
 
@@ -101,24 +123,29 @@ public class MultilevelSplitQueue
 
         split.setReady();
         int level = split.getPriority().getLevel();
-        lock.lock();
-        try {
-            if (levelWaitingSplits.get(level).isEmpty()) {
-                // Accesses to levelScheduledTime are not synchronized, so we have a data race
-                // here - our level time math will be off. However, the staleness is bounded by
-                // the fact that only running splits that complete during this computation
-                // can update the level time. Therefore, this is benign.
-                long level0Time = getLevel0TargetTime();
-                long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
-                long delta = levelExpectedTime - levelScheduledTime[level].get();
-                levelScheduledTime[level].addAndGet(delta);
-            }
-
-            levelWaitingSplits.get(level).offer(split);
-            notEmpty.signal();
+        if (levelWaitingSplitCount[level].get() == 0) {
+            // Accesses to levelScheduledTime and the split counts are not synchronized, so we
+            // have a data race here - our level time math will be off. However, the staleness
+            // is bounded by the fact that only running splits that complete during this
+            // computation can update the level time. Therefore, this is benign.
+            long level0Time = getLevel0TargetTime();
+            long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
+            long delta = levelExpectedTime - levelScheduledTime[level].get();
+            levelScheduledTime[level].addAndGet(delta);
         }
-        finally {
-            lock.unlock();
+
+        getCurrentThreadStripe().offer(level, split);
+
+        // idle takers register before checking the split counts, so either they see this split
+        // or this thread sees them
+        if (idleTakers.get() > 0) {
+            lock.lock();
+            try {
+                notEmpty.signal();
+            }
+            finally {
+                lock.unlock();
+            }
         }
     }
 
@@ -126,28 +153,43 @@ public class MultilevelSplitQueue
             throws InterruptedException
     {
         while (true) {
-            lock.lockInterruptibly();
-            try {
-                PrioritizedSplitRunner result;
-                while ((result = pollSplit()) == null) {
-                    notEmpty.await();
-                }
+            PrioritizedSplitRunner result = pollSplit();
+            if (result == null) {
+                awaitSplit();
+                continue;
+            }
 
-                if (result.updateLevelPriority()) {
-                    offer(result);
-                    continue;
-                }
+            if (result.updateLevelPriority()) {
+                offer(result);
+                continue;
+            }
 
-                int selectedLevel = result.getPriority().getLevel();
-                levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
-                selectedLevelCounters.get(selectedLevel).update(1);
+            int selectedLevel = result.getPriority().getLevel();
+            levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
+            selectedLevelCounters.get(selectedLevel).update(1);
 
-                return result;
+            return result;
+        }
+    }
+
+    private void awaitSplit()
+            throws InterruptedException
+    {
+        lock.lockInterruptibly();
+        try {
+            idleTakers.incrementAndGet();
+            try {
+                while (size() == 0) {
+                    notEmpty.await();
+                }
             }
             finally {
-                lock.unlock();
+                idleTakers.decrementAndGet();
             }
         }
+        finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -156,16 +198,34 @@ public class MultilevelSplitQueue
      * <p>
      * This function selects the level that has the the lowest ratio of actual to the target time
      * with the objective of minimizing deviation from the target scheduled time. From this level,
-     * we pick the split with the lowest priority.
+     * we pick the split with the lowest priority, looking at the stripe of the current thread first.
      */
-    @GuardedBy("lock")
     private PrioritizedSplitRunner pollSplit()
+    {
+        while (true) {
+            int selectedLevel = selectLevel();
+            if (selectedLevel == -1) {
+                return null;
+            }
+
+            int firstStripe = getCurrentThreadStripeIndex();
+            for (int i = 0; i < stripes.size(); i++) {
+                PrioritizedSplitRunner result = stripes.get((firstStripe + i) % stripes.size()).poll(selectedLevel);
+                if (result != null) {
+                    return result;
+                }
+            }
+            // the splits of the selected level were taken by other threads, so select again
+        }
+    }
+
+    private int selectLevel()
     {
         long targetScheduledTime = getLevel0TargetTime();
         double worstRatio = 1;
         int selectedLevel = -1;
         for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-            if (!levelWaitingSplits.get(level).isEmpty()) {
+            if (levelWaitingSplitCount[level].get() > 0) {
                 long levelTime = levelScheduledTime[level].get();
                 double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
                 if (selectedLevel == -1 || ratio > worstRatio) {
@@ -177,17 +237,9 @@ public class MultilevelSplitQueue
             targetScheduledTime /= levelTimeMultiplier;
         }
 
-        if (selectedLevel == -1) {
-            return null;
-        }
-
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
-        checkState(result != null, "pollSplit cannot return null");
-
-        return result;
+        return selectedLevel;
     }
 
-    @GuardedBy("lock")
     private long getLevel0TargetTime()
     {
         long level0TargetTime = levelScheduledTime[0].get();
@@ -247,27 +299,15 @@ public class MultilevelSplitQueue
     public void remove(PrioritizedSplitRunner split)
     {
         checkArgument(split != null, "split is null");
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.remove(split);
-            }
-        }
-        finally {
-            lock.unlock();
+        for (SplitQueueStripe stripe : stripes) {
+            stripe.removeAll(ImmutableList.of(split));
         }
     }
 
     public void removeAll(Collection<PrioritizedSplitRunner> splits)
     {
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.removeAll(splits);
-            }
-        }
-        finally {
-            lock.unlock();
+        for (SplitQueueStripe stripe : stripes) {
+            stripe.removeAll(splits);
         }
     }
 
@@ -279,17 +319,21 @@ public class MultilevelSplitQueue
 
     public int size()
     {
-        lock.lock();
-        try {
-            int total = 0;
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                total += level.size();
-            }
-            return total;
-        }
-        finally {
-            lock.unlock();
+        int total = 0;
+        for (AtomicInteger count : levelWaitingSplitCount) {
+            total += count.get();
         }
+        return total;
+    }
+
+    private SplitQueueStripe getCurrentThreadStripe()
+    {
+        return stripes.get(getCurrentThreadStripeIndex());
+    }
+
+    private int getCurrentThreadStripeIndex()
+    {
+        return (int) (Thread.currentThread().getId() % stripes.size());
     }
 
     public static int computeLevel(long threadUsageNanos)
@@ -374,4 +418,45 @@ public class MultilevelSplitQueue
     {
         return selectedLevelCounters.get(4);
     }
+
+    @ThreadSafe
+    private class SplitQueueStripe
+    {
+        @GuardedBy("this")
+        private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
+
+        public SplitQueueStripe()
+        {
+            for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
+                levelWaitingSplits.add(new PriorityQueue<>());
+            }
+        }
+
+        // the counts are only updated while holding the lock of the stripe containing the split,
+        // so a positive count always has a split behind it
+        public synchronized void offer(int level, PrioritizedSplitRunner split)
+        {
+            levelWaitingSplits.get(level).offer(split);
+            levelWaitingSplitCount[level].incrementAndGet();
+        }
+
+        public synchronized PrioritizedSplitRunner poll(int level)
+        {
+            PrioritizedSplitRunner split = levelWaitingSplits.get(level).poll();
+            if (split != null) {
+                levelWaitingSplitCount[level].decrementAndGet();
+            }
+            return split;
+        }
+
+        public synchronized void removeAll(Collection<PrioritizedSplitRunner> splits)
+        {
+            for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                PriorityQueue<PrioritizedSplitRunner> queue = levelWaitingSplits.get(level);
+                int sizeBefore = queue.size();
+                queue.removeAll(splits);
+                levelWaitingSplitCount[level].addAndGet(queue.size() - sizeBefore);
+            }
+        }
+    }
 }
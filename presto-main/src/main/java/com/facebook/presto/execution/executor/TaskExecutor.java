@@ -38,7 +38,6 @@ import javax.annotation.concurrent.ThreadSafe;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -53,6 +52,7 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.DoubleSupplier;
@@ -99,14 +99,18 @@ public class TaskExecutor
     /**
      * All splits registered with the task executor.
      */
-    @GuardedBy("this")
-    private final Set<PrioritizedSplitRunner> allSplits = new HashSet<>();
+    private final Set<PrioritizedSplitRunner> allSplits = newConcurrentHashSet();
 
     /**
      * Intermediate splits (i.e. splits that should not be queued).
      */
-    @GuardedBy("this")
-    private final Set<PrioritizedSplitRunner> intermediateSplits = new HashSet<>();
+    private final Set<PrioritizedSplitRunner> intermediateSplits = newConcurrentHashSet();
+
+    /**
+     * Number of leaf splits in {@link #allSplits}. It is incremented before a split can be polled
+     * and decremented by the caller that removes the split from {@link #allSplits}.
+     */
+    private final AtomicInteger runningLeafSplits = new AtomicInteger();
 
     /**
      * Splits waiting for a runner thread.
@@ -207,7 +211,7 @@ public class TaskExecutor
     }
 
     @Override
-    public synchronized String toString()
+    public String toString()
     {
         return toStringHelper(this)
                 .add("runnerThreads", runnerThreads)
@@ -259,8 +263,7 @@ public class TaskExecutor
             splits = taskHandle.destroy();
 
             // stop tracking splits (especially blocked splits which may never unblock)
-            allSplits.removeAll(splits);
-            intermediateSplits.removeAll(splits);
+            splits.forEach(this::removeSplit);
             blockedSplits.keySet().removeAll(splits);
             waitingSplits.removeAll(splits);
         }
@@ -297,10 +300,11 @@ public class TaskExecutor
                     splitsToDestroy.add(prioritizedSplitRunner);
                 }
                 else if (intermediate) {
+                    // add the runner to the handle so it can be destroyed if the task is canceled,
+                    // before a runner thread can poll the split and complete it on the handle
+                    taskHandle.recordIntermediateSplit(prioritizedSplitRunner);
                     // Note: we do not record queued time for intermediate splits
                     startIntermediateSplit(prioritizedSplitRunner);
-                    // add the runner to the handle so it can be destroyed if the task is canceled
-                    taskHandle.recordIntermediateSplit(prioritizedSplitRunner);
                 }
                 else {
                     // add this to the work queue for the task
@@ -323,52 +327,71 @@ public class TaskExecutor
     private void splitFinished(PrioritizedSplitRunner split)
     {
         completedSplitsPerLevel.incrementAndGet(split.getPriority().getLevel());
-        synchronized (this) {
-            allSplits.remove(split);
 
-            long wallNanos = System.nanoTime() - split.getCreatedNanos();
-            splitWallTime.add(Duration.succinctNanos(wallNanos));
+        // the split sets and stats are thread safe, so the lock on the task executor is only
+        // needed when new splits must be started to keep the minimum number of drivers running
+        boolean intermediate = intermediateSplits.contains(split);
+        removeSplit(split);
 
-            if (intermediateSplits.remove(split)) {
-                intermediateSplitWallTime.add(wallNanos);
-                intermediateSplitScheduledTime.add(split.getScheduledNanos());
-                intermediateSplitWaitTime.add(split.getWaitNanos());
-                intermediateSplitCpuTime.add(split.getCpuTimeNanos());
-            }
-            else {
-                leafSplitWallTime.add(wallNanos);
-                leafSplitScheduledTime.add(split.getScheduledNanos());
-                leafSplitWaitTime.add(split.getWaitNanos());
-                leafSplitCpuTime.add(split.getCpuTimeNanos());
-            }
+        long wallNanos = System.nanoTime() - split.getCreatedNanos();
+        splitWallTime.add(Duration.succinctNanos(wallNanos));
 
-            TaskHandle taskHandle = split.getTaskHandle();
-            taskHandle.splitComplete(split);
+        if (intermediate) {
+            intermediateSplitWallTime.add(wallNanos);
+            intermediateSplitScheduledTime.add(split.getScheduledNanos());
+            intermediateSplitWaitTime.add(split.getWaitNanos());
+            intermediateSplitCpuTime.add(split.getCpuTimeNanos());
+        }
+        else {
+            leafSplitWallTime.add(wallNanos);
+            leafSplitScheduledTime.add(split.getScheduledNanos());
+            leafSplitWaitTime.add(split.getWaitNanos());
+            leafSplitCpuTime.add(split.getCpuTimeNanos());
+        }
 
-            scheduleTaskIfNecessary(taskHandle);
+        TaskHandle taskHandle = split.getTaskHandle();
+        taskHandle.splitComplete(split);
+
+        scheduleTaskIfNecessary(taskHandle);
+
+        addNewEntrants();
 
-            addNewEntrants();
-        }
         // call destroy outside of synchronized block as it is expensive and doesn't need a lock on the task executor
         split.destroy();
     }
 
-    private synchronized void scheduleTaskIfNecessary(TaskHandle taskHandle)
+    private void scheduleTaskIfNecessary(TaskHandle taskHandle)
     {
         // if task has less than the minimum guaranteed splits running,
         // immediately schedule a new split for this task.  This assures
         // that a task gets its fair amount of consideration (you have to
         // have splits to be considered for running on a thread).
-        if (taskHandle.getRunningLeafSplits() < minimumNumberOfDriversPerTask) {
-            PrioritizedSplitRunner split = taskHandle.pollNextSplit();
-            if (split != null) {
-                startSplit(split);
-                splitQueuedTime.add(Duration.nanosSince(split.getCreatedNanos()));
+        // Only the task handle is locked, so finishing splits of different tasks do not contend.
+        synchronized (taskHandle) {
+            if (taskHandle.getRunningLeafSplits() < minimumNumberOfDriversPerTask) {
+                PrioritizedSplitRunner split = taskHandle.pollNextSplit();
+                if (split != null) {
+                    startSplit(split);
+                    splitQueuedTime.add(Duration.nanosSince(split.getCreatedNanos()));
+                }
             }
         }
     }
 
-    private synchronized void addNewEntrants()
+    private void addNewEntrants()
+    {
+        // the count only exceeds the number of registered leaf splits while another thread starts
+        // splits in doAddNewEntrants, so there is nothing to start when the minimum is already running
+        if (getRunningLeafSplitCount() >= minimumNumberOfDrivers) {
+            return;
+        }
+        synchronized (this) {
+            doAddNewEntrants();
+        }
+    }
+
+    @GuardedBy("this")
+    private void doAddNewEntrants()
     {
         // Ignore intermediate splits when checking minimumNumberOfDrivers.
         // Otherwise with (for example) minimumNumberOfDrivers = 100, 200 intermediate splits
@@ -376,7 +399,7 @@ public class TaskExecutor
         // simultaneously running splits may vary. If leaf splits start first, there will
         // be 300 running splits. If intermediate splits start first, there will be only
         // 200 running splits.
-        int running = allSplits.size() - intermediateSplits.size();
+        int running = getRunningLeafSplitCount();
         for (int i = 0; i < minimumNumberOfDrivers - running; i++) {
             PrioritizedSplitRunner split = pollNextSplitWorker();
             if (split == null) {
@@ -388,18 +411,35 @@ public class TaskExecutor
         }
     }
 
-    private synchronized void startIntermediateSplit(PrioritizedSplitRunner split)
+    private void startIntermediateSplit(PrioritizedSplitRunner split)
     {
-        startSplit(split);
         intermediateSplits.add(split);
+        allSplits.add(split);
+        waitingSplits.offer(split);
     }
 
-    private synchronized void startSplit(PrioritizedSplitRunner split)
+    private void startSplit(PrioritizedSplitRunner split)
     {
+        runningLeafSplits.incrementAndGet();
         allSplits.add(split);
         waitingSplits.offer(split);
     }
 
+    private void removeSplit(PrioritizedSplitRunner split)
+    {
+        // a split can be removed by the runner thread and by the removal of its task concurrently,
+        // only the caller that removes it from allSplits updates the intermediate splits and the count
+        if (allSplits.remove(split) && !intermediateSplits.remove(split)) {
+            runningLeafSplits.decrementAndGet();
+        }
+    }
+
+    @VisibleForTesting
+    int getRunningLeafSplitCount()
+    {
+        return runningLeafSplits.get();
+    }
+
     private synchronized PrioritizedSplitRunner pollNextSplitWorker()
     {
         // todo find a better algorithm for this
@@ -526,13 +566,13 @@ public class TaskExecutor
     }
 
     @Managed
-    public synchronized int getTotalSplits()
+    public int getTotalSplits()
     {
         return allSplits.size();
     }
 
     @Managed
-    public synchronized int getIntermediateSplits()
+    public int getIntermediateSplits()
     {
         return intermediateSplits.size();
     }
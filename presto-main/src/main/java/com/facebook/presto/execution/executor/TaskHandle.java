@@ -137,6 +137,11 @@ public class TaskHandle
         return runningLeafSplits.size();
     }
 
+    synchronized int getRunningIntermediateSplits()
+    {
+        return runningIntermediateSplits.size();
+    }
+
     public synchronized long getScheduledNanos()
     {
         return scheduledNanos;
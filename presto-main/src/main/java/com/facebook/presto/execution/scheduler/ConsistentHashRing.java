@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.scheduler;
+
+import com.facebook.presto.spi.Node;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.hash.Hashing.murmur3_128;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Maps keys to nodes such that adding or removing a node only remaps the keys of that node.
+ * Every node is placed on the ring several times to spread keys evenly.
+ */
+public final class ConsistentHashRing
+{
+    private final NavigableMap<Long, Node> ring = new TreeMap<>();
+    private final int nodeCount;
+
+    public ConsistentHashRing(Collection<Node> nodes, int virtualNodesPerNode)
+    {
+        checkArgument(virtualNodesPerNode > 0, "virtualNodesPerNode must be positive");
+        for (Node node : nodes) {
+            for (int i = 0; i < virtualNodesPerNode; i++) {
+                ring.put(hash(node.getNodeIdentifier() + "#" + i), node);
+            }
+        }
+        this.nodeCount = nodes.size();
+    }
+
+    /**
+     * Returns up to {@code limit} distinct nodes in order of preference for the key
+     */
+    public List<Node> getNodes(String key, int limit)
+    {
+        checkArgument(limit > 0, "limit must be at least 1");
+        Set<Node> nodes = new LinkedHashSet<>();
+        int expectedNodes = Math.min(limit, nodeCount);
+        long hash = hash(key);
+        for (Map.Entry<Long, Node> entry : ring.tailMap(hash, true).entrySet()) {
+            if (nodes.size() == expectedNodes) {
+                break;
+            }
+            nodes.add(entry.getValue());
+        }
+        // wrap around the ring
+        for (Map.Entry<Long, Node> entry : ring.headMap(hash, false).entrySet()) {
+            if (nodes.size() == expectedNodes) {
+                break;
+            }
+            nodes.add(entry.getValue());
+        }
+        return ImmutableList.copyOf(nodes);
+    }
+
+    private static long hash(String value)
+    {
+        return murmur3_128().hashString(value, UTF_8).asLong();
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.scheduler;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.execution.RemoteTask;
+import com.facebook.presto.execution.SqlStageExecution;
+import com.facebook.presto.execution.StageState;
+import com.facebook.presto.operator.LocalDynamicFilter;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.DynamicFilterProbeSource;
+import com.facebook.presto.sql.planner.PlanFragment;
+import com.facebook.presto.sql.planner.SubPlan;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.IndexJoinNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanFragmentId;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.RemoteSourceNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxDistinctValues;
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringWaitTimeout;
+import static com.facebook.presto.SystemSessionProperties.isDynamicFilteringEnabled;
+import static com.facebook.presto.execution.StageState.FINISHED;
+import static com.facebook.presto.execution.StageState.RUNNING;
+import static com.facebook.presto.execution.StageState.SCHEDULED;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.nonCancellationPropagating;
+import static io.airlift.concurrent.MoreFutures.addTimeout;
+import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
+
+/**
+ * Collects the dynamic filters of the joins whose probe side is scanned in other stages than
+ * the join, such as partitioned joins. Every task of the join stage reports the summary of the
+ * build side keys it has seen, and once all the tasks have reported, the summaries are combined
+ * and the result is applied to the split source of each probe side table scan and sent to the
+ * tasks scanning it.
+ */
+@ThreadSafe
+public class DistributedDynamicFilters
+{
+    private final List<JoinDynamicFilter> joins;
+    private final Map<PlanNodeId, TableScanDynamicFilter> tableScans;
+    private final int maxDistinctValues;
+    private final Duration waitTimeout;
+    private final ScheduledExecutorService executor;
+
+    private DistributedDynamicFilters(List<JoinDynamicFilter> joins, int maxDistinctValues, Duration waitTimeout, ScheduledExecutorService executor)
+    {
+        this.joins = ImmutableList.copyOf(requireNonNull(joins, "joins is null"));
+        this.maxDistinctValues = maxDistinctValues;
+        this.waitTimeout = requireNonNull(waitTimeout, "waitTimeout is null");
+        this.executor = requireNonNull(executor, "executor is null");
+
+        Map<PlanNodeId, TableScanColumn> tableScanColumns = new HashMap<>();
+        Map<PlanNodeId, Integer> joinCounts = new HashMap<>();
+        for (JoinDynamicFilter join : joins) {
+            join.getKeyColumns().values().stream()
+                    .collect(toImmutableMap(TableScanColumn::getTableScanNodeId, identity(), (first, second) -> first))
+                    .forEach((tableScanNodeId, column) -> {
+                        tableScanColumns.put(tableScanNodeId, column);
+                        joinCounts.merge(tableScanNodeId, 1, Integer::sum);
+                    });
+        }
+        this.tableScans = tableScanColumns.values().stream()
+                .map(column -> new TableScanDynamicFilter(column.getFragmentId(), column.getTableScanNodeId(), joinCounts.get(column.getTableScanNodeId())))
+                .collect(toImmutableMap(TableScanDynamicFilter::getTableScanNodeId, identity()));
+    }
+
+    public static DistributedDynamicFilters create(SubPlan plan, Session session, ScheduledExecutorService executor)
+    {
+        ImmutableList.Builder<JoinDynamicFilter> joins = ImmutableList.builder();
+        if (isDynamicFilteringEnabled(session)) {
+            Map<PlanFragmentId, PlanFragment> fragments = plan.getAllFragments().stream()
+                    .collect(toImmutableMap(PlanFragment::getId, identity()));
+            for (PlanFragment fragment : fragments.values()) {
+                // summaries are only reported by the joins of stages without grouped execution
+                if (fragment.getStageExecutionStrategy().isAnyScanGroupedExecution()) {
+                    continue;
+                }
+                ImmutableList.Builder<JoinNode> joinNodes = ImmutableList.builder();
+                findJoins(fragment.getRoot(), joinNodes);
+                for (JoinNode joinNode : joinNodes.build()) {
+                    ImmutableListMultimap.Builder<Integer, TableScanColumn> keyColumns = ImmutableListMultimap.builder();
+                    for (int key = 0; key < joinNode.getCriteria().size(); key++) {
+                        int keyIndex = key;
+                        Symbol symbol = joinNode.getCriteria().get(key).getLeft();
+                        Type type = fragment.getSymbols().get(symbol);
+                        if (!LocalDynamicFilter.isSupportedType(type)) {
+                            continue;
+                        }
+                        DynamicFilterProbeSource.find(joinNode.getLeft(), symbol)
+                                .filter(DynamicFilterProbeSource::isRemote)
+                                .ifPresent(probeSource -> findTableScanColumns(
+                                        (RemoteSourceNode) probeSource.getNode(),
+                                        probeSource.getSymbol(),
+                                        fragments,
+                                        column -> keyColumns.put(keyIndex, column)));
+                    }
+                    ListMultimap<Integer, TableScanColumn> columns = keyColumns.build();
+                    if (!columns.isEmpty()) {
+                        joins.add(new JoinDynamicFilter(fragment.getId(), joinNode.getId(), columns));
+                    }
+                }
+            }
+        }
+        return new DistributedDynamicFilters(joins.build(), getDynamicFilteringMaxDistinctValues(session), getDynamicFilteringWaitTimeout(session), executor);
+    }
+
+    /**
+     * Finds the joins the tasks create dynamic filters for, that is the inner joins with
+     * equality criteria that are not part of an index source.
+     */
+    private static void findJoins(PlanNode node, ImmutableList.Builder<JoinNode> joins)
+    {
+        if (node instanceof IndexJoinNode) {
+            findJoins(((IndexJoinNode) node).getProbeSource(), joins);
+            return;
+        }
+        if (node instanceof JoinNode) {
+            JoinNode joinNode = (JoinNode) node;
+            if (joinNode.getType() == INNER && !joinNode.getCriteria().isEmpty()) {
+                joins.add(joinNode);
+            }
+        }
+        for (PlanNode source : node.getSources()) {
+            findJoins(source, joins);
+        }
+    }
+
+    /**
+     * Finds the table scan columns the symbol of the remote source is read from, in the stages
+     * producing the remote source and transitively in the stages producing their remote sources.
+     */
+    private static void findTableScanColumns(RemoteSourceNode remoteSource, Symbol symbol, Map<PlanFragmentId, PlanFragment> fragments, Consumer<TableScanColumn> columns)
+    {
+        int index = remoteSource.getOutputSymbols().indexOf(symbol);
+        for (PlanFragmentId sourceFragmentId : remoteSource.getSourceFragmentIds()) {
+            PlanFragment sourceFragment = fragments.get(sourceFragmentId);
+            Symbol sourceSymbol = sourceFragment.getPartitioningScheme().getOutputLayout().get(index);
+            Optional<DynamicFilterProbeSource> probeSource = DynamicFilterProbeSource.find(sourceFragment.getRoot(), sourceSymbol);
+            if (!probeSource.isPresent()) {
+                continue;
+            }
+            if (probeSource.get().isRemote()) {
+                findTableScanColumns((RemoteSourceNode) probeSource.get().getNode(), probeSource.get().getSymbol(), fragments, columns);
+                continue;
+            }
+            TableScanNode tableScan = (TableScanNode) probeSource.get().getNode();
+            ColumnHandle column = tableScan.getAssignments().get(probeSource.get().getSymbol());
+            if (column != null &&
+                    sourceFragment.getPartitionedSources().contains(tableScan.getId()) &&
+                    !sourceFragment.getStageExecutionStrategy().isGroupedExecution(tableScan.getId())) {
+                columns.accept(new TableScanColumn(sourceFragment.getId(), tableScan.getId(), column));
+            }
+        }
+    }
+
+    /**
+     * Returns the current dynamic filter of the table scan, which is {@link TupleDomain#all()}
+     * until the first of the joins filtering the scan has collected its filter.
+     */
+    public Supplier<TupleDomain<ColumnHandle>> getTableScanFilter(PlanNodeId tableScanNodeId)
+    {
+        TableScanDynamicFilter tableScan = tableScans.get(tableScanNodeId);
+        if (tableScan == null) {
+            return TupleDomain::all;
+        }
+        return tableScan::getFilter;
+    }
+
+    public boolean isWaitingForTableScanFilter(PlanNodeId tableScanNodeId)
+    {
+        return tableScans.containsKey(tableScanNodeId) && waitTimeout.toMillis() > 0;
+    }
+
+    /**
+     * Returns a future completed when all the joins filtering the table scan have collected
+     * their filters, or when the wait timeout has passed since the first call.
+     */
+    public ListenableFuture<?> waitForTableScanFilter(PlanNodeId tableScanNodeId)
+    {
+        TableScanDynamicFilter tableScan = tableScans.get(tableScanNodeId);
+        if (tableScan == null) {
+            return immediateFuture(null);
+        }
+        return tableScan.waitForCompletion(waitTimeout, executor);
+    }
+
+    /**
+     * Registers a stage of the query, to collect the summaries reported by its tasks for the joins
+     * it contains, and to send the filters to the tasks scanning the tables it contains.
+     */
+    public void addStage(SqlStageExecution stage)
+    {
+        PlanFragmentId fragmentId = stage.getFragment().getId();
+
+        List<JoinDynamicFilter> stageJoins = joins.stream()
+                .filter(join -> join.getFragmentId().equals(fragmentId))
+                .collect(toImmutableList());
+        if (!stageJoins.isEmpty()) {
+            stage.addTaskStatusListener(taskStatus -> collectSummaries(stage, stageJoins));
+            stage.addStateChangeListener(state -> collectSummaries(stage, stageJoins));
+        }
+
+        tableScans.values().stream()
+                .filter(tableScan -> tableScan.getFragmentId().equals(fragmentId))
+                .forEach(tableScan -> tableScan.setStage(stage));
+    }
+
+    private void collectSummaries(SqlStageExecution stage, List<JoinDynamicFilter> stageJoins)
+    {
+        StageState state = stage.getState();
+        for (JoinDynamicFilter join : stageJoins) {
+            if (join.isCollected()) {
+                continue;
+            }
+            Optional<TupleDomain<Integer>> summary = combineSummaries(stage, state, join.getJoinNodeId());
+            if (summary.isPresent()) {
+                collect(join, summary.get());
+            }
+            else if (state.isDone()) {
+                // some tasks ended without reporting the summary, so the probe side can not be filtered
+                collect(join, TupleDomain.all());
+            }
+        }
+    }
+
+    private Optional<TupleDomain<Integer>> combineSummaries(SqlStageExecution stage, StageState state, PlanNodeId joinNodeId)
+    {
+        // the tasks of the stage are only all known once the stage is scheduled
+        if (state != SCHEDULED && state != RUNNING && state != FINISHED) {
+            return Optional.empty();
+        }
+        List<TupleDomain<Integer>> summaries = new ArrayList<>();
+        for (RemoteTask task : stage.getAllTasks()) {
+            TupleDomain<Integer> summary = task.getTaskStatus().getDynamicFilterSummaries().get(joinNodeId);
+            if (summary == null) {
+                return Optional.empty();
+            }
+            summaries.add(summary);
+        }
+        if (summaries.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(LocalDynamicFilter.combine(summaries, maxDistinctValues));
+    }
+
+    private void collect(JoinDynamicFilter join, TupleDomain<Integer> summary)
+    {
+        if (!join.setCollected()) {
+            return;
+        }
+
+        Map<PlanNodeId, TupleDomain<ColumnHandle>> filters = new HashMap<>();
+        join.getKeyColumns().forEach((key, column) -> {
+            TupleDomain<ColumnHandle> filter;
+            if (summary.isNone()) {
+                filter = TupleDomain.none();
+            }
+            else {
+                Domain domain = summary.getDomains().get().get(key);
+                filter = domain == null ? TupleDomain.all() : TupleDomain.withColumnDomains(ImmutableMap.of(column.getColumn(), domain));
+            }
+            filters.merge(column.getTableScanNodeId(), filter, TupleDomain::intersect);
+        });
+        filters.forEach((tableScanNodeId, filter) -> tableScans.get(tableScanNodeId).addJoinFilter(filter));
+    }
+
+    private static class JoinDynamicFilter
+    {
+        private final PlanFragmentId fragmentId;
+        private final PlanNodeId joinNodeId;
+        private final ListMultimap<Integer, TableScanColumn> keyColumns;
+        private final AtomicBoolean collected = new AtomicBoolean();
+
+        public JoinDynamicFilter(PlanFragmentId fragmentId, PlanNodeId joinNodeId, ListMultimap<Integer, TableScanColumn> keyColumns)
+        {
+            this.fragmentId = requireNonNull(fragmentId, "fragmentId is null");
+            this.joinNodeId = requireNonNull(joinNodeId, "joinNodeId is null");
+            this.keyColumns = requireNonNull(keyColumns, "keyColumns is null");
+        }
+
+        public PlanFragmentId getFragmentId()
+        {
+            return fragmentId;
+        }
+
+        public PlanNodeId getJoinNodeId()
+        {
+            return joinNodeId;
+        }
+
+        /**
+         * @return the probe side table scan columns, by the index of the join key
+         */
+        public ListMultimap<Integer, TableScanColumn> getKeyColumns()
+        {
+            return keyColumns;
+        }
+
+        public boolean isCollected()
+        {
+            return collected.get();
+        }
+
+        public boolean setCollected()
+        {
+            return collected.compareAndSet(false, true);
+        }
+    }
+
+    @ThreadSafe
+    private static class TableScanDynamicFilter
+    {
+        private final PlanFragmentId fragmentId;
+        private final PlanNodeId tableScanNodeId;
+        private final SettableFuture<Void> completed = SettableFuture.create();
+
+        @GuardedBy("this")
+        private int remainingJoins;
+        @GuardedBy("this")
+        private TupleDomain<ColumnHandle> filter = TupleDomain.all();
+        @GuardedBy("this")
+        private SqlStageExecution stage;
+        @GuardedBy("this")
+        private ListenableFuture<Void> waitForCompletion;
+
+        public TableScanDynamicFilter(PlanFragmentId fragmentId, PlanNodeId tableScanNodeId, int joins)
+        {
+            checkArgument(joins > 0, "joins must be positive");
+            this.fragmentId = requireNonNull(fragmentId, "fragmentId is null");
+            this.tableScanNodeId = requireNonNull(tableScanNodeId, "tableScanNodeId is null");
+            this.remainingJoins = joins;
+        }
+
+        public PlanFragmentId getFragmentId()
+        {
+            return fragmentId;
+        }
+
+        public PlanNodeId getTableScanNodeId()
+        {
+            return tableScanNodeId;
+        }
+
+        public synchronized TupleDomain<ColumnHandle> getFilter()
+        {
+            return filter;
+        }
+
+        public synchronized void setStage(SqlStageExecution stage)
+        {
+            this.stage = requireNonNull(stage, "stage is null");
+            // the tasks of the stage must know the filtered table scans before they are planned
+            stage.addDynamicFilters(ImmutableMap.of(tableScanNodeId, filter));
+        }
+
+        public void addJoinFilter(TupleDomain<ColumnHandle> joinFilter)
+        {
+            synchronized (this) {
+                filter = filter.intersect(joinFilter);
+                remainingJoins--;
+                if (stage != null) {
+                    stage.addDynamicFilters(ImmutableMap.of(tableScanNodeId, filter));
+                }
+                if (remainingJoins > 0) {
+                    return;
+                }
+            }
+            completed.set(null);
+        }
+
+        public synchronized ListenableFuture<?> waitForCompletion(Duration timeout, ScheduledExecutorService executor)
+        {
+            if (waitForCompletion == null) {
+                waitForCompletion = addTimeout(nonCancellationPropagating(completed), () -> null, timeout, executor);
+            }
+            return waitForCompletion;
+        }
+    }
+
+    private static class TableScanColumn
+    {
+        private final PlanFragmentId fragmentId;
+        private final PlanNodeId tableScanNodeId;
+        private final ColumnHandle column;
+
+        public TableScanColumn(PlanFragmentId fragmentId, PlanNodeId tableScanNodeId, ColumnHandle column)
+        {
+            this.fragmentId = requireNonNull(fragmentId, "fragmentId is null");
+            this.tableScanNodeId = requireNonNull(tableScanNodeId, "tableScanNodeId is null");
+            this.column = requireNonNull(column, "column is null");
+        }
+
+        public PlanFragmentId getFragmentId()
+        {
+            return fragmentId;
+        }
+
+        public PlanNodeId getTableScanNodeId()
+        {
+            return tableScanNodeId;
+        }
+
+        public ColumnHandle getColumn()
+        {
+            return column;
+        }
+    }
+}
@@ -14,6 +14,7 @@
 package com.facebook.presto.execution.scheduler;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.configuration.LegacyConfig;
 
@@ -35,6 +36,7 @@ public class NodeSchedulerConfig
     private int maxSplitsPerNode = 100;
     private int maxPendingSplitsPerTask = 10;
     private String networkTopology = NetworkTopologyType.LEGACY;
+    private boolean affinitySchedulingEnabled;
 
     @NotNull
     public String getNetworkTopology()
@@ -98,4 +100,17 @@ public class NodeSchedulerConfig
         this.maxSplitsPerNode = maxSplitsPerNode;
         return this;
     }
+
+    public boolean isAffinitySchedulingEnabled()
+    {
+        return affinitySchedulingEnabled;
+    }
+
+    @Config("node-scheduler.affinity-scheduling-enabled")
+    @ConfigDescription("Schedule remotely accessible splits with the same affinity key on the same node when it is not saturated")
+    public NodeSchedulerConfig setAffinitySchedulingEnabled(boolean affinitySchedulingEnabled)
+    {
+        this.affinitySchedulingEnabled = affinitySchedulingEnabled;
+        return this;
+    }
 }
@@ -29,8 +29,11 @@ import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
 
+import javax.annotation.concurrent.GuardedBy;
+
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -41,12 +44,16 @@ import static com.facebook.presto.execution.scheduler.NodeScheduler.selectExactN
 import static com.facebook.presto.execution.scheduler.NodeScheduler.selectNodes;
 import static com.facebook.presto.execution.scheduler.NodeScheduler.toWhenHasSplitQueueSpaceFuture;
 import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 
 public class SimpleNodeSelector
         implements NodeSelector
 {
     private static final Logger log = Logger.get(SimpleNodeSelector.class);
+    private static final int VIRTUAL_NODES_PER_NODE = 100;
+    // the preferred node and one fallback keep the cache hit rate high when the preferred node is busy
+    private static final int AFFINITY_CANDIDATES = 2;
 
     private final InternalNodeManager nodeManager;
     private final NodeTaskMap nodeTaskMap;
@@ -55,6 +62,12 @@ public class SimpleNodeSelector
     private final int minCandidates;
     private final int maxSplitsPerNode;
     private final int maxPendingSplitsPerTask;
+    private final boolean affinitySchedulingEnabled;
+
+    @GuardedBy("this")
+    private NodeMap hashRingNodeMap;
+    @GuardedBy("this")
+    private ConsistentHashRing hashRing;
 
     public SimpleNodeSelector(
             InternalNodeManager nodeManager,
@@ -63,7 +76,8 @@ public class SimpleNodeSelector
             Supplier<NodeMap> nodeMap,
             int minCandidates,
             int maxSplitsPerNode,
-            int maxPendingSplitsPerTask)
+            int maxPendingSplitsPerTask,
+            boolean affinitySchedulingEnabled)
     {
         this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
         this.nodeTaskMap = requireNonNull(nodeTaskMap, "nodeTaskMap is null");
@@ -72,6 +86,7 @@ public class SimpleNodeSelector
         this.minCandidates = minCandidates;
         this.maxSplitsPerNode = maxSplitsPerNode;
         this.maxPendingSplitsPerTask = maxPendingSplitsPerTask;
+        this.affinitySchedulingEnabled = affinitySchedulingEnabled;
     }
 
     @Override
@@ -117,6 +132,12 @@ public class SimpleNodeSelector
                 candidateNodes = selectExactNodes(nodeMap, split.getAddresses(), includeCoordinator);
             }
             else {
+                Optional<Node> affinityNode = selectAffinityNode(split, nodeMap, assignmentStats);
+                if (affinityNode.isPresent()) {
+                    assignment.put(affinityNode.get(), split);
+                    assignmentStats.addAssignedSplit(affinityNode.get());
+                    continue;
+                }
                 candidateNodes = selectNodes(minCandidates, randomCandidates);
             }
             if (candidateNodes.isEmpty()) {
@@ -169,6 +190,30 @@ public class SimpleNodeSelector
         return new SplitPlacementResult(blocked, assignment);
     }
 
+    private Optional<Node> selectAffinityNode(Split split, NodeMap nodeMap, NodeAssignmentStats assignmentStats)
+    {
+        if (!affinitySchedulingEnabled || !split.getAffinityKey().isPresent()) {
+            return Optional.empty();
+        }
+        // fall back to the regular placement when all preferred nodes are saturated
+        return getHashRing(nodeMap).getNodes(split.getAffinityKey().get(), AFFINITY_CANDIDATES).stream()
+                .filter(node -> assignmentStats.getTotalSplitCount(node) < maxSplitsPerNode)
+                .findFirst();
+    }
+
+    private synchronized ConsistentHashRing getHashRing(NodeMap nodeMap)
+    {
+        if (nodeMap != hashRingNodeMap) {
+            List<Node> nodes = nodeMap.getNodesByHostAndPort().values().stream()
+                    .filter(node -> includeCoordinator || !nodeMap.getCoordinatorNodeIds().contains(node.getNodeIdentifier()))
+                    .distinct()
+                    .collect(toImmutableList());
+            hashRing = new ConsistentHashRing(nodes, VIRTUAL_NODES_PER_NODE);
+            hashRingNodeMap = nodeMap;
+        }
+        return hashRing;
+    }
+
     @Override
     public SplitPlacementResult computeAssignments(Set<Split> splits, List<RemoteTask> existingTasks, NodePartitionMap partitioning)
     {
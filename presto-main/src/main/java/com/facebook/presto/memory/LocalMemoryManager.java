@@ -15,6 +15,7 @@ package com.facebook.presto.memory;
 
 import com.facebook.presto.spi.memory.MemoryPoolId;
 import com.facebook.presto.spi.memory.MemoryPoolInfo;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -43,19 +44,33 @@ public final class LocalMemoryManager
     private Map<MemoryPoolId, MemoryPool> pools;
 
     @Inject
+    public LocalMemoryManager(NodeMemoryConfig config, ReservedSystemMemoryConfig systemMemoryConfig, FeaturesConfig featuresConfig)
+    {
+        this(config, systemMemoryConfig, featuresConfig.getJoinHashArrayPoolSize());
+    }
+
+    @VisibleForTesting
     public LocalMemoryManager(NodeMemoryConfig config, ReservedSystemMemoryConfig systemMemoryConfig)
+    {
+        this(config, systemMemoryConfig, new DataSize(0, BYTE));
+    }
+
+    @VisibleForTesting
+    LocalMemoryManager(NodeMemoryConfig config, ReservedSystemMemoryConfig systemMemoryConfig, DataSize joinHashArrayPoolSize)
     {
         requireNonNull(config, "config is null");
+        requireNonNull(joinHashArrayPoolSize, "joinHashArrayPoolSize is null");
         long availableMemory = Runtime.getRuntime().maxMemory();
         if (config.isLegacySystemPoolEnabled()) {
-            configureLegacyMemoryPools(config, systemMemoryConfig, availableMemory);
+            configureLegacyMemoryPools(config, systemMemoryConfig, availableMemory, joinHashArrayPoolSize.toBytes());
         }
         else {
-            configureMemoryPools(config, availableMemory);
+            configureMemoryPools(config, availableMemory, joinHashArrayPoolSize.toBytes());
         }
     }
 
-    private void configureMemoryPools(NodeMemoryConfig config, long availableMemory)
+    // arrays kept by the join hash array pool are not accounted to any query, so the general pool is reduced by its maximum size
+    private void configureMemoryPools(NodeMemoryConfig config, long availableMemory, long joinHashArrayPoolSize)
     {
         validateHeapHeadroom(config, availableMemory);
         maxMemory = new DataSize(availableMemory - config.getHeapHeadroom().toBytes(), BYTE);
@@ -66,13 +81,13 @@ public final class LocalMemoryManager
                 QUERY_MAX_TOTAL_MEMORY_PER_NODE_CONFIG);
         ImmutableMap.Builder<MemoryPoolId, MemoryPool> builder = ImmutableMap.builder();
         builder.put(RESERVED_POOL, new MemoryPool(RESERVED_POOL, config.getMaxQueryTotalMemoryPerNode()));
-        long generalPoolSize = maxMemory.toBytes() - config.getMaxQueryTotalMemoryPerNode().toBytes();
+        long generalPoolSize = maxMemory.toBytes() - config.getMaxQueryTotalMemoryPerNode().toBytes() - joinHashArrayPoolSize;
         verify(generalPoolSize > 0, "general memory pool size is 0");
         builder.put(GENERAL_POOL, new MemoryPool(GENERAL_POOL, new DataSize(generalPoolSize, BYTE)));
         this.pools = builder.build();
     }
 
-    private void configureLegacyMemoryPools(NodeMemoryConfig config, ReservedSystemMemoryConfig systemMemoryConfig, long availableMemory)
+    private void configureLegacyMemoryPools(NodeMemoryConfig config, ReservedSystemMemoryConfig systemMemoryConfig, long availableMemory, long joinHashArrayPoolSize)
     {
         checkArgument(systemMemoryConfig.getReservedSystemMemory().toBytes() < availableMemory, "Reserved memory %s is greater than available heap %s", systemMemoryConfig.getReservedSystemMemory(), new DataSize(availableMemory, BYTE));
         maxMemory = new DataSize(availableMemory - systemMemoryConfig.getReservedSystemMemory().toBytes(), BYTE);
@@ -80,7 +95,7 @@ public final class LocalMemoryManager
         ImmutableMap.Builder<MemoryPoolId, MemoryPool> builder = ImmutableMap.builder();
         checkArgument(config.getMaxQueryMemoryPerNode().toBytes() <= maxMemory.toBytes(), format("%s set to %s, but only %s of useable heap available", QUERY_MAX_MEMORY_PER_NODE_CONFIG, config.getMaxQueryMemoryPerNode(), maxMemory));
         builder.put(RESERVED_POOL, new MemoryPool(RESERVED_POOL, config.getMaxQueryMemoryPerNode()));
-        DataSize generalPoolSize = new DataSize(Math.max(0, maxMemory.toBytes() - config.getMaxQueryMemoryPerNode().toBytes()), BYTE);
+        DataSize generalPoolSize = new DataSize(Math.max(0, maxMemory.toBytes() - config.getMaxQueryMemoryPerNode().toBytes() - joinHashArrayPoolSize), BYTE);
         builder.put(GENERAL_POOL, new MemoryPool(GENERAL_POOL, generalPoolSize));
         builder.put(SYSTEM_POOL, new MemoryPool(SYSTEM_POOL, systemMemoryConfig.getReservedSystemMemory()));
         this.pools = builder.build();
@@ -74,6 +74,11 @@ public interface Metadata
 
     Optional<Object> getInfo(Session session, TableLayoutHandle handle);
 
+    /**
+     * Returns a version of the data read through the layout, or empty if the connector does not track changes of the data.
+     */
+    Optional<String> getLayoutVersion(Session session, TableLayoutHandle handle);
+
     /**
      * Return the metadata for the specified table handle.
      *
@@ -105,6 +110,11 @@ public interface Metadata
      */
     ColumnMetadata getColumnMetadata(Session session, TableHandle tableHandle, ColumnHandle columnHandle);
 
+    /**
+     * Returns a handle for the specified row column that only has to produce the nested fields at the specified paths.
+     */
+    Optional<ColumnHandle> pruneNestedFields(Session session, TableHandle tableHandle, ColumnHandle columnHandle, List<List<String>> fieldPaths);
+
     /**
      * Gets the metadata for all columns that match the specified table prefix.
      */
@@ -380,6 +380,14 @@ public class MetadataManager
         return metadata.getInfo(tableLayout.getHandle());
     }
 
+    @Override
+    public Optional<String> getLayoutVersion(Session session, TableLayoutHandle handle)
+    {
+        ConnectorId connectorId = handle.getConnectorId();
+        ConnectorMetadata metadata = getMetadata(session, connectorId);
+        return metadata.getTableLayoutVersion(session.toConnectorSession(connectorId), handle.getConnectorHandle());
+    }
+
     @Override
     public TableMetadata getTableMetadata(Session session, TableHandle tableHandle)
     {
@@ -426,6 +434,18 @@ public class MetadataManager
         return metadata.getColumnMetadata(session.toConnectorSession(connectorId), tableHandle.getConnectorHandle(), columnHandle);
     }
 
+    @Override
+    public Optional<ColumnHandle> pruneNestedFields(Session session, TableHandle tableHandle, ColumnHandle columnHandle, List<List<String>> fieldPaths)
+    {
+        requireNonNull(tableHandle, "tableHandle is null");
+        requireNonNull(columnHandle, "columnHandle is null");
+        requireNonNull(fieldPaths, "fieldPaths is null");
+
+        ConnectorId connectorId = tableHandle.getConnectorId();
+        ConnectorMetadata metadata = getMetadata(session, connectorId);
+        return metadata.pruneNestedFields(session.toConnectorSession(connectorId), tableHandle.getConnectorHandle(), columnHandle, fieldPaths);
+    }
+
     @Override
     public List<QualifiedObjectName> listTables(Session session, QualifiedTablePrefix prefix)
     {
@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.array.ArrayAllocator;
+import com.facebook.presto.array.UnpooledArrayAllocator;
 import com.facebook.presto.spi.Page;
 import io.airlift.slice.Slices;
 import io.airlift.slice.XxHash64;
@@ -33,12 +35,16 @@ public final class ArrayPositionLinks
             implements PositionLinks.FactoryBuilder
     {
         private final int[] positionLinks;
+        private final int positionCount;
+        private final ArrayAllocator arrayAllocator;
         private int size;
 
-        private FactoryBuilder(int size)
+        private FactoryBuilder(int size, ArrayAllocator arrayAllocator)
         {
-            positionLinks = new int[size];
-            Arrays.fill(positionLinks, -1);
+            this.arrayAllocator = requireNonNull(arrayAllocator, "arrayAllocator is null");
+            positionCount = size;
+            positionLinks = arrayAllocator.borrowIntArray(size);
+            Arrays.fill(positionLinks, 0, size, -1);
         }
 
         @Override
@@ -63,7 +69,13 @@ public final class ArrayPositionLinks
                 @Override
                 public long checksum()
                 {
-                    return XxHash64.hash(Slices.wrappedIntArray(positionLinks));
+                    return XxHash64.hash(Slices.wrappedIntArray(positionLinks, 0, positionCount));
+                }
+
+                @Override
+                public void close()
+                {
+                    arrayAllocator.returnArray(positionLinks);
                 }
             };
         }
@@ -84,7 +96,12 @@ public final class ArrayPositionLinks
 
     public static FactoryBuilder builder(int size)
     {
-        return new FactoryBuilder(size);
+        return builder(size, UnpooledArrayAllocator.INSTANCE);
+    }
+
+    public static FactoryBuilder builder(int size, ArrayAllocator arrayAllocator)
+    {
+        return new FactoryBuilder(size, arrayAllocator);
     }
 
     @Override
@@ -0,0 +1,188 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.facebook.presto.spi.type.TypeUtils.readNativeValue;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Summarizes the join keys seen by a single {@link HashBuilderOperator}. Distinct
+ * key values are collected until there are more than {@code maxDistinctValues}
+ * of them, after which only the range of the keys is kept.
+ */
+public class DynamicFilterCollector
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DynamicFilterCollector.class).instanceSize();
+    // estimated size of a HashSet entry: the HashMap.Node and its share of the hash table
+    private static final long SET_ENTRY_SIZE = 48;
+    private static final long BOXED_LONG_SIZE = ClassLayout.parseClass(Long.class).instanceSize();
+
+    private final Map<Integer, Integer> keyChannels;
+    private final Map<Integer, Type> keyTypes;
+    private final int maxDistinctValues;
+
+    private final Map<Integer, Set<Object>> distinctValues;
+    private final Map<Integer, Long> distinctValuesSizeInBytes;
+    private final Map<Integer, Block> minValues;
+    private final Map<Integer, Block> maxValues;
+
+    /**
+     * @param keyChannels map from the join key index to the channel of that key in the build pages
+     * @param keyTypes map from the join key index to the type of that key
+     */
+    public DynamicFilterCollector(Map<Integer, Integer> keyChannels, Map<Integer, Type> keyTypes, int maxDistinctValues)
+    {
+        this.keyChannels = ImmutableMap.copyOf(requireNonNull(keyChannels, "keyChannels is null"));
+        this.keyTypes = ImmutableMap.copyOf(requireNonNull(keyTypes, "keyTypes is null"));
+        checkArgument(keyChannels.keySet().equals(keyTypes.keySet()), "keyChannels and keyTypes do not match");
+        checkArgument(maxDistinctValues >= 0, "maxDistinctValues is negative");
+        this.maxDistinctValues = maxDistinctValues;
+
+        this.distinctValues = new HashMap<>();
+        this.distinctValuesSizeInBytes = new HashMap<>();
+        this.minValues = new HashMap<>();
+        this.maxValues = new HashMap<>();
+        for (Integer key : keyChannels.keySet()) {
+            distinctValues.put(key, new HashSet<>());
+            distinctValuesSizeInBytes.put(key, 0L);
+        }
+    }
+
+    public void addPage(Page page)
+    {
+        for (Map.Entry<Integer, Integer> entry : keyChannels.entrySet()) {
+            Integer key = entry.getKey();
+            addBlock(key, keyTypes.get(key), page.getBlock(entry.getValue()));
+        }
+    }
+
+    private void addBlock(Integer key, Type type, Block block)
+    {
+        Set<Object> values = distinctValues.get(key);
+        int minPosition = -1;
+        int maxPosition = -1;
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            // null keys never match in an equi-join
+            if (block.isNull(position)) {
+                continue;
+            }
+            if (minPosition < 0 || type.compareTo(block, position, block, minPosition) < 0) {
+                minPosition = position;
+            }
+            if (maxPosition < 0 || type.compareTo(block, position, block, maxPosition) > 0) {
+                maxPosition = position;
+            }
+            if (values != null) {
+                Object value = readNativeValue(type, block, position);
+                if (!values.contains(value)) {
+                    if (value instanceof Slice) {
+                        // the slice is a view of the block, so copy it to not retain the whole page
+                        value = Slices.copyOf((Slice) value);
+                    }
+                    values.add(value);
+                    distinctValuesSizeInBytes.merge(key, SET_ENTRY_SIZE + sizeOf(value), Long::sum);
+                }
+                if (values.size() > maxDistinctValues) {
+                    values = null;
+                    distinctValues.put(key, null);
+                    distinctValuesSizeInBytes.put(key, 0L);
+                }
+            }
+        }
+
+        if (minPosition < 0) {
+            return;
+        }
+        Block min = minValues.get(key);
+        if (min == null || type.compareTo(block, minPosition, min, 0) < 0) {
+            minValues.put(key, block.getSingleValueBlock(minPosition));
+        }
+        Block max = maxValues.get(key);
+        if (max == null || type.compareTo(block, maxPosition, max, 0) > 0) {
+            maxValues.put(key, block.getSingleValueBlock(maxPosition));
+        }
+    }
+
+    /**
+     * @return estimated size of the distinct values and the min/max values collected so far
+     */
+    public long getRetainedSizeInBytes()
+    {
+        long size = INSTANCE_SIZE;
+        for (long distinctValuesSize : distinctValuesSizeInBytes.values()) {
+            size += distinctValuesSize;
+        }
+        for (Block min : minValues.values()) {
+            size += min.getRetainedSizeInBytes();
+        }
+        for (Block max : maxValues.values()) {
+            size += max.getRetainedSizeInBytes();
+        }
+        return size;
+    }
+
+    private static long sizeOf(Object value)
+    {
+        if (value instanceof Slice) {
+            return ((Slice) value).getRetainedSize();
+        }
+        return BOXED_LONG_SIZE;
+    }
+
+    /**
+     * @return summary of the keys seen so far, keyed by the join key index
+     */
+    public TupleDomain<Integer> getSummary()
+    {
+        ImmutableMap.Builder<Integer, Domain> domains = ImmutableMap.builder();
+        for (Integer key : keyChannels.keySet()) {
+            Type type = keyTypes.get(key);
+            Block min = minValues.get(key);
+            Block max = maxValues.get(key);
+            if (min == null) {
+                // no non-null keys, so no probe row can match
+                return TupleDomain.none();
+            }
+
+            Set<Object> values = distinctValues.get(key);
+            if (values != null) {
+                domains.put(key, Domain.multipleValues(type, ImmutableList.copyOf(values)));
+            }
+            else {
+                Range range = Range.range(type, readNativeValue(type, min, 0), true, readNativeValue(type, max, 0), true);
+                domains.put(key, Domain.create(ValueSet.ofRanges(range), false));
+            }
+        }
+        return TupleDomain.withColumnDomains(domains.build());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.LazyBlock;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Marker;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.Ranges;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.spi.type.TypeUtils.readNativeValue;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Removes the positions of a page that cannot satisfy a dynamic filter.
+ * Blocks that are not needed to evaluate the filter are kept lazy.
+ */
+public class DynamicFilterPageFilter
+{
+    private final List<ChannelFilter> filters;
+
+    private DynamicFilterPageFilter(List<ChannelFilter> filters)
+    {
+        this.filters = ImmutableList.copyOf(requireNonNull(filters, "filters is null"));
+    }
+
+    /**
+     * @param columns columns of the pages that are going to be filtered, in channel order
+     */
+    public static Optional<DynamicFilterPageFilter> create(TupleDomain<ColumnHandle> predicate, List<ColumnHandle> columns)
+    {
+        checkArgument(!predicate.isNone(), "predicate is none");
+        ImmutableList.Builder<ChannelFilter> filters = ImmutableList.builder();
+        for (Map.Entry<ColumnHandle, Domain> entry : predicate.getDomains().get().entrySet()) {
+            int channel = columns.indexOf(entry.getKey());
+            Domain domain = entry.getValue();
+            if (channel < 0 || domain.isAll() || !domain.getType().isOrderable()) {
+                continue;
+            }
+            filters.add(new ChannelFilter(channel, domain));
+        }
+        List<ChannelFilter> channelFilters = filters.build();
+        if (channelFilters.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new DynamicFilterPageFilter(channelFilters));
+    }
+
+    public Page filter(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        int[] retainedPositions = new int[positionCount];
+        int retainedCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (matches(page, position)) {
+                retainedPositions[retainedCount] = position;
+                retainedCount++;
+            }
+        }
+        if (retainedCount == positionCount) {
+            return page;
+        }
+
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel = 0; channel < blocks.length; channel++) {
+            blocks[channel] = getPositions(page.getBlock(channel), retainedPositions, retainedCount);
+        }
+        return new Page(retainedCount, blocks);
+    }
+
+    private boolean matches(Page page, int position)
+    {
+        for (ChannelFilter filter : filters) {
+            if (!filter.matches(page.getBlock(filter.getChannel()), position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Block getPositions(Block block, int[] positions, int length)
+    {
+        if (block instanceof LazyBlock && !((LazyBlock) block).isLoaded()) {
+            // only the retained positions of the source block are read, so it does not need to decode the others
+            return new LazyBlock(length, lazyBlock -> {
+                LazyBlock sourceBlock = (LazyBlock) block;
+                if (!sourceBlock.isLoaded()) {
+                    int[] sourcePositions = lazyBlock.getSelectedPositions()
+                            .map(selectedPositions -> Arrays.stream(selectedPositions).map(position -> positions[position]).toArray())
+                            .orElseGet(() -> Arrays.copyOf(positions, length));
+                    sourceBlock.setSelectedPositions(sourcePositions, 0, sourcePositions.length);
+                }
+                lazyBlock.setBlock(block.getPositions(positions, 0, length));
+            });
+        }
+        return block.getPositions(positions, 0, length);
+    }
+
+    private static class ChannelFilter
+    {
+        private final int channel;
+        private final Type type;
+        private final boolean nullAllowed;
+        private final Optional<Set<Object>> values;
+        private final Optional<Block> low;
+        private final boolean lowInclusive;
+        private final Optional<Block> high;
+        private final boolean highInclusive;
+
+        public ChannelFilter(int channel, Domain domain)
+        {
+            this.channel = channel;
+            this.type = domain.getType();
+            this.nullAllowed = domain.isNullAllowed();
+
+            Ranges ranges = domain.getValues().getRanges();
+            if (ranges.getOrderedRanges().stream().allMatch(Range::isSingleValue)) {
+                this.values = Optional.of(ranges.getOrderedRanges().stream()
+                        .map(Range::getSingleValue)
+                        .collect(toImmutableSet()));
+            }
+            else {
+                this.values = Optional.empty();
+            }
+
+            Range span = ranges.getSpan();
+            Marker lowMarker = span.getLow();
+            Marker highMarker = span.getHigh();
+            this.low = lowMarker.getValueBlock();
+            this.lowInclusive = lowMarker.getBound() == Marker.Bound.EXACTLY;
+            this.high = highMarker.getValueBlock();
+            this.highInclusive = highMarker.getBound() == Marker.Bound.EXACTLY;
+        }
+
+        public int getChannel()
+        {
+            return channel;
+        }
+
+        public boolean matches(Block block, int position)
+        {
+            if (block.isNull(position)) {
+                return nullAllowed;
+            }
+            if (values.isPresent()) {
+                return values.get().contains(readNativeValue(type, block, position));
+            }
+            if (low.isPresent()) {
+                int compare = type.compareTo(block, position, low.get(), 0);
+                if (compare < 0 || (compare == 0 && !lowInclusive)) {
+                    return false;
+                }
+            }
+            if (high.isPresent()) {
+                int compare = type.compareTo(block, position, high.get(), 0);
+                if (compare > 0 || (compare == 0 && !highInclusive)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -42,6 +42,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.presto.execution.buffer.PageCompression.UNCOMPRESSED;
@@ -90,7 +91,10 @@ public class ExchangeClient
     private long successfulRequests;
     @GuardedBy("this")
     private long averageBytesPerRequest;
+    @GuardedBy("this")
+    private long bytesSavedByCompression;
 
+    private final AtomicLong decompressionNanos = new AtomicLong();
     private final AtomicBoolean closed = new AtomicBoolean();
     private final AtomicReference<Throwable> failure = new AtomicReference<>();
 
@@ -137,7 +141,16 @@ public class ExchangeClient
             if (bufferedPages > 0 && pageBuffer.peekLast() == NO_MORE_PAGES) {
                 bufferedPages--;
             }
-            return new ExchangeClientStatus(bufferRetainedSizeInBytes, maxBufferRetainedSizeInBytes, averageBytesPerRequest, successfulRequests, bufferedPages, noMoreLocations, pageBufferClientStatus);
+            return new ExchangeClientStatus(
+                    bufferRetainedSizeInBytes,
+                    maxBufferRetainedSizeInBytes,
+                    averageBytesPerRequest,
+                    successfulRequests,
+                    bufferedPages,
+                    noMoreLocations,
+                    bytesSavedByCompression,
+                    decompressionNanos.get(),
+                    pageBufferClientStatus);
         }
     }
 
@@ -215,6 +228,14 @@ public class ExchangeClient
         return postProcessPage(page);
     }
 
+    /**
+     * Records time spent by a consumer of this client decompressing the pages it polled.
+     */
+    public void recordDecompression(long nanos)
+    {
+        decompressionNanos.addAndGet(nanos);
+    }
+
     private SerializedPage postProcessPage(SerializedPage page)
     {
         checkState(!Thread.holdsLock(this), "Can not get next page while holding a lock on this");
@@ -354,6 +375,10 @@ public class ExchangeClient
         // AVG_n = AVG_(n-1) * (n-1)/n + VALUE_n / n
         averageBytesPerRequest = (long) (1.0 * averageBytesPerRequest * (successfulRequests - 1) / successfulRequests + responseSize / successfulRequests);
 
+        bytesSavedByCompression += pages.stream()
+                .mapToLong(page -> page.getUncompressedSizeInBytes() - page.getSizeInBytes())
+                .sum();
+
         return true;
     }
 
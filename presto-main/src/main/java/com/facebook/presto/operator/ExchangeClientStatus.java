@@ -32,6 +32,8 @@ public class ExchangeClientStatus
     private final long successfulRequestsCount;
     private final int bufferedPages;
     private final boolean noMoreLocations;
+    private final long bytesSavedByCompression;
+    private final long decompressionNanos;
     private final List<PageBufferClientStatus> pageBufferClientStatuses;
 
     @JsonCreator
@@ -42,6 +44,8 @@ public class ExchangeClientStatus
             @JsonProperty("successfulRequestsCount") long successFullRequestsCount,
             @JsonProperty("bufferedPages") int bufferedPages,
             @JsonProperty("noMoreLocations") boolean noMoreLocations,
+            @JsonProperty("bytesSavedByCompression") long bytesSavedByCompression,
+            @JsonProperty("decompressionNanos") long decompressionNanos,
             @JsonProperty("pageBufferClientStatuses") List<PageBufferClientStatus> pageBufferClientStatuses)
     {
         this.bufferedBytes = bufferedBytes;
@@ -50,6 +54,8 @@ public class ExchangeClientStatus
         this.successfulRequestsCount = successFullRequestsCount;
         this.bufferedPages = bufferedPages;
         this.noMoreLocations = noMoreLocations;
+        this.bytesSavedByCompression = bytesSavedByCompression;
+        this.decompressionNanos = decompressionNanos;
         this.pageBufferClientStatuses = ImmutableList.copyOf(requireNonNull(pageBufferClientStatuses, "pageBufferClientStatuses is null"));
     }
 
@@ -89,6 +95,18 @@ public class ExchangeClientStatus
         return noMoreLocations;
     }
 
+    @JsonProperty
+    public long getBytesSavedByCompression()
+    {
+        return bytesSavedByCompression;
+    }
+
+    @JsonProperty
+    public long getDecompressionNanos()
+    {
+        return decompressionNanos;
+    }
+
     @JsonProperty
     public List<PageBufferClientStatus> getPageBufferClientStatuses()
     {
@@ -111,6 +129,8 @@ public class ExchangeClientStatus
                 .add("successfulRequestsCount", successfulRequestsCount)
                 .add("bufferedPages", bufferedPages)
                 .add("noMoreLocations", noMoreLocations)
+                .add("bytesSavedByCompression", bytesSavedByCompression)
+                .add("decompressionNanos", decompressionNanos)
                 .add("pageBufferClientStatuses", pageBufferClientStatuses)
                 .toString();
     }
@@ -125,6 +145,8 @@ public class ExchangeClientStatus
                 successfulRequestsCount + other.successfulRequestsCount,
                 bufferedPages + other.bufferedPages,
                 noMoreLocations && other.noMoreLocations, // if at least one has some locations, mergee has some too
+                bytesSavedByCompression + other.bytesSavedByCompression,
+                decompressionNanos + other.decompressionNanos,
                 ImmutableList.of()); // pageBufferClientStatuses may be long, so we don't want to combine the lists
     }
 
@@ -181,7 +181,11 @@ public class ExchangeOperator
         }
 
         operatorContext.recordGeneratedInput(page.getSizeInBytes(), page.getPositionCount());
-        return serde.deserialize(page);
+
+        long decompressionNanos = serde.getDecompressionNanos();
+        Page deserializedPage = serde.deserialize(page);
+        exchangeClient.recordDecompression(serde.getDecompressionNanos() - decompressionNanos);
+        return deserializedPage;
     }
 
     @Override
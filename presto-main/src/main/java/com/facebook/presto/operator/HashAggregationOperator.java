@@ -17,6 +17,7 @@ import com.facebook.presto.operator.aggregation.Accumulator;
 import com.facebook.presto.operator.aggregation.AccumulatorFactory;
 import com.facebook.presto.operator.aggregation.builder.HashAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder;
+import com.facebook.presto.operator.aggregation.builder.SkipAggregationBuilder;
 import com.facebook.presto.operator.aggregation.builder.SpillableHashAggregationBuilder;
 import com.facebook.presto.operator.scalar.CombineHashFunction;
 import com.facebook.presto.spi.Page;
@@ -36,6 +37,9 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import static com.facebook.presto.SystemSessionProperties.getAdaptivePartialAggregationMinRows;
+import static com.facebook.presto.SystemSessionProperties.getAdaptivePartialAggregationUniqueRowsRatioThreshold;
+import static com.facebook.presto.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
 import static com.facebook.presto.operator.aggregation.builder.InMemoryHashAggregationBuilder.toTypes;
 import static com.facebook.presto.sql.planner.optimizations.HashGenerationOptimizer.INITIAL_HASH_VALUE;
 import static com.facebook.presto.type.TypeUtils.NULL_HASH_CODE;
@@ -260,6 +264,15 @@ public class HashAggregationOperator
     private final List<Type> types;
     private final HashCollisionsCounter hashCollisionsCounter;
 
+    private final boolean adaptivePartialAggregation;
+    private final long adaptivePartialAggregationMinRows;
+    private final double adaptivePartialAggregationUniqueRowsRatioThreshold;
+    // input rows added to the current in-memory partial aggregation builder
+    private long partialAggregationInputRows;
+    // once bypassed, the partial aggregation stays bypassed for the lifetime of the operator
+    private boolean partialAggregationBypassed;
+    private boolean flushBeforeBypass;
+
     private HashAggregationBuilder aggregationBuilder;
     private WorkProcessor<Page> outputPages;
     private boolean inputProcessed;
@@ -310,6 +323,12 @@ public class HashAggregationOperator
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         this.hashCollisionsCounter = new HashCollisionsCounter(operatorContext);
         operatorContext.setInfoSupplier(hashCollisionsCounter);
+
+        this.adaptivePartialAggregation = step.isInputRaw() && step.isOutputPartial() &&
+                !hasOrderBy() && !hasDistinct() &&
+                isAdaptivePartialAggregationEnabled(operatorContext.getSession());
+        this.adaptivePartialAggregationMinRows = getAdaptivePartialAggregationMinRows(operatorContext.getSession());
+        this.adaptivePartialAggregationUniqueRowsRatioThreshold = getAdaptivePartialAggregationUniqueRowsRatioThreshold(operatorContext.getSession());
     }
 
     @Override
@@ -336,7 +355,7 @@ public class HashAggregationOperator
         if (finishing || outputPages != null) {
             return false;
         }
-        else if (aggregationBuilder != null && aggregationBuilder.isFull()) {
+        else if (isAggregationBuilderFull()) {
             return false;
         }
         else {
@@ -353,8 +372,15 @@ public class HashAggregationOperator
         inputProcessed = true;
 
         if (aggregationBuilder == null) {
+            if (partialAggregationBypassed) {
+                aggregationBuilder = new SkipAggregationBuilder(
+                        groupByChannels,
+                        hashChannel,
+                        accumulatorFactories,
+                        operatorContext.newLocalSystemMemoryContext(SkipAggregationBuilder.class.getSimpleName()));
+            }
             // TODO: We ignore spillEnabled here if any aggregate has ORDER BY clause or DISTINCT because they are not yet implemented for spilling.
-            if (step.isOutputPartial() || !spillEnabled || hasOrderBy() || hasDistinct()) {
+            else if (step.isOutputPartial() || !spillEnabled || hasOrderBy() || hasDistinct()) {
                 aggregationBuilder = new InMemoryHashAggregationBuilder(
                         accumulatorFactories,
                         step,
@@ -385,7 +411,7 @@ public class HashAggregationOperator
             // assume initial aggregationBuilder is not full
         }
         else {
-            checkState(!aggregationBuilder.isFull(), "Aggregation buffer is full");
+            checkState(!isAggregationBuilderFull(), "Aggregation buffer is full");
         }
 
         // process the current page; save the unfinished work if we are waiting for memory
@@ -394,6 +420,34 @@ public class HashAggregationOperator
             unfinishedWork = null;
         }
         aggregationBuilder.updateMemory();
+
+        if (partialAggregationBypassed) {
+            operatorContext.recordPartialAggregationBypassedPositions(page.getPositionCount());
+        }
+        else if (adaptivePartialAggregation) {
+            partialAggregationInputRows += page.getPositionCount();
+            checkPartialAggregationReduction();
+        }
+    }
+
+    private void checkPartialAggregationReduction()
+    {
+        if (unfinishedWork != null || partialAggregationInputRows < adaptivePartialAggregationMinRows) {
+            return;
+        }
+
+        long groupCount = ((InMemoryHashAggregationBuilder) aggregationBuilder).getGroupCount();
+        if (groupCount > partialAggregationInputRows * adaptivePartialAggregationUniqueRowsRatioThreshold) {
+            // the partial aggregation barely reduces the number of rows; flush what has been
+            // aggregated so far and pass the remaining input through as intermediate states
+            partialAggregationBypassed = true;
+            flushBeforeBypass = true;
+        }
+    }
+
+    private boolean isAggregationBuilderFull()
+    {
+        return aggregationBuilder != null && (aggregationBuilder.isFull() || flushBeforeBypass);
     }
 
     private boolean hasOrderBy()
@@ -455,7 +509,7 @@ public class HashAggregationOperator
             }
 
             // only flush if we are finishing or the aggregation builder is full
-            if (!finishing && (aggregationBuilder == null || !aggregationBuilder.isFull())) {
+            if (!finishing && !isAggregationBuilderFull()) {
                 return null;
             }
 
@@ -489,6 +543,8 @@ public class HashAggregationOperator
     private void closeAggregationBuilder()
     {
         outputPages = null;
+        partialAggregationInputRows = 0;
+        flushBeforeBypass = false;
         if (aggregationBuilder != null) {
             aggregationBuilder.recordHashCollisions(hashCollisionsCounter);
             aggregationBuilder.close();
@@ -64,6 +64,7 @@ public class HashBuilderOperator
         private final Optional<Integer> sortChannel;
         private final List<JoinFilterFunctionFactory> searchFunctionFactories;
         private final PagesIndex.Factory pagesIndexFactory;
+        private final Optional<LocalDynamicFilter> dynamicFilter;
 
         private final int expectedPositions;
         private final boolean spillEnabled;
@@ -86,7 +87,8 @@ public class HashBuilderOperator
                 int expectedPositions,
                 PagesIndex.Factory pagesIndexFactory,
                 boolean spillEnabled,
-                SingleStreamSpillerFactory singleStreamSpillerFactory)
+                SingleStreamSpillerFactory singleStreamSpillerFactory,
+                Optional<LocalDynamicFilter> dynamicFilter)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -104,6 +106,7 @@ public class HashBuilderOperator
             this.pagesIndexFactory = requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
             this.spillEnabled = spillEnabled;
             this.singleStreamSpillerFactory = requireNonNull(singleStreamSpillerFactory, "singleStreamSpillerFactory is null");
+            this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
 
             this.expectedPositions = expectedPositions;
         }
@@ -130,7 +133,8 @@ public class HashBuilderOperator
                     expectedPositions,
                     pagesIndexFactory,
                     spillEnabled,
-                    singleStreamSpillerFactory);
+                    singleStreamSpillerFactory,
+                    dynamicFilter);
         }
 
         @Override
@@ -213,6 +217,10 @@ public class HashBuilderOperator
 
     private final HashCollisionsCounter hashCollisionsCounter;
 
+    private final Optional<LocalDynamicFilter> dynamicFilter;
+    private final LocalMemoryContext dynamicFilterMemoryContext;
+    private Optional<DynamicFilterCollector> dynamicFilterCollector;
+
     private State state = State.CONSUMING_INPUT;
     private Optional<ListenableFuture<?>> lookupSourceNotNeeded = Optional.empty();
     private final SpilledLookupSourceHandle spilledLookupSourceHandle = new SpilledLookupSourceHandle();
@@ -238,7 +246,8 @@ public class HashBuilderOperator
             int expectedPositions,
             PagesIndex.Factory pagesIndexFactory,
             boolean spillEnabled,
-            SingleStreamSpillerFactory singleStreamSpillerFactory)
+            SingleStreamSpillerFactory singleStreamSpillerFactory,
+            Optional<LocalDynamicFilter> dynamicFilter)
     {
         requireNonNull(pagesIndexFactory, "pagesIndexFactory is null");
 
@@ -263,6 +272,10 @@ public class HashBuilderOperator
 
         this.spillEnabled = spillEnabled;
         this.singleStreamSpillerFactory = requireNonNull(singleStreamSpillerFactory, "singleStreamSpillerFactory is null");
+
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
+        this.dynamicFilterCollector = dynamicFilter.map(filter -> filter.createCollector(hashChannels));
+        this.dynamicFilterMemoryContext = operatorContext.aggregateUserMemoryContext().newLocalMemoryContext(DynamicFilterCollector.class.getSimpleName());
     }
 
     @Override
@@ -324,6 +337,11 @@ public class HashBuilderOperator
             return;
         }
 
+        dynamicFilterCollector.ifPresent(collector -> {
+            collector.addPage(page);
+            dynamicFilterMemoryContext.setBytes(collector.getRetainedSizeInBytes());
+        });
+
         if (state == State.SPILLING_INPUT) {
             spillInput(page);
             return;
@@ -483,6 +501,10 @@ public class HashBuilderOperator
             return;
         }
 
+        // the summary must be published before the lookup source, so that probe side
+        // page sources created once the join is unblocked can already use it
+        publishDynamicFilter();
+
         LookupSourceSupplier partition = buildLookupSource();
         if (spillEnabled) {
             localRevocableMemoryContext.setBytes(partition.get().getInMemorySizeInBytes());
@@ -506,7 +528,7 @@ public class HashBuilderOperator
         index.clear();
         localRevocableMemoryContext.setBytes(0);
         localUserMemoryContext.setBytes(index.getEstimatedSize().toBytes());
-        lookupSourceSupplier = null;
+        releaseLookupSource();
         close();
     }
 
@@ -518,9 +540,20 @@ public class HashBuilderOperator
             return;
         }
         checkSuccess(spillInProgress, "spilling failed");
+        publishDynamicFilter();
         state = State.INPUT_SPILLED;
     }
 
+    private void publishDynamicFilter()
+    {
+        if (dynamicFilter.isPresent()) {
+            dynamicFilter.get().addPartitionSummary(dynamicFilterCollector.get().getSummary());
+            // the collected keys are not needed once the summary is published
+            dynamicFilterCollector = Optional.empty();
+            dynamicFilterMemoryContext.setBytes(0);
+        }
+    }
+
     private void unspillLookupSourceIfRequested()
     {
         checkState(state == State.INPUT_SPILLED);
@@ -580,10 +613,20 @@ public class HashBuilderOperator
 
         index.clear();
         localUserMemoryContext.setBytes(index.getEstimatedSize().toBytes());
+        releaseLookupSource();
 
         close();
     }
 
+    private void releaseLookupSource()
+    {
+        // no probe uses the lookup source anymore, so its hash arrays can be reused by other joins
+        if (lookupSourceSupplier != null) {
+            lookupSourceSupplier.close();
+            lookupSourceSupplier = null;
+        }
+    }
+
     private LookupSourceSupplier buildLookupSource()
     {
         LookupSourceSupplier partition = index.createLookupSourceSupplier(operatorContext.getSession(), hashChannels, preComputedHashChannel, filterFunctionFactory, sortChannel, searchFunctionFactories, Optional.of(outputChannels));
@@ -618,6 +661,9 @@ public class HashBuilderOperator
         }
         // close() can be called in any state, due for example to query failure, and must clean resource up unconditionally
 
+        if (lookupSourceFactoryDestroyed.isDone()) {
+            releaseLookupSource();
+        }
         lookupSourceSupplier = null;
         state = State.CLOSED;
         finishMemoryRevoke = finishMemoryRevoke.map(ifPresent -> () -> {});
@@ -627,6 +673,7 @@ public class HashBuilderOperator
             spiller.ifPresent(closer::register);
             closer.register(() -> localUserMemoryContext.setBytes(0));
             closer.register(() -> localRevocableMemoryContext.setBytes(0));
+            closer.register(dynamicFilterMemoryContext::close);
         }
         catch (IOException e) {
             throw new RuntimeException(e);
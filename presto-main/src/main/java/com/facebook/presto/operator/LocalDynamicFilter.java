@@ -0,0 +1,179 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.spi.type.DecimalType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.VarcharType;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.SmallintType.SMALLINT;
+import static com.facebook.presto.spi.type.TinyintType.TINYINT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Combines the key summaries published by all {@link HashBuilderOperator}s of a join
+ * within a task, and exposes the result to the table scans on the probe side.
+ * Until every build partition has been summarized the filter does not restrict anything.
+ */
+@ThreadSafe
+public class LocalDynamicFilter
+{
+    private final Map<Integer, Type> keyTypes;
+    private final int maxDistinctValues;
+    private final Consumer<TupleDomain<Integer>> summaryConsumer;
+
+    @GuardedBy("this")
+    private int partitionCount;
+    @GuardedBy("this")
+    private final List<TupleDomain<Integer>> partitionSummaries = new ArrayList<>();
+
+    private volatile TupleDomain<Integer> summary = TupleDomain.all();
+
+    /**
+     * @param keyTypes map from the join key index to the type of that key
+     */
+    public LocalDynamicFilter(Map<Integer, Type> keyTypes, int maxDistinctValues)
+    {
+        this(keyTypes, maxDistinctValues, summary -> {});
+    }
+
+    /**
+     * @param keyTypes map from the join key index to the type of that key
+     * @param summaryConsumer receives the combined summary once every build partition has been summarized
+     */
+    public LocalDynamicFilter(Map<Integer, Type> keyTypes, int maxDistinctValues, Consumer<TupleDomain<Integer>> summaryConsumer)
+    {
+        this.keyTypes = ImmutableMap.copyOf(requireNonNull(keyTypes, "keyTypes is null"));
+        checkArgument(!keyTypes.isEmpty(), "keyTypes is empty");
+        keyTypes.values().forEach(type -> checkArgument(isSupportedType(type), "Unsupported dynamic filter type: %s", type));
+        checkArgument(maxDistinctValues >= 0, "maxDistinctValues is negative");
+        this.maxDistinctValues = maxDistinctValues;
+        this.summaryConsumer = requireNonNull(summaryConsumer, "summaryConsumer is null");
+    }
+
+    /**
+     * Types for which the native value equality used by {@link DynamicFilterPageFilter} and
+     * the ordering used for ranges agree with the SQL equality used by the join.
+     */
+    public static boolean isSupportedType(Type type)
+    {
+        return type.equals(BIGINT) ||
+                type.equals(INTEGER) ||
+                type.equals(SMALLINT) ||
+                type.equals(TINYINT) ||
+                type.equals(DATE) ||
+                type instanceof VarcharType ||
+                (type instanceof DecimalType && ((DecimalType) type).isShort());
+    }
+
+    public Map<Integer, Type> getKeyTypes()
+    {
+        return keyTypes;
+    }
+
+    public synchronized void setPartitionCount(int partitionCount)
+    {
+        checkArgument(partitionCount > 0, "partitionCount must be positive");
+        checkState(this.partitionCount == 0, "partitionCount is already set");
+        this.partitionCount = partitionCount;
+    }
+
+    public DynamicFilterCollector createCollector(List<Integer> hashChannels)
+    {
+        ImmutableMap.Builder<Integer, Integer> keyChannels = ImmutableMap.builder();
+        for (Integer key : keyTypes.keySet()) {
+            keyChannels.put(key, hashChannels.get(key));
+        }
+        return new DynamicFilterCollector(keyChannels.build(), keyTypes, maxDistinctValues);
+    }
+
+    public synchronized void addPartitionSummary(TupleDomain<Integer> partitionSummary)
+    {
+        requireNonNull(partitionSummary, "partitionSummary is null");
+        checkState(partitionCount > 0, "partitionCount is not set");
+        checkState(partitionSummaries.size() < partitionCount, "All partitions have already been summarized");
+
+        partitionSummaries.add(partitionSummary);
+        if (partitionSummaries.size() == partitionCount) {
+            summary = combine(partitionSummaries, maxDistinctValues);
+            partitionSummaries.clear();
+            summaryConsumer.accept(summary);
+        }
+    }
+
+    /**
+     * @param probeColumns map from the join key index to the probe side column
+     */
+    public Supplier<TupleDomain<ColumnHandle>> createPredicateSupplier(Map<Integer, ColumnHandle> probeColumns)
+    {
+        Map<Integer, ColumnHandle> columns = ImmutableMap.copyOf(requireNonNull(probeColumns, "probeColumns is null"));
+        checkArgument(keyTypes.keySet().containsAll(columns.keySet()), "Unknown join keys: %s", columns.keySet());
+        return () -> {
+            TupleDomain<Integer> current = summary;
+            if (current.isNone()) {
+                return TupleDomain.none();
+            }
+            ImmutableMap.Builder<ColumnHandle, Domain> domains = ImmutableMap.builder();
+            for (Map.Entry<Integer, Domain> entry : current.getDomains().get().entrySet()) {
+                ColumnHandle column = columns.get(entry.getKey());
+                if (column != null) {
+                    domains.put(column, entry.getValue());
+                }
+            }
+            return TupleDomain.withColumnDomains(domains.build());
+        };
+    }
+
+    /**
+     * Combines the summaries of disjoint parts of the build side, falling back to a single
+     * range for the keys that have more than {@code maxDistinctValues} values in total.
+     */
+    public static <T> TupleDomain<T> combine(List<TupleDomain<T>> summaries, int maxDistinctValues)
+    {
+        TupleDomain<T> tupleDomain = TupleDomain.columnWiseUnion(ImmutableList.copyOf(summaries));
+        if (tupleDomain.isNone()) {
+            return tupleDomain;
+        }
+        ImmutableMap.Builder<T, Domain> domains = ImmutableMap.builder();
+        for (Map.Entry<T, Domain> entry : tupleDomain.getDomains().get().entrySet()) {
+            Domain domain = entry.getValue();
+            if (domain.getValues().getRanges().getRangeCount() > maxDistinctValues) {
+                // partitions together exceeded the limit, so fall back to a single range
+                domain = Domain.create(ValueSet.ofRanges(domain.getValues().getRanges().getSpan()), domain.isNullAllowed());
+            }
+            domains.put(entry.getKey(), domain);
+        }
+        return TupleDomain.withColumnDomains(domains.build());
+    }
+}
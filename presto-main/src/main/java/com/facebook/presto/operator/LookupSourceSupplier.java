@@ -26,4 +26,10 @@ public interface LookupSourceSupplier
      * @return checksum of this entity for heuristic checking equivalence of two instances
      */
     long checksum();
+
+    /**
+     * Releases memory borrowed for the hash table. Must only be called once no
+     * lookup source created by this supplier is used anymore.
+     */
+    default void close() {}
 }
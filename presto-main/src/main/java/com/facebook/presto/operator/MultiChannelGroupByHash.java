@@ -47,6 +47,7 @@ import static com.google.common.base.Verify.verify;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static it.unimi.dsi.fastutil.HashCommon.arraySize;
 import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.multiplyExact;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -56,6 +57,9 @@ public class MultiChannelGroupByHash
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(MultiChannelGroupByHash.class).instanceSize();
     private static final float FILL_RATIO = 0.75f;
+    // upper bound on the number of dictionary entry combinations tracked for multi-channel dictionary pages
+    @VisibleForTesting
+    static final int MAX_DICTIONARY_COMBINATIONS = 1 << 16;
     private final List<Type> types;
     private final List<Type> hashTypes;
     private final int[] channels;
@@ -174,6 +178,7 @@ public class MultiChannelGroupByHash
                 sizeOf(groupIdsByHash) +
                 groupAddressByGroupId.sizeOf() +
                 sizeOf(rawHashByHashPosition) +
+                (dictionaryLookBack == null ? 0 : dictionaryLookBack.getRetainedSizeInBytes()) +
                 preallocatedMemoryInBytes;
     }
 
@@ -452,13 +457,22 @@ public class MultiChannelGroupByHash
         return maxFill;
     }
 
-    private void updateDictionaryLookBack(Block dictionary)
+    private void updateDictionaryLookBack(DictionaryBlock[] dictionaryBlocks)
     {
-        if (dictionaryLookBack == null || dictionaryLookBack.getDictionary() != dictionary) {
-            dictionaryLookBack = new DictionaryLookBack(dictionary);
+        if (dictionaryLookBack == null || !dictionaryLookBack.hasDictionaries(dictionaryBlocks)) {
+            dictionaryLookBack = new DictionaryLookBack(dictionaryBlocks);
         }
     }
 
+    private DictionaryBlock[] getDictionaryBlocks(Page page)
+    {
+        DictionaryBlock[] dictionaryBlocks = new DictionaryBlock[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            dictionaryBlocks[i] = (DictionaryBlock) page.getBlock(channels[i]);
+        }
+        return dictionaryBlocks;
+    }
+
     // For a page that contains DictionaryBlocks, create a new page in which
     // the dictionaries from the DictionaryBlocks are extracted into the corresponding channels
     // From Page(DictionaryBlock1, DictionaryBlock2) create new page with Page(dictionary1, dictionary2)
@@ -480,9 +494,26 @@ public class MultiChannelGroupByHash
 
     private boolean canProcessDictionary(Page page)
     {
-        if (!this.processDictionary || channels.length > 1 || !(page.getBlock(channels[0]) instanceof DictionaryBlock)) {
+        if (!this.processDictionary) {
             return false;
         }
+        for (int channel : channels) {
+            if (!(page.getBlock(channel) instanceof DictionaryBlock)) {
+                return false;
+            }
+        }
+
+        if (channels.length > 1) {
+            // every combination of dictionary entries gets its own look back slot
+            long combinations = 1;
+            for (int channel : channels) {
+                combinations *= ((DictionaryBlock) page.getBlock(channel)).getDictionary().getPositionCount();
+                if (combinations > MAX_DICTIONARY_COMBINATIONS) {
+                    return false;
+                }
+            }
+            return true;
+        }
 
         if (inputHashChannel.isPresent()) {
             Block inputHashBlock = page.getBlock(inputHashChannel.get());
@@ -522,21 +553,66 @@ public class MultiChannelGroupByHash
         return groupId;
     }
 
+    private int getDictionaryGroupId(Page page, Optional<Page> dictionaryPage, DictionaryBlock[] dictionaryBlocks, int position)
+    {
+        if (dictionaryPage.isPresent()) {
+            // single channel: the group of a dictionary entry is computed on the dictionary itself
+            return getGroupId(hashGenerator, dictionaryPage.get(), dictionaryBlocks[0].getId(position));
+        }
+
+        // multiple channels: the first row with a given combination of dictionary entries assigns the group
+        int combination = dictionaryLookBack.getCombination(dictionaryBlocks, position);
+        if (dictionaryLookBack.isProcessed(combination)) {
+            return dictionaryLookBack.getGroupId(combination);
+        }
+
+        int groupId = putIfAbsent(position, page);
+        dictionaryLookBack.setProcessed(combination, groupId);
+        return groupId;
+    }
+
     private static final class DictionaryLookBack
     {
-        private final Block dictionary;
+        private final Block[] dictionaries;
         private final int[] processed;
 
-        public DictionaryLookBack(Block dictionary)
+        public DictionaryLookBack(DictionaryBlock[] dictionaryBlocks)
         {
-            this.dictionary = dictionary;
-            this.processed = new int[dictionary.getPositionCount()];
+            this.dictionaries = new Block[dictionaryBlocks.length];
+            int combinations = 1;
+            for (int i = 0; i < dictionaryBlocks.length; i++) {
+                dictionaries[i] = dictionaryBlocks[i].getDictionary();
+                combinations = multiplyExact(combinations, dictionaries[i].getPositionCount());
+            }
+            this.processed = new int[combinations];
             Arrays.fill(processed, -1);
         }
 
-        public Block getDictionary()
+        public boolean hasDictionaries(DictionaryBlock[] dictionaryBlocks)
+        {
+            if (dictionaries.length != dictionaryBlocks.length) {
+                return false;
+            }
+            for (int i = 0; i < dictionaries.length; i++) {
+                if (dictionaries[i] != dictionaryBlocks[i].getDictionary()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public int getCombination(DictionaryBlock[] dictionaryBlocks, int position)
+        {
+            int combination = 0;
+            for (int i = dictionaryBlocks.length - 1; i >= 0; i--) {
+                combination = combination * dictionaries[i].getPositionCount() + dictionaryBlocks[i].getId(position);
+            }
+            return combination;
+        }
+
+        public long getRetainedSizeInBytes()
         {
-            return dictionary;
+            return sizeOf(processed);
         }
 
         public int getGroupId(int position)
@@ -600,8 +676,8 @@ public class MultiChannelGroupByHash
             implements Work<Void>
     {
         private final Page page;
-        private final Page dictionaryPage;
-        private final DictionaryBlock dictionaryBlock;
+        private final Optional<Page> dictionaryPage;
+        private final DictionaryBlock[] dictionaryBlocks;
 
         private int lastPosition;
 
@@ -609,9 +685,9 @@ public class MultiChannelGroupByHash
         {
             verify(canProcessDictionary(page), "invalid call to addDictionaryPage");
             this.page = requireNonNull(page, "page is null");
-            this.dictionaryBlock = (DictionaryBlock) page.getBlock(channels[0]);
-            updateDictionaryLookBack(dictionaryBlock.getDictionary());
-            this.dictionaryPage = createPageWithExtractedDictionary(page);
+            this.dictionaryBlocks = getDictionaryBlocks(page);
+            updateDictionaryLookBack(dictionaryBlocks);
+            this.dictionaryPage = channels.length == 1 ? Optional.of(createPageWithExtractedDictionary(page)) : Optional.empty();
         }
 
         @Override
@@ -629,8 +705,7 @@ public class MultiChannelGroupByHash
             // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
             // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
             while (lastPosition < positionCount && !needRehash()) {
-                int positionInDictionary = dictionaryBlock.getId(lastPosition);
-                getGroupId(hashGenerator, dictionaryPage, positionInDictionary);
+                getDictionaryGroupId(page, dictionaryPage, dictionaryBlocks, lastPosition);
                 lastPosition++;
             }
             return lastPosition == positionCount;
@@ -738,8 +813,8 @@ public class MultiChannelGroupByHash
     {
         private final BlockBuilder blockBuilder;
         private final Page page;
-        private final Page dictionaryPage;
-        private final DictionaryBlock dictionaryBlock;
+        private final Optional<Page> dictionaryPage;
+        private final DictionaryBlock[] dictionaryBlocks;
 
         private boolean finished;
         private int lastPosition;
@@ -749,9 +824,9 @@ public class MultiChannelGroupByHash
             this.page = requireNonNull(page, "page is null");
             verify(canProcessDictionary(page), "invalid call to processDictionary");
 
-            this.dictionaryBlock = (DictionaryBlock) page.getBlock(channels[0]);
-            updateDictionaryLookBack(dictionaryBlock.getDictionary());
-            this.dictionaryPage = createPageWithExtractedDictionary(page);
+            this.dictionaryBlocks = getDictionaryBlocks(page);
+            updateDictionaryLookBack(dictionaryBlocks);
+            this.dictionaryPage = channels.length == 1 ? Optional.of(createPageWithExtractedDictionary(page)) : Optional.empty();
 
             // we know the exact size required for the block
             this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(page.getPositionCount());
@@ -773,8 +848,7 @@ public class MultiChannelGroupByHash
             // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
             // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
             while (lastPosition < positionCount && !needRehash()) {
-                int positionInDictionary = dictionaryBlock.getId(lastPosition);
-                int groupId = getGroupId(hashGenerator, dictionaryPage, positionInDictionary);
+                int groupId = getDictionaryGroupId(page, dictionaryPage, dictionaryBlocks, lastPosition);
                 BIGINT.writeLong(blockBuilder, groupId);
                 lastPosition++;
             }
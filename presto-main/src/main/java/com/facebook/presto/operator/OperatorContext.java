@@ -70,6 +70,10 @@ public class OperatorContext
     private final CounterStat outputPositions = new CounterStat();
 
     private final AtomicLong physicalWrittenDataSize = new AtomicLong();
+    private final AtomicLong bytesSavedByCompression = new AtomicLong();
+    private final AtomicLong compressionNanos = new AtomicLong();
+    private final AtomicLong dynamicFilterPrunedPositions = new AtomicLong();
+    private final AtomicLong partialAggregationBypassedPositions = new AtomicLong();
 
     private final AtomicReference<SettableFuture<?>> memoryFuture;
     private final AtomicReference<SettableFuture<?>> revocableMemoryFuture;
@@ -183,6 +187,22 @@ public class OperatorContext
         physicalWrittenDataSize.getAndAdd(sizeInBytes);
     }
 
+    public void recordCompression(long bytesSaved, long nanos)
+    {
+        bytesSavedByCompression.getAndAdd(bytesSaved);
+        compressionNanos.getAndAdd(nanos);
+    }
+
+    public void recordDynamicFilterPrunedPositions(long positions)
+    {
+        dynamicFilterPrunedPositions.getAndAdd(positions);
+    }
+
+    public void recordPartialAggregationBypassedPositions(long positions)
+    {
+        partialAggregationBypassedPositions.getAndAdd(positions);
+    }
+
     public void recordBlocked(ListenableFuture<?> blocked)
     {
         requireNonNull(blocked, "blocked is null");
@@ -443,6 +463,12 @@ public class OperatorContext
 
                 succinctBytes(physicalWrittenDataSize.get()),
 
+                bytesSavedByCompression.get(),
+                compressionNanos.get(),
+
+                dynamicFilterPrunedPositions.get(),
+                partialAggregationBypassedPositions.get(),
+
                 new Duration(blockedWallNanos.get(), NANOSECONDS).convertToMostSuccinctTimeUnit(),
 
                 finishTiming.getCalls(),
@@ -58,6 +58,12 @@ public class OperatorStats
 
     private final DataSize physicalWrittenDataSize;
 
+    private final long bytesSavedByCompression;
+    private final long compressionNanos;
+
+    private final long dynamicFilterPrunedPositions;
+    private final long partialAggregationBypassedPositions;
+
     private final Duration blockedWall;
 
     private final long finishCalls;
@@ -100,6 +106,12 @@ public class OperatorStats
 
             @JsonProperty("physicalWrittenDataSize") DataSize physicalWrittenDataSize,
 
+            @JsonProperty("bytesSavedByCompression") long bytesSavedByCompression,
+            @JsonProperty("compressionNanos") long compressionNanos,
+
+            @JsonProperty("dynamicFilterPrunedPositions") long dynamicFilterPrunedPositions,
+            @JsonProperty("partialAggregationBypassedPositions") long partialAggregationBypassedPositions,
+
             @JsonProperty("blockedWall") Duration blockedWall,
 
             @JsonProperty("finishCalls") long finishCalls,
@@ -144,6 +156,16 @@ public class OperatorStats
 
         this.physicalWrittenDataSize = requireNonNull(physicalWrittenDataSize, "writtenDataSize is null");
 
+        checkArgument(bytesSavedByCompression >= 0, "bytesSavedByCompression is negative");
+        this.bytesSavedByCompression = bytesSavedByCompression;
+        checkArgument(compressionNanos >= 0, "compressionNanos is negative");
+        this.compressionNanos = compressionNanos;
+
+        checkArgument(dynamicFilterPrunedPositions >= 0, "dynamicFilterPrunedPositions is negative");
+        this.dynamicFilterPrunedPositions = dynamicFilterPrunedPositions;
+        checkArgument(partialAggregationBypassedPositions >= 0, "partialAggregationBypassedPositions is negative");
+        this.partialAggregationBypassedPositions = partialAggregationBypassedPositions;
+
         this.blockedWall = requireNonNull(blockedWall, "blockedWall is null");
 
         this.finishCalls = finishCalls;
@@ -271,6 +293,36 @@ public class OperatorStats
         return physicalWrittenDataSize;
     }
 
+    /**
+     * Bytes saved by compressing the pages this operator sent to an exchange.
+     */
+    @JsonProperty
+    public long getBytesSavedByCompression()
+    {
+        return bytesSavedByCompression;
+    }
+
+    /**
+     * Time spent compressing the pages this operator sent to an exchange.
+     */
+    @JsonProperty
+    public long getCompressionNanos()
+    {
+        return compressionNanos;
+    }
+
+    @JsonProperty
+    public long getDynamicFilterPrunedPositions()
+    {
+        return dynamicFilterPrunedPositions;
+    }
+
+    @JsonProperty
+    public long getPartialAggregationBypassedPositions()
+    {
+        return partialAggregationBypassedPositions;
+    }
+
     @JsonProperty
     public Duration getBlockedWall()
     {
@@ -368,6 +420,12 @@ public class OperatorStats
 
         long physicalWrittenDataSize = this.physicalWrittenDataSize.toBytes();
 
+        long bytesSavedByCompression = this.bytesSavedByCompression;
+        long compressionNanos = this.compressionNanos;
+
+        long dynamicFilterPrunedPositions = this.dynamicFilterPrunedPositions;
+        long partialAggregationBypassedPositions = this.partialAggregationBypassedPositions;
+
         long blockedWall = this.blockedWall.roundTo(NANOSECONDS);
 
         long finishCalls = this.finishCalls;
@@ -404,6 +462,12 @@ public class OperatorStats
 
             physicalWrittenDataSize += operator.getPhysicalWrittenDataSize().toBytes();
 
+            bytesSavedByCompression += operator.getBytesSavedByCompression();
+            compressionNanos += operator.getCompressionNanos();
+
+            dynamicFilterPrunedPositions += operator.getDynamicFilterPrunedPositions();
+            partialAggregationBypassedPositions += operator.getPartialAggregationBypassedPositions();
+
             finishCalls += operator.getFinishCalls();
             finishWall += operator.getFinishWall().roundTo(NANOSECONDS);
             finishCpu += operator.getFinishCpu().roundTo(NANOSECONDS);
@@ -452,6 +516,12 @@ public class OperatorStats
 
                 succinctBytes(physicalWrittenDataSize),
 
+                bytesSavedByCompression,
+                compressionNanos,
+
+                dynamicFilterPrunedPositions,
+                partialAggregationBypassedPositions,
+
                 new Duration(blockedWall, NANOSECONDS).convertToMostSuccinctTimeUnit(),
 
                 finishCalls,
@@ -507,6 +577,10 @@ public class OperatorStats
                 outputDataSize,
                 outputPositions,
                 physicalWrittenDataSize,
+                bytesSavedByCompression,
+                compressionNanos,
+                dynamicFilterPrunedPositions,
+                partialAggregationBypassedPositions,
                 blockedWall,
                 finishCalls,
                 finishWall,
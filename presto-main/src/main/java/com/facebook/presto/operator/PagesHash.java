@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.array.ArrayAllocator;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import io.airlift.units.DataSize;
@@ -37,6 +38,7 @@ public final class PagesHash
     private static final DataSize CACHE_SIZE = new DataSize(128, KILOBYTE);
     private final LongArrayList addresses;
     private final PagesHashStrategy pagesHashStrategy;
+    private final ArrayAllocator arrayAllocator;
 
     private final int channelCount;
     private final int mask;
@@ -53,20 +55,23 @@ public final class PagesHash
     public PagesHash(
             LongArrayList addresses,
             PagesHashStrategy pagesHashStrategy,
-            PositionLinks.FactoryBuilder positionLinks)
+            PositionLinks.FactoryBuilder positionLinks,
+            ArrayAllocator arrayAllocator)
     {
         this.addresses = requireNonNull(addresses, "addresses is null");
         this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
+        this.arrayAllocator = requireNonNull(arrayAllocator, "arrayAllocator is null");
         this.channelCount = pagesHashStrategy.getChannelCount();
 
         // reserve memory for the arrays
         int hashSize = HashCommon.arraySize(addresses.size(), 0.75f);
 
         mask = hashSize - 1;
-        key = new int[hashSize];
-        Arrays.fill(key, -1);
+        // borrowed arrays may be longer than requested, only the first hashSize slots are used
+        key = arrayAllocator.borrowIntArray(hashSize);
+        Arrays.fill(key, 0, hashSize, -1);
 
-        positionToHashes = new byte[addresses.size()];
+        positionToHashes = arrayAllocator.borrowByteArray(addresses.size());
 
         // We will process addresses in batches, to save memory on array of hashes.
         int positionsInStep = Math.min(addresses.size() + 1, (int) CACHE_SIZE.toBytes() / Integer.SIZE);
@@ -168,6 +173,16 @@ public final class PagesHash
         return -1;
     }
 
+    /**
+     * Returns the hash arrays to the allocator. Must not be called while
+     * the hash may still be probed.
+     */
+    public void close()
+    {
+        arrayAllocator.returnArray(key);
+        arrayAllocator.returnArray(positionToHashes);
+    }
+
     public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
     {
         long pageAddress = addresses.getLong(toIntExact(position));
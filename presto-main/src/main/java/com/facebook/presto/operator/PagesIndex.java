@@ -14,6 +14,9 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.array.ArrayAllocator;
+import com.facebook.presto.array.PooledArrayAllocator;
+import com.facebook.presto.array.UnpooledArrayAllocator;
 import com.facebook.presto.metadata.FunctionRegistry;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.metadata.MetadataManager;
@@ -79,6 +82,7 @@ public class PagesIndex
     private final JoinCompiler joinCompiler;
     private final FunctionRegistry functionRegistry;
     private final boolean groupByUsesEqualTo;
+    private final ArrayAllocator arrayAllocator;
 
     private final List<Type> types;
     private final LongArrayList valueAddresses;
@@ -97,12 +101,14 @@ public class PagesIndex
             boolean groupByUsesEqualTo,
             List<Type> types,
             int expectedPositions,
-            boolean eagerCompact)
+            boolean eagerCompact,
+            ArrayAllocator arrayAllocator)
     {
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         this.functionRegistry = requireNonNull(functionRegistry, "functionRegistry is null");
         this.groupByUsesEqualTo = groupByUsesEqualTo;
+        this.arrayAllocator = requireNonNull(arrayAllocator, "arrayAllocator is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.valueAddresses = new LongArrayList(expectedPositions);
         this.eagerCompact = eagerCompact;
@@ -128,16 +134,23 @@ public class PagesIndex
         private static final JoinCompiler JOIN_COMPILER = new JoinCompiler(MetadataManager.createTestMetadataManager(), new FeaturesConfig());
         private final boolean groupByUsesEqualTo = new FeaturesConfig().isGroupByUsesEqualTo();
         private final boolean eagerCompact;
+        private final ArrayAllocator arrayAllocator;
 
         public TestingFactory(boolean eagerCompact)
+        {
+            this(eagerCompact, UnpooledArrayAllocator.INSTANCE);
+        }
+
+        public TestingFactory(boolean eagerCompact, ArrayAllocator arrayAllocator)
         {
             this.eagerCompact = eagerCompact;
+            this.arrayAllocator = requireNonNull(arrayAllocator, "arrayAllocator is null");
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, MetadataManager.createTestMetadataManager().getFunctionRegistry(), groupByUsesEqualTo, types, expectedPositions, eagerCompact);
+            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, MetadataManager.createTestMetadataManager().getFunctionRegistry(), groupByUsesEqualTo, types, expectedPositions, eagerCompact, arrayAllocator);
         }
     }
 
@@ -149,6 +162,7 @@ public class PagesIndex
         private final boolean eagerCompact;
         private final FunctionRegistry functionRegistry;
         private final boolean groupByUsesEqualTo;
+        private final ArrayAllocator arrayAllocator;
 
         @Inject
         public DefaultFactory(OrderingCompiler orderingCompiler, JoinCompiler joinCompiler, FeaturesConfig featuresConfig, Metadata metadata)
@@ -158,12 +172,14 @@ public class PagesIndex
             this.eagerCompact = requireNonNull(featuresConfig, "featuresConfig is null").isPagesIndexEagerCompactionEnabled();
             this.functionRegistry = requireNonNull(metadata, "metadata is null").getFunctionRegistry();
             this.groupByUsesEqualTo = featuresConfig.isGroupByUsesEqualTo();
+            long arrayPoolSize = featuresConfig.getJoinHashArrayPoolSize().toBytes();
+            this.arrayAllocator = arrayPoolSize == 0 ? UnpooledArrayAllocator.INSTANCE : new PooledArrayAllocator(arrayPoolSize);
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(orderingCompiler, joinCompiler, functionRegistry, groupByUsesEqualTo, types, expectedPositions, eagerCompact);
+            return new PagesIndex(orderingCompiler, joinCompiler, functionRegistry, groupByUsesEqualTo, types, expectedPositions, eagerCompact, arrayAllocator);
         }
     }
 
@@ -491,7 +507,8 @@ public class PagesIndex
                         hashChannel,
                         filterFunctionFactory,
                         sortChannel,
-                        searchFunctionFactories);
+                        searchFunctionFactories,
+                        arrayAllocator);
             }
             catch (Exception e) {
                 log.error(e, "Lookup source compile failed for types=%s error=%s", types, e);
@@ -516,7 +533,8 @@ public class PagesIndex
                 channels,
                 filterFunctionFactory,
                 sortChannel,
-                searchFunctionFactories);
+                searchFunctionFactories,
+                arrayAllocator);
     }
 
     private List<Integer> rangeList(int endExclusive)
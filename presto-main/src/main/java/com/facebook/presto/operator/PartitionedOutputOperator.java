@@ -212,6 +212,7 @@ public class PartitionedOutputOperator
         this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
         this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
         this.partitionFunction = new PagePartitioner(
+                operatorContext,
                 partitionFunction,
                 partitionChannels,
                 partitionConstants,
@@ -296,6 +297,7 @@ public class PartitionedOutputOperator
 
     private static class PagePartitioner
     {
+        private final OperatorContext operatorContext;
         private final OutputBuffer outputBuffer;
         private final List<Type> sourceTypes;
         private final PartitionFunction partitionFunction;
@@ -310,6 +312,7 @@ public class PartitionedOutputOperator
         private boolean hasAnyRowBeenReplicated;
 
         public PagePartitioner(
+                OperatorContext operatorContext,
                 PartitionFunction partitionFunction,
                 List<Integer> partitionChannels,
                 List<Optional<NullableValue>> partitionConstants,
@@ -320,6 +323,7 @@ public class PartitionedOutputOperator
                 List<Type> sourceTypes,
                 DataSize maxMemory)
         {
+            this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
             this.partitionFunction = requireNonNull(partitionFunction, "partitionFunction is null");
             this.partitionChannels = requireNonNull(partitionChannels, "partitionChannels is null");
             this.partitionConstants = requireNonNull(partitionConstants, "partitionConstants is null").stream()
@@ -430,9 +434,12 @@ public class PartitionedOutputOperator
                     Page pagePartition = partitionPageBuilder.build();
                     partitionPageBuilder.reset();
 
+                    long bytesSavedByCompression = serde.getBytesSavedByCompression();
+                    long compressionNanos = serde.getCompressionNanos();
                     List<SerializedPage> serializedPages = splitPage(pagePartition, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
                             .map(serde::serialize)
                             .collect(toImmutableList());
+                    operatorContext.recordCompression(serde.getBytesSavedByCompression() - bytesSavedByCompression, serde.getCompressionNanos() - compressionNanos);
 
                     outputBuffer.enqueue(partition, serializedPages);
                     pagesAdded.incrementAndGet();
@@ -71,5 +71,11 @@ public interface PositionLinks
          * @return a checksum for this {@link PositionLinks}, useful when entity is restored from spilled data
          */
         long checksum();
+
+        /**
+         * Releases arrays borrowed while building the links. Must not be called
+         * while position links created by this factory may still be used.
+         */
+        default void close() {}
     }
 }
@@ -23,8 +23,12 @@ import com.facebook.presto.memory.QueryContext;
 import com.facebook.presto.memory.QueryContextVisitor;
 import com.facebook.presto.memory.context.LocalMemoryContext;
 import com.facebook.presto.memory.context.MemoryTrackingContext;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.AtomicDouble;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -38,8 +42,10 @@ import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.List;
+import java.util.Map;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
@@ -84,6 +90,11 @@ public class TaskContext
 
     private final Set<Lifespan> completedDriverGroups = newConcurrentHashSet();
 
+    // filters for the table scans of this task, collected by the coordinator from joins in other stages
+    private final Map<PlanNodeId, TupleDomain<ColumnHandle>> dynamicFilters = new ConcurrentHashMap<>();
+    // build side summaries of the joins of this task, for the coordinator to filter the probe side in other stages
+    private final Map<PlanNodeId, TupleDomain<Integer>> dynamicFilterSummaries = new ConcurrentHashMap<>();
+
     private final List<PipelineContext> pipelineContexts = new CopyOnWriteArrayList<>();
 
     private final boolean perOperatorCpuTimerEnabled;
@@ -259,6 +270,40 @@ public class TaskContext
         completedDriverGroups.add(driverGroup);
     }
 
+    /**
+     * Returns the table scans the coordinator sends dynamic filters for. The set is
+     * known when the task is created, while the filters themselves may arrive later.
+     */
+    public Set<PlanNodeId> getDynamicFilterTableScans()
+    {
+        return ImmutableSet.copyOf(dynamicFilters.keySet());
+    }
+
+    public TupleDomain<ColumnHandle> getDynamicFilter(PlanNodeId tableScanNodeId)
+    {
+        return dynamicFilters.getOrDefault(tableScanNodeId, TupleDomain.all());
+    }
+
+    public void addDynamicFilters(Map<PlanNodeId, TupleDomain<ColumnHandle>> dynamicFilters)
+    {
+        this.dynamicFilters.putAll(requireNonNull(dynamicFilters, "dynamicFilters is null"));
+    }
+
+    /**
+     * Returns the build side summaries of the joins of this task whose probe side is read in other stages,
+     * keyed by the join node and then by the join key index.
+     */
+    public Map<PlanNodeId, TupleDomain<Integer>> getDynamicFilterSummaries()
+    {
+        return ImmutableMap.copyOf(dynamicFilterSummaries);
+    }
+
+    public void addDynamicFilterSummary(PlanNodeId joinNodeId, TupleDomain<Integer> summary)
+    {
+        requireNonNull(summary, "summary is null");
+        checkArgument(dynamicFilterSummaries.putIfAbsent(joinNodeId, summary) == null, "Summary of join %s is already set", joinNodeId);
+    }
+
     public List<PipelineContext> getPipelineContexts()
     {
         return pipelineContexts;
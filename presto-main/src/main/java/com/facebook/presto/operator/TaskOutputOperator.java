@@ -142,9 +142,12 @@ public class TaskOutputOperator
 
         page = pagePreprocessor.apply(page);
 
+        long bytesSavedByCompression = serde.getBytesSavedByCompression();
+        long compressionNanos = serde.getCompressionNanos();
         List<SerializedPage> serializedPages = splitPage(page, DEFAULT_MAX_PAGE_SIZE_IN_BYTES).stream()
                 .map(serde::serialize)
                 .collect(toImmutableList());
+        operatorContext.recordCompression(serde.getBytesSavedByCompression() - bytesSavedByCompression, serde.getCompressionNanos() - compressionNanos);
 
         outputBuffer.enqueue(serializedPages);
         operatorContext.recordGeneratedOutput(page.getSizeInBytes(), page.getPositionCount());
@@ -33,6 +33,22 @@ public interface Accumulator
 
     void addInput(WindowIndex index, List<Integer> channels, int startPosition, int endPosition);
 
+    /**
+     * Returns true if {@link #removeInput(WindowIndex, List, int, int)} is supported.
+     */
+    default boolean hasRemoveInput()
+    {
+        return false;
+    }
+
+    /**
+     * Removes rows previously added with {@link #addInput(WindowIndex, List, int, int)}.
+     */
+    default void removeInput(WindowIndex index, List<Integer> channels, int startPosition, int endPosition)
+    {
+        throw new UnsupportedOperationException("Aggregation does not support removing input");
+    }
+
     void addIntermediate(Block block);
 
     void evaluateIntermediate(BlockBuilder blockBuilder);
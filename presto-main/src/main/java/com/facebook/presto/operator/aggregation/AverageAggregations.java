@@ -14,12 +14,14 @@
 package com.facebook.presto.operator.aggregation;
 
 import com.facebook.presto.operator.aggregation.state.LongAndDoubleState;
+import com.facebook.presto.operator.aggregation.state.LongSumAndCountState;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.function.AggregationFunction;
 import com.facebook.presto.spi.function.AggregationState;
 import com.facebook.presto.spi.function.CombineFunction;
 import com.facebook.presto.spi.function.InputFunction;
 import com.facebook.presto.spi.function.OutputFunction;
+import com.facebook.presto.spi.function.RemoveInputFunction;
 import com.facebook.presto.spi.function.SqlType;
 import com.facebook.presto.spi.type.StandardTypes;
 
@@ -31,10 +33,40 @@ public final class AverageAggregations
     private AverageAggregations() {}
 
     @InputFunction
-    public static void input(@AggregationState LongAndDoubleState state, @SqlType(StandardTypes.BIGINT) long value)
+    public static void input(@AggregationState LongSumAndCountState state, @SqlType(StandardTypes.BIGINT) long value)
     {
-        state.setLong(state.getLong() + 1);
-        state.setDouble(state.getDouble() + value);
+        state.setCount(state.getCount() + 1);
+        addToSum(state, value);
+    }
+
+    // the sum of bigint values is exact, so removing a value restores the previous state; there
+    // is no such guarantee for double input, which keeps re-aggregating frames
+    @RemoveInputFunction
+    public static void removeInput(@AggregationState LongSumAndCountState state, @SqlType(StandardTypes.BIGINT) long value)
+    {
+        state.setCount(state.getCount() - 1);
+        subtractFromSum(state, value);
+    }
+
+    @CombineFunction
+    public static void combine(@AggregationState LongSumAndCountState state, @AggregationState LongSumAndCountState otherState)
+    {
+        state.setCount(state.getCount() + otherState.getCount());
+        state.setOverflow(state.getOverflow() + otherState.getOverflow());
+        addToSum(state, otherState.getSum());
+    }
+
+    @OutputFunction(StandardTypes.DOUBLE)
+    public static void output(@AggregationState LongSumAndCountState state, BlockBuilder out)
+    {
+        long count = state.getCount();
+        if (count == 0) {
+            out.appendNull();
+        }
+        else {
+            double sum = state.getOverflow() * 0x1p64 + state.getSum();
+            DOUBLE.writeDouble(out, sum / count);
+        }
     }
 
     @InputFunction
@@ -63,4 +95,26 @@ public final class AverageAggregations
             DOUBLE.writeDouble(out, value / count);
         }
     }
+
+    private static void addToSum(LongSumAndCountState state, long value)
+    {
+        long sum = state.getSum();
+        long result = sum + value;
+        // the sum wrapped around if both operands have a different sign than the result
+        if (((sum ^ result) & (value ^ result)) < 0) {
+            state.setOverflow(state.getOverflow() + (value > 0 ? 1 : -1));
+        }
+        state.setSum(result);
+    }
+
+    private static void subtractFromSum(LongSumAndCountState state, long value)
+    {
+        long sum = state.getSum();
+        long result = sum - value;
+        // the difference wrapped around if the operands differ in sign and the result differs in sign from the minuend
+        if (((sum ^ value) & (sum ^ result)) < 0) {
+            state.setOverflow(state.getOverflow() + (value < 0 ? 1 : -1));
+        }
+        state.setSum(result);
+    }
 }
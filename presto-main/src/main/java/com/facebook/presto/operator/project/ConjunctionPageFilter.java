@@ -0,0 +1,293 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import static com.facebook.presto.spi.StandardErrorCode.DIVISION_BY_ZERO;
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_CAST_ARGUMENT;
+import static com.facebook.presto.spi.StandardErrorCode.INVALID_FUNCTION_ARGUMENT;
+import static com.facebook.presto.spi.StandardErrorCode.NUMERIC_VALUE_OUT_OF_RANGE;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates a conjunction one conjunct at a time. Each conjunct only sees the
+ * positions accepted by the conjuncts evaluated before it, so the columns it
+ * references are not loaded when no position survives. The conjuncts are
+ * periodically reordered by their observed cost per rejected position, which is
+ * measured on a sample of the pages.
+ */
+public class ConjunctionPageFilter
+        implements PageFilter
+{
+    @VisibleForTesting
+    static final int REORDER_INTERVAL_PAGES = 16;
+    @VisibleForTesting
+    static final int SAMPLE_INTERVAL_PAGES = 4;
+
+    private final List<Conjunct> declaredOrder;
+    private final InputChannels inputChannels;
+
+    private List<Conjunct> evaluationOrder;
+    private int pagesSinceReorder;
+    private int pagesSinceSample;
+    private boolean reorderingDisabled;
+
+    public ConjunctionPageFilter(List<PageFilter> conjuncts)
+    {
+        requireNonNull(conjuncts, "conjuncts is null");
+        checkArgument(conjuncts.size() > 1, "conjunction must have at least two conjuncts");
+        checkArgument(conjuncts.stream().allMatch(PageFilter::isDeterministic), "conjuncts must be deterministic");
+
+        TreeSet<Integer> channels = new TreeSet<>();
+        conjuncts.forEach(conjunct -> channels.addAll(conjunct.getInputChannels().getInputChannels()));
+        List<Integer> unionChannels = ImmutableList.copyOf(channels);
+        this.inputChannels = new InputChannels(unionChannels);
+
+        this.declaredOrder = conjuncts.stream()
+                .map(conjunct -> new Conjunct(conjunct, unionChannels))
+                .collect(toImmutableList());
+        this.evaluationOrder = declaredOrder;
+    }
+
+    @Override
+    public boolean isDeterministic()
+    {
+        return true;
+    }
+
+    @Override
+    public InputChannels getInputChannels()
+    {
+        return inputChannels;
+    }
+
+    @Override
+    public SelectedPositions filter(ConnectorSession session, Page page)
+    {
+        boolean sampled = false;
+        if (!reorderingDisabled) {
+            if (++pagesSinceReorder >= REORDER_INTERVAL_PAGES) {
+                reorder();
+            }
+            if (++pagesSinceSample >= SAMPLE_INTERVAL_PAGES) {
+                pagesSinceSample = 0;
+                sampled = true;
+            }
+        }
+
+        if (evaluationOrder != declaredOrder) {
+            try {
+                return filter(session, page, evaluationOrder, sampled);
+            }
+            catch (PrestoException e) {
+                // A reordered conjunct can fail on a position that an earlier conjunct in the
+                // declared order would have rejected. Fall back to the declared order, which
+                // only fails if the original expression fails, and stop reordering. Other
+                // failures, such as errors loading lazy blocks, do not depend on the order.
+                if (!isEvaluationError(e)) {
+                    throw e;
+                }
+                reorderingDisabled = true;
+                evaluationOrder = declaredOrder;
+                sampled = false;
+            }
+        }
+        return filter(session, page, declaredOrder, sampled);
+    }
+
+    private static SelectedPositions filter(ConnectorSession session, Page page, List<Conjunct> conjuncts, boolean sampled)
+    {
+        // null means all positions of the page are selected
+        int[] positions = null;
+        int selectedCount = page.getPositionCount();
+
+        for (Conjunct conjunct : conjuncts) {
+            if (selectedCount == 0) {
+                break;
+            }
+
+            SelectedPositions selected;
+            if (sampled) {
+                long start = System.nanoTime();
+                selected = conjunct.filter(session, page, positions, selectedCount);
+                conjunct.recordEvaluation(selectedCount, selected.size(), System.nanoTime() - start);
+            }
+            else {
+                selected = conjunct.filter(session, page, positions, selectedCount);
+            }
+
+            if (selected.size() == selectedCount) {
+                continue;
+            }
+
+            // selected indexes are increasing, so the positions can be remapped in place
+            int[] remapped = positions == null ? new int[selected.size()] : positions;
+            for (int i = 0; i < selected.size(); i++) {
+                int index = selected.isList() ? selected.getPositions()[selected.getOffset() + i] : selected.getOffset() + i;
+                remapped[i] = positions == null ? index : positions[index];
+            }
+            positions = remapped;
+            selectedCount = selected.size();
+        }
+
+        if (positions == null || selectedCount == 0) {
+            return SelectedPositions.positionsRange(0, selectedCount);
+        }
+        return SelectedPositions.positionsList(positions, 0, selectedCount);
+    }
+
+    // the errors an expression raises for the values it is evaluated on, as handled by TRY
+    private static boolean isEvaluationError(PrestoException e)
+    {
+        int errorCode = e.getErrorCode().getCode();
+        return errorCode == DIVISION_BY_ZERO.toErrorCode().getCode()
+                || errorCode == INVALID_CAST_ARGUMENT.toErrorCode().getCode()
+                || errorCode == INVALID_FUNCTION_ARGUMENT.toErrorCode().getCode()
+                || errorCode == NUMERIC_VALUE_OUT_OF_RANGE.toErrorCode().getCode();
+    }
+
+    private void reorder()
+    {
+        pagesSinceReorder = 0;
+
+        List<Conjunct> ranked = declaredOrder.stream()
+                .sorted(Comparator.comparingDouble(Conjunct::getRank))
+                .collect(toImmutableList());
+        evaluationOrder = ranked.equals(declaredOrder) ? declaredOrder : ranked;
+
+        // decay the statistics so that the order follows changes in the data
+        declaredOrder.forEach(Conjunct::decay);
+    }
+
+    @VisibleForTesting
+    List<PageFilter> getEvaluationOrder()
+    {
+        return evaluationOrder.stream()
+                .map(Conjunct::getFilter)
+                .collect(toImmutableList());
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("conjuncts", getEvaluationOrder())
+                .add("reorderingDisabled", reorderingDisabled)
+                .toString();
+    }
+
+    private static final class Conjunct
+    {
+        private final PageFilter filter;
+        private final Optional<PageFilter> dictionaryAwareFilter;
+        // indexes of the conjunct inputs in the page of the conjunction inputs
+        private final int[] channelIndexes;
+
+        private long inputPositions;
+        private long outputPositions;
+        private long nanos;
+
+        private Conjunct(PageFilter filter, List<Integer> unionChannels)
+        {
+            this.filter = requireNonNull(filter, "filter is null");
+            this.dictionaryAwareFilter = filter.getInputChannels().size() == 1 ? Optional.of(new DictionaryAwarePageFilter(filter)) : Optional.empty();
+            this.channelIndexes = filter.getInputChannels().getInputChannels().stream()
+                    .mapToInt(unionChannels::indexOf)
+                    .toArray();
+        }
+
+        public PageFilter getFilter()
+        {
+            return filter;
+        }
+
+        public SelectedPositions filter(ConnectorSession session, Page page, int[] positions, int selectedCount)
+        {
+            Block[] blocks = new Block[channelIndexes.length];
+            boolean dictionaryInput = true;
+            for (int i = 0; i < channelIndexes.length; i++) {
+                Block block = page.getBlock(channelIndexes[i]);
+                if (positions != null) {
+                    block = block.getLoadedBlock();
+                    dictionaryInput = block instanceof DictionaryBlock || block instanceof RunLengthEncodedBlock;
+                    block = block.getPositions(positions, 0, selectedCount);
+                }
+                blocks[i] = block;
+            }
+            Page input = new Page(selectedCount, blocks);
+
+            // Restricting a flat block produces a dictionary over the whole block, which
+            // the dictionary aware filter would evaluate in full, so bypass it in that case
+            if (dictionaryAwareFilter.isPresent() && dictionaryInput) {
+                return dictionaryAwareFilter.get().filter(session, input);
+            }
+            return filter.filter(session, input);
+        }
+
+        public void recordEvaluation(int inputPositions, int outputPositions, long nanos)
+        {
+            this.inputPositions += inputPositions;
+            this.outputPositions += outputPositions;
+            this.nanos += nanos;
+        }
+
+        /**
+         * Expected time spent per rejected position. Conjuncts that have not been
+         * evaluated yet keep their declared place relative to each other.
+         */
+        public double getRank()
+        {
+            if (inputPositions == 0) {
+                return Double.MAX_VALUE;
+            }
+            // the timer may not resolve very cheap evaluations, so never treat a conjunct as free
+            double costPerPosition = (double) Math.max(nanos, 1) / inputPositions;
+            double rejectedFraction = 1.0 - (double) outputPositions / inputPositions;
+            return costPerPosition / Math.max(rejectedFraction, 0.0001);
+        }
+
+        public void decay()
+        {
+            inputPositions /= 2;
+            outputPositions /= 2;
+            nanos /= 2;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("filter", filter)
+                    .add("channels", Arrays.toString(channelIndexes))
+                    .toString();
+        }
+    }
+}
@@ -75,6 +75,16 @@ public class PageProcessor
     }
 
     public PageProcessorOutput process(ConnectorSession session, DriverYieldSignal yieldSignal, Page page)
+    {
+        return process(session, yieldSignal, page, false);
+    }
+
+    /**
+     * When {@code selectiveLoading} is set, the unloaded lazy blocks of the page are told which positions
+     * were selected by the filter, so they can skip decoding the other values. The page must not be read
+     * by anyone else.
+     */
+    public PageProcessorOutput process(ConnectorSession session, DriverYieldSignal yieldSignal, Page page, boolean selectiveLoading)
     {
         // limit the scope of the dictionary ids to just one page
         dictionarySourceIdFunction.reset();
@@ -94,6 +104,9 @@ public class PageProcessor
             }
 
             if (selectedPositions.size() != page.getPositionCount()) {
+                if (selectiveLoading) {
+                    setSelectedPositions(page, selectedPositions);
+                }
                 PositionsPageProcessorIterator pages = new PositionsPageProcessorIterator(session, yieldSignal, page, selectedPositions);
                 return new PageProcessorOutput(pages::getRetainedSizeInBytes, pages);
             }
@@ -109,6 +122,30 @@ public class PageProcessor
         return projections;
     }
 
+    private static void setSelectedPositions(Page page, SelectedPositions selectedPositions)
+    {
+        int[] positions;
+        int offset;
+        if (selectedPositions.isList()) {
+            positions = selectedPositions.getPositions();
+            offset = selectedPositions.getOffset();
+        }
+        else {
+            positions = new int[selectedPositions.size()];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = selectedPositions.getOffset() + i;
+            }
+            offset = 0;
+        }
+
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            Block block = page.getBlock(channel);
+            if (isUnloadedLazyBlock(block)) {
+                ((LazyBlock) block).setSelectedPositions(positions, offset, selectedPositions.size());
+            }
+        }
+    }
+
     private static boolean isUnloadedLazyBlock(Block block)
     {
         return (block instanceof LazyBlock) && !((LazyBlock) block).isLoaded();
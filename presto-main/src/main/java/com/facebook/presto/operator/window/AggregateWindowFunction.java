@@ -20,6 +20,9 @@ import com.facebook.presto.operator.aggregation.InternalAggregationFunction;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.function.WindowFunction;
 import com.facebook.presto.spi.function.WindowIndex;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.RowType;
+import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 
 import java.util.List;
@@ -32,9 +35,11 @@ public class AggregateWindowFunction
 {
     private final List<Integer> argumentChannels;
     private final AccumulatorFactory accumulatorFactory;
+    private final boolean segmentTreeEligible;
 
     private WindowIndex windowIndex;
     private Accumulator accumulator;
+    private AggregationSegmentTree segmentTree;
     private int currentStart;
     private int currentEnd;
 
@@ -42,12 +47,16 @@ public class AggregateWindowFunction
     {
         this.argumentChannels = ImmutableList.copyOf(argumentChannels);
         this.accumulatorFactory = function.bind(createArgs(function), Optional.empty());
+        // the segment tree is not accounted in the operator memory, so it is limited to
+        // states of a fixed size, which keeps it small compared to the window partition
+        this.segmentTreeEligible = function.isDecomposable() && !function.isOrderSensitive() && isFixedSize(function.getIntermediateType());
     }
 
     @Override
     public void reset(WindowIndex windowIndex)
     {
         this.windowIndex = windowIndex;
+        this.segmentTree = null;
         resetAccumulator();
     }
 
@@ -63,6 +72,22 @@ public class AggregateWindowFunction
             accumulate(currentEnd + 1, frameEnd);
             currentEnd = frameEnd;
         }
+        else if (accumulator.hasRemoveInput() && (currentStart >= 0) && (frameStart > currentStart) && (frameStart <= currentEnd + 1) && (frameEnd >= currentEnd)) {
+            // sliding frame: remove the rows that left the frame and add the rows that entered it
+            accumulator.removeInput(windowIndex, argumentChannels, currentStart, frameStart - 1);
+            accumulate(currentEnd + 1, frameEnd);
+            currentStart = frameStart;
+            currentEnd = frameEnd;
+        }
+        else if (segmentTreeEligible && (frameEnd - frameStart >= 2 * AggregationSegmentTree.LEAF_SIZE)) {
+            // different frame of an aggregation that can not remove input
+            if (segmentTree == null) {
+                segmentTree = new AggregationSegmentTree(accumulatorFactory, windowIndex, argumentChannels);
+            }
+            accumulator = segmentTree.aggregate(frameStart, frameEnd);
+            currentStart = frameStart;
+            currentEnd = frameEnd;
+        }
         else {
             // different frame
             resetAccumulator();
@@ -101,6 +126,17 @@ public class AggregateWindowFunction
         };
     }
 
+    private static boolean isFixedSize(Type type)
+    {
+        if (type instanceof FixedWidthType) {
+            return true;
+        }
+        if (type instanceof RowType) {
+            return type.getTypeParameters().stream().allMatch(AggregateWindowFunction::isFixedSize);
+        }
+        return false;
+    }
+
     private static List<Integer> createArgs(InternalAggregationFunction function)
     {
         ImmutableList.Builder<Integer> list = ImmutableList.builder();
@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.window;
+
+import com.facebook.presto.operator.aggregation.Accumulator;
+import com.facebook.presto.operator.aggregation.AccumulatorFactory;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.function.WindowIndex;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Intermediate aggregation states over a window partition, used to evaluate moving
+ * frames of aggregations that can not remove input. The first level holds the state
+ * of every {@link #LEAF_SIZE} rows and each following level combines pairs of states
+ * of the level below, so any frame is covered by O(log n) states plus less than
+ * 2 * LEAF_SIZE rows at the frame boundaries.
+ * <p>
+ * The states are not accounted in the operator memory, so the tree must only be used
+ * for aggregations with a fixed size intermediate state.
+ */
+class AggregationSegmentTree
+{
+    static final int LEAF_SIZE = 16;
+
+    private final AccumulatorFactory accumulatorFactory;
+    private final WindowIndex windowIndex;
+    private final List<Integer> argumentChannels;
+    private final List<Block> levels;
+
+    public AggregationSegmentTree(AccumulatorFactory accumulatorFactory, WindowIndex windowIndex, List<Integer> argumentChannels)
+    {
+        this.accumulatorFactory = requireNonNull(accumulatorFactory, "accumulatorFactory is null");
+        this.windowIndex = requireNonNull(windowIndex, "windowIndex is null");
+        this.argumentChannels = ImmutableList.copyOf(requireNonNull(argumentChannels, "argumentChannels is null"));
+
+        Type intermediateType = accumulatorFactory.createAccumulator().getIntermediateType();
+        int rows = windowIndex.size();
+        int leafCount = (rows + LEAF_SIZE - 1) / LEAF_SIZE;
+
+        ImmutableList.Builder<Block> levels = ImmutableList.builder();
+        BlockBuilder leaves = intermediateType.createBlockBuilder(null, leafCount);
+        for (int start = 0; start < rows; start += LEAF_SIZE) {
+            Accumulator accumulator = accumulatorFactory.createAccumulator();
+            accumulator.addInput(windowIndex, this.argumentChannels, start, min(start + LEAF_SIZE, rows) - 1);
+            accumulator.evaluateIntermediate(leaves);
+        }
+        Block level = leaves.build();
+        levels.add(level);
+
+        while (level.getPositionCount() > 1) {
+            int nodes = level.getPositionCount();
+            BlockBuilder parents = intermediateType.createBlockBuilder(null, (nodes + 1) / 2);
+            for (int node = 0; node < nodes; node += 2) {
+                Accumulator accumulator = accumulatorFactory.createAccumulator();
+                accumulator.addIntermediate(level.getRegion(node, min(2, nodes - node)));
+                accumulator.evaluateIntermediate(parents);
+            }
+            level = parents.build();
+            levels.add(level);
+        }
+        this.levels = levels.build();
+    }
+
+    /**
+     * Returns a new accumulator holding the rows from start to end, both inclusive.
+     */
+    public Accumulator aggregate(int start, int end)
+    {
+        checkArgument(start >= 0 && start <= end && end < windowIndex.size(), "invalid frame [%s, %s]", start, end);
+
+        Accumulator accumulator = accumulatorFactory.createAccumulator();
+
+        // leaves completely inside of the frame
+        int low = (start + LEAF_SIZE - 1) / LEAF_SIZE;
+        int high = (end + 1) / LEAF_SIZE - 1;
+        if (low > high) {
+            accumulator.addInput(windowIndex, argumentChannels, start, end);
+            return accumulator;
+        }
+
+        // states are added in row order, so the result does not depend on whether the combine function is commutative
+        if (start < low * LEAF_SIZE) {
+            accumulator.addInput(windowIndex, argumentChannels, start, low * LEAF_SIZE - 1);
+        }
+        List<Block> trailingStates = new ArrayList<>();
+        for (int level = 0; low <= high; level++) {
+            Block states = levels.get(level);
+            if ((low & 1) == 1) {
+                accumulator.addIntermediate(states.getRegion(low, 1));
+                low++;
+            }
+            if (low <= high && (high & 1) == 0) {
+                trailingStates.add(states.getRegion(high, 1));
+                high--;
+            }
+            // low is even and high is odd now, so the parents cover exactly the remaining nodes
+            low >>= 1;
+            high >>= 1;
+            if (low > high) {
+                break;
+            }
+        }
+        for (int i = trailingStates.size() - 1; i >= 0; i--) {
+            accumulator.addIntermediate(trailingStates.get(i));
+        }
+        int trailingStart = ((end + 1) / LEAF_SIZE) * LEAF_SIZE;
+        if (trailingStart <= end) {
+            accumulator.addInput(windowIndex, argumentChannels, trailingStart, end);
+        }
+        return accumulator;
+    }
+}
@@ -23,6 +23,9 @@ import com.facebook.presto.client.StatementStats;
 import com.facebook.presto.execution.QueryExecution;
 import com.facebook.presto.execution.QueryInfo;
 import com.facebook.presto.execution.QueryManager;
+import com.facebook.presto.execution.QueryResultCache;
+import com.facebook.presto.execution.QueryResultCache.ResultReader;
+import com.facebook.presto.execution.QueryResultCache.ResultWriter;
 import com.facebook.presto.execution.QueryState;
 import com.facebook.presto.execution.QueryStats;
 import com.facebook.presto.execution.StageInfo;
@@ -75,6 +78,7 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
 import static com.facebook.presto.execution.QueryState.FAILED;
+import static com.facebook.presto.execution.QueryState.FINISHED;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static com.facebook.presto.util.Failures.toFailure;
 import static com.google.common.base.MoreObjects.firstNonNull;
@@ -110,6 +114,7 @@ class Query
     private final QuerySubmissionFuture submissionFuture;
     private final SessionPropertyManager sessionPropertyManager;
     private final BlockEncodingSerde blockEncodingSerde;
+    private final QueryResultCache resultCache;
 
     @GuardedBy("this")
     private Session session;
@@ -156,6 +161,14 @@ class Query
     @GuardedBy("this")
     private Long updateCount;
 
+    // set when the result of the query is read from the result cache instead of the exchange
+    @GuardedBy("this")
+    private Optional<ResultReader> cachedResultReader = Optional.empty();
+
+    // set when the result of the query is written to the result cache
+    @GuardedBy("this")
+    private Optional<ResultWriter> cachedResultWriter = Optional.empty();
+
     public static Query create(
             SessionContext sessionContext,
             String query,
@@ -164,9 +177,10 @@ class Query
             ExchangeClient exchangeClient,
             Executor dataProcessorExecutor,
             ScheduledExecutorService timeoutExecutor,
-            BlockEncodingSerde blockEncodingSerde)
+            BlockEncodingSerde blockEncodingSerde,
+            QueryResultCache resultCache)
     {
-        Query result = new Query(sessionContext, query, queryManager, sessionPropertyManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde);
+        Query result = new Query(sessionContext, query, queryManager, sessionPropertyManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde, resultCache);
 
         // register listeners after submission finishes
         addSuccessCallback(result.submissionFuture, () -> {
@@ -191,7 +205,8 @@ class Query
             ExchangeClient exchangeClient,
             Executor resultsProcessorExecutor,
             ScheduledExecutorService timeoutExecutor,
-            BlockEncodingSerde blockEncodingSerde)
+            BlockEncodingSerde blockEncodingSerde,
+            QueryResultCache resultCache)
     {
         requireNonNull(sessionContext, "sessionContext is null");
         requireNonNull(query, "query is null");
@@ -201,6 +216,7 @@ class Query
         requireNonNull(resultsProcessorExecutor, "resultsProcessorExecutor is null");
         requireNonNull(timeoutExecutor, "timeoutExecutor is null");
         requireNonNull(blockEncodingSerde, "serde is null");
+        requireNonNull(resultCache, "resultCache is null");
 
         this.queryManager = queryManager;
         this.sessionPropertyManager = sessionPropertyManager;
@@ -211,6 +227,7 @@ class Query
         this.resultsProcessorExecutor = resultsProcessorExecutor;
         this.timeoutExecutor = timeoutExecutor;
         this.blockEncodingSerde = blockEncodingSerde;
+        this.resultCache = resultCache;
     }
 
     public boolean isSubmissionFinished()
@@ -233,6 +250,8 @@ class Query
     public synchronized void dispose()
     {
         exchangeClient.close();
+        cachedResultReader.ifPresent(ResultReader::close);
+        cachedResultWriter.ifPresent(ResultWriter::abort);
     }
 
     public QueryId getQueryId()
@@ -316,6 +335,11 @@ class Query
             return submissionFuture;
         }
 
+        // a cached result can be read right away
+        if (cachedResultReader.isPresent() && !cachedResultReader.get().isFinished()) {
+            return immediateFuture(null);
+        }
+
         // if the exchange client is open, wait for data
         if (!exchangeClient.isClosed()) {
             return exchangeClient.isBlocked();
@@ -410,7 +434,7 @@ class Query
             long bytes = 0;
             long rows = 0;
             while (bytes < DESIRED_RESULT_BYTES) {
-                SerializedPage serializedPage = exchangeClient.pollPage();
+                SerializedPage serializedPage = pollPage();
                 if (serializedPage == null) {
                     break;
                 }
@@ -434,6 +458,11 @@ class Query
         QueryInfo queryInfo = queryManager.getFullQueryInfo(queryId);
         queryManager.recordHeartbeat(queryId);
 
+        // a query served from the result cache may finish before the output info listener is called
+        if (queryInfo.getState().isDone()) {
+            claimCachedResultIfNecessary();
+        }
+
         // TODO: figure out a better way to do this
         // grab the update count for non-queries
         if ((data != null) && (queryInfo.getUpdateType() != null) && (updateCount == null) &&
@@ -448,16 +477,17 @@ class Query
         }
 
         closeExchangeClientIfNecessary(queryInfo);
+        finishResultCacheWriterIfNecessary(queryInfo);
 
         // for queries with no output, return a fake result for clients that require it
-        if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent()) {
+        if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent() && !cachedResultReader.isPresent()) {
             columns = ImmutableList.of(new Column("result", BooleanType.BOOLEAN));
             data = ImmutableSet.of(ImmutableList.of(true));
         }
 
         // only return a next if the query is not done or there is more data to send (due to buffering)
         URI nextResultsUri = null;
-        if (!queryInfo.isFinalQueryInfo() || !exchangeClient.isClosed()) {
+        if (!queryInfo.isFinalQueryInfo() || !exchangeClient.isClosed() || (cachedResultReader.isPresent() && !cachedResultReader.get().isFinished())) {
             nextResultsUri = createNextResultsUri(scheme, uriInfo);
         }
 
@@ -507,6 +537,36 @@ class Query
         lastResult = queryResults;
     }
 
+    private synchronized SerializedPage pollPage()
+    {
+        if (cachedResultReader.isPresent()) {
+            return cachedResultReader.get().pollPage();
+        }
+
+        SerializedPage serializedPage = exchangeClient.pollPage();
+        if (serializedPage != null) {
+            cachedResultWriter.ifPresent(writer -> writer.append(serializedPage));
+        }
+        return serializedPage;
+    }
+
+    private synchronized void finishResultCacheWriterIfNecessary(QueryInfo queryInfo)
+    {
+        if (!cachedResultWriter.isPresent()) {
+            return;
+        }
+
+        // the result is complete once the query is finished and all pages have been removed from the exchange
+        if (queryInfo.getState() == FINISHED && exchangeClient.isClosed()) {
+            cachedResultWriter.get().commit();
+            cachedResultWriter = Optional.empty();
+        }
+        else if (queryInfo.getState().isDone() && queryInfo.getState() != FINISHED) {
+            cachedResultWriter.get().abort();
+            cachedResultWriter = Optional.empty();
+        }
+    }
+
     private synchronized void closeExchangeClientIfNecessary(QueryInfo queryInfo)
     {
         // Close the exchange client if the query has failed, or if the query
@@ -518,20 +578,39 @@ class Query
         }
     }
 
+    private synchronized void claimCachedResultIfNecessary()
+    {
+        // the query execution registers with the result cache before it records the output columns
+        if (columns != null) {
+            return;
+        }
+
+        cachedResultReader = resultCache.claimReader(queryId);
+        cachedResultWriter = resultCache.claimWriter(queryId);
+        if (cachedResultReader.isPresent()) {
+            setColumns(cachedResultReader.get().getColumnNames(), cachedResultReader.get().getColumnTypes());
+        }
+    }
+
+    private synchronized void setColumns(List<String> columnNames, List<Type> columnTypes)
+    {
+        checkArgument(columnNames.size() == columnTypes.size(), "Column names and types size mismatch");
+
+        ImmutableList.Builder<Column> list = ImmutableList.builder();
+        for (int i = 0; i < columnNames.size(); i++) {
+            list.add(new Column(columnNames.get(i), columnTypes.get(i)));
+        }
+        columns = list.build();
+        types = columnTypes;
+    }
+
     private synchronized void setQueryOutputInfo(QueryExecution.QueryOutputInfo outputInfo)
     {
+        claimCachedResultIfNecessary();
+
         // if first callback, set column names
         if (columns == null) {
-            List<String> columnNames = outputInfo.getColumnNames();
-            List<Type> columnTypes = outputInfo.getColumnTypes();
-            checkArgument(columnNames.size() == columnTypes.size(), "Column names and types size mismatch");
-
-            ImmutableList.Builder<Column> list = ImmutableList.builder();
-            for (int i = 0; i < columnNames.size(); i++) {
-                list.add(new Column(columnNames.get(i), columnTypes.get(i)));
-            }
-            columns = list.build();
-            types = outputInfo.getColumnTypes();
+            setColumns(outputInfo.getColumnNames(), outputInfo.getColumnTypes());
         }
 
         for (URI outputLocation : outputInfo.getBufferLocations()) {
@@ -31,6 +31,8 @@ import com.facebook.presto.execution.buffer.PageBufferInfo;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.operator.TaskStats;
 import com.facebook.presto.server.TaskUpdateRequest;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.sql.planner.PlanFragment;
 import com.facebook.presto.sql.planner.plan.PlanNode;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
@@ -132,6 +134,8 @@ public final class HttpRemoteTask
     private final Map<PlanNodeId, Boolean> noMoreSplits = new HashMap<>();
     @GuardedBy("this")
     private final AtomicReference<OutputBuffers> outputBuffers = new AtomicReference<>();
+    @GuardedBy("this")
+    private final Map<PlanNodeId, TupleDomain<ColumnHandle>> dynamicFilters = new HashMap<>();
     private final FutureStateChange<?> whenSplitQueueHasSpace = new FutureStateChange<>();
     @GuardedBy("this")
     private boolean splitQueueHasSpace = true;
@@ -373,6 +377,19 @@ public final class HttpRemoteTask
         }
     }
 
+    @Override
+    public synchronized void addDynamicFilters(Map<PlanNodeId, TupleDomain<ColumnHandle>> newDynamicFilters)
+    {
+        requireNonNull(newDynamicFilters, "newDynamicFilters is null");
+        if (getTaskStatus().getState().isDone()) {
+            return;
+        }
+
+        dynamicFilters.putAll(newDynamicFilters);
+        needsUpdate.set(true);
+        scheduleUpdate();
+    }
+
     @Override
     public int getPartitionedSplitCount()
     {
@@ -501,7 +518,8 @@ public final class HttpRemoteTask
                 fragment,
                 sources,
                 outputBuffers.get(),
-                totalPartitions);
+                totalPartitions,
+                dynamicFilters);
         byte[] taskUpdateRequestJson = taskUpdateRequestCodec.toJsonBytes(updateRequest);
         if (fragment.isPresent()) {
             stats.updateWithPlanBytes(taskUpdateRequestJson.length);
@@ -35,11 +35,13 @@ import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
@@ -62,6 +64,7 @@ public class FileSingleStreamSpiller
     private final SpillerStats spillerStats;
     private final SpillContext localSpillContext;
     private final LocalMemoryContext memoryContext;
+    private final Optional<SpillCipher> spillCipher;
 
     private final ListeningExecutorService executor;
 
@@ -76,12 +79,25 @@ public class FileSingleStreamSpiller
             SpillerStats spillerStats,
             SpillContext spillContext,
             LocalMemoryContext memoryContext)
+    {
+        this(serde, executor, spillPath, spillerStats, spillContext, memoryContext, Optional.empty());
+    }
+
+    public FileSingleStreamSpiller(
+            PagesSerde serde,
+            ListeningExecutorService executor,
+            Path spillPath,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext,
+            Optional<SpillCipher> spillCipher)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
         this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
         this.localSpillContext = spillContext.newLocalSpillContext();
         this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
         // HACK!
         // The writePages() method is called in a separate thread pool and it's possible that
         // these spiller thread can run concurrently with the close() method.
@@ -132,14 +148,15 @@ public class FileSingleStreamSpiller
     private void writePages(Iterator<Page> pageIterator)
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
-        try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
+        try (SliceOutput output = new OutputStreamSliceOutput(newOutputStream(), BUFFER_SIZE)) {
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
                 spilledPagesInMemorySize += page.getSizeInBytes();
                 SerializedPage serializedPage = serde.serialize(page);
+                // spill limits are enforced on the bytes that actually reach the disk
                 long pageSize = serializedPage.getSizeInBytes();
                 localSpillContext.updateBytes(pageSize);
-                spillerStats.addToTotalSpilledBytes(pageSize);
+                spillerStats.addToTotalSpilledBytes(pageSize, serializedPage.getUncompressedSizeInBytes());
                 writeSerializedPage(output, serializedPage);
             }
         }
@@ -155,6 +172,9 @@ public class FileSingleStreamSpiller
 
         try {
             InputStream input = closer.register(targetFile.newInputStream());
+            if (spillCipher.isPresent()) {
+                input = closer.register(spillCipher.get().decrypt(input));
+            }
             Iterator<Page> pages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
             return PrestoIterators.closeWhenExhausted(pages, input);
         }
@@ -163,6 +183,16 @@ public class FileSingleStreamSpiller
         }
     }
 
+    private OutputStream newOutputStream()
+            throws IOException
+    {
+        OutputStream output = targetFile.newOutputStream(APPEND);
+        if (spillCipher.isPresent()) {
+            return spillCipher.get().encrypt(output);
+        }
+        return output;
+    }
+
     @Override
     public void close()
     {
@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.spi.PrestoException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static java.util.Objects.requireNonNull;
+import static javax.crypto.Cipher.DECRYPT_MODE;
+import static javax.crypto.Cipher.ENCRYPT_MODE;
+
+/**
+ * Encrypts a single spill file with AES in counter mode. The key is generated
+ * for the spill file and only kept in memory, so the file can not be read back
+ * once the spiller is gone. Counter mode does not change the data size, so the
+ * spilled bytes are accounted the same as for an unencrypted file.
+ */
+@NotThreadSafe
+public final class SpillCipher
+{
+    private static final String ALGORITHM = "AES";
+    private static final String TRANSFORMATION = "AES/CTR/NoPadding";
+    private static final int KEY_SIZE_IN_BITS = 128;
+    private static final int IV_SIZE_IN_BYTES = 16;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SecretKey key;
+    private final IvParameterSpec iv;
+    // shared by all writes, so data appended by a later spill continues the key stream instead of reusing it
+    private final Cipher encryptCipher;
+
+    private SpillCipher(SecretKey key, IvParameterSpec iv)
+    {
+        this.key = requireNonNull(key, "key is null");
+        this.iv = requireNonNull(iv, "iv is null");
+        this.encryptCipher = createCipher(ENCRYPT_MODE, key, iv);
+    }
+
+    public static SpillCipher createEphemeral()
+    {
+        try {
+            KeyGenerator keyGenerator = KeyGenerator.getInstance(ALGORITHM);
+            keyGenerator.init(KEY_SIZE_IN_BITS, RANDOM);
+            byte[] iv = new byte[IV_SIZE_IN_BYTES];
+            RANDOM.nextBytes(iv);
+            return new SpillCipher(keyGenerator.generateKey(), new IvParameterSpec(iv));
+        }
+        catch (GeneralSecurityException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create spill encryption key", e);
+        }
+    }
+
+    /**
+     * Wraps a stream appending to the spill file. Closing the returned stream
+     * does not finish the cipher, so the next append continues where this one ended.
+     */
+    public OutputStream encrypt(OutputStream output)
+    {
+        return new EncryptingOutputStream(output, encryptCipher);
+    }
+
+    /**
+     * Wraps a stream reading the spill file from its beginning.
+     */
+    public InputStream decrypt(InputStream input)
+    {
+        return new CipherInputStream(input, createCipher(DECRYPT_MODE, key, iv));
+    }
+
+    private static Cipher createCipher(int mode, SecretKey key, IvParameterSpec iv)
+    {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(mode, key, iv);
+            return cipher;
+        }
+        catch (GeneralSecurityException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to initialize spill encryption", e);
+        }
+    }
+
+    private static class EncryptingOutputStream
+            extends FilterOutputStream
+    {
+        private final Cipher cipher;
+
+        public EncryptingOutputStream(OutputStream output, Cipher cipher)
+        {
+            super(requireNonNull(output, "output is null"));
+            this.cipher = requireNonNull(cipher, "cipher is null");
+        }
+
+        @Override
+        public void write(int value)
+                throws IOException
+        {
+            write(new byte[] {(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length)
+                throws IOException
+        {
+            byte[] encrypted = cipher.update(buffer, offset, length);
+            if (encrypted != null) {
+                out.write(encrypted);
+            }
+        }
+    }
+}
@@ -44,7 +44,8 @@ public class SpillSpaceTracker
     }
 
     /**
-     * Reserves the given number of bytes to spill. If more than the maximum, throws an exception.
+     * Reserves the given number of bytes to spill. The bytes are the size on disk, that is
+     * after spill compression. If more than the maximum, throws an exception.
      *
      * @throws ExceededSpillLimitException
      */
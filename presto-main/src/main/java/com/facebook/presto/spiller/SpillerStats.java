@@ -20,15 +20,29 @@ import java.util.concurrent.atomic.AtomicLong;
 public class SpillerStats
 {
     protected final AtomicLong totalSpilledBytes = new AtomicLong();
+    protected final AtomicLong totalSpilledRawBytes = new AtomicLong();
 
+    /**
+     * Bytes written to spill files, after compression.
+     */
     @Managed
     public long getTotalSpilledBytes()
     {
         return totalSpilledBytes.get();
     }
 
-    public void addToTotalSpilledBytes(long delta)
+    /**
+     * Serialized size of the spilled pages before compression.
+     */
+    @Managed
+    public long getTotalSpilledRawBytes()
+    {
+        return totalSpilledRawBytes.get();
+    }
+
+    public void addToTotalSpilledBytes(long delta, long rawDelta)
     {
         totalSpilledBytes.addAndGet(delta);
+        totalSpilledRawBytes.addAndGet(rawDelta);
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.split;
+
+import com.facebook.presto.connector.ConnectorId;
+import com.facebook.presto.execution.Lifespan;
+import com.facebook.presto.spi.connector.ConnectorPartitionHandle;
+import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.function.Supplier;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Holds back the splits of a table scan until its dynamic filter is complete, so that the
+ * connector can skip the splits that do not match the filter.
+ */
+public class DynamicFilterWaitingSplitSource
+        implements SplitSource
+{
+    private final SplitSource source;
+    private final Supplier<ListenableFuture<?>> dynamicFilterCompleted;
+
+    /**
+     * @param dynamicFilterCompleted the future completed when the dynamic filter is complete or
+     * the wait times out, obtained when the first batch is requested
+     */
+    public DynamicFilterWaitingSplitSource(SplitSource source, Supplier<ListenableFuture<?>> dynamicFilterCompleted)
+    {
+        this.source = requireNonNull(source, "source is null");
+        this.dynamicFilterCompleted = requireNonNull(dynamicFilterCompleted, "dynamicFilterCompleted is null");
+    }
+
+    @Override
+    public ConnectorId getConnectorId()
+    {
+        return source.getConnectorId();
+    }
+
+    @Override
+    public ConnectorTransactionHandle getTransactionHandle()
+    {
+        return source.getTransactionHandle();
+    }
+
+    @Override
+    public ListenableFuture<SplitBatch> getNextBatch(ConnectorPartitionHandle partitionHandle, Lifespan lifespan, int maxSize)
+    {
+        return Futures.transformAsync(dynamicFilterCompleted.get(), ignored -> source.getNextBatch(partitionHandle, lifespan, maxSize), directExecutor());
+    }
+
+    @Override
+    public void close()
+    {
+        source.close();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return source.isFinished();
+    }
+}
@@ -137,6 +137,13 @@ public class Analysis
     // for recursive view detection
     private final Deque<Table> tablesForView = new ArrayDeque<>();
 
+    // views already analyzed for the access control they were analyzed with, so repeated references reuse the analysis
+    private final Map<AccessControlInfo, Map<QualifiedObjectName, Query>> analyzedViews = new LinkedHashMap<>();
+
+    // set operation relations already analyzed in an outer scope, and the identical relations that reuse their analysis
+    private final Map<RelationInScope, Relation> analyzedRelations = new LinkedHashMap<>();
+    private final Map<NodeRef<Relation>, Relation> repeatedRelations = new LinkedHashMap<>();
+
     public Analysis(@Nullable Statement root, List<Expression> parameters, boolean isDescribe)
     {
         requireNonNull(parameters);
@@ -590,6 +597,44 @@ public class Analysis
         return tablesForView.contains(tableReference);
     }
 
+    public Optional<Query> getAnalyzedView(AccessControlInfo accessControlInfo, QualifiedObjectName viewName)
+    {
+        return Optional.ofNullable(analyzedViews.getOrDefault(accessControlInfo, ImmutableMap.of()).get(viewName));
+    }
+
+    public void registerAnalyzedView(AccessControlInfo accessControlInfo, QualifiedObjectName viewName, Query query)
+    {
+        requireNonNull(query, "query is null");
+        analyzedViews.computeIfAbsent(accessControlInfo, k -> new LinkedHashMap<>()).put(viewName, query);
+    }
+
+    /**
+     * @return the relation that is identical to the given relation and was analyzed in the same outer scope
+     */
+    public Optional<Relation> getAnalyzedRelation(Relation relation, Optional<Scope> outerScope)
+    {
+        return Optional.ofNullable(analyzedRelations.get(new RelationInScope(relation, outerScope)));
+    }
+
+    public void registerAnalyzedRelation(Relation relation, Optional<Scope> outerScope)
+    {
+        analyzedRelations.putIfAbsent(new RelationInScope(relation, outerScope), relation);
+    }
+
+    public void registerRepeatedRelation(Relation relation, Relation analyzedRelation)
+    {
+        requireNonNull(analyzedRelation, "analyzedRelation is null");
+        repeatedRelations.put(NodeRef.of(relation), analyzedRelation);
+    }
+
+    /**
+     * @return the relation whose analysis the given relation reuses, or the given relation if it was analyzed itself
+     */
+    public Relation getRelationToPlan(Relation relation)
+    {
+        return repeatedRelations.getOrDefault(NodeRef.of(relation), relation);
+    }
+
     public void setSampleRatio(SampledRelation relation, double ratio)
     {
         sampleRatios.put(NodeRef.of(relation), ratio);
@@ -754,6 +799,40 @@ public class Analysis
         }
     }
 
+    private static final class RelationInScope
+    {
+        // relations are compared by their structure, and scopes by their identity
+        private final Relation relation;
+        private final Optional<Scope> outerScope;
+
+        private RelationInScope(Relation relation, Optional<Scope> outerScope)
+        {
+            this.relation = requireNonNull(relation, "relation is null");
+            this.outerScope = requireNonNull(outerScope, "outerScope is null");
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            RelationInScope that = (RelationInScope) o;
+            return Objects.equals(relation, that.relation) &&
+                    Objects.equals(outerScope, that.outerScope);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(relation, outerScope);
+        }
+    }
+
     public static final class AccessControlInfo
     {
         private final AccessControl accessControl;
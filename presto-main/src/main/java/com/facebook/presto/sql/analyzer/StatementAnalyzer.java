@@ -806,16 +806,27 @@ class StatementAnalyzer
                 }
                 ViewDefinition view = optionalView.get();
 
-                Query query = parseView(view.getOriginalSql(), name, table);
+                // a view referenced again with the same access control and identity reuses the analyzed query,
+                // just like a WITH query referenced more than once, instead of parsing and analyzing it again
+                Analysis.AccessControlInfo accessControlInfo = new Analysis.AccessControlInfo(accessControl, session.getIdentity());
+                Optional<Query> analyzedView = analysis.getAnalyzedView(accessControlInfo, name);
+                if (analyzedView.isPresent()) {
+                    analysis.registerNamedQuery(table, analyzedView.get());
+                }
+                else {
+                    Query query = parseView(view.getOriginalSql(), name, table);
+
+                    analysis.registerNamedQuery(table, query);
 
-                analysis.registerNamedQuery(table, query);
+                    analysis.registerTableForView(table);
+                    RelationType descriptor = analyzeView(query, name, view.getCatalog(), view.getSchema(), view.getOwner(), table);
+                    analysis.unregisterTableForView();
 
-                analysis.registerTableForView(table);
-                RelationType descriptor = analyzeView(query, name, view.getCatalog(), view.getSchema(), view.getOwner(), table);
-                analysis.unregisterTableForView();
+                    if (isViewStale(view.getColumns(), descriptor.getVisibleFields())) {
+                        throw new SemanticException(VIEW_IS_STALE, table, "View '%s' is stale; it must be re-created", name);
+                    }
 
-                if (isViewStale(view.getColumns(), descriptor.getVisibleFields())) {
-                    throw new SemanticException(VIEW_IS_STALE, table, "View '%s' is stale; it must be re-created", name);
+                    analysis.registerAnalyzedView(accessControlInfo, name, query);
                 }
 
                 // Derive the type of the view from the stored definition, not from the analysis of the underlying query.
@@ -999,7 +1010,7 @@ class StatementAnalyzer
 
             List<Scope> relationScopes = node.getRelations().stream()
                     .map(relation -> {
-                        Scope relationScope = process(relation, scope);
+                        Scope relationScope = analyzeSetOperationRelation(relation, scope);
                         return createAndAssignScope(relation, scope, relationScope.getRelationType().withOnlyVisibleFields());
                     })
                     .collect(toImmutableList());
@@ -1068,6 +1079,26 @@ class StatementAnalyzer
             return createAndAssignScope(node, scope, outputDescriptorFields);
         }
 
+        private Scope analyzeSetOperationRelation(Relation relation, Optional<Scope> scope)
+        {
+            // a chain of set operations nests them, so comparing the nested ones would compare all of their relations at every level
+            if (relation instanceof SetOperation) {
+                return process(relation, scope);
+            }
+
+            // generated queries often repeat the same relation in many branches; a repeated relation reuses the analysis
+            // of the first one in the same outer scope, and the planner plans that one for each repetition, like a WITH query
+            Optional<Relation> analyzedRelation = analysis.getAnalyzedRelation(relation, scope);
+            if (analyzedRelation.isPresent()) {
+                analysis.registerRepeatedRelation(relation, analyzedRelation.get());
+                return analysis.getScope(analyzedRelation.get());
+            }
+
+            Scope relationScope = process(relation, scope);
+            analysis.registerAnalyzedRelation(relation, scope);
+            return relationScope;
+        }
+
         @Override
         protected Scope visitIntersect(Intersect node, Optional<Scope> scope)
         {
@@ -16,6 +16,7 @@ package com.facebook.presto.sql.gen;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.operator.DriverYieldSignal;
 import com.facebook.presto.operator.Work;
+import com.facebook.presto.operator.project.ConjunctionPageFilter;
 import com.facebook.presto.operator.project.ConstantPageProjection;
 import com.facebook.presto.operator.project.GeneratedPageProjection;
 import com.facebook.presto.operator.project.InputChannels;
@@ -31,6 +32,7 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.sql.gen.LambdaBytecodeGenerator.CompiledLambda;
 import com.facebook.presto.sql.planner.CompilerConfig;
+import com.facebook.presto.sql.relational.CallExpression;
 import com.facebook.presto.sql.relational.ConstantExpression;
 import com.facebook.presto.sql.relational.DeterminismEvaluator;
 import com.facebook.presto.sql.relational.Expressions;
@@ -78,6 +80,7 @@ import static com.facebook.presto.util.CompilerUtils.defineClass;
 import static com.facebook.presto.util.CompilerUtils.makeClassName;
 import static com.facebook.presto.util.Reflection.constructorMethodHandle;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.bytecode.Access.FINAL;
 import static io.airlift.bytecode.Access.PRIVATE;
 import static io.airlift.bytecode.Access.PUBLIC;
@@ -100,6 +103,7 @@ public class PageFunctionCompiler
 {
     private final Metadata metadata;
     private final DeterminismEvaluator determinismEvaluator;
+    private final boolean adaptiveFilterReorderingEnabled;
 
     private final LoadingCache<RowExpression, Supplier<PageProjection>> projectionCache;
     private final LoadingCache<RowExpression, Supplier<PageFilter>> filterCache;
@@ -110,13 +114,19 @@ public class PageFunctionCompiler
     @Inject
     public PageFunctionCompiler(Metadata metadata, CompilerConfig config)
     {
-        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize());
+        this(metadata, requireNonNull(config, "config is null").getExpressionCacheSize(), config.isAdaptiveFilterReorderingEnabled());
     }
 
     public PageFunctionCompiler(Metadata metadata, int expressionCacheSize)
+    {
+        this(metadata, expressionCacheSize, false);
+    }
+
+    public PageFunctionCompiler(Metadata metadata, int expressionCacheSize, boolean adaptiveFilterReorderingEnabled)
     {
         this.metadata = requireNonNull(metadata, "metadata is null");
         this.determinismEvaluator = new DeterminismEvaluator(metadata.getFunctionRegistry());
+        this.adaptiveFilterReorderingEnabled = adaptiveFilterReorderingEnabled;
 
         if (expressionCacheSize > 0) {
             projectionCache = CacheBuilder.newBuilder()
@@ -390,6 +400,23 @@ public class PageFunctionCompiler
     {
         requireNonNull(filter, "filter is null");
 
+        if (adaptiveFilterReorderingEnabled && determinismEvaluator.isDeterministic(filter)) {
+            List<RowExpression> conjuncts = extractConjuncts(filter);
+            if (conjuncts.size() > 1) {
+                List<Supplier<PageFilter>> conjunctFilters = conjuncts.stream()
+                        .map(conjunct -> compileSingleFilter(conjunct, classNameSuffix))
+                        .collect(toImmutableList());
+                return () -> new ConjunctionPageFilter(conjunctFilters.stream()
+                        .map(Supplier::get)
+                        .collect(toImmutableList()));
+            }
+        }
+
+        return compileSingleFilter(filter, classNameSuffix);
+    }
+
+    private Supplier<PageFilter> compileSingleFilter(RowExpression filter, Optional<String> classNameSuffix)
+    {
         PageFieldsToInputParametersRewriter.Result result = rewritePageFieldsToInputParameters(filter);
 
         CallSiteBinder callSiteBinder = new CallSiteBinder();
@@ -600,6 +627,18 @@ public class PageFunctionCompiler
         body.ret();
     }
 
+    private static List<RowExpression> extractConjuncts(RowExpression expression)
+    {
+        if (expression instanceof CallExpression && ((CallExpression) expression).getSignature().getName().equals("AND")) {
+            ImmutableList.Builder<RowExpression> conjuncts = ImmutableList.builder();
+            for (RowExpression argument : ((CallExpression) expression).getArguments()) {
+                conjuncts.addAll(extractConjuncts(argument));
+            }
+            return conjuncts.build();
+        }
+        return ImmutableList.of(expression);
+    }
+
     private static void declareBlockVariables(RowExpression expression, Parameter page, Scope scope, BytecodeBlock body)
     {
         for (int channel : getInputChannels(expression)) {
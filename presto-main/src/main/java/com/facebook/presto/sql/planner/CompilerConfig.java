@@ -23,6 +23,7 @@ import javax.validation.constraints.Min;
 public class CompilerConfig
 {
     private int expressionCacheSize = 10_000;
+    private boolean adaptiveFilterReorderingEnabled;
 
     @Min(0)
     public int getExpressionCacheSize()
@@ -37,4 +38,17 @@ public class CompilerConfig
         this.expressionCacheSize = expressionCacheSize;
         return this;
     }
+
+    public boolean isAdaptiveFilterReorderingEnabled()
+    {
+        return adaptiveFilterReorderingEnabled;
+    }
+
+    @Config("compiler.adaptive-filter-reordering-enabled")
+    @Description("Evaluate filter conjuncts one at a time, ordered by their observed selectivity and cost")
+    public CompilerConfig setAdaptiveFilterReorderingEnabled(boolean adaptiveFilterReorderingEnabled)
+    {
+        this.adaptiveFilterReorderingEnabled = adaptiveFilterReorderingEnabled;
+        return this;
+    }
 }
@@ -14,7 +14,9 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.execution.scheduler.DistributedDynamicFilters;
 import com.facebook.presto.operator.StageExecutionStrategy;
+import com.facebook.presto.split.DynamicFilterWaitingSplitSource;
 import com.facebook.presto.split.SampledSplitSource;
 import com.facebook.presto.split.SplitManager;
 import com.facebook.presto.split.SplitSource;
@@ -77,11 +79,11 @@ public class DistributedExecutionPlanner
         this.splitManager = requireNonNull(splitManager, "splitManager is null");
     }
 
-    public StageExecutionPlan plan(SubPlan root, Session session)
+    public StageExecutionPlan plan(SubPlan root, Session session, DistributedDynamicFilters dynamicFilters)
     {
         ImmutableList.Builder<SplitSource> allSplitSources = ImmutableList.builder();
         try {
-            return doPlan(root, session, allSplitSources);
+            return doPlan(root, session, dynamicFilters, allSplitSources);
         }
         catch (Throwable t) {
             allSplitSources.build().forEach(DistributedExecutionPlanner::closeSplitSource);
@@ -99,17 +101,17 @@ public class DistributedExecutionPlanner
         }
     }
 
-    private StageExecutionPlan doPlan(SubPlan root, Session session, ImmutableList.Builder<SplitSource> allSplitSources)
+    private StageExecutionPlan doPlan(SubPlan root, Session session, DistributedDynamicFilters dynamicFilters, ImmutableList.Builder<SplitSource> allSplitSources)
     {
         PlanFragment currentFragment = root.getFragment();
 
         // get splits for this fragment, this is lazy so split assignments aren't actually calculated here
-        Map<PlanNodeId, SplitSource> splitSources = currentFragment.getRoot().accept(new Visitor(session, currentFragment.getStageExecutionStrategy(), allSplitSources), null);
+        Map<PlanNodeId, SplitSource> splitSources = currentFragment.getRoot().accept(new Visitor(session, currentFragment.getStageExecutionStrategy(), dynamicFilters, allSplitSources), null);
 
         // create child stages
         ImmutableList.Builder<StageExecutionPlan> dependencies = ImmutableList.builder();
         for (SubPlan childPlan : root.getChildren()) {
-            dependencies.add(doPlan(childPlan, session, allSplitSources));
+            dependencies.add(doPlan(childPlan, session, dynamicFilters, allSplitSources));
         }
 
         return new StageExecutionPlan(
@@ -123,12 +125,14 @@ public class DistributedExecutionPlanner
     {
         private final Session session;
         private final StageExecutionStrategy stageExecutionStrategy;
+        private final DistributedDynamicFilters dynamicFilters;
         private final ImmutableList.Builder<SplitSource> splitSources;
 
-        private Visitor(Session session, StageExecutionStrategy stageExecutionStrategy, ImmutableList.Builder<SplitSource> allSplitSources)
+        private Visitor(Session session, StageExecutionStrategy stageExecutionStrategy, DistributedDynamicFilters dynamicFilters, ImmutableList.Builder<SplitSource> allSplitSources)
         {
             this.session = session;
             this.stageExecutionStrategy = stageExecutionStrategy;
+            this.dynamicFilters = dynamicFilters;
             this.splitSources = allSplitSources;
         }
 
@@ -145,7 +149,11 @@ public class DistributedExecutionPlanner
             SplitSource splitSource = splitManager.getSplits(
                     session,
                     node.getLayout().get(),
-                    stageExecutionStrategy.isGroupedExecution(node.getId()) ? GROUPED_SCHEDULING : UNGROUPED_SCHEDULING);
+                    stageExecutionStrategy.isGroupedExecution(node.getId()) ? GROUPED_SCHEDULING : UNGROUPED_SCHEDULING,
+                    dynamicFilters.getTableScanFilter(node.getId()));
+            if (dynamicFilters.isWaitingForTableScanFilter(node.getId())) {
+                splitSource = new DynamicFilterWaitingSplitSource(splitSource, () -> dynamicFilters.waitForTableScanFilter(node.getId()));
+            }
 
             splitSources.add(splitSource);
 
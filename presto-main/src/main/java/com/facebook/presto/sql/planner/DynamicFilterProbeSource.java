@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.RemoteSourceNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.SymbolReference;
+
+import java.util.Optional;
+
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.LOCAL;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The node of a plan fragment that the value of a join probe symbol is read from. It is
+ * found by following only the nodes that do not change the value of the symbol, and is
+ * either the {@link TableScanNode} producing the symbol, or the {@link RemoteSourceNode}
+ * through which the symbol arrives from another stage.
+ */
+public final class DynamicFilterProbeSource
+{
+    private final PlanNode node;
+    private final Symbol symbol;
+
+    private DynamicFilterProbeSource(PlanNode node, Symbol symbol)
+    {
+        this.node = requireNonNull(node, "node is null");
+        this.symbol = requireNonNull(symbol, "symbol is null");
+    }
+
+    public static Optional<DynamicFilterProbeSource> find(PlanNode node, Symbol symbol)
+    {
+        if (node instanceof TableScanNode || node instanceof RemoteSourceNode) {
+            return Optional.of(new DynamicFilterProbeSource(node, symbol));
+        }
+        if (node instanceof FilterNode) {
+            return find(((FilterNode) node).getSource(), symbol);
+        }
+        if (node instanceof ProjectNode) {
+            ProjectNode projectNode = (ProjectNode) node;
+            Expression expression = projectNode.getAssignments().get(symbol);
+            if (expression instanceof SymbolReference) {
+                return find(projectNode.getSource(), Symbol.from(expression));
+            }
+            return Optional.empty();
+        }
+        if (node instanceof JoinNode) {
+            JoinNode joinNode = (JoinNode) node;
+            if (joinNode.getType() == INNER && joinNode.getLeft().getOutputSymbols().contains(symbol)) {
+                return find(joinNode.getLeft(), symbol);
+            }
+            return Optional.empty();
+        }
+        if (node instanceof ExchangeNode) {
+            ExchangeNode exchangeNode = (ExchangeNode) node;
+            if (exchangeNode.getScope() == LOCAL && exchangeNode.getSources().size() == 1) {
+                int index = exchangeNode.getOutputSymbols().indexOf(symbol);
+                return find(exchangeNode.getSources().get(0), exchangeNode.getInputs().get(0).get(index));
+            }
+            return Optional.empty();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the {@link TableScanNode} or {@link RemoteSourceNode} the symbol is read from
+     */
+    public PlanNode getNode()
+    {
+        return node;
+    }
+
+    /**
+     * @return the symbol in the output of {@link #getNode()}
+     */
+    public Symbol getSymbol()
+    {
+        return symbol;
+    }
+
+    public boolean isRemote()
+    {
+        return node instanceof RemoteSourceNode;
+    }
+}
@@ -41,6 +41,7 @@ import com.facebook.presto.operator.HashSemiJoinOperator.HashSemiJoinOperatorFac
 import com.facebook.presto.operator.JoinBridgeDataManager;
 import com.facebook.presto.operator.JoinOperatorFactory;
 import com.facebook.presto.operator.LimitOperator.LimitOperatorFactory;
+import com.facebook.presto.operator.LocalDynamicFilter;
 import com.facebook.presto.operator.LocalPlannerAware;
 import com.facebook.presto.operator.LookupJoinOperators;
 import com.facebook.presto.operator.LookupOuterOperator.LookupOuterOperatorFactory;
@@ -102,6 +103,7 @@ import com.facebook.presto.spi.RecordSet;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.predicate.NullableValue;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spiller.PartitioningSpillerFactory;
 import com.facebook.presto.spiller.SingleStreamSpillerFactory;
@@ -205,10 +207,13 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static com.facebook.presto.SystemSessionProperties.getAggregationOperatorUnspillMemoryLimit;
+import static com.facebook.presto.SystemSessionProperties.getDynamicFilteringMaxDistinctValues;
+import static com.facebook.presto.SystemSessionProperties.getExchangeCompressionCodec;
 import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageRowCount;
 import static com.facebook.presto.SystemSessionProperties.getFilterAndProjectMinOutputPageSize;
 import static com.facebook.presto.SystemSessionProperties.getTaskConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
+import static com.facebook.presto.SystemSessionProperties.isDynamicFilteringEnabled;
 import static com.facebook.presto.SystemSessionProperties.isExchangeCompressionEnabled;
 import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
 import static com.facebook.presto.metadata.FunctionKind.SCALAR;
@@ -239,6 +244,7 @@ import static com.facebook.presto.sql.planner.plan.AggregationNode.Step.FINAL;
 import static com.facebook.presto.sql.planner.plan.AggregationNode.Step.PARTIAL;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.Scope.LOCAL;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.FULL;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.RIGHT;
 import static com.facebook.presto.sql.planner.plan.TableWriterNode.CreateHandle;
 import static com.facebook.presto.sql.planner.plan.TableWriterNode.InsertHandle;
@@ -436,6 +442,9 @@ public class LocalExecutionPlanner
     {
         Session session = taskContext.getSession();
         LocalExecutionPlanContext context = new LocalExecutionPlanContext(taskContext, types);
+        for (PlanNodeId tableScanNodeId : taskContext.getDynamicFilterTableScans()) {
+            context.addDynamicFilter(tableScanNodeId, () -> taskContext.getDynamicFilter(tableScanNodeId));
+        }
 
         PhysicalOperation physicalOperation = plan.accept(new Visitor(session, stageExecutionStrategy), context);
 
@@ -455,7 +464,7 @@ public class LocalExecutionPlanner
                                 plan.getId(),
                                 outputTypes,
                                 pagePreprocessor,
-                                new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session))))
+                                new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session), getExchangeCompressionCodec(session))))
                         .build(),
                 context.getDriverInstanceCount(),
                 physicalOperation.getPipelineExecutionStrategy());
@@ -510,8 +519,9 @@ public class LocalExecutionPlanner
         private final List<DriverFactory> driverFactories;
         private final Optional<IndexSourceContext> indexSourceContext;
 
-        // this is shared with all subContexts
+        // these are shared with all subContexts
         private final AtomicInteger nextPipelineId;
+        private final Map<PlanNodeId, List<Supplier<TupleDomain<ColumnHandle>>>> dynamicFilters;
 
         private int nextOperatorId;
         private boolean inputDriver = true;
@@ -519,7 +529,7 @@ public class LocalExecutionPlanner
 
         public LocalExecutionPlanContext(TaskContext taskContext, TypeProvider types)
         {
-            this(taskContext, types, new ArrayList<>(), Optional.empty(), new AtomicInteger(0));
+            this(taskContext, types, new ArrayList<>(), Optional.empty(), new AtomicInteger(0), new HashMap<>());
         }
 
         private LocalExecutionPlanContext(
@@ -527,13 +537,15 @@ public class LocalExecutionPlanner
                 TypeProvider types,
                 List<DriverFactory> driverFactories,
                 Optional<IndexSourceContext> indexSourceContext,
-                AtomicInteger nextPipelineId)
+                AtomicInteger nextPipelineId,
+                Map<PlanNodeId, List<Supplier<TupleDomain<ColumnHandle>>>> dynamicFilters)
         {
             this.taskContext = taskContext;
             this.types = types;
             this.driverFactories = driverFactories;
             this.indexSourceContext = indexSourceContext;
             this.nextPipelineId = nextPipelineId;
+            this.dynamicFilters = dynamicFilters;
         }
 
         public void addDriverFactory(boolean inputDriver, boolean outputDriver, List<OperatorFactory> operatorFactories, OptionalInt driverInstances, PipelineExecutionStrategy pipelineExecutionStrategy)
@@ -555,6 +567,11 @@ public class LocalExecutionPlanner
             return ImmutableList.copyOf(driverFactories);
         }
 
+        public TaskContext getTaskContext()
+        {
+            return taskContext;
+        }
+
         public Session getSession()
         {
             return taskContext.getSession();
@@ -598,12 +615,33 @@ public class LocalExecutionPlanner
         public LocalExecutionPlanContext createSubContext()
         {
             checkState(!indexSourceContext.isPresent(), "index build plan can not have sub-contexts");
-            return new LocalExecutionPlanContext(taskContext, types, driverFactories, indexSourceContext, nextPipelineId);
+            return new LocalExecutionPlanContext(taskContext, types, driverFactories, indexSourceContext, nextPipelineId, dynamicFilters);
         }
 
         public LocalExecutionPlanContext createIndexSourceSubContext(IndexSourceContext indexSourceContext)
         {
-            return new LocalExecutionPlanContext(taskContext, types, driverFactories, Optional.of(indexSourceContext), nextPipelineId);
+            return new LocalExecutionPlanContext(taskContext, types, driverFactories, Optional.of(indexSourceContext), nextPipelineId, dynamicFilters);
+        }
+
+        public void addDynamicFilter(PlanNodeId tableScanNodeId, Supplier<TupleDomain<ColumnHandle>> dynamicFilter)
+        {
+            dynamicFilters.computeIfAbsent(tableScanNodeId, id -> new ArrayList<>()).add(dynamicFilter);
+        }
+
+        public Supplier<TupleDomain<ColumnHandle>> getDynamicFilter(PlanNodeId tableScanNodeId)
+        {
+            List<Supplier<TupleDomain<ColumnHandle>>> filters = ImmutableList.copyOf(dynamicFilters.getOrDefault(tableScanNodeId, ImmutableList.of()));
+            if (filters.isEmpty()) {
+                return TupleDomain::all;
+            }
+            return () -> filters.stream()
+                    .map(Supplier::get)
+                    .reduce(TupleDomain.all(), TupleDomain::intersect);
+        }
+
+        public boolean hasDynamicFilter(PlanNodeId tableScanNodeId)
+        {
+            return dynamicFilters.containsKey(tableScanNodeId);
         }
 
         public OptionalInt getDriverInstanceCount()
@@ -621,6 +659,28 @@ public class LocalExecutionPlanner
         }
     }
 
+    private static class TableScanColumn
+    {
+        private final PlanNodeId tableScanNodeId;
+        private final ColumnHandle column;
+
+        public TableScanColumn(PlanNodeId tableScanNodeId, ColumnHandle column)
+        {
+            this.tableScanNodeId = requireNonNull(tableScanNodeId, "tableScanNodeId is null");
+            this.column = requireNonNull(column, "column is null");
+        }
+
+        public PlanNodeId getTableScanNodeId()
+        {
+            return tableScanNodeId;
+        }
+
+        public ColumnHandle getColumn()
+        {
+            return column;
+        }
+    }
+
     private static class IndexSourceContext
     {
         private final SetMultimap<Symbol, Integer> indexLookupToProbeInput;
@@ -708,7 +768,7 @@ public class LocalExecutionPlanner
                     context.getNextOperatorId(),
                     node.getId(),
                     exchangeClientSupplier,
-                    new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)),
+                    new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session), getExchangeCompressionCodec(session)),
                     orderingCompiler,
                     types,
                     outputChannels,
@@ -728,7 +788,7 @@ public class LocalExecutionPlanner
                     context.getNextOperatorId(),
                     node.getId(),
                     exchangeClientSupplier,
-                    new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)));
+                    new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session), getExchangeCompressionCodec(session)));
 
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, UNGROUPED_EXECUTION);
         }
@@ -930,7 +990,10 @@ public class LocalExecutionPlanner
                     sortOrder,
                     node.getPreSortedOrderPrefix(),
                     10_000,
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    isSpillEnabled(session),
+                    Optional.of(spillerFactory),
+                    orderingCompiler);
 
             return new PhysicalOperation(operatorFactory, outputMappings.build(), context, source);
         }
@@ -987,7 +1050,10 @@ public class LocalExecutionPlanner
                     10_000,
                     orderByChannels,
                     sortOrder.build(),
-                    pagesIndexFactory);
+                    pagesIndexFactory,
+                    isSpillEnabled(session),
+                    Optional.of(spillerFactory),
+                    orderingCompiler);
 
             return new PhysicalOperation(operator, source.getLayout(), context, source);
         }
@@ -1222,6 +1288,7 @@ public class LocalExecutionPlanner
                             cursorProcessor,
                             pageProcessor,
                             columns,
+                            context.getDynamicFilter(sourceNode.getId()),
                             getTypes(rewrittenProjections, expressionTypes),
                             getFilterAndProjectMinOutputPageSize(session),
                             getFilterAndProjectMinOutputPageRowCount(session));
@@ -1265,6 +1332,11 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitTableScan(TableScanNode node, LocalExecutionPlanContext context)
         {
+            if (context.hasDynamicFilter(node.getId())) {
+                // dynamic filters are only applied by the scan filter and project operator
+                return visitScanFilterAndProject(context, node.getId(), node, Optional.empty(), Assignments.identity(node.getOutputSymbols()), node.getOutputSymbols());
+            }
+
             List<ColumnHandle> columns = new ArrayList<>();
             for (Symbol symbol : node.getOutputSymbols()) {
                 columns.add(node.getAssignments().get(symbol));
@@ -1877,12 +1949,15 @@ public class LocalExecutionPlanner
                 Optional<Symbol> buildHashSymbol,
                 LocalExecutionPlanContext context)
         {
+            // Dynamic filters must be registered before the probe side table scans are planned
+            Optional<LocalDynamicFilter> dynamicFilter = createDynamicFilter(node, probeNode, probeSymbols, context);
+
             // Plan probe
             PhysicalOperation probeSource = probeNode.accept(this, context);
 
             // Plan build
             JoinBridgeDataManager<LookupSourceFactory> lookupSourceFactory =
-                    createLookupSourceFactory(node, buildNode, buildSymbols, buildHashSymbol, probeSource, context);
+                    createLookupSourceFactory(node, buildNode, buildSymbols, buildHashSymbol, probeSource, dynamicFilter, context);
 
             OperatorFactory operator = createLookupJoin(node, probeSource, probeSymbols, probeHashSymbol, lookupSourceFactory, context);
 
@@ -1902,6 +1977,7 @@ public class LocalExecutionPlanner
                 List<Symbol> buildSymbols,
                 Optional<Symbol> buildHashSymbol,
                 PhysicalOperation probeSource,
+                Optional<LocalDynamicFilter> dynamicFilter,
                 LocalExecutionPlanContext context)
         {
             LocalExecutionPlanContext buildContext = context.createSubContext();
@@ -1924,6 +2000,7 @@ public class LocalExecutionPlanner
             boolean spillEnabled = isSpillEnabled(context.getSession());
             boolean buildOuter = node.getType() == RIGHT || node.getType() == FULL;
             int partitionCount = buildContext.getDriverInstanceCount().orElse(1);
+            dynamicFilter.ifPresent(filter -> filter.setPartitionCount(partitionCount));
 
             Optional<JoinFilterFunctionFactory> filterFunctionFactory = node.getFilter()
                     .map(filterExpression -> compileJoinFilterFunction(
@@ -1983,7 +2060,8 @@ public class LocalExecutionPlanner
                     10_000,
                     pagesIndexFactory,
                     spillEnabled && !buildOuter && partitionCount > 1,
-                    singleStreamSpillerFactory);
+                    singleStreamSpillerFactory,
+                    dynamicFilter);
 
             context.addDriverFactory(
                     buildContext.isInputDriver(),
@@ -1998,6 +2076,68 @@ public class LocalExecutionPlanner
             return lookupSourceFactoryManager;
         }
 
+        /**
+         * Creates a filter that is collected within this task. It is applied to the probe side table
+         * scans planned in the same task, and for the keys whose probe side arrives through a remote
+         * exchange, the summary is reported to the coordinator, which combines the summaries of all
+         * tasks of the stage and applies the result to the table scans of the probe side stages.
+         */
+        private Optional<LocalDynamicFilter> createDynamicFilter(JoinNode node, PlanNode probeNode, List<Symbol> probeSymbols, LocalExecutionPlanContext context)
+        {
+            if (!isDynamicFilteringEnabled(context.getSession()) || node.getType() != INNER || context.getIndexSourceContext().isPresent()) {
+                return Optional.empty();
+            }
+
+            ImmutableMap.Builder<Integer, Type> keyTypes = ImmutableMap.builder();
+            Map<PlanNodeId, ImmutableMap.Builder<Integer, ColumnHandle>> probeColumns = new HashMap<>();
+            ImmutableSet.Builder<Integer> remoteKeys = ImmutableSet.builder();
+            for (int key = 0; key < probeSymbols.size(); key++) {
+                Symbol symbol = probeSymbols.get(key);
+                Type type = context.getTypes().get(symbol);
+                if (!LocalDynamicFilter.isSupportedType(type)) {
+                    continue;
+                }
+                Optional<DynamicFilterProbeSource> probeSource = DynamicFilterProbeSource.find(probeNode, symbol);
+                if (probeSource.isPresent() && probeSource.get().isRemote()) {
+                    keyTypes.put(key, type);
+                    remoteKeys.add(key);
+                    continue;
+                }
+                Optional<TableScanColumn> column = probeSource.flatMap(this::getTableScanColumn);
+                if (column.isPresent()) {
+                    keyTypes.put(key, type);
+                    probeColumns.computeIfAbsent(column.get().getTableScanNodeId(), id -> ImmutableMap.builder())
+                            .put(key, column.get().getColumn());
+                }
+            }
+            Set<Integer> remote = remoteKeys.build();
+            if (probeColumns.isEmpty() && remote.isEmpty()) {
+                return Optional.empty();
+            }
+
+            TaskContext taskContext = context.getTaskContext();
+            LocalDynamicFilter dynamicFilter = new LocalDynamicFilter(
+                    keyTypes.build(),
+                    getDynamicFilteringMaxDistinctValues(context.getSession()),
+                    summary -> {
+                        if (!remote.isEmpty()) {
+                            taskContext.addDynamicFilterSummary(node.getId(), summary.transform(key -> remote.contains(key) ? key : null));
+                        }
+                    });
+            probeColumns.forEach((tableScanNodeId, columns) -> context.addDynamicFilter(tableScanNodeId, dynamicFilter.createPredicateSupplier(columns.build())));
+            return Optional.of(dynamicFilter);
+        }
+
+        private Optional<TableScanColumn> getTableScanColumn(DynamicFilterProbeSource probeSource)
+        {
+            TableScanNode tableScanNode = (TableScanNode) probeSource.getNode();
+            ColumnHandle column = tableScanNode.getAssignments().get(probeSource.getSymbol());
+            if (column == null || stageExecutionStrategy.isGroupedExecution(tableScanNode.getId())) {
+                return Optional.empty();
+            }
+            return Optional.of(new TableScanColumn(tableScanNode.getId(), column));
+        }
+
         private JoinFilterFunctionFactory compileJoinFilterFunction(
                 Expression filterExpression,
                 Map<Symbol, Integer> probeLayout,
@@ -704,7 +704,8 @@ class RelationPlanner
     {
         Type[] coerceToTypes = analysis.getRelationCoercion(node);
 
-        RelationPlan plan = this.process(node, context);
+        // a relation repeating another one in a set operation was not analyzed itself, so the analyzed one is planned in its place
+        RelationPlan plan = this.process(analysis.getRelationToPlan(node), context);
 
         if (coerceToTypes == null) {
             return plan;
@@ -0,0 +1,297 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.matching.Capture;
+import com.facebook.presto.matching.Captures;
+import com.facebook.presto.matching.Pattern;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.type.RowType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.TypeProvider;
+import com.facebook.presto.sql.planner.iterative.Rule;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.tree.DefaultExpressionTraversalVisitor;
+import com.facebook.presto.sql.tree.DereferenceExpression;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.SymbolReference;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.SystemSessionProperties.isPushdownDereferences;
+import static com.facebook.presto.matching.Capture.newCapture;
+import static com.facebook.presto.sql.planner.plan.Patterns.filter;
+import static com.facebook.presto.sql.planner.plan.Patterns.project;
+import static com.facebook.presto.sql.planner.plan.Patterns.source;
+import static com.facebook.presto.sql.planner.plan.Patterns.tableScan;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Lets the connector read only the referenced nested fields of a row column, when
+ * the projection (and filter) directly above the table scan only use the column in
+ * field dereferences, e.g. {@code SELECT a.b.c FROM t WHERE a.d > 0}.
+ * <p>
+ * The column keeps its type, so the plan above the table scan is unchanged; the
+ * fields of the column that are not referenced may be null.
+ */
+public class PushDereferencesIntoTableScan
+{
+    private final Metadata metadata;
+
+    public PushDereferencesIntoTableScan(Metadata metadata)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+    }
+
+    public Set<Rule<?>> rules()
+    {
+        return ImmutableSet.of(
+                pushDereferencesThroughProject(),
+                pushDereferencesThroughProjectAndFilter());
+    }
+
+    public Rule<?> pushDereferencesThroughProject()
+    {
+        return new PushDereferencesThroughProject(metadata);
+    }
+
+    public Rule<?> pushDereferencesThroughProjectAndFilter()
+    {
+        return new PushDereferencesThroughProjectAndFilter(metadata);
+    }
+
+    private static final class PushDereferencesThroughProject
+            implements Rule<ProjectNode>
+    {
+        private static final Capture<TableScanNode> TABLE_SCAN = newCapture();
+
+        private static final Pattern<ProjectNode> PATTERN = project()
+                .with(source().matching(tableScan().capturedAs(TABLE_SCAN)));
+
+        private final Metadata metadata;
+
+        private PushDereferencesThroughProject(Metadata metadata)
+        {
+            this.metadata = requireNonNull(metadata, "metadata is null");
+        }
+
+        @Override
+        public Pattern<ProjectNode> getPattern()
+        {
+            return PATTERN;
+        }
+
+        @Override
+        public boolean isEnabled(Session session)
+        {
+            return isPushdownDereferences(session);
+        }
+
+        @Override
+        public Result apply(ProjectNode project, Captures captures, Context context)
+        {
+            TableScanNode tableScan = captures.get(TABLE_SCAN);
+
+            return pushDereferences(tableScan, project.getAssignments().getExpressions(), metadata, context)
+                    .map(rewrittenTableScan -> Result.ofPlanNode(project.replaceChildren(ImmutableList.of(rewrittenTableScan))))
+                    .orElse(Result.empty());
+        }
+    }
+
+    private static final class PushDereferencesThroughProjectAndFilter
+            implements Rule<ProjectNode>
+    {
+        private static final Capture<FilterNode> FILTER = newCapture();
+        private static final Capture<TableScanNode> TABLE_SCAN = newCapture();
+
+        private static final Pattern<ProjectNode> PATTERN = project()
+                .with(source().matching(filter().capturedAs(FILTER)
+                        .with(source().matching(tableScan().capturedAs(TABLE_SCAN)))));
+
+        private final Metadata metadata;
+
+        private PushDereferencesThroughProjectAndFilter(Metadata metadata)
+        {
+            this.metadata = requireNonNull(metadata, "metadata is null");
+        }
+
+        @Override
+        public Pattern<ProjectNode> getPattern()
+        {
+            return PATTERN;
+        }
+
+        @Override
+        public boolean isEnabled(Session session)
+        {
+            return isPushdownDereferences(session);
+        }
+
+        @Override
+        public Result apply(ProjectNode project, Captures captures, Context context)
+        {
+            FilterNode filter = captures.get(FILTER);
+            TableScanNode tableScan = captures.get(TABLE_SCAN);
+
+            List<Expression> expressions = ImmutableList.<Expression>builder()
+                    .addAll(project.getAssignments().getExpressions())
+                    .add(filter.getPredicate())
+                    .build();
+
+            return pushDereferences(tableScan, expressions, metadata, context)
+                    .map(rewrittenTableScan -> Result.ofPlanNode(project.replaceChildren(ImmutableList.of(filter.replaceChildren(ImmutableList.of(rewrittenTableScan))))))
+                    .orElse(Result.empty());
+        }
+    }
+
+    /**
+     * Returns the table scan with the column handles replaced for the row columns that are only used in dereferences
+     * by the expressions, or empty if no column handle changes.
+     */
+    private static Optional<TableScanNode> pushDereferences(TableScanNode tableScan, Collection<Expression> expressions, Metadata metadata, Rule.Context context)
+    {
+        DereferenceCollector collector = new DereferenceCollector();
+        for (Expression expression : expressions) {
+            collector.process(expression, null);
+        }
+
+        // columns with domains must stay equal to the handles used in the constraints
+        Set<ColumnHandle> constrainedColumns = ImmutableSet.<ColumnHandle>builder()
+                .addAll(tableScan.getCurrentConstraint().getDomains().map(Map::keySet).orElse(ImmutableSet.of()))
+                .addAll(tableScan.getEnforcedConstraint().getDomains().map(Map::keySet).orElse(ImmutableSet.of()))
+                .build();
+
+        TypeProvider types = context.getSymbolAllocator().getTypes();
+        ImmutableMap.Builder<Symbol, ColumnHandle> assignments = ImmutableMap.builder();
+        boolean changed = false;
+        for (Map.Entry<Symbol, ColumnHandle> entry : tableScan.getAssignments().entrySet()) {
+            ColumnHandle column = entry.getValue();
+            Optional<List<List<String>>> fieldPaths = collector.getFieldPaths(entry.getKey(), types.get(entry.getKey()));
+            if (fieldPaths.isPresent() && !constrainedColumns.contains(column)) {
+                Optional<ColumnHandle> prunedColumn = metadata.pruneNestedFields(context.getSession(), tableScan.getTable(), column, fieldPaths.get());
+                if (prunedColumn.isPresent() && !prunedColumn.get().equals(column)) {
+                    column = prunedColumn.get();
+                    changed = true;
+                }
+            }
+            assignments.put(entry.getKey(), column);
+        }
+
+        if (!changed) {
+            return Optional.empty();
+        }
+        return Optional.of(new TableScanNode(
+                tableScan.getId(),
+                tableScan.getTable(),
+                tableScan.getOutputSymbols(),
+                assignments.build(),
+                tableScan.getLayout(),
+                tableScan.getCurrentConstraint(),
+                tableScan.getEnforcedConstraint()));
+    }
+
+    private static class DereferenceCollector
+            extends DefaultExpressionTraversalVisitor<Void, Void>
+    {
+        private final Map<Symbol, Set<List<String>>> dereferences = new HashMap<>();
+        private final Set<Symbol> references = new HashSet<>();
+
+        @Override
+        protected Void visitDereferenceExpression(DereferenceExpression node, Void context)
+        {
+            List<String> path = new ArrayList<>();
+            Expression base = node;
+            while (base instanceof DereferenceExpression) {
+                path.add(((DereferenceExpression) base).getField().getValue());
+                base = ((DereferenceExpression) base).getBase();
+            }
+            if (!(base instanceof SymbolReference)) {
+                return super.visitDereferenceExpression(node, context);
+            }
+            dereferences.computeIfAbsent(Symbol.from(base), symbol -> new HashSet<>()).add(Lists.reverse(path));
+            return null;
+        }
+
+        @Override
+        protected Void visitSymbolReference(SymbolReference node, Void context)
+        {
+            references.add(Symbol.from(node));
+            return null;
+        }
+
+        /**
+         * Returns the paths of the fields of the symbol that are referenced, or empty if the symbol
+         * is not only used in dereferences of known fields.
+         */
+        public Optional<List<List<String>>> getFieldPaths(Symbol symbol, Type type)
+        {
+            if (references.contains(symbol) || !dereferences.containsKey(symbol)) {
+                return Optional.empty();
+            }
+
+            Set<List<String>> fieldPaths = new HashSet<>();
+            for (List<String> dereference : dereferences.get(symbol)) {
+                Optional<List<String>> fieldPath = resolveFieldPath(type, dereference);
+                if (!fieldPath.isPresent()) {
+                    return Optional.empty();
+                }
+                fieldPaths.add(fieldPath.get());
+            }
+
+            // a field is read whole when the field itself is referenced
+            return Optional.of(fieldPaths.stream()
+                    .filter(path -> fieldPaths.stream().noneMatch(other -> other.size() < path.size() && path.subList(0, other.size()).equals(other)))
+                    .sorted(comparing(path -> String.join(".", path)))
+                    .collect(toImmutableList()));
+        }
+
+        private static Optional<List<String>> resolveFieldPath(Type type, List<String> dereference)
+        {
+            ImmutableList.Builder<String> fieldPath = ImmutableList.builder();
+            Type fieldType = type;
+            for (String name : dereference) {
+                if (!(fieldType instanceof RowType)) {
+                    return Optional.empty();
+                }
+                Optional<RowType.Field> field = ((RowType) fieldType).getFields().stream()
+                        .filter(candidate -> candidate.getName().isPresent() && candidate.getName().get().equalsIgnoreCase(name))
+                        .findFirst();
+                if (!field.isPresent()) {
+                    return Optional.empty();
+                }
+                fieldPath.add(field.get().getName().get());
+                fieldType = field.get().getType();
+            }
+            return Optional.of(fieldPath.build());
+        }
+    }
+}
@@ -43,6 +43,7 @@ public class PlanNodeStats
     private final DataSize planNodeInputDataSize;
     private final long planNodeOutputPositions;
     private final DataSize planNodeOutputDataSize;
+    private final long planNodePartialAggregationBypassedPositions;
 
     private final Map<String, OperatorInputStats> operatorInputStats;
     private final Map<String, OperatorHashCollisionsStats> operatorHashCollisionsStats;
@@ -55,6 +56,7 @@ public class PlanNodeStats
             DataSize planNodeInputDataSize,
             long planNodeOutputPositions,
             DataSize planNodeOutputDataSize,
+            long planNodePartialAggregationBypassedPositions,
             Map<String, OperatorInputStats> operatorInputStats,
             Map<String, OperatorHashCollisionsStats> operatorHashCollisionsStats,
             Optional<WindowOperatorStats> windowOperatorStats)
@@ -66,6 +68,7 @@ public class PlanNodeStats
         this.planNodeInputDataSize = planNodeInputDataSize;
         this.planNodeOutputPositions = planNodeOutputPositions;
         this.planNodeOutputDataSize = planNodeOutputDataSize;
+        this.planNodePartialAggregationBypassedPositions = planNodePartialAggregationBypassedPositions;
 
         this.operatorInputStats = requireNonNull(operatorInputStats, "operatorInputStats is null");
         this.operatorHashCollisionsStats = requireNonNull(operatorHashCollisionsStats, "operatorHashCollisionsStats is null");
@@ -115,6 +118,11 @@ public class PlanNodeStats
         return planNodeOutputDataSize;
     }
 
+    public long getPlanNodePartialAggregationBypassedPositions()
+    {
+        return planNodePartialAggregationBypassedPositions;
+    }
+
     public Map<String, Double> getOperatorInputPositionsAverages()
     {
         return operatorInputStats.entrySet().stream()
@@ -183,6 +191,7 @@ public class PlanNodeStats
         DataSize planNodeInputDataSize = succinctBytes(this.planNodeInputDataSize.toBytes() + other.planNodeInputDataSize.toBytes());
         long planNodeOutputPositions = this.planNodeOutputPositions + other.planNodeOutputPositions;
         DataSize planNodeOutputDataSize = succinctBytes(this.planNodeOutputDataSize.toBytes() + other.planNodeOutputDataSize.toBytes());
+        long planNodePartialAggregationBypassedPositions = this.planNodePartialAggregationBypassedPositions + other.planNodePartialAggregationBypassedPositions;
 
         Map<String, OperatorInputStats> operatorInputStats = mergeMaps(this.operatorInputStats, other.operatorInputStats, OperatorInputStats::merge);
         Map<String, OperatorHashCollisionsStats> operatorHashCollisionsStats = mergeMaps(this.operatorHashCollisionsStats, other.operatorHashCollisionsStats, OperatorHashCollisionsStats::merge);
@@ -193,6 +202,7 @@ public class PlanNodeStats
                 new Duration(planNodeWallTime.toMillis() + other.getPlanNodeWallTime().toMillis(), MILLISECONDS),
                 planNodeInputPositions, planNodeInputDataSize,
                 planNodeOutputPositions, planNodeOutputDataSize,
+                planNodePartialAggregationBypassedPositions,
                 operatorInputStats,
                 operatorHashCollisionsStats,
                 windowNodeStats);
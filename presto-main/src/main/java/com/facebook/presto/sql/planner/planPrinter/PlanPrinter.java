@@ -381,6 +381,11 @@ public class PlanPrinter
         }
         output.append('\n');
 
+        if (nodeStats.getPlanNodePartialAggregationBypassedPositions() > 0) {
+            output.append(indentString(indent));
+            output.append(format("Partial aggregation bypassed: %s\n", formatPositions(nodeStats.getPlanNodePartialAggregationBypassedPositions())));
+        }
+
         printDistributions(indent, nodeStats);
 
         if (nodeStats.getWindowOperatorStats().isPresent()) {
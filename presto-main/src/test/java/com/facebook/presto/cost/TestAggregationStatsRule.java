@@ -109,15 +109,15 @@ public class TestAggregationStatsRule
                                 .distinctValuesCountUnknown()
                                 .nullsFractionUnknown())
                         .symbolStats("count", symbolStatsAssertion -> symbolStatsAssertion
-                                .lowValueUnknown()
-                                .highValueUnknown()
+                                .lowValue(0)
+                                .highValue(100)
                                 .distinctValuesCountUnknown()
-                                .nullsFractionUnknown())
+                                .nullsFraction(0))
                         .symbolStats("count_on_x", symbolStatsAssertion -> symbolStatsAssertion
-                                .lowValueUnknown()
-                                .highValueUnknown()
+                                .lowValue(0)
+                                .highValue(100)
                                 .distinctValuesCountUnknown()
-                                .nullsFractionUnknown())
+                                .nullsFraction(0))
                         .symbolStats("x", symbolStatsAssertion -> symbolStatsAssertion
                                 .lowValueUnknown()
                                 .highValueUnknown()
@@ -145,4 +145,48 @@ public class TestAggregationStatsRule
                         .build())
                 .check(check -> check.outputRowsCount(100));
     }
+
+    @Test
+    public void testMinMaxAggregationStats()
+    {
+        tester().assertStatsFor(pb -> pb
+                .aggregation(ab -> ab
+                        .addAggregation(pb.symbol("min_x", BIGINT), expression("min(x)"), ImmutableList.of(BIGINT))
+                        .addAggregation(pb.symbol("max_z", BIGINT), expression("max(z)"), ImmutableList.of(BIGINT))
+                        .singleGroupingSet(pb.symbol("y", BIGINT))
+                        .source(pb.values(pb.symbol("x", BIGINT), pb.symbol("y", BIGINT), pb.symbol("z", BIGINT)))))
+                .withSourceStats(PlanNodeStatsEstimate.builder()
+                        .setOutputRowCount(100)
+                        .addSymbolStatistics(new Symbol("x"), SymbolStatsEstimate.builder()
+                                .setLowValue(1)
+                                .setHighValue(1000)
+                                .setDistinctValuesCount(50)
+                                .setNullsFraction(0)
+                                .build())
+                        .addSymbolStatistics(new Symbol("y"), SymbolStatsEstimate.builder()
+                                .setLowValue(0)
+                                .setHighValue(9)
+                                .setDistinctValuesCount(10)
+                                .setNullsFraction(0)
+                                .build())
+                        .addSymbolStatistics(new Symbol("z"), SymbolStatsEstimate.builder()
+                                .setLowValue(5)
+                                .setHighValue(7)
+                                .setDistinctValuesCount(3)
+                                .setNullsFraction(0.5)
+                                .build())
+                        .build())
+                .check(check -> check
+                        .outputRowsCount(10)
+                        .symbolStats("min_x", symbolStatsAssertion -> symbolStatsAssertion
+                                .lowValue(1)
+                                .highValue(1000)
+                                .distinctValuesCount(10)
+                                .nullsFraction(0))
+                        .symbolStats("max_z", symbolStatsAssertion -> symbolStatsAssertion
+                                .lowValue(5)
+                                .highValue(7)
+                                .distinctValuesCount(3)
+                                .nullsFractionUnknown()));
+    }
 }
@@ -33,6 +33,7 @@ import com.facebook.presto.spi.type.StandardTypes;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.sql.planner.NodePartitioningManager;
+import com.facebook.presto.sql.planner.OrderingScheme;
 import com.facebook.presto.sql.planner.Plan;
 import com.facebook.presto.sql.planner.PlanFragmenter;
 import com.facebook.presto.sql.planner.SubPlan;
@@ -42,10 +43,14 @@ import com.facebook.presto.sql.planner.plan.AggregationNode;
 import com.facebook.presto.sql.planner.plan.Assignments;
 import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
 import com.facebook.presto.sql.planner.plan.PlanNode;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.SortNode;
 import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.planner.plan.TopNNode;
+import com.facebook.presto.sql.planner.plan.UnionNode;
 import com.facebook.presto.sql.tree.Cast;
 import com.facebook.presto.sql.tree.Expression;
 import com.facebook.presto.sql.tree.FunctionCall;
@@ -57,6 +62,7 @@ import com.facebook.presto.tpch.TpchTableLayoutHandle;
 import com.facebook.presto.transaction.TransactionManager;
 import com.facebook.presto.util.FinalizerService;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.testng.annotations.AfterClass;
@@ -76,7 +82,9 @@ import static com.facebook.presto.cost.PlanNodeCostEstimate.cpuCost;
 import static com.facebook.presto.cost.PlanNodeStatsEstimate.UNKNOWN_STATS;
 import static com.facebook.presto.metadata.FunctionKind.AGGREGATE;
 import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_FIRST;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.spi.type.TypeSignature.parseTypeSignature;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.sql.planner.iterative.Lookup.noLookup;
@@ -325,6 +333,138 @@ public class TestCostCalculator
         assertCostHasUnknownComponentsForUnknownStats(aggregation, types);
     }
 
+    @Test
+    public void testUnion()
+    {
+        TableScanNode ts1 = tableScan("ts1", "orderkey");
+        TableScanNode ts2 = tableScan("ts2", "orderkey_0");
+        ImmutableListMultimap.Builder<Symbol, Symbol> outputMappings = ImmutableListMultimap.builder();
+        outputMappings.put(new Symbol("orderkey_1"), new Symbol("orderkey"));
+        outputMappings.put(new Symbol("orderkey_1"), new Symbol("orderkey_0"));
+        UnionNode union = new UnionNode(new PlanNodeId("union"), ImmutableList.of(ts1, ts2), outputMappings.build(), ImmutableList.of(new Symbol("orderkey_1")));
+
+        Map<String, PlanNodeCostEstimate> costs = ImmutableMap.of(
+                "ts1", cpuCost(1000),
+                "ts2", cpuCost(1000));
+        Map<String, PlanNodeStatsEstimate> stats = ImmutableMap.of(
+                "ts1", statsEstimate(ts1, 1000),
+                "ts2", statsEstimate(ts2, 1000),
+                "union", statsEstimate(union, 2000));
+        Map<String, Type> types = ImmutableMap.of(
+                "orderkey", BIGINT,
+                "orderkey_0", BIGINT,
+                "orderkey_1", BIGINT);
+
+        assertCost(union, costs, stats, types)
+                .cpu(2000)
+                .memory(0)
+                .network(0);
+
+        assertCostEstimatedExchanges(union, costs, stats, types)
+                .cpu(2000 + 2000 * IS_NULL_OVERHEAD)
+                .memory(0)
+                .network(2000 * IS_NULL_OVERHEAD);
+
+        assertCostHasUnknownComponentsForUnknownStats(union, types);
+    }
+
+    @Test
+    public void testSort()
+    {
+        TableScanNode tableScan = tableScan("ts", "orderkey");
+        SortNode sort = new SortNode(new PlanNodeId("sort"), tableScan, orderBy("orderkey"));
+
+        Map<String, PlanNodeCostEstimate> costs = ImmutableMap.of("ts", cpuCost(6000));
+        Map<String, PlanNodeStatsEstimate> stats = ImmutableMap.of(
+                "ts", statsEstimate(tableScan, 6000),
+                "sort", statsEstimate(sort, 6000));
+        Map<String, Type> types = ImmutableMap.of("orderkey", BIGINT);
+
+        assertCost(sort, costs, stats, types)
+                .cpu(6000 + 6000 * IS_NULL_OVERHEAD)
+                .memory(6000 * IS_NULL_OVERHEAD)
+                .network(0);
+
+        // no exchange is estimated for a sort
+        assertCostEstimatedExchanges(sort, costs, stats, types)
+                .cpu(6000 + 6000 * IS_NULL_OVERHEAD)
+                .memory(6000 * IS_NULL_OVERHEAD)
+                .network(0);
+
+        assertCostHasUnknownComponentsForUnknownStats(sort, types);
+    }
+
+    @Test
+    public void testTopN()
+    {
+        TableScanNode tableScan = tableScan("ts", "orderkey");
+        TopNNode topN = new TopNNode(new PlanNodeId("topn"), tableScan, 10, orderBy("orderkey"), TopNNode.Step.SINGLE);
+
+        Map<String, PlanNodeCostEstimate> costs = ImmutableMap.of("ts", cpuCost(6000));
+        Map<String, PlanNodeStatsEstimate> stats = ImmutableMap.of(
+                "ts", statsEstimate(tableScan, 6000),
+                "topn", statsEstimate(topN, 80));
+        Map<String, Type> types = ImmutableMap.of("orderkey", BIGINT);
+
+        assertCost(topN, costs, stats, types)
+                .cpu(6000 + 6000 * IS_NULL_OVERHEAD)
+                .memory(80 * IS_NULL_OVERHEAD)
+                .network(0);
+
+        // no exchange is estimated for a TopN
+        assertCostEstimatedExchanges(topN, costs, stats, types)
+                .cpu(6000 + 6000 * IS_NULL_OVERHEAD)
+                .memory(80 * IS_NULL_OVERHEAD)
+                .network(0);
+
+        assertCostHasUnknownComponentsForUnknownStats(topN, types);
+    }
+
+    @Test
+    public void testMarkDistinct()
+    {
+        TableScanNode tableScan = tableScan("ts", "orderkey");
+        MarkDistinctNode markDistinct = new MarkDistinctNode(
+                new PlanNodeId("markdistinct"),
+                tableScan,
+                new Symbol("marker"),
+                ImmutableList.of(new Symbol("orderkey")),
+                Optional.empty());
+
+        // 750 rows with 100 distinct values of orderkey
+        PlanNodeStatsEstimate tableScanStats = PlanNodeStatsEstimate.buildFrom(statsEstimate(tableScan, 6000))
+                .addSymbolStatistics(
+                        new Symbol("orderkey"),
+                        SymbolStatsEstimate.builder()
+                                .setNullsFraction(0)
+                                .setAverageRowSize(AVERAGE_ROW_SIZE)
+                                .setDistinctValuesCount(100)
+                                .build())
+                .build();
+
+        Map<String, PlanNodeCostEstimate> costs = ImmutableMap.of("ts", cpuCost(6000));
+        Map<String, PlanNodeStatsEstimate> stats = ImmutableMap.of(
+                "ts", tableScanStats,
+                "markdistinct", statsEstimate(markDistinct, 6000));
+        Map<String, Type> types = ImmutableMap.of(
+                "orderkey", BIGINT,
+                "marker", BOOLEAN);
+
+        // the memory holds the distinct values of orderkey
+        assertCost(markDistinct, costs, stats, types)
+                .cpu(6000 + 6000 * IS_NULL_OVERHEAD)
+                .memory(100 * AVERAGE_ROW_SIZE * IS_NULL_OVERHEAD)
+                .network(0);
+
+        // no exchange is estimated for a mark distinct
+        assertCostEstimatedExchanges(markDistinct, costs, stats, types)
+                .cpu(6000 + 6000 * IS_NULL_OVERHEAD)
+                .memory(100 * AVERAGE_ROW_SIZE * IS_NULL_OVERHEAD)
+                .network(0);
+
+        assertCostHasUnknownComponentsForUnknownStats(markDistinct, types);
+    }
+
     @Test
     public void testRepartitionedJoinWithExchange()
     {
@@ -611,6 +751,11 @@ public class TestCostCalculator
                 Optional.empty());
     }
 
+    private static OrderingScheme orderBy(String symbol)
+    {
+        return new OrderingScheme(ImmutableList.of(new Symbol(symbol)), ImmutableMap.of(new Symbol(symbol), ASC_NULLS_FIRST));
+    }
+
     /**
      * EquiJoinClause is created from symbols in form of:
      * symbol[0] = symbol[1] AND symbol[2] = symbol[3] AND ...
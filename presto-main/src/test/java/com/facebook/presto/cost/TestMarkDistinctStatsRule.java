@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.sql.planner.Symbol;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+
+public class TestMarkDistinctStatsRule
+        extends BaseStatsCalculatorTest
+{
+    @Test
+    public void testMarkerStats()
+    {
+        tester().assertStatsFor(pb -> {
+            Symbol a = pb.symbol("a", BIGINT);
+            Symbol marker = pb.symbol("marker", BOOLEAN);
+            return pb.markDistinct(marker, ImmutableList.of(a), pb.values(a));
+        }).withSourceStats(sourceStats(100))
+                .check(check -> check
+                        .outputRowsCount(100)
+                        .symbolStats("a", assertion -> assertion
+                                .lowValue(1)
+                                .highValue(30)
+                                .distinctValuesCount(20)
+                                .nullsFraction(0.1))
+                        .symbolStats("marker", assertion -> assertion
+                                .unknownRange()
+                                .distinctValuesCount(2)
+                                .nullsFraction(0)
+                                .averageRowSize(1)));
+    }
+
+    @Test
+    public void testSingleRowSource()
+    {
+        tester().assertStatsFor(pb -> {
+            Symbol a = pb.symbol("a", BIGINT);
+            Symbol marker = pb.symbol("marker", BOOLEAN);
+            return pb.markDistinct(marker, ImmutableList.of(a), pb.values(a));
+        }).withSourceStats(sourceStats(1))
+                .check(check -> check
+                        .outputRowsCount(1)
+                        .symbolStats("marker", assertion -> assertion
+                                .distinctValuesCount(1)
+                                .nullsFraction(0)));
+    }
+
+    @Test
+    public void testUnknownSourceRowCount()
+    {
+        tester().assertStatsFor(pb -> {
+            Symbol a = pb.symbol("a", BIGINT);
+            Symbol marker = pb.symbol("marker", BOOLEAN);
+            return pb.markDistinct(marker, ImmutableList.of(a), pb.values(a));
+        }).withSourceStats(sourceStats(Double.NaN))
+                .check(check -> check
+                        .outputRowsCountUnknown()
+                        .symbolStats("marker", assertion -> assertion
+                                .distinctValuesCountUnknown()
+                                .nullsFraction(0)
+                                .averageRowSize(1)));
+    }
+
+    private static PlanNodeStatsEstimate sourceStats(double rowCount)
+    {
+        return PlanNodeStatsEstimate.builder()
+                .setOutputRowCount(rowCount)
+                .addSymbolStatistics(
+                        new Symbol("a"),
+                        SymbolStatsEstimate.builder()
+                                .setNullsFraction(0.1)
+                                .setLowValue(1)
+                                .setHighValue(30)
+                                .setDistinctValuesCount(20)
+                                .build())
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.sql.planner.Symbol;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+
+public class TestSortStatsRule
+        extends BaseStatsCalculatorTest
+{
+    private static final PlanNodeStatsEstimate SOURCE_STATS = PlanNodeStatsEstimate.builder()
+            .setOutputRowCount(100)
+            .addSymbolStatistics(
+                    new Symbol("a"),
+                    SymbolStatsEstimate.builder()
+                            .setNullsFraction(0.1)
+                            .setLowValue(1)
+                            .setHighValue(30)
+                            .setDistinctValuesCount(20)
+                            .build())
+            .addSymbolStatistics(
+                    new Symbol("b"),
+                    SymbolStatsEstimate.builder()
+                            .setNullsFraction(0.5)
+                            .setLowValue(13.5)
+                            .setHighValue(100)
+                            .setDistinctValuesCount(40)
+                            .build())
+            .build();
+
+    @Test
+    public void testStatsForSortNode()
+    {
+        tester().assertStatsFor(pb -> {
+            Symbol a = pb.symbol("a", BIGINT);
+            Symbol b = pb.symbol("b", DOUBLE);
+            return pb.sort(ImmutableList.of(a), pb.values(a, b));
+        }).withSourceStats(SOURCE_STATS)
+                .check(check -> check.equalTo(SOURCE_STATS));
+    }
+
+    @Test
+    public void testUnknownSourceRowCount()
+    {
+        PlanNodeStatsEstimate sourceStats = PlanNodeStatsEstimate.buildFrom(SOURCE_STATS)
+                .setOutputRowCount(Double.NaN)
+                .build();
+
+        tester().assertStatsFor(pb -> {
+            Symbol a = pb.symbol("a", BIGINT);
+            Symbol b = pb.symbol("b", DOUBLE);
+            return pb.sort(ImmutableList.of(a), pb.values(a, b));
+        }).withSourceStats(sourceStats)
+                .check(check -> check
+                        .outputRowsCountUnknown()
+                        .symbolStats("a", assertion -> assertion
+                                .lowValue(1)
+                                .highValue(30)
+                                .distinctValuesCount(20)
+                                .nullsFraction(0.1)));
+    }
+}
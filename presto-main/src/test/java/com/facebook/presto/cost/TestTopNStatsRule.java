@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.cost;
+
+import com.facebook.presto.sql.planner.Symbol;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+
+public class TestTopNStatsRule
+        extends BaseStatsCalculatorTest
+{
+    private static final PlanNodeStatsEstimate SOURCE_STATS = PlanNodeStatsEstimate.builder()
+            .setOutputRowCount(100)
+            .addSymbolStatistics(
+                    new Symbol("a"),
+                    SymbolStatsEstimate.builder()
+                            .setNullsFraction(0)
+                            .setLowValue(1)
+                            .setHighValue(30)
+                            .setDistinctValuesCount(5)
+                            .build())
+            .addSymbolStatistics(
+                    new Symbol("b"),
+                    SymbolStatsEstimate.builder()
+                            .setNullsFraction(0)
+                            .setLowValue(13.5)
+                            .setHighValue(100)
+                            .setDistinctValuesCount(8)
+                            .build())
+            .build();
+
+    @Test
+    public void testTopNLimitsRowCount()
+    {
+        tester().assertStatsFor(pb -> {
+            Symbol a = pb.symbol("a", BIGINT);
+            Symbol b = pb.symbol("b", DOUBLE);
+            return pb.topN(10, ImmutableList.of(a), pb.values(a, b));
+        }).withSourceStats(SOURCE_STATS)
+                .check(check -> check
+                        .outputRowsCount(10)
+                        .symbolStats("a", assertion -> assertion
+                                .lowValue(1)
+                                .highValue(30)
+                                .distinctValuesCount(5)
+                                .nullsFraction(0))
+                        .symbolStats("b", assertion -> assertion
+                                .lowValue(13.5)
+                                .highValue(100)
+                                .distinctValuesCount(8)
+                                .nullsFraction(0)));
+    }
+
+    @Test
+    public void testTopNCountAboveSourceRowCount()
+    {
+        tester().assertStatsFor(pb -> {
+            Symbol a = pb.symbol("a", BIGINT);
+            Symbol b = pb.symbol("b", DOUBLE);
+            return pb.topN(1000, ImmutableList.of(a), pb.values(a, b));
+        }).withSourceStats(SOURCE_STATS)
+                .check(check -> check.equalTo(SOURCE_STATS));
+    }
+
+    @Test
+    public void testUnknownSourceRowCount()
+    {
+        PlanNodeStatsEstimate sourceStats = PlanNodeStatsEstimate.buildFrom(SOURCE_STATS)
+                .setOutputRowCount(Double.NaN)
+                .build();
+
+        // the count bounds the output even when the source row count is unknown
+        tester().assertStatsFor(pb -> {
+            Symbol a = pb.symbol("a", BIGINT);
+            Symbol b = pb.symbol("b", DOUBLE);
+            return pb.topN(10, ImmutableList.of(a), pb.values(a, b));
+        }).withSourceStats(sourceStats)
+                .check(check -> check
+                        .outputRowsCount(10)
+                        .symbolStats("a", assertion -> assertion
+                                .lowValue(1)
+                                .highValue(30)
+                                .distinctValuesCount(5)
+                                .nullsFraction(0)));
+    }
+}
@@ -118,6 +118,10 @@ public class MockQueryExecution
                         new Duration(8, NANOSECONDS),
 
                         new Duration(100, NANOSECONDS),
+                        new Duration(101, NANOSECONDS),
+                        new Duration(102, NANOSECONDS),
+                        new Duration(103, NANOSECONDS),
+                        new Duration(104, NANOSECONDS),
                         new Duration(200, NANOSECONDS),
 
                         9,
@@ -27,8 +27,10 @@ import com.facebook.presto.metadata.TableHandle;
 import com.facebook.presto.operator.StageExecutionStrategy;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.operator.TaskStats;
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.memory.MemoryPoolId;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.spiller.SpillSpaceTracker;
 import com.facebook.presto.sql.planner.Partitioning;
 import com.facebook.presto.sql.planner.PartitioningScheme;
@@ -236,6 +238,7 @@ public class MockRemoteTaskFactory
                             location,
                             nodeId,
                             ImmutableSet.of(),
+                            ImmutableMap.of(),
                             failures,
                             0,
                             0,
@@ -264,6 +267,7 @@ public class MockRemoteTaskFactory
                     location,
                     nodeId,
                     ImmutableSet.of(),
+                    ImmutableMap.of(),
                     ImmutableList.of(),
                     stats.getQueuedPartitionedDrivers(),
                     stats.getRunningPartitionedDrivers(),
@@ -364,6 +368,12 @@ public class MockRemoteTaskFactory
             outputBuffer.setOutputBuffers(outputBuffers);
         }
 
+        @Override
+        public void addDynamicFilters(Map<PlanNodeId, TupleDomain<ColumnHandle>> dynamicFilters)
+        {
+            taskContext.addDynamicFilters(dynamicFilters);
+        }
+
         @Override
         public void addStateChangeListener(StateChangeListener<TaskStatus> stateChangeListener)
         {
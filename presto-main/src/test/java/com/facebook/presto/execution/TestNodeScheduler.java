@@ -49,6 +49,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -287,6 +288,50 @@ public class TestNodeScheduler
         }
     }
 
+    @Test
+    public void testAffinityScheduling()
+    {
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerTask(10)
+                .setAffinitySchedulingEnabled(true);
+        NodeSelector nodeSelector = new NodeScheduler(new LegacyNetworkTopology(), nodeManager, nodeSchedulerConfig, nodeTaskMap).createNodeSelector(CONNECTOR_ID);
+        TestingTransactionHandle transactionHandle = TestingTransactionHandle.create();
+
+        // splits of the same file are placed on the same node
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            splits.add(new Split(CONNECTOR_ID, transactionHandle, new TestSplitRemote(Optional.of("file"))));
+        }
+        Multimap<Node, Split> assignments = nodeSelector.computeAssignments(splits, ImmutableList.of()).getAssignments();
+        assertEquals(assignments.size(), 10);
+        Node preferredNode = Iterables.getOnlyElement(assignments.keySet());
+
+        // and again in a later query
+        Set<Split> otherSplits = ImmutableSet.of(new Split(CONNECTOR_ID, transactionHandle, new TestSplitRemote(Optional.of("file"))));
+        assertEquals(Iterables.getOnlyElement(nodeSelector.computeAssignments(otherSplits, ImmutableList.of()).getAssignments().keySet()), preferredNode);
+
+        // saturated preferred node: the split moves to the next node on the hash ring
+        splits = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            splits.add(new Split(CONNECTOR_ID, transactionHandle, new TestSplitRemote(Optional.of("file"))));
+        }
+        assignments = nodeSelector.computeAssignments(splits, ImmutableList.of()).getAssignments();
+        assertEquals(assignments.get(preferredNode).size(), 20);
+        assertEquals(assignments.keySet().size(), 2);
+        assertEquals(assignments.size(), 30);
+
+        // both candidates saturated: regular placement
+        splits = new HashSet<>();
+        for (int i = 0; i < 45; i++) {
+            splits.add(new Split(CONNECTOR_ID, transactionHandle, new TestSplitRemote(Optional.of("file"))));
+        }
+        assignments = nodeSelector.computeAssignments(splits, ImmutableList.of()).getAssignments();
+        assertEquals(assignments.keySet().size(), 3);
+        assertEquals(assignments.size(), 45);
+    }
+
     @Test
     public void testMaxSplitsPerNode()
     {
@@ -451,6 +496,7 @@ public class TestNodeScheduler
             implements ConnectorSplit
     {
         private final List<HostAddress> hosts;
+        private final Optional<String> affinityKey;
 
         public TestSplitRemote()
         {
@@ -460,6 +506,19 @@ public class TestNodeScheduler
         public TestSplitRemote(HostAddress host)
         {
             this.hosts = ImmutableList.of(requireNonNull(host, "host is null"));
+            this.affinityKey = Optional.empty();
+        }
+
+        public TestSplitRemote(Optional<String> affinityKey)
+        {
+            this.hosts = ImmutableList.of(HostAddress.fromString("127.0.0.1:" + ThreadLocalRandom.current().nextInt(5000)));
+            this.affinityKey = requireNonNull(affinityKey, "affinityKey is null");
+        }
+
+        @Override
+        public Optional<String> getAffinityKey()
+        {
+            return affinityKey;
         }
 
         @Override
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.execution.QueryPlanCache.PlanCacheKey;
+import com.facebook.presto.security.AllowAllAccessControl;
+import com.facebook.presto.sql.parser.ParsingOptions;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.Statement;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.BYPASS_PLAN_CACHE;
+import static com.facebook.presto.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestQueryPlanCache
+{
+    private static final SqlParser SQL_PARSER = new SqlParser();
+    private static final Session SESSION = testSessionBuilder().build();
+
+    @Test
+    public void testDisabled()
+    {
+        QueryPlanCache planCache = createPlanCache(0, new SqlQueryManagerStats());
+        assertFalse(planCache.createKey(SESSION, statement("SELECT 1"), ImmutableList.of()).isPresent());
+    }
+
+    @Test
+    public void testKey()
+    {
+        QueryPlanCache planCache = createPlanCache(10, new SqlQueryManagerStats());
+
+        // the key is derived from the formatted statement, so whitespace and keyword case do not matter
+        assertEquals(
+                planCache.createKey(SESSION, statement("SELECT a FROM t WHERE b = ?"), parameters("1")),
+                planCache.createKey(SESSION, statement("select a\n  from t\nwhere b = ?"), parameters("1")));
+
+        // parameter values are folded into the plan
+        assertNotEquals(
+                planCache.createKey(SESSION, statement("SELECT a FROM t WHERE b = ?"), parameters("1")),
+                planCache.createKey(SESSION, statement("SELECT a FROM t WHERE b = ?"), parameters("2")));
+
+        // session properties can change the plan
+        Session broadcastSession = testSessionBuilder()
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, "BROADCAST")
+                .build();
+        assertNotEquals(
+                planCache.createKey(SESSION, statement("SELECT a FROM t"), ImmutableList.of()),
+                planCache.createKey(broadcastSession, statement("SELECT a FROM t"), ImmutableList.of()));
+        assertNotEquals(
+                planCache.createKey(SESSION, statement("SELECT a FROM t"), ImmutableList.of()),
+                planCache.createKey(testSessionBuilder().setSchema("other").build(), statement("SELECT a FROM t"), ImmutableList.of()));
+    }
+
+    @Test
+    public void testUncacheableStatements()
+    {
+        QueryPlanCache planCache = createPlanCache(10, new SqlQueryManagerStats());
+
+        assertTrue(planCache.createKey(SESSION, statement("SELECT a FROM t"), ImmutableList.of()).isPresent());
+
+        assertFalse(planCache.createKey(SESSION, statement("INSERT INTO t SELECT a FROM u"), ImmutableList.of()).isPresent());
+        assertFalse(planCache.createKey(SESSION, statement("EXPLAIN SELECT a FROM t"), ImmutableList.of()).isPresent());
+        assertFalse(planCache.createKey(SESSION, statement("SELECT current_timestamp"), ImmutableList.of()).isPresent());
+        assertFalse(planCache.createKey(SESSION, statement("SELECT a FROM t WHERE b < now()"), ImmutableList.of()).isPresent());
+        assertFalse(planCache.createKey(SESSION, statement("SELECT a FROM t WHERE b < (SELECT max(c) FROM u WHERE d < current_date)"), ImmutableList.of()).isPresent());
+        assertFalse(planCache.createKey(SESSION, statement("SELECT a FROM t WHERE b < ?"), parameters("localtimestamp")).isPresent());
+
+        Session bypassSession = testSessionBuilder()
+                .setSystemProperty(BYPASS_PLAN_CACHE, "true")
+                .build();
+        assertFalse(planCache.createKey(bypassSession, statement("SELECT a FROM t"), ImmutableList.of()).isPresent());
+    }
+
+    @Test
+    public void testMiss()
+    {
+        SqlQueryManagerStats stats = new SqlQueryManagerStats();
+        QueryPlanCache planCache = createPlanCache(10, stats);
+
+        Optional<PlanCacheKey> key = planCache.createKey(SESSION, statement("SELECT a FROM t"), ImmutableList.of());
+        assertTrue(key.isPresent());
+        assertFalse(planCache.lookup(key.get(), SESSION, new AllowAllAccessControl()).isPresent());
+
+        assertEquals(stats.getPlanCacheMisses().getTotalCount(), 1);
+        assertEquals(stats.getPlanCacheHits().getTotalCount(), 0);
+        assertEquals(stats.getPlanCacheEvictions().getTotalCount(), 0);
+    }
+
+    private static QueryPlanCache createPlanCache(int maxSize, SqlQueryManagerStats stats)
+    {
+        return new QueryPlanCache(new QueryManagerConfig().setPlanCacheMaxSize(maxSize), createTestMetadataManager(), stats);
+    }
+
+    private static Statement statement(String sql)
+    {
+        return SQL_PARSER.createStatement(sql, new ParsingOptions());
+    }
+
+    private static List<Expression> parameters(String... expressions)
+    {
+        ImmutableList.Builder<Expression> parameters = ImmutableList.builder();
+        for (String expression : expressions) {
+            parameters.add(SQL_PARSER.createExpression(expression, new ParsingOptions()));
+        }
+        return parameters.build();
+    }
+}
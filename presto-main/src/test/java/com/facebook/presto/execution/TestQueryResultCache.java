@@ -0,0 +1,257 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.execution.QueryResultCache.ResultReader;
+import com.facebook.presto.execution.QueryResultCache.ResultWriter;
+import com.facebook.presto.execution.buffer.PagesSerde;
+import com.facebook.presto.execution.buffer.SerializedPage;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.QueryId;
+import com.facebook.presto.spi.security.Identity;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.parser.ParsingOptions;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.planner.Plan;
+import com.facebook.presto.sql.planner.TypeProvider;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.facebook.presto.transaction.TransactionManager;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.SequencePageBuilder.createSequencePage;
+import static com.facebook.presto.SystemSessionProperties.BYPASS_RESULT_CACHE;
+import static com.facebook.presto.SystemSessionProperties.QUERY_MAX_EXECUTION_TIME;
+import static com.facebook.presto.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.TimeZoneKey.getTimeZoneKey;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static com.facebook.presto.transaction.InMemoryTransactionManager.createTestTransactionManager;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.nio.file.Files.createTempDirectory;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestQueryResultCache
+{
+    private static final PagesSerde PAGES_SERDE = testingPagesSerde();
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT);
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("x");
+
+    private Path cachePath;
+    private TransactionManager transactionManager;
+    private int nextQueryId;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        cachePath = createTempDirectory("result-cache");
+        transactionManager = createTestTransactionManager();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(cachePath, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        QueryResultCache resultCache = createResultCache(new DataSize(0, BYTE), new DataSize(1, MEGABYTE));
+        Plan plan = new Plan(new ValuesNode(new PlanNodeId("0"), ImmutableList.of(), ImmutableList.of()), TypeProvider.empty());
+        assertFalse(resultCache.createKey(testSessionBuilder().build(), new SqlParser().createStatement("SELECT 1", new ParsingOptions()), plan).isPresent());
+    }
+
+    @Test
+    public void testKeyDependsOnSession()
+    {
+        QueryResultCache resultCache = createResultCache(new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE));
+        Session session = testSessionBuilder()
+                .setTransactionId(transactionManager.beginTransaction(true))
+                .build();
+        String key = createKey(resultCache, session).get();
+        assertEquals(createKey(resultCache, session).get(), key);
+
+        Session otherUser = testSessionBuilder()
+                .setTransactionId(transactionManager.beginTransaction(true))
+                .setIdentity(new Identity("other_user", Optional.empty()))
+                .build();
+        assertNotEquals(createKey(resultCache, otherUser).get(), key);
+
+        Session otherTimeZone = testSessionBuilder()
+                .setTransactionId(transactionManager.beginTransaction(true))
+                .setTimeZoneKey(getTimeZoneKey("Asia/Kathmandu"))
+                .build();
+        assertNotEquals(createKey(resultCache, otherTimeZone).get(), key);
+
+        Session systemProperty = testSessionBuilder()
+                .setTransactionId(transactionManager.beginTransaction(true))
+                .setSystemProperty(QUERY_MAX_EXECUTION_TIME, "1h")
+                .build();
+        assertNotEquals(createKey(resultCache, systemProperty).get(), key);
+
+        Session bypass = testSessionBuilder()
+                .setTransactionId(transactionManager.beginTransaction(true))
+                .setSystemProperty(BYPASS_RESULT_CACHE, "true")
+                .build();
+        assertFalse(createKey(resultCache, bypass).isPresent());
+    }
+
+    @Test
+    public void testExplicitTransactionIsNotCached()
+    {
+        QueryResultCache resultCache = createResultCache(new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE));
+        Session session = testSessionBuilder()
+                .setTransactionId(transactionManager.beginTransaction(false))
+                .build();
+        assertFalse(createKey(resultCache, session).isPresent());
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        QueryResultCache resultCache = createResultCache(new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE));
+        List<Page> pages = ImmutableList.of(createSequencePage(TYPES, 100, 0), createSequencePage(TYPES, 50, 100));
+
+        writeEntry(resultCache, "key", pages);
+        assertTrue(resultCache.contains("key"));
+        assertEquals(resultCache.getEntryCount(), 1);
+        assertEquals(resultCache.getMisses().getTotalCount(), 1);
+
+        QueryId queryId = nextQueryId();
+        assertTrue(resultCache.register(queryId, "key", COLUMN_NAMES, TYPES));
+        assertFalse(resultCache.claimWriter(queryId).isPresent());
+        ResultReader reader = resultCache.claimReader(queryId).get();
+        assertFalse(resultCache.claimReader(queryId).isPresent());
+        assertEquals(reader.getColumnNames(), COLUMN_NAMES);
+        assertEquals(reader.getColumnTypes(), TYPES);
+
+        for (Page expected : pages) {
+            assertFalse(reader.isFinished());
+            assertPageEquals(TYPES, PAGES_SERDE.deserialize(reader.pollPage()), expected);
+        }
+        assertNull(reader.pollPage());
+        assertTrue(reader.isFinished());
+        assertEquals(resultCache.getHits().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testAbortedResultIsNotCached()
+    {
+        QueryResultCache resultCache = createResultCache(new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE));
+
+        QueryId queryId = nextQueryId();
+        assertFalse(resultCache.register(queryId, "key", COLUMN_NAMES, TYPES));
+        ResultWriter writer = resultCache.claimWriter(queryId).get();
+        writer.append(PAGES_SERDE.serialize(createSequencePage(TYPES, 100)));
+        writer.abort();
+        writer.commit();
+
+        assertFalse(resultCache.contains("key"));
+        assertEquals(resultCache.getSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testLargeResultIsNotCached()
+    {
+        QueryResultCache resultCache = createResultCache(new DataSize(1, MEGABYTE), new DataSize(100, BYTE));
+
+        writeEntry(resultCache, "key", ImmutableList.of(createSequencePage(TYPES, 1000)));
+
+        assertFalse(resultCache.contains("key"));
+        assertEquals(resultCache.getSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction()
+    {
+        List<Page> pages = ImmutableList.of(createSequencePage(TYPES, 100));
+        QueryResultCache unboundedCache = createResultCache(new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE));
+        writeEntry(unboundedCache, "key", pages);
+        long entrySize = unboundedCache.getSizeInBytes();
+
+        // files of the previous cache are removed when the new cache starts
+        QueryResultCache resultCache = createResultCache(new DataSize(entrySize * 2, BYTE), new DataSize(1, MEGABYTE));
+        writeEntry(resultCache, "a", pages);
+        writeEntry(resultCache, "b", pages);
+
+        // reading an entry makes it the most recently used one
+        QueryId queryId = nextQueryId();
+        assertTrue(resultCache.register(queryId, "a", COLUMN_NAMES, TYPES));
+        resultCache.claimReader(queryId).get().close();
+
+        writeEntry(resultCache, "c", pages);
+        assertTrue(resultCache.contains("a"));
+        assertFalse(resultCache.contains("b"));
+        assertTrue(resultCache.contains("c"));
+        assertEquals(resultCache.getSizeInBytes(), entrySize * 2);
+        assertEquals(resultCache.getEvictions().getTotalCount(), 1);
+    }
+
+    private void writeEntry(QueryResultCache resultCache, String key, List<Page> pages)
+    {
+        QueryId queryId = nextQueryId();
+        assertFalse(resultCache.register(queryId, key, COLUMN_NAMES, TYPES));
+        assertFalse(resultCache.claimReader(queryId).isPresent());
+        ResultWriter writer = resultCache.claimWriter(queryId).get();
+        for (Page page : pages) {
+            SerializedPage serializedPage = PAGES_SERDE.serialize(page);
+            writer.append(serializedPage);
+        }
+        writer.commit();
+    }
+
+    private static Optional<String> createKey(QueryResultCache resultCache, Session session)
+    {
+        Plan plan = new Plan(new ValuesNode(new PlanNodeId("0"), ImmutableList.of(), ImmutableList.of()), TypeProvider.empty());
+        return resultCache.createKey(session, new SqlParser().createStatement("SELECT 1", new ParsingOptions()), plan);
+    }
+
+    private QueryId nextQueryId()
+    {
+        return new QueryId("query_" + nextQueryId++);
+    }
+
+    private QueryResultCache createResultCache(DataSize maxSize, DataSize maxEntrySize)
+    {
+        QueryResultCacheConfig config = new QueryResultCacheConfig()
+                .setMaxSize(maxSize)
+                .setMaxEntrySize(maxEntrySize)
+                .setPath(cachePath.toString());
+        return new QueryResultCache(config, createTestMetadataManager(), transactionManager, jsonCodec(PlanNode.class));
+    }
+}
@@ -57,6 +57,10 @@ public class TestQueryStats
                     succinctBytes(116L),
                     117L,
                     succinctBytes(118L),
+                    1116L,
+                    1117L,
+                    1118L,
+                    1119L,
                     new Duration(119, NANOSECONDS),
                     120L,
                     new Duration(121, NANOSECONDS),
@@ -88,6 +92,10 @@ public class TestQueryStats
                     succinctBytes(216L),
                     217L,
                     succinctBytes(218L),
+                    2216L,
+                    2217L,
+                    2218L,
+                    2219L,
                     new Duration(219, NANOSECONDS),
                     220L,
                     new Duration(221, NANOSECONDS),
@@ -119,6 +127,10 @@ public class TestQueryStats
                     succinctBytes(316L),
                     317L,
                     succinctBytes(318L),
+                    3316L,
+                    3317L,
+                    3318L,
+                    3319L,
                     new Duration(319, NANOSECONDS),
                     320L,
                     new Duration(321, NANOSECONDS),
@@ -144,6 +156,10 @@ public class TestQueryStats
             new Duration(8, NANOSECONDS),
 
             new Duration(100, NANOSECONDS),
+            new Duration(101, NANOSECONDS),
+            new Duration(102, NANOSECONDS),
+            new Duration(103, NANOSECONDS),
+            new Duration(104, NANOSECONDS),
             new Duration(200, NANOSECONDS),
 
             9,
@@ -217,6 +233,10 @@ public class TestQueryStats
         assertEquals(actual.getDistributedPlanningTime(), new Duration(8, NANOSECONDS));
 
         assertEquals(actual.getTotalPlanningTime(), new Duration(100, NANOSECONDS));
+        assertEquals(actual.getSemanticAnalysisTime(), new Duration(101, NANOSECONDS));
+        assertEquals(actual.getLogicalPlanningTime(), new Duration(102, NANOSECONDS));
+        assertEquals(actual.getPlanOptimizationTime(), new Duration(103, NANOSECONDS));
+        assertEquals(actual.getPlanFragmentationTime(), new Duration(104, NANOSECONDS));
         assertEquals(actual.getFinishingTime(), new Duration(200, NANOSECONDS));
 
         assertEquals(actual.getTotalTasks(), 9);
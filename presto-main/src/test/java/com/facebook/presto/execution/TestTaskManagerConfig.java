@@ -58,6 +58,7 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(5)
                 .setTaskYieldThreads(3)
                 .setLevelTimeMultiplier(new BigDecimal("2"))
+                .setSplitQueueStripes(1)
                 .setStatisticsCpuTimerEnabled(false));
     }
 
@@ -90,6 +91,7 @@ public class TestTaskManagerConfig
                 .put("task.task-notification-threads", "13")
                 .put("task.task-yield-threads", "8")
                 .put("task.level-time-multiplier", "2.1")
+                .put("task.split-queue-stripes", "8")
                 .put("task.statistics-cpu-timer-enabled", "true")
                 .build();
 
@@ -119,6 +121,7 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(13)
                 .setTaskYieldThreads(8)
                 .setLevelTimeMultiplier(new BigDecimal("2.1"))
+                .setSplitQueueStripes(8)
                 .setStatisticsCpuTimerEnabled(true);
 
         assertFullMapping(properties, expected);
@@ -13,9 +13,11 @@
  */
 package com.facebook.presto.execution.buffer;
 
+import com.facebook.presto.block.BlockEncodingManager;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.TestingTypeManager;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.DynamicSliceOutput;
@@ -24,7 +26,11 @@ import org.testng.annotations.Test;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
+import static com.facebook.presto.execution.buffer.PageCompression.LZ4;
+import static com.facebook.presto.execution.buffer.PageCompression.UNCOMPRESSED;
+import static com.facebook.presto.execution.buffer.PageCompression.ZSTD;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.readPages;
 import static com.facebook.presto.execution.buffer.PagesSerdeUtil.writePages;
 import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
@@ -32,6 +38,8 @@ import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestPagesSerde
 {
@@ -59,6 +67,29 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testCompressionCodecs()
+    {
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, 1000);
+        for (int i = 0; i < 1000; i++) {
+            VARCHAR.writeString(blockBuilder, "value " + (i % 10));
+        }
+        Page page = new Page(blockBuilder.build());
+
+        assertCompression(ExchangeCompressionCodec.LZ4, page, LZ4);
+        assertCompression(ExchangeCompressionCodec.ZSTD, page, ZSTD);
+
+        // adaptive selection tries every codec before settling on one
+        PagesSerde adaptiveSerde = createPagesSerde(Optional.of(ExchangeCompressionCodec.ADAPTIVE));
+        assertEquals(adaptiveSerde.serialize(page).getCompression(), LZ4);
+        assertEquals(adaptiveSerde.serialize(page).getCompression(), ZSTD);
+        for (int i = 0; i < 100; i++) {
+            SerializedPage serializedPage = adaptiveSerde.serialize(page);
+            assertNotEquals(serializedPage.getCompression(), UNCOMPRESSED);
+            assertPageEquals(ImmutableList.of(VARCHAR), adaptiveSerde.deserialize(serializedPage), page);
+        }
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
@@ -124,4 +155,22 @@ public class TestPagesSerde
 
         return slice.length();
     }
+
+    private static void assertCompression(ExchangeCompressionCodec codec, Page page, PageCompression expectedCompression)
+    {
+        PagesSerde writer = createPagesSerde(Optional.of(codec));
+        SerializedPage serializedPage = writer.serialize(page);
+        assertEquals(serializedPage.getCompression(), expectedCompression);
+        assertEquals(writer.getBytesSavedByCompression(), serializedPage.getUncompressedSizeInBytes() - serializedPage.getSizeInBytes());
+        assertTrue(writer.getCompressionNanos() > 0);
+
+        // pages are decompressed according to their marker, regardless of the codec of the reader
+        PagesSerde reader = createPagesSerde(Optional.empty());
+        assertPageEquals(ImmutableList.of(VARCHAR), reader.deserialize(serializedPage), page);
+    }
+
+    private static PagesSerde createPagesSerde(Optional<ExchangeCompressionCodec> codec)
+    {
+        return new PagesSerde(new BlockEncodingManager(new TestingTypeManager()), codec);
+    }
 }
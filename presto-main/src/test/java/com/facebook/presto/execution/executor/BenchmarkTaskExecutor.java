@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution.executor;
+
+import com.facebook.presto.execution.SplitRunner;
+import com.facebook.presto.execution.TaskId;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.Duration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures how many short splits the task executor can run per second, where every split
+ * returns to the split queue a few times before it finishes.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = SECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkTaskExecutor
+{
+    private static final int TASKS = 32;
+    private static final int SPLITS_PER_TASK = 500;
+    private static final int SPLITS = TASKS * SPLITS_PER_TASK;
+    private static final int QUANTA_PER_SPLIT = 4;
+
+    @Benchmark
+    @OperationsPerInvocation(SPLITS)
+    public List<?> runSplits(BenchmarkData data)
+            throws Exception
+    {
+        List<ListenableFuture<?>> finishedFutures = new ArrayList<>(SPLITS);
+        for (TaskHandle taskHandle : data.getTaskHandles()) {
+            ImmutableList.Builder<SplitRunner> splits = ImmutableList.builder();
+            for (int i = 0; i < SPLITS_PER_TASK; i++) {
+                splits.add(new ShortSplit());
+            }
+            finishedFutures.addAll(data.getTaskExecutor().enqueueSplits(taskHandle, false, splits.build()));
+        }
+        return allAsList(finishedFutures).get();
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"1", "8", "32", "96"})
+        private int runnerThreads = 8;
+
+        @Param({"1", "16"})
+        private int splitQueueStripes = 1;
+
+        private TaskExecutor taskExecutor;
+        private List<TaskHandle> taskHandles;
+
+        @Setup
+        public void setup()
+        {
+            taskExecutor = new TaskExecutor(
+                    runnerThreads,
+                    runnerThreads * 2,
+                    1,
+                    Integer.MAX_VALUE,
+                    new MultilevelSplitQueue(2, splitQueueStripes),
+                    Ticker.systemTicker());
+            taskExecutor.start();
+
+            ImmutableList.Builder<TaskHandle> taskHandles = ImmutableList.builder();
+            for (int i = 0; i < TASKS; i++) {
+                taskHandles.add(taskExecutor.addTask(new TaskId("benchmark", 0, i), () -> 1.0, runnerThreads, new Duration(1, SECONDS)));
+            }
+            this.taskHandles = taskHandles.build();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            for (TaskHandle taskHandle : taskHandles) {
+                taskExecutor.removeTask(taskHandle);
+            }
+            taskExecutor.stop();
+        }
+
+        public TaskExecutor getTaskExecutor()
+        {
+            return taskExecutor;
+        }
+
+        public List<TaskHandle> getTaskHandles()
+        {
+            return taskHandles;
+        }
+    }
+
+    private static class ShortSplit
+            implements SplitRunner
+    {
+        private int remainingQuanta = QUANTA_PER_SPLIT;
+
+        @Override
+        public boolean isFinished()
+        {
+            return remainingQuanta == 0;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            remainingQuanta--;
+            return immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "short split";
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkTaskExecutor.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -23,6 +23,7 @@ import io.airlift.testing.TestingTicker;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Future;
@@ -409,6 +410,73 @@ public class TestTaskExecutor
         }
     }
 
+    @Test(timeOut = 30_000)
+    public void testStripedSplitQueue()
+            throws Exception
+    {
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2, 4);
+        TaskExecutor taskExecutor = new TaskExecutor(8, 16, 1, 8, splitQueue, new TestingTicker());
+        taskExecutor.start();
+        try {
+            List<ListenableFuture<?>> finishedFutures = new ArrayList<>();
+            List<QuantaJob> jobs = new ArrayList<>();
+            for (int task = 0; task < 4; task++) {
+                TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, task), () -> 0, 10, new Duration(1, MILLISECONDS));
+                ImmutableList.Builder<SplitRunner> splits = ImmutableList.builder();
+                for (int split = 0; split < 250; split++) {
+                    QuantaJob job = new QuantaJob(5);
+                    jobs.add(job);
+                    splits.add(job);
+                }
+                finishedFutures.addAll(taskExecutor.enqueueSplits(taskHandle, task % 2 == 0, splits.build()));
+            }
+
+            Futures.allAsList(finishedFutures).get();
+            for (QuantaJob job : jobs) {
+                assertTrue(job.isFinished());
+            }
+            assertEquals(splitQueue.size(), 0);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    @Test(timeOut = 30_000)
+    public void testSplitBookkeeping()
+            throws Exception
+    {
+        TaskExecutor taskExecutor = new TaskExecutor(8, 16, 1, 8, new MultilevelSplitQueue(2, 4), new TestingTicker());
+        taskExecutor.start();
+        try {
+            List<TaskHandle> taskHandles = new ArrayList<>();
+            List<ListenableFuture<?>> finishedFutures = new ArrayList<>();
+            for (int task = 0; task < 4; task++) {
+                TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, task), () -> 0, 10, new Duration(1, MILLISECONDS));
+                taskHandles.add(taskHandle);
+                for (int split = 0; split < 250; split++) {
+                    // splits finish after a single quanta, often before enqueueSplits returns
+                    finishedFutures.addAll(taskExecutor.enqueueSplits(taskHandle, split % 2 == 0, ImmutableList.of(new QuantaJob(1))));
+                }
+            }
+            Futures.allAsList(finishedFutures).get();
+
+            // the futures complete before the runner threads stop tracking the splits
+            while (taskExecutor.getTotalSplits() > 0) {
+                MILLISECONDS.sleep(10);
+            }
+            assertEquals(taskExecutor.getIntermediateSplits(), 0);
+            assertEquals(taskExecutor.getRunningLeafSplitCount(), 0);
+            for (TaskHandle taskHandle : taskHandles) {
+                assertEquals(taskHandle.getRunningIntermediateSplits(), 0);
+                assertEquals(taskHandle.getRunningLeafSplits(), 0);
+            }
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
     private void assertSplitStates(int endIndex, TestingJob[] splits)
     {
         // assert that splits up to and including endIndex are all started
@@ -531,4 +599,39 @@ public class TestTaskExecutor
             return completed;
         }
     }
+
+    private static class QuantaJob
+            implements SplitRunner
+    {
+        private final AtomicInteger remainingQuanta;
+
+        public QuantaJob(int quanta)
+        {
+            this.remainingQuanta = new AtomicInteger(quanta);
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return remainingQuanta.get() == 0;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            remainingQuanta.decrementAndGet();
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "quanta-job";
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
+import static com.facebook.presto.memory.LocalMemoryManager.RESERVED_POOL;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+
+public class TestLocalMemoryManager
+{
+    @Test
+    public void testJoinHashArrayPoolReducesGeneralPool()
+    {
+        LocalMemoryManager withoutArrayPool = new LocalMemoryManager(new NodeMemoryConfig(), new ReservedSystemMemoryConfig());
+        LocalMemoryManager withArrayPool = new LocalMemoryManager(new NodeMemoryConfig(), new ReservedSystemMemoryConfig(), new DataSize(16, MEGABYTE));
+
+        long arrayPoolSize = new DataSize(16, MEGABYTE).toBytes();
+        assertEquals(withArrayPool.getPool(GENERAL_POOL).getMaxBytes(), withoutArrayPool.getPool(GENERAL_POOL).getMaxBytes() - arrayPoolSize);
+        assertEquals(withArrayPool.getPool(RESERVED_POOL).getMaxBytes(), withoutArrayPool.getPool(RESERVED_POOL).getMaxBytes());
+    }
+
+    @Test
+    public void testJoinHashArrayPoolReducesLegacyGeneralPool()
+    {
+        NodeMemoryConfig config = new NodeMemoryConfig()
+                .setLegacySystemPoolEnabled(true)
+                .setMaxQueryMemoryPerNode(new DataSize(1, BYTE));
+        LocalMemoryManager withoutArrayPool = new LocalMemoryManager(config, new ReservedSystemMemoryConfig());
+        LocalMemoryManager withArrayPool = new LocalMemoryManager(config, new ReservedSystemMemoryConfig(), new DataSize(16, MEGABYTE));
+
+        long arrayPoolSize = new DataSize(16, MEGABYTE).toBytes();
+        assertEquals(withArrayPool.getPool(GENERAL_POOL).getMaxBytes(), withoutArrayPool.getPool(GENERAL_POOL).getMaxBytes() - arrayPoolSize);
+    }
+}
@@ -122,6 +122,12 @@ public abstract class AbstractMockMetadata
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Optional<String> getLayoutVersion(Session session, TableLayoutHandle handle)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public TableMetadata getTableMetadata(Session session, TableHandle tableHandle)
     {
@@ -152,6 +158,12 @@ public abstract class AbstractMockMetadata
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Optional<ColumnHandle> pruneNestedFields(Session session, TableHandle tableHandle, ColumnHandle columnHandle, List<List<String>> fieldPaths)
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public Map<QualifiedObjectName, List<ColumnMetadata>> listTableColumns(Session session, QualifiedTablePrefix prefix)
     {
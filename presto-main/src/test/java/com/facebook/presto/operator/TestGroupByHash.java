@@ -41,6 +41,7 @@ import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
 import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
 import static com.facebook.presto.block.BlockAssertions.createStringSequenceBlock;
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
+import static com.facebook.presto.operator.UpdateMemory.NOOP;
 import static com.facebook.presto.spi.block.DictionaryId.randomDictionaryId;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
@@ -93,6 +94,43 @@ public class TestGroupByHash
         }
     }
 
+    @Test
+    public void testMultiChannelDictionary()
+    {
+        GroupByHash dictionaryGroupByHash = createGroupByHash(ImmutableList.of(VARCHAR, VARCHAR), new int[] {0, 1}, Optional.empty(), 100, true, JOIN_COMPILER, NOOP);
+        GroupByHash groupByHash = createGroupByHash(ImmutableList.of(VARCHAR, VARCHAR), new int[] {0, 1}, Optional.empty(), 100, false, JOIN_COMPILER, NOOP);
+
+        Block firstDictionary = createStringSequenceBlock(0, 3);
+        Block secondDictionary = createStringSequenceBlock(10, 14);
+        for (int pageNumber = 0; pageNumber < 2; pageNumber++) {
+            // the same dictionaries are shared by both pages, with different ids
+            int positionCount = 30;
+            int[] firstIds = new int[positionCount];
+            int[] secondIds = new int[positionCount];
+            for (int position = 0; position < positionCount; position++) {
+                firstIds[position] = (position + pageNumber) % 3;
+                secondIds[position] = (position * 7 + pageNumber) % 4;
+            }
+            Page dictionaryPage = new Page(
+                    new DictionaryBlock(firstDictionary, firstIds),
+                    new DictionaryBlock(secondDictionary, secondIds));
+
+            Work<GroupByIdBlock> dictionaryWork = dictionaryGroupByHash.getGroupIds(dictionaryPage);
+            assertTrue(dictionaryWork.process());
+            GroupByIdBlock dictionaryGroupIds = dictionaryWork.getResult();
+
+            Work<GroupByIdBlock> work = groupByHash.getGroupIds(dictionaryPage);
+            assertTrue(work.process());
+            GroupByIdBlock groupIds = work.getResult();
+
+            assertEquals(dictionaryGroupIds.getGroupCount(), groupIds.getGroupCount());
+            for (int position = 0; position < positionCount; position++) {
+                assertEquals(dictionaryGroupIds.getGroupId(position), groupIds.getGroupId(position));
+            }
+        }
+        assertEquals(dictionaryGroupByHash.getGroupCount(), 12);
+    }
+
     @Test
     public void testNullGroup()
     {
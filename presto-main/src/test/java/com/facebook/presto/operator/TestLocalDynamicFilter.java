@@ -0,0 +1,143 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.Range;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.predicate.ValueSet;
+import com.facebook.presto.testing.TestingMetadata.TestingColumnHandle;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.facebook.presto.block.BlockAssertions.createLongsBlock;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestLocalDynamicFilter
+{
+    private static final ColumnHandle PROBE_COLUMN = new TestingColumnHandle("probe");
+
+    @Test
+    public void testDistinctValues()
+    {
+        LocalDynamicFilter filter = new LocalDynamicFilter(ImmutableMap.of(0, BIGINT), 10);
+        Supplier<TupleDomain<ColumnHandle>> predicate = filter.createPredicateSupplier(ImmutableMap.of(0, PROBE_COLUMN));
+        filter.setPartitionCount(2);
+
+        DynamicFilterCollector first = filter.createCollector(ImmutableList.of(1));
+        first.addPage(new Page(createStringsBlock("a", "b", "c"), createLongsBlock(1L, 2L, null)));
+        DynamicFilterCollector second = filter.createCollector(ImmutableList.of(1));
+        second.addPage(new Page(createStringsBlock("d", "e"), createLongsBlock(2L, 5L)));
+
+        filter.addPartitionSummary(first.getSummary());
+        // not all partitions are summarized yet
+        assertTrue(predicate.get().isAll());
+
+        filter.addPartitionSummary(second.getSummary());
+        assertEquals(
+                predicate.get(),
+                TupleDomain.withColumnDomains(ImmutableMap.of(PROBE_COLUMN, Domain.multipleValues(BIGINT, ImmutableList.of(1L, 2L, 5L)))));
+    }
+
+    @Test
+    public void testRangeFallback()
+    {
+        LocalDynamicFilter filter = new LocalDynamicFilter(ImmutableMap.of(0, BIGINT), 2);
+        Supplier<TupleDomain<ColumnHandle>> predicate = filter.createPredicateSupplier(ImmutableMap.of(0, PROBE_COLUMN));
+        filter.setPartitionCount(1);
+
+        DynamicFilterCollector collector = filter.createCollector(ImmutableList.of(0));
+        collector.addPage(new Page(createLongsBlock(7L, 3L, 10L)));
+        collector.addPage(new Page(createLongsBlock(-4L)));
+        filter.addPartitionSummary(collector.getSummary());
+
+        assertEquals(
+                predicate.get(),
+                TupleDomain.withColumnDomains(ImmutableMap.of(PROBE_COLUMN, Domain.create(ValueSet.ofRanges(Range.range(BIGINT, -4L, true, 10L, true)), false))));
+    }
+
+    @Test
+    public void testRetainedSize()
+    {
+        LocalDynamicFilter filter = new LocalDynamicFilter(ImmutableMap.of(0, VARCHAR), 3);
+        DynamicFilterCollector collector = filter.createCollector(ImmutableList.of(0));
+        long emptySize = collector.getRetainedSizeInBytes();
+
+        collector.addPage(new Page(createStringsBlock("a", "b")));
+        long twoValuesSize = collector.getRetainedSizeInBytes();
+        assertTrue(twoValuesSize > emptySize);
+
+        // repeated values are not retained again
+        collector.addPage(new Page(createStringsBlock("a", "b", "a")));
+        assertEquals(collector.getRetainedSizeInBytes(), twoValuesSize);
+
+        // the distinct values are not retained once only the range is kept
+        collector.addPage(new Page(createStringsBlock("c", "d")));
+        assertTrue(collector.getRetainedSizeInBytes() < twoValuesSize);
+    }
+
+    @Test
+    public void testEmptyBuildSide()
+    {
+        LocalDynamicFilter filter = new LocalDynamicFilter(ImmutableMap.of(0, VARCHAR), 10);
+        Supplier<TupleDomain<ColumnHandle>> predicate = filter.createPredicateSupplier(ImmutableMap.of(0, PROBE_COLUMN));
+        filter.setPartitionCount(1);
+
+        DynamicFilterCollector collector = filter.createCollector(ImmutableList.of(0));
+        collector.addPage(new Page(createStringsBlock((String) null)));
+        filter.addPartitionSummary(collector.getSummary());
+
+        assertTrue(predicate.get().isNone());
+    }
+
+    @Test
+    public void testPageFilter()
+    {
+        ColumnHandle otherColumn = new TestingColumnHandle("other");
+        TupleDomain<ColumnHandle> predicate = TupleDomain.withColumnDomains(ImmutableMap.of(
+                PROBE_COLUMN, Domain.multipleValues(VARCHAR, ImmutableList.of(utf8Slice("a"), utf8Slice("c")))));
+
+        Optional<DynamicFilterPageFilter> pageFilter = DynamicFilterPageFilter.create(predicate, ImmutableList.of(otherColumn, PROBE_COLUMN));
+        assertTrue(pageFilter.isPresent());
+
+        Page page = pageFilter.get().filter(new Page(createLongsBlock(1L, 2L, 3L, 4L), createStringsBlock("a", "b", "c", null)));
+        assertEquals(page.getPositionCount(), 2);
+        assertEquals(BIGINT.getLong(page.getBlock(0), 0), 1L);
+        assertEquals(BIGINT.getLong(page.getBlock(0), 1), 3L);
+
+        assertFalse(DynamicFilterPageFilter.create(TupleDomain.all(), ImmutableList.of(PROBE_COLUMN)).isPresent());
+    }
+
+    @Test
+    public void testSupportedTypes()
+    {
+        assertTrue(LocalDynamicFilter.isSupportedType(BIGINT));
+        assertTrue(LocalDynamicFilter.isSupportedType(VARCHAR));
+        // -0.0 and 0.0 are equal in SQL, but not in the native representation
+        assertFalse(LocalDynamicFilter.isSupportedType(DOUBLE));
+    }
+}
@@ -56,6 +56,12 @@ public class TestOperatorStats
 
             new DataSize(23, BYTE),
 
+            28,
+            29,
+
+            26,
+            27,
+
             new Duration(15, NANOSECONDS),
 
             16,
@@ -95,6 +101,12 @@ public class TestOperatorStats
 
             new DataSize(23, BYTE),
 
+            28,
+            29,
+
+            26,
+            27,
+
             new Duration(15, NANOSECONDS),
 
             16,
@@ -143,6 +155,11 @@ public class TestOperatorStats
 
         assertEquals(actual.getPhysicalWrittenDataSize(), new DataSize(23, BYTE));
 
+        assertEquals(actual.getBytesSavedByCompression(), 28);
+        assertEquals(actual.getCompressionNanos(), 29);
+        assertEquals(actual.getDynamicFilterPrunedPositions(), 26);
+        assertEquals(actual.getPartialAggregationBypassedPositions(), 27);
+
         assertEquals(actual.getBlockedWall(), new Duration(15, NANOSECONDS));
 
         assertEquals(actual.getFinishCalls(), 16);
@@ -184,6 +201,11 @@ public class TestOperatorStats
 
         assertEquals(actual.getPhysicalWrittenDataSize(), new DataSize(3 * 23, BYTE));
 
+        assertEquals(actual.getBytesSavedByCompression(), 3 * 28);
+        assertEquals(actual.getCompressionNanos(), 3 * 29);
+        assertEquals(actual.getDynamicFilterPrunedPositions(), 3 * 26);
+        assertEquals(actual.getPartialAggregationBypassedPositions(), 3 * 27);
+
         assertEquals(actual.getBlockedWall(), new Duration(3 * 15, NANOSECONDS));
 
         assertEquals(actual.getFinishCalls(), 3 * 16);
@@ -223,6 +245,11 @@ public class TestOperatorStats
 
         assertEquals(actual.getPhysicalWrittenDataSize(), new DataSize(3 * 23, BYTE));
 
+        assertEquals(actual.getBytesSavedByCompression(), 3 * 28);
+        assertEquals(actual.getCompressionNanos(), 3 * 29);
+        assertEquals(actual.getDynamicFilterPrunedPositions(), 3 * 26);
+        assertEquals(actual.getPartialAggregationBypassedPositions(), 3 * 27);
+
         assertEquals(actual.getBlockedWall(), new Duration(3 * 15, NANOSECONDS));
 
         assertEquals(actual.getFinishCalls(), 3 * 16);
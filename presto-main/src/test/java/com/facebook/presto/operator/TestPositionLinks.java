@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.array.PooledArrayAllocator;
 import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.sql.analyzer.FeaturesConfig;
@@ -60,6 +61,39 @@ public class TestPositionLinks
         assertEquals(positionLinks.next(11, 0, TEST_PAGE), 10);
     }
 
+    @Test
+    public void testPooledArrayPositionLinks()
+    {
+        PooledArrayAllocator allocator = new PooledArrayAllocator(1024 * 1024);
+
+        // leave stale links in a longer array
+        PositionLinks.FactoryBuilder staleBuilder = ArrayPositionLinks.builder(1500, allocator);
+        for (int position = 1; position < 1500; position++) {
+            staleBuilder.link(position, position - 1);
+        }
+        PositionLinks.Factory staleFactory = staleBuilder.build();
+        staleFactory.close();
+
+        PositionLinks.FactoryBuilder factoryBuilder = ArrayPositionLinks.builder(1000, allocator);
+        assertEquals(allocator.getReusedArrays(), 1);
+        assertEquals(factoryBuilder.link(3, 2), 3);
+        PositionLinks.Factory factory = factoryBuilder.build();
+        PositionLinks positionLinks = factory.create(ImmutableList.of());
+
+        assertEquals(positionLinks.next(3, 0, TEST_PAGE), 2);
+        assertEquals(positionLinks.next(2, 0, TEST_PAGE), -1);
+        assertEquals(positionLinks.next(999, 0, TEST_PAGE), -1);
+
+        // checksum only covers the requested positions
+        PositionLinks.FactoryBuilder unpooledBuilder = ArrayPositionLinks.builder(1000);
+        unpooledBuilder.link(3, 2);
+        assertEquals(factory.checksum(), unpooledBuilder.build().checksum());
+
+        factory.close();
+        ArrayPositionLinks.builder(1000, allocator);
+        assertEquals(allocator.getReusedArrays(), 2);
+    }
+
     @Test
     public void testSortedPositionLinks()
     {
@@ -33,6 +33,7 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.RecordPageSource;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.LazyBlock;
+import com.facebook.presto.spi.predicate.TupleDomain;
 import com.facebook.presto.sql.gen.ExpressionCompiler;
 import com.facebook.presto.sql.gen.PageFunctionCompiler;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
@@ -108,6 +109,7 @@ public class TestScanFilterAndProjectOperator
                 cursorProcessor,
                 pageProcessor,
                 ImmutableList.of(),
+                TupleDomain::all,
                 ImmutableList.of(VARCHAR),
                 new DataSize(0, BYTE),
                 0);
@@ -150,6 +152,7 @@ public class TestScanFilterAndProjectOperator
                 cursorProcessor,
                 pageProcessor,
                 ImmutableList.of(),
+                TupleDomain::all,
                 ImmutableList.of(BIGINT),
                 new DataSize(64, KILOBYTE),
                 2);
@@ -193,6 +196,7 @@ public class TestScanFilterAndProjectOperator
                 cursorProcessor,
                 () -> pageProcessor,
                 ImmutableList.of(),
+                TupleDomain::all,
                 ImmutableList.of(BIGINT),
                 new DataSize(0, BYTE),
                 0);
@@ -226,6 +230,7 @@ public class TestScanFilterAndProjectOperator
                 cursorProcessor,
                 pageProcessor,
                 ImmutableList.of(),
+                TupleDomain::all,
                 ImmutableList.of(VARCHAR),
                 new DataSize(0, BYTE),
                 0);
@@ -277,6 +282,7 @@ public class TestScanFilterAndProjectOperator
                 cursorProcessor,
                 pageProcessor,
                 ImmutableList.of(),
+                TupleDomain::all,
                 ImmutableList.of(BIGINT),
                 new DataSize(0, BYTE),
                 0);
@@ -336,6 +342,7 @@ public class TestScanFilterAndProjectOperator
                 cursorProcessor,
                 pageProcessor,
                 ImmutableList.of(),
+                TupleDomain::all,
                 ImmutableList.of(BIGINT),
                 new DataSize(0, BYTE),
                 0);
@@ -0,0 +1,222 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator.project;
+
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.LazyBlock;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongPredicate;
+
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.operator.project.ConjunctionPageFilter.REORDER_INTERVAL_PAGES;
+import static com.facebook.presto.spi.StandardErrorCode.DIVISION_BY_ZERO;
+import static com.facebook.presto.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.fail;
+
+public class TestConjunctionPageFilter
+{
+    @Test
+    public void testInputChannels()
+    {
+        ConjunctionPageFilter filter = new ConjunctionPageFilter(ImmutableList.of(
+                new LongFilter(3, value -> true),
+                new LongFilter(1, value -> true),
+                new LongFilter(3, value -> true)));
+        assertEquals(filter.getInputChannels().getInputChannels(), ImmutableList.of(1, 3));
+    }
+
+    @Test
+    public void testFilter()
+    {
+        LongFilter even = new LongFilter(0, value -> value % 2 == 0);
+        LongFilter lessThan = new LongFilter(1, value -> value < 50);
+        ConjunctionPageFilter filter = new ConjunctionPageFilter(ImmutableList.of(even, lessThan));
+
+        Page page = new Page(createLongSequenceBlock(0, 100), createLongSequenceBlock(0, 100));
+        SelectedPositions selectedPositions = filter.filter(null, page);
+        assertPositions(selectedPositions, value -> value % 2 == 0 && value < 50, 100);
+
+        // the second conjunct only sees the positions accepted by the first one
+        assertEquals(even.getEvaluatedPositions(), 100);
+        assertEquals(lessThan.getEvaluatedPositions(), 50);
+    }
+
+    @Test
+    public void testAllSelected()
+    {
+        ConjunctionPageFilter filter = new ConjunctionPageFilter(ImmutableList.of(
+                new LongFilter(0, value -> true),
+                new LongFilter(1, value -> true)));
+
+        SelectedPositions selectedPositions = filter.filter(null, new Page(createLongSequenceBlock(0, 100), createLongSequenceBlock(0, 100)));
+        assertFalse(selectedPositions.isList());
+        assertEquals(selectedPositions.getOffset(), 0);
+        assertEquals(selectedPositions.size(), 100);
+    }
+
+    @Test
+    public void testLaterConjunctNotLoaded()
+    {
+        ConjunctionPageFilter filter = new ConjunctionPageFilter(ImmutableList.of(
+                new LongFilter(0, value -> value < 0),
+                new LongFilter(1, value -> true)));
+
+        Block lazyBlock = new LazyBlock(100, block -> fail("block should not be loaded"));
+        SelectedPositions selectedPositions = filter.filter(null, new Page(createLongSequenceBlock(0, 100), lazyBlock));
+        assertEquals(selectedPositions.size(), 0);
+    }
+
+    @Test
+    public void testReorder()
+    {
+        LongFilter nonSelective = new LongFilter(0, value -> true);
+        LongFilter selective = new LongFilter(1, value -> value < 10);
+        ConjunctionPageFilter filter = new ConjunctionPageFilter(ImmutableList.of(nonSelective, selective));
+
+        Page page = new Page(createLongSequenceBlock(0, 100), createLongSequenceBlock(0, 100));
+        for (int i = 0; i < REORDER_INTERVAL_PAGES; i++) {
+            assertPositions(filter.filter(null, page), value -> value < 10, 100);
+        }
+        assertEquals(filter.getEvaluationOrder(), ImmutableList.of(selective, nonSelective));
+
+        nonSelective.resetEvaluatedPositions();
+        assertPositions(filter.filter(null, page), value -> value < 10, 100);
+        assertEquals(nonSelective.getEvaluatedPositions(), 10);
+    }
+
+    @Test
+    public void testFallbackToDeclaredOrder()
+    {
+        // the second conjunct fails for the values the first one rejects
+        LongFilter guard = new LongFilter(0, value -> value >= 0);
+        LongFilter failing = new LongFilter(0, value -> {
+            if (value < 0) {
+                throw new PrestoException(DIVISION_BY_ZERO, "negative value");
+            }
+            return value < 10;
+        });
+        ConjunctionPageFilter filter = new ConjunctionPageFilter(ImmutableList.of(guard, failing));
+
+        Page page = new Page(createLongSequenceBlock(0, 100));
+        for (int i = 0; i < REORDER_INTERVAL_PAGES; i++) {
+            filter.filter(null, page);
+        }
+        assertEquals(filter.getEvaluationOrder(), ImmutableList.of(failing, guard));
+
+        Page negativePage = new Page(createLongSequenceBlock(-50, 50));
+        assertPositions(filter.filter(null, negativePage), value -> value >= 50 && value < 60, 100);
+        assertEquals(filter.getEvaluationOrder(), ImmutableList.of(guard, failing));
+
+        // failures of the declared order are not masked
+        ConjunctionPageFilter failingFirst = new ConjunctionPageFilter(ImmutableList.of(failing, guard));
+        assertThrows(PrestoException.class, () -> failingFirst.filter(null, negativePage));
+    }
+
+    @Test
+    public void testOtherFailuresPropagate()
+    {
+        AtomicBoolean failing = new AtomicBoolean();
+        LongFilter nonSelective = new LongFilter(0, value -> true);
+        LongFilter selective = new LongFilter(1, value -> {
+            if (failing.get()) {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "connector failure");
+            }
+            return value < 10;
+        });
+        ConjunctionPageFilter filter = new ConjunctionPageFilter(ImmutableList.of(nonSelective, selective));
+
+        Page page = new Page(createLongSequenceBlock(0, 100), createLongSequenceBlock(0, 100));
+        for (int i = 0; i < REORDER_INTERVAL_PAGES; i++) {
+            filter.filter(null, page);
+        }
+        assertEquals(filter.getEvaluationOrder(), ImmutableList.of(selective, nonSelective));
+
+        // a failure that does not depend on the evaluation order is not retried and keeps the order
+        failing.set(true);
+        nonSelective.resetEvaluatedPositions();
+        assertThrows(PrestoException.class, () -> filter.filter(null, page));
+        assertEquals(filter.getEvaluationOrder(), ImmutableList.of(selective, nonSelective));
+        assertEquals(nonSelective.getEvaluatedPositions(), 0);
+    }
+
+    private static void assertPositions(SelectedPositions selectedPositions, LongPredicate expected, int positionCount)
+    {
+        int index = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (expected.test(position)) {
+                int selected = selectedPositions.isList() ? selectedPositions.getPositions()[selectedPositions.getOffset() + index] : selectedPositions.getOffset() + index;
+                assertEquals(selected, position);
+                index++;
+            }
+        }
+        assertEquals(selectedPositions.size(), index);
+    }
+
+    private static class LongFilter
+            implements PageFilter
+    {
+        private final int channel;
+        private final LongPredicate predicate;
+        private int evaluatedPositions;
+
+        public LongFilter(int channel, LongPredicate predicate)
+        {
+            this.channel = channel;
+            this.predicate = predicate;
+        }
+
+        public int getEvaluatedPositions()
+        {
+            return evaluatedPositions;
+        }
+
+        public void resetEvaluatedPositions()
+        {
+            evaluatedPositions = 0;
+        }
+
+        @Override
+        public boolean isDeterministic()
+        {
+            return true;
+        }
+
+        @Override
+        public InputChannels getInputChannels()
+        {
+            return new InputChannels(channel);
+        }
+
+        @Override
+        public SelectedPositions filter(ConnectorSession session, Page page)
+        {
+            Block block = page.getBlock(0);
+            boolean[] selected = new boolean[block.getPositionCount()];
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                selected[position] = predicate.test(block.getLong(position, 0));
+            }
+            evaluatedPositions += block.getPositionCount();
+            return PageFilter.positionsArrayToSelectedPositions(selected, block.getPositionCount());
+        }
+    }
+}
@@ -188,6 +188,26 @@ public class TestPageProcessor
         assertPageEquals(ImmutableList.of(BIGINT), outputPages.get(0).orElse(null), new Page(createLongSequenceBlock(0, 100)));
     }
 
+    @Test
+    public void testSelectiveLazyLoad()
+    {
+        PageProcessor pageProcessor = new PageProcessor(Optional.of(new TestingPageFilter(positionsRange(25, 50))), ImmutableList.of(new InputPageProjection(1, BIGINT)));
+
+        // the lazy block is told which positions were selected by the filter before it is loaded
+        Page inputPage = new Page(createLongSequenceBlock(0, 100), new LazyBlock(100, lazyBlock -> {
+            int[] expectedPositions = new int[50];
+            Arrays.setAll(expectedPositions, position -> position + 25);
+            assertEquals(lazyBlock.getSelectedPositions().orElse(null), expectedPositions);
+            lazyBlock.setBlock(createLongSequenceBlock(0, 100));
+        }));
+
+        PageProcessorOutput output = pageProcessor.process(SESSION, new DriverYieldSignal(), inputPage, true);
+
+        List<Optional<Page>> outputPages = ImmutableList.copyOf(output);
+        assertEquals(outputPages.size(), 1);
+        assertPageEquals(ImmutableList.of(BIGINT), outputPages.get(0).orElse(null), new Page(createLongSequenceBlock(25, 75)));
+    }
+
     @Test
     public void testBatchedOutput()
     {
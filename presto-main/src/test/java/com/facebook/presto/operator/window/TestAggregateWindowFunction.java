@@ -17,11 +17,18 @@ import com.facebook.presto.testing.MaterializedResult;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.IntegerType.INTEGER;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static org.testng.Assert.assertEquals;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -530,4 +537,71 @@ public class TestAggregateWindowFunction
                         .row(null, null, null)
                         .build());
     }
+
+    @Test
+    public void testMovingFrames()
+    {
+        assertMovingFrame(99, 0);
+        assertMovingFrame(0, 1000);
+        assertMovingFrame(40, 40);
+        assertMovingFrame(3, 200);
+    }
+
+    private void assertMovingFrame(int preceding, int following)
+    {
+        int rows = 500;
+        String frame = format("OVER (ORDER BY x ROWS BETWEEN %s PRECEDING AND %s FOLLOWING)", preceding, following);
+        MaterializedResult actual = queryRunner.execute(format("" +
+                        "SELECT x, count(v) %1$s, count_if(v %% 3 = 0) %1$s, sum(v) %1$s, avg(v) %1$s, min(v) %1$s, max(v) %1$s, max(CAST(v AS varchar)) %1$s " +
+                        "FROM (SELECT x, IF(x %% 7 = 0, NULL, (x * 37) %% 101) v FROM UNNEST(sequence(0, %2$s)) t(x)) " +
+                        "ORDER BY x",
+                frame, rows - 1));
+        assertEquals(actual.getRowCount(), rows);
+
+        for (int row = 0; row < rows; row++) {
+            long count = 0;
+            long countIf = 0;
+            long sum = 0;
+            Long minValue = null;
+            Long maxValue = null;
+            String maxString = null;
+            for (int x = max(0, row - preceding); x <= min(rows - 1, row + following); x++) {
+                if (x % 7 == 0) {
+                    continue;
+                }
+                long value = (x * 37L) % 101;
+                count++;
+                countIf += value % 3 == 0 ? 1 : 0;
+                sum += value;
+                minValue = minValue == null ? value : min(minValue, value);
+                maxValue = maxValue == null ? value : max(maxValue, value);
+                maxString = maxString == null || maxString.compareTo(String.valueOf(value)) < 0 ? String.valueOf(value) : maxString;
+            }
+            List<Object> expected = Arrays.asList(
+                    (long) row,
+                    count,
+                    countIf,
+                    count == 0 ? null : sum,
+                    count == 0 ? null : (double) sum / count,
+                    minValue,
+                    maxValue,
+                    maxString);
+            assertEquals(actual.getMaterializedRows().get(row).getFields(), expected, "frame " + frame + " at row " + row);
+        }
+    }
+
+    @Test
+    public void testMovingAverageOfLargeBigints()
+    {
+        // the first rows overflow a bigint sum and are not exact in a double; once they
+        // left the frame, the average must be the one of the remaining small values
+        MaterializedResult actual = queryRunner.execute("" +
+                "SELECT x, avg(v) OVER (ORDER BY x ROWS BETWEEN 1 PRECEDING AND CURRENT ROW) " +
+                "FROM (SELECT x, IF(x < 10, IF(x % 2 = 0, 9223372036854775807, 1), x) v FROM UNNEST(sequence(0, 99)) t(x)) " +
+                "ORDER BY x");
+        assertEquals(actual.getRowCount(), 100);
+        for (int row = 11; row < 100; row++) {
+            assertEquals(actual.getMaterializedRows().get(row).getField(1), (row + row - 1) / 2.0, "row " + row);
+        }
+    }
 }
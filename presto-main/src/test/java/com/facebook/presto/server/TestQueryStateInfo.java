@@ -113,6 +113,10 @@ public class TestQueryStateInfo
                         Duration.valueOf("9m"),
                         Duration.valueOf("10m"),
                         Duration.valueOf("11m"),
+                        Duration.valueOf("1s"),
+                        Duration.valueOf("2s"),
+                        Duration.valueOf("3s"),
+                        Duration.valueOf("4s"),
                         Duration.valueOf("12m"),
                         13,
                         14,
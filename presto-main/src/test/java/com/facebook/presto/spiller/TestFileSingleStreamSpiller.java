@@ -14,6 +14,7 @@
 package com.facebook.presto.spiller;
 
 import com.facebook.presto.block.BlockEncodingManager;
+import com.facebook.presto.execution.buffer.ExchangeCompressionCodec;
 import com.facebook.presto.execution.buffer.PagesSerde;
 import com.facebook.presto.execution.buffer.PagesSerdeFactory;
 import com.facebook.presto.memory.context.LocalMemoryContext;
@@ -26,49 +27,103 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.ListeningExecutorService;
-import org.testng.annotations.AfterMethod;
+import io.airlift.slice.Slice;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
+import static com.facebook.presto.execution.buffer.ExchangeCompressionCodec.LZ4;
+import static com.facebook.presto.execution.buffer.ExchangeCompressionCodec.ZSTD;
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static com.google.common.io.MoreFiles.asByteSource;
 import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.primitives.Bytes.indexOf;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.testing.Assertions.assertLessThan;
 import static java.lang.Double.doubleToLongBits;
+import static java.nio.file.Files.createTempDirectory;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestFileSingleStreamSpiller
 {
     private static final List<Type> TYPES = ImmutableList.of(BIGINT, DOUBLE, VARBINARY);
+    private static final Slice PLAINTEXT = utf8Slice("plaintext that must not reach an encrypted spill file");
 
     private final ListeningExecutorService executor = listeningDecorator(newCachedThreadPool());
-    private final File spillPath = Files.createTempDir();
+    private final File tempDirectory = Files.createTempDir();
 
-    @AfterMethod
+    @AfterClass(alwaysRun = true)
     public void tearDown()
             throws Exception
     {
         executor.shutdown();
-        deleteRecursively(spillPath.toPath(), ALLOW_INSECURE);
+        deleteRecursively(tempDirectory.toPath(), ALLOW_INSECURE);
     }
 
     @Test
     public void testSpill()
             throws Exception
     {
-        PagesSerdeFactory serdeFactory = new PagesSerdeFactory(new BlockEncodingManager(new TypeRegistry()), false);
+        assertSpill(false, LZ4, false);
+    }
+
+    @Test
+    public void testSpillCompression()
+            throws Exception
+    {
+        SpillerStats spillerStats = assertSpill(true, LZ4, false);
+        assertLessThan(spillerStats.getTotalSpilledBytes(), spillerStats.getTotalSpilledRawBytes());
+    }
+
+    @Test
+    public void testSpillEncryption()
+            throws Exception
+    {
+        SpillerStats spillerStats = assertSpill(false, LZ4, true);
+        assertEquals(spillerStats.getTotalSpilledBytes(), spillerStats.getTotalSpilledRawBytes());
+    }
+
+    @Test(dataProvider = "compressionCodecs")
+    public void testSpillCompressionAndEncryption(ExchangeCompressionCodec compressionCodec)
+            throws Exception
+    {
+        SpillerStats spillerStats = assertSpill(true, compressionCodec, true);
+        assertLessThan(spillerStats.getTotalSpilledBytes(), spillerStats.getTotalSpilledRawBytes());
+    }
+
+    @DataProvider
+    public static Object[][] compressionCodecs()
+    {
+        return new Object[][] {{LZ4}, {ZSTD}};
+    }
+
+    private SpillerStats assertSpill(boolean compression, ExchangeCompressionCodec compressionCodec, boolean encryption)
+            throws Exception
+    {
+        // test methods run concurrently, so every spiller gets its own directory
+        Path spillPath = createTempDirectory(tempDirectory.toPath(), "spill");
+        PagesSerdeFactory serdeFactory = new PagesSerdeFactory(new BlockEncodingManager(new TypeRegistry()), compression, compressionCodec);
         PagesSerde serde = serdeFactory.createPagesSerde();
         SpillerStats spillerStats = new SpillerStats();
         LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
-        FileSingleStreamSpiller spiller = new FileSingleStreamSpiller(serde, executor, spillPath.toPath(), spillerStats, bytes -> {}, memoryContext);
+        Optional<SpillCipher> spillCipher = encryption ? Optional.of(SpillCipher.createEphemeral()) : Optional.empty();
+        FileSingleStreamSpiller spiller = new FileSingleStreamSpiller(serde, executor, spillPath, spillerStats, bytes -> {}, memoryContext, spillCipher);
 
         Page page = buildPage();
 
@@ -76,7 +131,15 @@ public class TestFileSingleStreamSpiller
         assertEquals(memoryContext.getBytes(), 4096);
         spiller.spill(page).get();
         spiller.spill(Iterators.forArray(page, page, page)).get();
-        assertEquals(listFiles(spillPath.toPath()).size(), 1);
+        assertEquals(listFiles(spillPath).size(), 1);
+
+        byte[] spillFile = asByteSource(getOnlyElement(listFiles(spillPath))).read();
+        if (encryption) {
+            assertFalse(indexOf(spillFile, PLAINTEXT.getBytes()) >= 0, "spill file contains plaintext");
+        }
+        else if (!compression) {
+            assertTrue(indexOf(spillFile, PLAINTEXT.getBytes()) >= 0, "spill file does not contain plaintext");
+        }
 
         // The spillers release their memory reservations when they are closed, therefore at this point
         // they will have non-zero memory reservation.
@@ -95,8 +158,9 @@ public class TestFileSingleStreamSpiller
         }
 
         spiller.close();
-        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(listFiles(spillPath).size(), 0);
         assertEquals(memoryContext.getBytes(), 0);
+        return spillerStats;
     }
 
     private Page buildPage()
@@ -105,9 +169,12 @@ public class TestFileSingleStreamSpiller
         BlockBuilder col2 = DOUBLE.createBlockBuilder(null, 1);
         BlockBuilder col3 = VARBINARY.createBlockBuilder(null, 1);
 
-        col1.writeLong(42).closeEntry();
-        col2.writeLong(doubleToLongBits(43.0)).closeEntry();
-        col3.writeLong(doubleToLongBits(43.0)).writeLong(1).closeEntry();
+        // repeated rows, so the page is compressible
+        for (int i = 0; i < 1000; i++) {
+            col1.writeLong(42).closeEntry();
+            col2.writeLong(doubleToLongBits(43.0)).closeEntry();
+            col3.writeBytes(PLAINTEXT, 0, PLAINTEXT.length()).closeEntry();
+        }
 
         return new Page(col1.build(), col2.build(), col3.build());
     }
@@ -44,12 +44,18 @@ import com.facebook.presto.spi.connector.Connector;
 import com.facebook.presto.spi.connector.ConnectorMetadata;
 import com.facebook.presto.spi.connector.ConnectorSplitManager;
 import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import com.facebook.presto.spi.security.Identity;
 import com.facebook.presto.spi.transaction.IsolationLevel;
 import com.facebook.presto.spi.type.ArrayType;
 import com.facebook.presto.spi.type.TypeManager;
 import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.tree.DefaultTraversalVisitor;
+import com.facebook.presto.sql.tree.Node;
 import com.facebook.presto.sql.tree.NodeLocation;
+import com.facebook.presto.sql.tree.Query;
+import com.facebook.presto.sql.tree.QuerySpecification;
 import com.facebook.presto.sql.tree.Statement;
+import com.facebook.presto.sql.tree.Table;
 import com.facebook.presto.testing.TestingMetadata;
 import com.facebook.presto.transaction.TransactionManager;
 import com.facebook.presto.type.TypeRegistry;
@@ -59,6 +65,7 @@ import org.intellij.lang.annotations.Language;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
 
@@ -116,8 +123,14 @@ import static com.facebook.presto.sql.analyzer.SemanticErrorCode.WINDOW_REQUIRES
 import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
 import static com.facebook.presto.transaction.InMemoryTransactionManager.createTestTransactionManager;
 import static com.facebook.presto.transaction.TransactionBuilder.transaction;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.fail;
 
 @Test(singleThreaded = true)
@@ -1171,6 +1184,74 @@ public class TestAnalyzer
         analyze("SELECT * FROM v4");
     }
 
+    @Test
+    public void testRepeatedViewReferenceReusesAnalysis()
+    {
+        Statement statement = SQL_PARSER.createStatement("SELECT * FROM v1 x, v1 y");
+        Analysis analysis = analyze(CLIENT_SESSION, statement);
+
+        List<Table> views = tables(statement);
+        assertEquals(views.size(), 2);
+        assertSame(analysis.getNamedQuery(views.get(0)), analysis.getNamedQuery(views.get(1)));
+    }
+
+    @Test
+    public void testViewAnalysisNotSharedAcrossOwners()
+    {
+        // v6 and v7 both select from v1, but are owned by different users
+        Statement statement = SQL_PARSER.createStatement("SELECT * FROM v6, v7");
+        Analysis analysis = analyze(CLIENT_SESSION, statement);
+
+        List<Table> views = tables(statement);
+        assertEquals(views.size(), 2);
+        Table v1InV6 = getOnlyElement(tables(analysis.getNamedQuery(views.get(0))));
+        Table v1InV7 = getOnlyElement(tables(analysis.getNamedQuery(views.get(1))));
+        assertNotSame(analysis.getNamedQuery(v1InV6), analysis.getNamedQuery(v1InV7));
+
+        QualifiedObjectName v1 = new QualifiedObjectName(TPCH_CATALOG, "s1", "v1");
+        AccessControl accessControl = new AllowAllAccessControl();
+        Query query = analysis.getNamedQuery(v1InV6);
+        analysis.registerAnalyzedView(new Analysis.AccessControlInfo(accessControl, new Identity("alice", Optional.empty())), v1, query);
+        assertEquals(analysis.getAnalyzedView(new Analysis.AccessControlInfo(accessControl, new Identity("alice", Optional.empty())), v1), Optional.of(query));
+        assertEquals(analysis.getAnalyzedView(new Analysis.AccessControlInfo(accessControl, new Identity("bob", Optional.empty())), v1), Optional.empty());
+        assertEquals(analysis.getAnalyzedView(new Analysis.AccessControlInfo(new AllowAllAccessControl(), new Identity("alice", Optional.empty())), v1), Optional.empty());
+    }
+
+    @Test
+    public void testRepeatedSetOperationRelationAnalyzedOnce()
+    {
+        Statement statement = SQL_PARSER.createStatement("SELECT a FROM t1 UNION ALL SELECT b FROM t1 UNION ALL SELECT a FROM t1");
+        Analysis analysis = analyze(CLIENT_SESSION, statement);
+
+        List<Table> tables = tables(statement);
+        assertEquals(tables.size(), 3);
+        assertNotNull(analysis.getTableHandle(tables.get(0)));
+        assertNotNull(analysis.getTableHandle(tables.get(1)));
+        // the third branch repeats the first one, so it is not analyzed, and the first one is planned in its place
+        assertNull(analysis.getTableHandle(tables.get(2)));
+
+        List<QuerySpecification> branches = querySpecifications(statement);
+        assertSame(analysis.getRelationToPlan(branches.get(0)), branches.get(0));
+        assertSame(analysis.getRelationToPlan(branches.get(1)), branches.get(1));
+        assertSame(analysis.getRelationToPlan(branches.get(2)), branches.get(0));
+    }
+
+    @Test
+    public void testRepeatedSetOperationRelationInOtherScopeAnalyzedAgain()
+    {
+        Statement statement = SQL_PARSER.createStatement("" +
+                "SELECT * FROM (SELECT a FROM t1 UNION ALL SELECT a FROM t1) x, " +
+                "(SELECT a FROM t1 UNION ALL SELECT a FROM t1) y");
+        Analysis analysis = analyze(CLIENT_SESSION, statement);
+
+        List<Table> tables = tables(statement);
+        assertEquals(tables.size(), 4);
+        assertNotNull(analysis.getTableHandle(tables.get(0)));
+        assertNull(analysis.getTableHandle(tables.get(1)));
+        assertNotNull(analysis.getTableHandle(tables.get(2)));
+        assertNull(analysis.getTableHandle(tables.get(3)));
+    }
+
     @Test
     public void testUse()
     {
@@ -1611,6 +1692,24 @@ public class TestAnalyzer
                         ImmutableList.of(new ViewColumn("a", BIGINT)),
                         Optional.of("user")));
         inSetupTransaction(session -> metadata.createView(session, new QualifiedObjectName(TPCH_CATALOG, "s1", "v5"), viewData5, false));
+
+        // views referencing the same view, owned by different users
+        String viewData6 = JsonCodec.jsonCodec(ViewDefinition.class).toJson(
+                new ViewDefinition(
+                        "select a from v1",
+                        Optional.of(TPCH_CATALOG),
+                        Optional.of("s1"),
+                        ImmutableList.of(new ViewColumn("a", BIGINT)),
+                        Optional.of("alice")));
+        inSetupTransaction(session -> metadata.createView(session, new QualifiedObjectName(TPCH_CATALOG, "s1", "v6"), viewData6, false));
+        String viewData7 = JsonCodec.jsonCodec(ViewDefinition.class).toJson(
+                new ViewDefinition(
+                        "select a from v1",
+                        Optional.of(TPCH_CATALOG),
+                        Optional.of("s1"),
+                        ImmutableList.of(new ViewColumn("a", BIGINT)),
+                        Optional.of("bob")));
+        inSetupTransaction(session -> metadata.createView(session, new QualifiedObjectName(TPCH_CATALOG, "s1", "v7"), viewData7, false));
     }
 
     private void inSetupTransaction(Consumer<Session> consumer)
@@ -1637,6 +1736,48 @@ public class TestAnalyzer
         analyze(CLIENT_SESSION, query);
     }
 
+    private Analysis analyze(Session clientSession, Statement statement)
+    {
+        return transaction(transactionManager, accessControl)
+                .singleStatement()
+                .readUncommitted()
+                .readOnly()
+                .execute(clientSession, session -> {
+                    Analyzer analyzer = createAnalyzer(session, metadata);
+                    return analyzer.analyze(statement);
+                });
+    }
+
+    private static List<Table> tables(Node node)
+    {
+        ImmutableList.Builder<Table> tables = ImmutableList.builder();
+        new DefaultTraversalVisitor<Void, Void>()
+        {
+            @Override
+            protected Void visitTable(Table node, Void context)
+            {
+                tables.add(node);
+                return null;
+            }
+        }.process(node, null);
+        return tables.build();
+    }
+
+    private static List<QuerySpecification> querySpecifications(Node node)
+    {
+        ImmutableList.Builder<QuerySpecification> querySpecifications = ImmutableList.builder();
+        new DefaultTraversalVisitor<Void, Void>()
+        {
+            @Override
+            protected Void visitQuerySpecification(QuerySpecification node, Void context)
+            {
+                querySpecifications.add(node);
+                return null;
+            }
+        }.process(node, null);
+        return querySpecifications.build();
+    }
+
     private void analyze(Session clientSession, @Language("SQL") String query)
     {
         transaction(transactionManager, accessControl)
@@ -16,6 +16,8 @@ package com.facebook.presto.sql.gen;
 import com.facebook.presto.metadata.Signature;
 import com.facebook.presto.operator.DriverYieldSignal;
 import com.facebook.presto.operator.Work;
+import com.facebook.presto.operator.project.ConjunctionPageFilter;
+import com.facebook.presto.operator.project.PageFilter;
 import com.facebook.presto.operator.project.PageProjection;
 import com.facebook.presto.operator.project.SelectedPositions;
 import com.facebook.presto.spi.Page;
@@ -23,6 +25,8 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.sql.relational.CallExpression;
+import com.facebook.presto.sql.tree.ComparisonExpression;
+import com.facebook.presto.sql.tree.LogicalBinaryExpression;
 import com.google.common.collect.ImmutableList;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -35,13 +39,17 @@ import static com.facebook.presto.metadata.MetadataManager.createTestMetadataMan
 import static com.facebook.presto.spi.StandardErrorCode.NUMERIC_VALUE_OUT_OF_RANGE;
 import static com.facebook.presto.spi.function.OperatorType.ADD;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.sql.relational.Expressions.call;
 import static com.facebook.presto.sql.relational.Expressions.constant;
 import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.sql.relational.Signatures.comparisonExpressionSignature;
+import static com.facebook.presto.sql.relational.Signatures.logicalExpressionSignature;
 import static com.facebook.presto.testing.TestingConnectorSession.SESSION;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
@@ -55,6 +63,12 @@ public class TestPageFunctionCompiler
             field(0, BIGINT),
             constant(10L, BIGINT));
 
+    private static final CallExpression CONJUNCTION_EXPRESSION = call(
+            logicalExpressionSignature(LogicalBinaryExpression.Operator.AND),
+            BOOLEAN,
+            call(comparisonExpressionSignature(ComparisonExpression.Operator.GREATER_THAN, BIGINT, BIGINT), BOOLEAN, field(0, BIGINT), constant(5L, BIGINT)),
+            call(comparisonExpressionSignature(ComparisonExpression.Operator.LESS_THAN, BIGINT, BIGINT), BOOLEAN, field(1, BIGINT), constant(3L, BIGINT)));
+
     private final ScheduledExecutorService executor = newSingleThreadScheduledExecutor(daemonThreadsNamed("test-%s"));
 
     @DataProvider(name = "forceYield")
@@ -125,6 +139,27 @@ public class TestPageFunctionCompiler
         assertTrue(work.getClass().getSimpleName().startsWith("PageProjectionWork_" + stageId.replace('.', '_') + "_" + planNodeId));
     }
 
+    @Test
+    public void testConjunctionFilter()
+    {
+        PageFilter filter = new PageFunctionCompiler(createTestMetadataManager(), 0).compileFilter(CONJUNCTION_EXPRESSION, Optional.empty()).get();
+        assertFalse(filter instanceof ConjunctionPageFilter);
+
+        PageFilter conjunctionFilter = new PageFunctionCompiler(createTestMetadataManager(), 0, true).compileFilter(CONJUNCTION_EXPRESSION, Optional.empty()).get();
+        assertTrue(conjunctionFilter instanceof ConjunctionPageFilter);
+        assertEquals(conjunctionFilter.getInputChannels().getInputChannels(), ImmutableList.of(0, 1));
+
+        Page page = new Page(
+                createLongBlockPage(0, 1, 2, 3, 4, 5, 6, 7, 8, 9).getBlock(0),
+                createLongBlockPage(9, 8, 7, 6, 5, 4, 3, 2, 1, 0).getBlock(0));
+        SelectedPositions expected = filter.filter(SESSION, page);
+        SelectedPositions actual = conjunctionFilter.filter(SESSION, page);
+        assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(actual.getPositions()[actual.getOffset() + i], expected.getPositions()[expected.getOffset() + i]);
+        }
+    }
+
     @Test
     public void testCache()
     {
@@ -0,0 +1,273 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.iterative.rule;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.connector.ConnectorId;
+import com.facebook.presto.cost.StatsProvider;
+import com.facebook.presto.metadata.AbstractMockMetadata;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.metadata.TableHandle;
+import com.facebook.presto.metadata.TableLayoutHandle;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.predicate.Domain;
+import com.facebook.presto.spi.predicate.TupleDomain;
+import com.facebook.presto.spi.type.RowType;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.assertions.MatchResult;
+import com.facebook.presto.sql.planner.assertions.Matcher;
+import com.facebook.presto.sql.planner.assertions.PlanMatchPattern;
+import com.facebook.presto.sql.planner.assertions.SymbolAliases;
+import com.facebook.presto.sql.planner.iterative.rule.test.BaseRuleTest;
+import com.facebook.presto.sql.planner.plan.Assignments;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.testing.TestingHandle;
+import com.facebook.presto.testing.TestingMetadata.TestingColumnHandle;
+import com.facebook.presto.testing.TestingMetadata.TestingTableHandle;
+import com.facebook.presto.testing.TestingTransactionHandle;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.facebook.presto.SystemSessionProperties.PUSHDOWN_DEREFERENCES;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.assertions.MatchResult.NO_MATCH;
+import static com.facebook.presto.sql.planner.assertions.MatchResult.match;
+import static com.facebook.presto.sql.planner.assertions.PlanMatchPattern.node;
+import static com.facebook.presto.sql.planner.iterative.rule.test.PlanBuilder.expression;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+
+public class TestPushDereferencesIntoTableScan
+        extends BaseRuleTest
+{
+    private static final RowType NESTED_TYPE = RowType.from(ImmutableList.of(
+            RowType.field("c", BIGINT),
+            RowType.field("e", BIGINT)));
+    private static final RowType ROW_TYPE = RowType.from(ImmutableList.of(
+            RowType.field("b", NESTED_TYPE),
+            RowType.field("d", BIGINT)));
+
+    private final PushDereferencesIntoTableScan ruleSet = new PushDereferencesIntoTableScan(new PruningMetadata());
+
+    @Test
+    public void testDereferences()
+    {
+        tester().assertThat(ruleSet.pushDereferencesThroughProject())
+                .setSystemProperty(PUSHDOWN_DEREFERENCES, "true")
+                .on(p -> {
+                    Symbol a = p.symbol("a", ROW_TYPE);
+                    return p.project(
+                            Assignments.of(
+                                    p.symbol("x"), expression("a.b.c"),
+                                    p.symbol("y"), expression("a.d")),
+                            p.tableScan(ImmutableList.of(a), ImmutableMap.of(a, new TestingColumnHandle("a"))));
+                })
+                .matches(
+                        node(ProjectNode.class,
+                                tableScanWithColumns(ImmutableMap.of("a", prunedColumn("a", "[[b, c], [d]]")))));
+    }
+
+    @Test
+    public void testNestedPaths()
+    {
+        // the dereference of the whole nested row covers the dereference of its field
+        tester().assertThat(ruleSet.pushDereferencesThroughProject())
+                .setSystemProperty(PUSHDOWN_DEREFERENCES, "true")
+                .on(p -> {
+                    Symbol a = p.symbol("a", ROW_TYPE);
+                    return p.project(
+                            Assignments.of(
+                                    p.symbol("x"), expression("a.b.c"),
+                                    p.symbol("y", NESTED_TYPE), expression("a.b")),
+                            p.tableScan(ImmutableList.of(a), ImmutableMap.of(a, new TestingColumnHandle("a"))));
+                })
+                .matches(
+                        node(ProjectNode.class,
+                                tableScanWithColumns(ImmutableMap.of("a", prunedColumn("a", "[[b]]")))));
+    }
+
+    @Test
+    public void testWholeColumnReferenced()
+    {
+        tester().assertThat(ruleSet.pushDereferencesThroughProject())
+                .setSystemProperty(PUSHDOWN_DEREFERENCES, "true")
+                .on(p -> {
+                    Symbol a = p.symbol("a", ROW_TYPE);
+                    return p.project(
+                            Assignments.of(
+                                    p.symbol("x"), expression("a.b.c"),
+                                    p.symbol("y", ROW_TYPE), expression("a")),
+                            p.tableScan(ImmutableList.of(a), ImmutableMap.of(a, new TestingColumnHandle("a"))));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testFieldUsedInFilter()
+    {
+        tester().assertThat(ruleSet.pushDereferencesThroughProjectAndFilter())
+                .setSystemProperty(PUSHDOWN_DEREFERENCES, "true")
+                .on(p -> {
+                    Symbol a = p.symbol("a", ROW_TYPE);
+                    return p.project(
+                            Assignments.of(p.symbol("y"), expression("a.d")),
+                            p.filter(
+                                    expression("a.b.c > 0"),
+                                    p.tableScan(ImmutableList.of(a), ImmutableMap.of(a, new TestingColumnHandle("a")))));
+                })
+                .matches(
+                        node(ProjectNode.class,
+                                node(FilterNode.class,
+                                        tableScanWithColumns(ImmutableMap.of("a", prunedColumn("a", "[[b, c], [d]]"))))));
+    }
+
+    @Test
+    public void testColumnUsedOnlyInFilter()
+    {
+        tester().assertThat(ruleSet.pushDereferencesThroughProjectAndFilter())
+                .setSystemProperty(PUSHDOWN_DEREFERENCES, "true")
+                .on(p -> {
+                    Symbol a = p.symbol("a", ROW_TYPE);
+                    Symbol x = p.symbol("x");
+                    return p.project(
+                            Assignments.of(p.symbol("y"), expression("x")),
+                            p.filter(
+                                    expression("a.d > 0"),
+                                    p.tableScan(
+                                            ImmutableList.of(a, x),
+                                            ImmutableMap.of(a, new TestingColumnHandle("a"), x, new TestingColumnHandle("x")))));
+                })
+                .matches(
+                        node(ProjectNode.class,
+                                node(FilterNode.class,
+                                        tableScanWithColumns(ImmutableMap.of(
+                                                "a", prunedColumn("a", "[[d]]"),
+                                                "x", new TestingColumnHandle("x"))))));
+    }
+
+    @Test
+    public void testConstrainedColumn()
+    {
+        tester().assertThat(ruleSet.pushDereferencesThroughProject())
+                .setSystemProperty(PUSHDOWN_DEREFERENCES, "true")
+                .on(p -> {
+                    Symbol a = p.symbol("a", ROW_TYPE);
+                    ColumnHandle column = new TestingColumnHandle("a");
+                    return p.project(
+                            Assignments.of(p.symbol("x"), expression("a.b.c")),
+                            p.tableScan(
+                                    new TableHandle(new ConnectorId("testConnector"), new TestingTableHandle()),
+                                    ImmutableList.of(a),
+                                    ImmutableMap.of(a, column),
+                                    Optional.of(new TableLayoutHandle(new ConnectorId("testConnector"), TestingTransactionHandle.create(), TestingHandle.INSTANCE)),
+                                    TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.notNull(ROW_TYPE))),
+                                    TupleDomain.all()));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testNonRowColumn()
+    {
+        tester().assertThat(ruleSet.pushDereferencesThroughProject())
+                .setSystemProperty(PUSHDOWN_DEREFERENCES, "true")
+                .on(p -> {
+                    Symbol a = p.symbol("a", BIGINT);
+                    return p.project(
+                            Assignments.of(p.symbol("x"), expression("a.b")),
+                            p.tableScan(ImmutableList.of(a), ImmutableMap.of(a, new TestingColumnHandle("a"))));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testUnknownField()
+    {
+        tester().assertThat(ruleSet.pushDereferencesThroughProject())
+                .setSystemProperty(PUSHDOWN_DEREFERENCES, "true")
+                .on(p -> {
+                    Symbol a = p.symbol("a", ROW_TYPE);
+                    return p.project(
+                            Assignments.of(
+                                    p.symbol("x"), expression("a.d"),
+                                    p.symbol("y"), expression("a.b.f")),
+                            p.tableScan(ImmutableList.of(a), ImmutableMap.of(a, new TestingColumnHandle("a"))));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        tester().assertThat(ruleSet.pushDereferencesThroughProject())
+                .on(p -> {
+                    Symbol a = p.symbol("a", ROW_TYPE);
+                    return p.project(
+                            Assignments.of(p.symbol("x"), expression("a.b.c")),
+                            p.tableScan(ImmutableList.of(a), ImmutableMap.of(a, new TestingColumnHandle("a"))));
+                })
+                .doesNotFire();
+    }
+
+    private static ColumnHandle prunedColumn(String name, String fieldPaths)
+    {
+        return new TestingColumnHandle(name + fieldPaths);
+    }
+
+    private static PlanMatchPattern tableScanWithColumns(Map<String, ColumnHandle> expectedColumns)
+    {
+        return node(TableScanNode.class).with(new Matcher()
+        {
+            @Override
+            public boolean shapeMatches(PlanNode node)
+            {
+                return node instanceof TableScanNode;
+            }
+
+            @Override
+            public MatchResult detailMatches(PlanNode node, StatsProvider stats, Session session, Metadata metadata, SymbolAliases symbolAliases)
+            {
+                Map<String, ColumnHandle> columns = ((TableScanNode) node).getAssignments().entrySet().stream()
+                        .collect(toImmutableMap(entry -> entry.getKey().getName(), Map.Entry::getValue));
+                return columns.equals(expectedColumns) ? match() : NO_MATCH;
+            }
+
+            @Override
+            public String toString()
+            {
+                return toStringHelper(this)
+                        .add("expectedColumns", expectedColumns)
+                        .toString();
+            }
+        });
+    }
+
+    private static class PruningMetadata
+            extends AbstractMockMetadata
+    {
+        @Override
+        public Optional<ColumnHandle> pruneNestedFields(Session session, TableHandle tableHandle, ColumnHandle columnHandle, List<List<String>> fieldPaths)
+        {
+            return Optional.of(prunedColumn(((TestingColumnHandle) columnHandle).getName(), fieldPaths.toString()));
+        }
+    }
+}
@@ -232,9 +232,27 @@ public class OrcReader
             DateTimeZone hiveStorageTimeZone,
             AggregatedMemoryContext systemMemoryUsage,
             int initialBatchSize)
+    {
+        return createRecordReader(includedColumns, ImmutableMap.of(), predicate, offset, length, hiveStorageTimeZone, systemMemoryUsage, initialBatchSize);
+    }
+
+    /**
+     * @param includedNestedFields for struct columns of which only some fields are used, the paths of
+     * the fields to read; the streams of the other fields are not read and the fields are returned as null
+     */
+    public OrcRecordReader createRecordReader(
+            Map<Integer, Type> includedColumns,
+            Map<Integer, List<List<String>>> includedNestedFields,
+            OrcPredicate predicate,
+            long offset,
+            long length,
+            DateTimeZone hiveStorageTimeZone,
+            AggregatedMemoryContext systemMemoryUsage,
+            int initialBatchSize)
     {
         return new OrcRecordReader(
                 requireNonNull(includedColumns, "includedColumns is null"),
+                requireNonNull(includedNestedFields, "includedNestedFields is null"),
                 requireNonNull(predicate, "predicate is null"),
                 footer.getNumberOfRows(),
                 footer.getStripes(),
@@ -47,6 +47,7 @@ import org.openjdk.jol.info.ClassLayout;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -61,6 +62,7 @@ import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
 import static com.facebook.presto.orc.OrcRecordReader.LinearProbeRangeFinder.createTinyStripesRangeFinder;
 import static com.facebook.presto.orc.OrcWriteValidation.WriteChecksumBuilder.createWriteChecksumBuilder;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
@@ -116,6 +118,7 @@ public class OrcRecordReader
 
     public OrcRecordReader(
             Map<Integer, Type> includedColumns,
+            Map<Integer, List<List<String>>> includedNestedFields,
             OrcPredicate predicate,
             long numberOfRows,
             List<StripeInformation> fileStripes,
@@ -139,6 +142,7 @@ public class OrcRecordReader
             int initialBatchSize)
     {
         requireNonNull(includedColumns, "includedColumns is null");
+        requireNonNull(includedNestedFields, "includedNestedFields is null");
         requireNonNull(predicate, "predicate is null");
         requireNonNull(fileStripes, "fileStripes is null");
         requireNonNull(stripeStats, "stripeStats is null");
@@ -159,14 +163,12 @@ public class OrcRecordReader
 
         // reduce the included columns to the set that is also present
         ImmutableSet.Builder<Integer> presentColumns = ImmutableSet.builder();
-        ImmutableMap.Builder<Integer, Type> presentColumnsAndTypes = ImmutableMap.builder();
         OrcType root = types.get(0);
         for (Map.Entry<Integer, Type> entry : includedColumns.entrySet()) {
             // an old file can have less columns since columns can be added
             // after the file was written
             if (entry.getKey() < root.getFieldCount()) {
                 presentColumns.add(entry.getKey());
-                presentColumnsAndTypes.put(entry.getKey(), entry.getValue());
             }
         }
         this.presentColumns = presentColumns.build();
@@ -227,18 +229,26 @@ public class OrcRecordReader
         // their constructors is confusing.
         this.streamReadersSystemMemoryContext = this.systemMemoryUsage.newAggregatedMemoryContext();
 
+        // struct fields that are not used are left out of the stream descriptors, so their streams are neither read nor decoded
+        List<StreamDescriptor> streamDescriptors = createStreamDescriptor("", "", 0, types, orcDataSource).getNestedStreams();
+        ImmutableMap.Builder<Integer, StreamDescriptor> includedStreamsBuilder = ImmutableMap.builder();
+        for (int columnId : this.presentColumns) {
+            includedStreamsBuilder.put(columnId, pruneNestedStreams(streamDescriptors.get(columnId), includedNestedFields.getOrDefault(columnId, ImmutableList.of())));
+        }
+        Map<Integer, StreamDescriptor> includedStreams = includedStreamsBuilder.build();
+
         stripeReader = new StripeReader(
                 orcDataSource,
                 decompressor,
                 types,
-                this.presentColumns,
+                getIncludedOrcColumns(includedStreams.values()),
                 rowsInRowGroup,
                 predicate,
                 hiveWriterVersion,
                 metadataReader,
                 writeValidation);
 
-        streamReaders = createStreamReaders(orcDataSource, types, hiveStorageTimeZone, presentColumnsAndTypes.build(), streamReadersSystemMemoryContext);
+        streamReaders = createStreamReaders(types, hiveStorageTimeZone, includedStreams, streamReadersSystemMemoryContext);
         maxBytesPerCell = new long[streamReaders.length];
         nextBatchSize = initialBatchSize;
     }
@@ -325,6 +335,16 @@ public class OrcRecordReader
         return splitLength;
     }
 
+    public long getRowGroupsSkippedByStatistics()
+    {
+        return stripeReader.getRowGroupsSkippedByStatistics();
+    }
+
+    public long getRowGroupsSkippedByBloomFilter()
+    {
+        return stripeReader.getRowGroupsSkippedByBloomFilter();
+    }
+
     /**
      * Returns the sum of the largest cells in size from each column
      */
@@ -414,16 +434,41 @@ public class OrcRecordReader
     {
         Block block = streamReaders[columnIndex].readBlock(type);
         if (block.getPositionCount() > 0) {
-            long bytesPerCell = block.getSizeInBytes() / block.getPositionCount();
-            if (maxBytesPerCell[columnIndex] < bytesPerCell) {
-                maxCombinedBytesPerRow = maxCombinedBytesPerRow - maxBytesPerCell[columnIndex] + bytesPerCell;
-                maxBytesPerCell[columnIndex] = bytesPerCell;
-                maxBatchSize = toIntExact(min(maxBatchSize, max(1, maxBlockBytes / maxCombinedBytesPerRow)));
-            }
+            updateMaxBytesPerCell(columnIndex, block.getSizeInBytes() / block.getPositionCount());
         }
         return block;
     }
 
+    /**
+     * Reads the column of the current batch, decoding only the values at the specified positions,
+     * in increasing order. The values at the other positions of the returned block are null,
+     * so the caller must not read them.
+     */
+    public Block readBlock(Type type, int columnIndex, int[] positions, int positionCount)
+            throws IOException
+    {
+        checkArgument(positionCount <= positions.length, "positionCount is greater than the number of positions");
+        if (positionCount == currentBatchSize) {
+            return readBlock(type, columnIndex);
+        }
+
+        Block block = streamReaders[columnIndex].readBlock(type, positions, positionCount);
+        if (positionCount > 0) {
+            // only the selected values contribute to the size of the block
+            updateMaxBytesPerCell(columnIndex, block.getSizeInBytes() / positionCount);
+        }
+        return block;
+    }
+
+    private void updateMaxBytesPerCell(int columnIndex, long bytesPerCell)
+    {
+        if (maxBytesPerCell[columnIndex] < bytesPerCell) {
+            maxCombinedBytesPerRow = maxCombinedBytesPerRow - maxBytesPerCell[columnIndex] + bytesPerCell;
+            maxBytesPerCell[columnIndex] = bytesPerCell;
+            maxBatchSize = toIntExact(min(maxBatchSize, max(1, maxBlockBytes / maxCombinedBytesPerRow)));
+        }
+    }
+
     public StreamReader getStreamReader(int index)
     {
         checkArgument(index < streamReaders.length, "index does not exist");
@@ -554,25 +599,55 @@ public class OrcRecordReader
     }
 
     private static StreamReader[] createStreamReaders(
-            OrcDataSource orcDataSource,
             List<OrcType> types,
             DateTimeZone hiveStorageTimeZone,
-            Map<Integer, Type> includedColumns,
+            Map<Integer, StreamDescriptor> includedStreams,
             AggregatedMemoryContext systemMemoryContext)
     {
-        List<StreamDescriptor> streamDescriptors = createStreamDescriptor("", "", 0, types, orcDataSource).getNestedStreams();
-
         OrcType rowType = types.get(0);
         StreamReader[] streamReaders = new StreamReader[rowType.getFieldCount()];
         for (int columnId = 0; columnId < rowType.getFieldCount(); columnId++) {
-            if (includedColumns.containsKey(columnId)) {
-                StreamDescriptor streamDescriptor = streamDescriptors.get(columnId);
+            StreamDescriptor streamDescriptor = includedStreams.get(columnId);
+            if (streamDescriptor != null) {
                 streamReaders[columnId] = StreamReaders.createStreamReader(streamDescriptor, hiveStorageTimeZone, systemMemoryContext);
             }
         }
         return streamReaders;
     }
 
+    /**
+     * Removes the fields of a struct that are not on any of the field paths. A struct with no
+     * remaining fields still reads its present stream, and returns null for all of its fields.
+     */
+    private static StreamDescriptor pruneNestedStreams(StreamDescriptor stream, List<List<String>> fieldPaths)
+    {
+        if (fieldPaths.isEmpty() || fieldPaths.stream().anyMatch(List::isEmpty) || stream.getStreamType() != OrcTypeKind.STRUCT) {
+            return stream;
+        }
+
+        ImmutableList.Builder<StreamDescriptor> nestedStreams = ImmutableList.builder();
+        for (StreamDescriptor nestedStream : stream.getNestedStreams()) {
+            List<List<String>> nestedFieldPaths = fieldPaths.stream()
+                    .filter(path -> path.get(0).equalsIgnoreCase(nestedStream.getFieldName()))
+                    .map(path -> path.subList(1, path.size()))
+                    .collect(toImmutableList());
+            if (!nestedFieldPaths.isEmpty()) {
+                nestedStreams.add(pruneNestedStreams(nestedStream, nestedFieldPaths));
+            }
+        }
+        return new StreamDescriptor(stream.getStreamName(), stream.getStreamId(), stream.getFieldName(), stream.getStreamType(), stream.getOrcDataSource(), nestedStreams.build());
+    }
+
+    private static Set<Integer> getIncludedOrcColumns(Collection<StreamDescriptor> streams)
+    {
+        ImmutableSet.Builder<Integer> orcColumns = ImmutableSet.builder();
+        for (StreamDescriptor stream : streams) {
+            orcColumns.add(stream.getStreamId());
+            orcColumns.addAll(getIncludedOrcColumns(stream.getNestedStreams()));
+        }
+        return orcColumns.build();
+    }
+
     private static StreamDescriptor createStreamDescriptor(String parentStreamName, String fieldName, int typeId, List<OrcType> types, OrcDataSource dataSource)
     {
         OrcType type = types.get(typeId);
@@ -32,11 +32,15 @@ import com.facebook.presto.orc.stream.StreamDataOutput;
 import com.facebook.presto.orc.writer.ColumnWriter;
 import com.facebook.presto.orc.writer.SliceDictionaryColumnWriter;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import io.airlift.log.Logger;
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import org.joda.time.DateTimeZone;
@@ -52,7 +56,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import java.util.stream.Collectors;
 
 import static com.facebook.presto.orc.OrcReader.validateFile;
@@ -66,9 +73,14 @@ import static com.facebook.presto.orc.stream.OrcDataOutput.createDataOutput;
 import static com.facebook.presto.orc.writer.ColumnWriters.createColumnWriter;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Throwables.propagateIfPossible;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
 import static io.airlift.slice.Slices.utf8Slice;
 import static java.lang.Integer.min;
+import static java.lang.Math.max;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
@@ -100,6 +112,9 @@ public class OrcWriter
     private final Map<String, String> userMetadata;
     private final CompressedMetadataWriter metadataWriter;
     private final DateTimeZone hiveStorageTimeZone;
+    private final Executor executor;
+    private final int encodingParallelism;
+    private final boolean pipelinedStripeFlush;
 
     private final List<ClosedStripe> closedStripes = new ArrayList<>();
     private final List<OrcType> orcTypes;
@@ -112,6 +127,9 @@ public class OrcWriter
     private long columnWritersRetainedBytes;
     private long closedStripesRetainedBytes;
     private long previouslyRecordedSizeInBytes;
+    private ListenableFuture<?> pendingStripeFlush = immediateFuture(null);
+    private long pendingStripeFlushRetainedBytes;
+    private long pendingStripeFlushEndOffset;
     private boolean closed;
 
     @Nullable
@@ -129,6 +147,29 @@ public class OrcWriter
             boolean validate,
             OrcWriteValidationMode validationMode,
             OrcWriterStats stats)
+    {
+        this(orcDataSink, columnNames, types, orcEncoding, compression, options, userMetadata, hiveStorageTimeZone, validate, validationMode, stats, directExecutor());
+    }
+
+    /**
+     * When {@link OrcWriterOptions#getEncodingParallelism()} is greater than one, independent
+     * columns are encoded and compressed on the specified executor.  When
+     * {@link OrcWriterOptions#isPipelinedStripeFlush()} is set, a finished stripe is written to
+     * the data sink on the executor while the next stripe is being buffered.
+     */
+    public OrcWriter(
+            OrcDataSink orcDataSink,
+            List<String> columnNames,
+            List<Type> types,
+            OrcEncoding orcEncoding,
+            CompressionKind compression,
+            OrcWriterOptions options,
+            Map<String, String> userMetadata,
+            DateTimeZone hiveStorageTimeZone,
+            boolean validate,
+            OrcWriteValidationMode validationMode,
+            OrcWriterStats stats,
+            Executor executor)
     {
         this.validationBuilder = validate ? new OrcWriteValidation.OrcWriteValidationBuilder(validationMode, types).setStringStatisticsLimitInBytes(toIntExact(options.getMaxStringStatisticsLimit().toBytes())) : null;
 
@@ -146,6 +187,9 @@ public class OrcWriter
         this.rowGroupMaxRowCount = options.getRowGroupMaxRowCount();
         recordValidation(validation -> validation.setRowGroupMaxRowCount(rowGroupMaxRowCount));
         this.maxCompressionBufferSize = toIntExact(options.getMaxCompressionBufferSize().toBytes());
+        this.encodingParallelism = options.getEncodingParallelism();
+        this.pipelinedStripeFlush = options.isPipelinedStripeFlush();
+        this.executor = requireNonNull(executor, "executor is null");
 
         this.userMetadata = ImmutableMap.<String, String>builder()
                 .putAll(requireNonNull(userMetadata, "userMetadata is null"))
@@ -198,11 +242,12 @@ public class OrcWriter
     }
 
     /**
-     * Number of bytes already flushed to the data sink.
+     * Number of bytes already flushed to the data sink, including a stripe
+     * that is still being written by a pipelined flush.
      */
     public long getWrittenBytes()
     {
-        return orcDataSink.size();
+        return max(orcDataSink.size(), pendingStripeFlushEndOffset);
     }
 
     /**
@@ -218,6 +263,7 @@ public class OrcWriter
         return INSTANCE_SIZE +
                 columnWritersRetainedBytes +
                 closedStripesRetainedBytes +
+                pendingStripeFlushRetainedBytes +
                 orcDataSink.getRetainedSizeInBytes() +
                 (validationBuilder == null ? 0 : validationBuilder.getRetainedSize());
     }
@@ -251,6 +297,11 @@ public class OrcWriter
             writeChunk(chunk);
         }
 
+        // release the memory of a completed pipelined stripe flush and surface its failure early
+        if (pendingStripeFlush.isDone()) {
+            waitForPendingStripeFlush();
+        }
+
         long recordedSizeInBytes = getRetainedBytes();
         stats.updateSizeInBytes(recordedSizeInBytes - previouslyRecordedSizeInBytes);
         previouslyRecordedSizeInBytes = recordedSizeInBytes;
@@ -265,10 +316,21 @@ public class OrcWriter
 
         // write chunks
         bufferedBytes = 0;
-        for (int channel = 0; channel < chunk.getChannelCount(); channel++) {
-            ColumnWriter writer = columnWriters.get(channel);
-            writer.writeBlock(chunk.getBlock(channel));
-            bufferedBytes += writer.getBufferedBytes();
+        if (encodingParallelism > 1) {
+            // lazy blocks are not thread safe, so load them before handing the columns to other threads
+            Block[] blocks = new Block[chunk.getChannelCount()];
+            for (int channel = 0; channel < chunk.getChannelCount(); channel++) {
+                blocks[channel] = chunk.getBlock(channel).getLoadedBlock();
+            }
+            forEachColumnWriter(channel -> columnWriters.get(channel).writeBlock(blocks[channel]));
+            bufferedBytes = toIntExact(columnWriters.stream().mapToLong(ColumnWriter::getBufferedBytes).sum());
+        }
+        else {
+            for (int channel = 0; channel < chunk.getChannelCount(); channel++) {
+                ColumnWriter writer = columnWriters.get(channel);
+                writer.writeBlock(chunk.getBlock(channel));
+                bufferedBytes += writer.getBufferedBytes();
+            }
         }
 
         // update stats
@@ -310,6 +372,9 @@ public class OrcWriter
     private void flushStripe(FlushReason flushReason)
             throws IOException
     {
+        // the offset of this stripe depends on the previous stripe being fully written
+        waitForPendingStripeFlush();
+
         List<OrcDataOutput> outputData = new ArrayList<>();
         long stripeStartOffset = orcDataSink.size();
         // add header to first stripe (this is not required but nice to have)
@@ -325,7 +390,22 @@ public class OrcWriter
         }
 
         // write all data
-        orcDataSink.write(outputData);
+        if (pipelinedStripeFlush && flushReason != CLOSED) {
+            // copy the stripe out of the column writers, so they can be reset and
+            // buffer the next stripe while this one is written to the sink
+            Slice stripeData = materialize(outputData);
+            pendingStripeFlushRetainedBytes = stripeData.getRetainedSize();
+            pendingStripeFlushEndOffset = orcDataSink.size() + stripeData.length();
+            ListenableFutureTask<?> stripeFlush = ListenableFutureTask.create(() -> {
+                orcDataSink.write(ImmutableList.of(createDataOutput(stripeData)));
+                return null;
+            });
+            pendingStripeFlush = stripeFlush;
+            executor.execute(stripeFlush);
+        }
+        else {
+            orcDataSink.write(outputData);
+        }
 
         // open next stripe
         columnWriters.forEach(ColumnWriter::reset);
@@ -356,7 +436,7 @@ public class OrcWriter
         // convert any dictionary encoded column with a low compression ratio to direct
         dictionaryCompressionOptimizer.finalOptimize(bufferedBytes);
 
-        columnWriters.forEach(ColumnWriter::close);
+        forEachColumnWriter(column -> columnWriters.get(column).close());
 
         List<OrcDataOutput> outputData = new ArrayList<>();
         List<Stream> allStreams = new ArrayList<>(columnWriters.size() * 3);
@@ -492,6 +572,103 @@ public class OrcWriter
         return outputData;
     }
 
+    /**
+     * Runs the task for every top level column.  The columns are split into at most
+     * encodingParallelism groups; the first group runs on the calling thread and the
+     * rest on the executor.  Returns after all groups are done.
+     */
+    private void forEachColumnWriter(IntConsumer task)
+            throws IOException
+    {
+        int columnCount = columnWriters.size();
+        int groupCount = min(encodingParallelism, columnCount);
+        if (groupCount <= 1) {
+            for (int column = 0; column < columnCount; column++) {
+                task.accept(column);
+            }
+            return;
+        }
+
+        List<ListenableFuture<?>> groups = new ArrayList<>(groupCount - 1);
+        Throwable failure = null;
+        try {
+            for (int group = 1; group < groupCount; group++) {
+                int firstColumn = group;
+                ListenableFutureTask<?> groupTask = ListenableFutureTask.create(() -> {
+                    for (int column = firstColumn; column < columnCount; column += groupCount) {
+                        task.accept(column);
+                    }
+                }, null);
+                executor.execute(groupTask);
+                groups.add(groupTask);
+            }
+            for (int column = 0; column < columnCount; column += groupCount) {
+                task.accept(column);
+            }
+        }
+        catch (Throwable t) {
+            failure = t;
+        }
+
+        // never return while another thread may still be using a column writer, and
+        // keep the first failure, with the failures of the other groups suppressed
+        for (ListenableFuture<?> group : groups) {
+            try {
+                getUninterruptibly(group);
+            }
+            catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+                else if (failure != e.getCause()) {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            propagateIfPossible(failure, IOException.class);
+            throw new IOException(failure);
+        }
+    }
+
+    private void waitForPendingStripeFlush()
+            throws IOException
+    {
+        try {
+            await(pendingStripeFlush);
+        }
+        finally {
+            pendingStripeFlush = immediateFuture(null);
+            pendingStripeFlushRetainedBytes = 0;
+        }
+    }
+
+    private static void await(ListenableFuture<?> future)
+            throws IOException
+    {
+        try {
+            future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for ORC writer task", e);
+        }
+        catch (ExecutionException e) {
+            propagateIfPossible(e.getCause(), IOException.class);
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static Slice materialize(List<OrcDataOutput> outputData)
+    {
+        long size = outputData.stream()
+                .mapToLong(OrcDataOutput::size)
+                .sum();
+        DynamicSliceOutput output = new DynamicSliceOutput(toIntExact(size));
+        outputData.forEach(data -> data.writeData(output));
+        return output.slice();
+    }
+
     private void recordValidation(Consumer<OrcWriteValidationBuilder> task)
     {
         if (validationBuilder != null) {
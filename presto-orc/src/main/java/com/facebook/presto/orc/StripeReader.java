@@ -45,7 +45,6 @@ import io.airlift.slice.Slices;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -80,10 +79,13 @@ public class StripeReader
     private final MetadataReader metadataReader;
     private final Optional<OrcWriteValidation> writeValidation;
 
+    private long rowGroupsSkippedByStatistics;
+    private long rowGroupsSkippedByBloomFilter;
+
     public StripeReader(OrcDataSource orcDataSource,
             Optional<OrcDecompressor> decompressor,
             List<OrcType> types,
-            Set<Integer> includedColumns,
+            Set<Integer> includedOrcColumns,
             int rowsInRowGroup,
             OrcPredicate predicate,
             HiveWriterVersion hiveWriterVersion,
@@ -93,7 +95,7 @@ public class StripeReader
         this.orcDataSource = requireNonNull(orcDataSource, "orcDataSource is null");
         this.decompressor = requireNonNull(decompressor, "decompressor is null");
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
-        this.includedOrcColumns = getIncludedOrcColumns(types, requireNonNull(includedColumns, "includedColumns is null"));
+        this.includedOrcColumns = ImmutableSet.copyOf(requireNonNull(includedOrcColumns, "includedOrcColumns is null"));
         this.rowsInRowGroup = rowsInRowGroup;
         this.predicate = requireNonNull(predicate, "predicate is null");
         this.hiveWriterVersion = requireNonNull(hiveWriterVersion, "hiveWriterVersion is null");
@@ -427,11 +429,45 @@ public class StripeReader
             if (predicate.matches(rows, statistics)) {
                 selectedRowGroups.add(rowGroup);
             }
+            else if (hasBloomFilter(statistics) && predicate.matches(rows, withoutBloomFilters(statistics))) {
+                // the row group is only excluded by the bloom filters
+                rowGroupsSkippedByBloomFilter++;
+            }
+            else {
+                rowGroupsSkippedByStatistics++;
+            }
             remainingRows -= rows;
         }
         return selectedRowGroups.build();
     }
 
+    private static boolean hasBloomFilter(Map<Integer, ColumnStatistics> statistics)
+    {
+        return statistics.values().stream()
+                .anyMatch(columnStatistics -> columnStatistics.getBloomFilter() != null);
+    }
+
+    private static Map<Integer, ColumnStatistics> withoutBloomFilters(Map<Integer, ColumnStatistics> statistics)
+    {
+        return ImmutableMap.copyOf(Maps.transformValues(statistics, columnStatistics -> columnStatistics.withBloomFilter(null)));
+    }
+
+    /**
+     * Returns the number of row groups excluded by the predicate using the min/max statistics of the row group index.
+     */
+    public long getRowGroupsSkippedByStatistics()
+    {
+        return rowGroupsSkippedByStatistics;
+    }
+
+    /**
+     * Returns the number of row groups that match the min/max statistics of the predicate, but are excluded by the bloom filters.
+     */
+    public long getRowGroupsSkippedByBloomFilter()
+    {
+        return rowGroupsSkippedByBloomFilter;
+    }
+
     private static Map<Integer, ColumnStatistics> getRowGroupStatistics(OrcType rootStructType, Map<Integer, List<RowGroupIndex>> columnIndexes, int rowGroup)
     {
         requireNonNull(rootStructType, "rootStructType is null");
@@ -469,28 +505,6 @@ public class StripeReader
         return streamDiskRanges.build();
     }
 
-    private static Set<Integer> getIncludedOrcColumns(List<OrcType> types, Set<Integer> includedColumns)
-    {
-        Set<Integer> includes = new LinkedHashSet<>();
-
-        OrcType root = types.get(0);
-        for (int includedColumn : includedColumns) {
-            includeOrcColumnsRecursive(types, includes, root.getFieldTypeIndex(includedColumn));
-        }
-
-        return includes;
-    }
-
-    private static void includeOrcColumnsRecursive(List<OrcType> types, Set<Integer> result, int typeId)
-    {
-        result.add(typeId);
-        OrcType type = types.get(typeId);
-        int children = type.getFieldCount();
-        for (int i = 0; i < children; ++i) {
-            includeOrcColumnsRecursive(types, result, type.getFieldTypeIndex(i));
-        }
-    }
-
     /**
      * Ceiling of integer division
      */
@@ -41,6 +41,7 @@ import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.spi.type.Chars.isCharType;
 import static com.facebook.presto.spi.type.Chars.truncateToLengthAndTrimSpaces;
+import static com.facebook.presto.spi.type.DateType.DATE;
 import static com.facebook.presto.spi.type.Decimals.encodeUnscaledValue;
 import static com.facebook.presto.spi.type.Decimals.isLongDecimal;
 import static com.facebook.presto.spi.type.Decimals.isShortDecimal;
@@ -54,6 +55,8 @@ import static com.facebook.presto.spi.type.Varchars.isVarcharType;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.Float.floatToRawIntBits;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
 public class TupleDomainOrcPredicate<C>
@@ -162,7 +165,8 @@ public class TupleDomainOrcPredicate<C>
     @VisibleForTesting
     public static boolean checkInBloomFilter(BloomFilter bloomFilter, Object predicateValue, Type sqlType)
     {
-        if (sqlType == TINYINT || sqlType == SMALLINT || sqlType == INTEGER || sqlType == BIGINT) {
+        // hive writes dates to the bloom filter as days since epoch
+        if (sqlType == TINYINT || sqlType == SMALLINT || sqlType == INTEGER || sqlType == BIGINT || sqlType == DATE) {
             return bloomFilter.testLong(((Number) predicateValue).longValue());
         }
 
@@ -170,11 +174,16 @@ public class TupleDomainOrcPredicate<C>
             return bloomFilter.testDouble((Double) predicateValue);
         }
 
+        // hive writes floats to the bloom filter widened to doubles
+        if (sqlType == REAL) {
+            return bloomFilter.testDouble(intBitsToFloat(toIntExact((Long) predicateValue)));
+        }
+
         if (sqlType instanceof VarcharType || sqlType instanceof VarbinaryType) {
             return bloomFilter.test(((Slice) predicateValue).getBytes());
         }
 
-        // todo support DECIMAL, FLOAT, DATE, TIMESTAMP, and CHAR
+        // todo support DECIMAL, TIMESTAMP, and CHAR
         return true;
     }
 
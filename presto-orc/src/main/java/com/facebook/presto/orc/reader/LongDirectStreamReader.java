@@ -86,19 +86,7 @@ public class LongDirectStreamReader
             openRowGroup();
         }
 
-        if (readOffset > 0) {
-            if (presentStream != null) {
-                // skip ahead the present bit reader, but count the set bits
-                // and use this as the skip size for the data reader
-                readOffset = presentStream.countBitsSet(readOffset);
-            }
-            if (readOffset > 0) {
-                if (dataStream == null) {
-                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is not present");
-                }
-                dataStream.skip(readOffset);
-            }
-        }
+        skipToReadOffset();
 
         BlockBuilder builder = type.createBlockBuilder(null, nextBatchSize);
         if (presentStream == null) {
@@ -125,6 +113,65 @@ public class LongDirectStreamReader
         return builder.build();
     }
 
+    @Override
+    public Block readBlock(Type type, int[] positions, int positionCount)
+            throws IOException
+    {
+        if (!rowGroupOpen) {
+            openRowGroup();
+        }
+
+        BlockBuilder builder = type.createBlockBuilder(null, nextBatchSize);
+        int position = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int selectedPosition = positions[i];
+            readOffset += selectedPosition - position;
+            skipToReadOffset();
+            for (; position < selectedPosition; position++) {
+                builder.appendNull();
+            }
+
+            if (presentStream == null || presentStream.nextBit()) {
+                if (dataStream == null) {
+                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is not present");
+                }
+                type.writeLong(builder, dataStream.next());
+            }
+            else {
+                builder.appendNull();
+            }
+            position++;
+        }
+        for (int i = position; i < nextBatchSize; i++) {
+            builder.appendNull();
+        }
+
+        // the values after the last selected position are skipped with the next batch, if it is read
+        readOffset += nextBatchSize - position;
+        nextBatchSize = 0;
+
+        return builder.build();
+    }
+
+    private void skipToReadOffset()
+            throws IOException
+    {
+        if (readOffset > 0) {
+            if (presentStream != null) {
+                // skip ahead the present bit reader, but count the set bits
+                // and use this as the skip size for the data reader
+                readOffset = presentStream.countBitsSet(readOffset);
+            }
+            if (readOffset > 0) {
+                if (dataStream == null) {
+                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is not present");
+                }
+                dataStream.skip(readOffset);
+            }
+        }
+        readOffset = 0;
+    }
+
     private void openRowGroup()
             throws IOException
     {
@@ -135,22 +135,7 @@ public class SliceDictionaryStreamReader
             openRowGroup(type);
         }
 
-        if (readOffset > 0) {
-            if (presentStream != null) {
-                // skip ahead the present bit reader, but count the set bits
-                // and use this as the skip size for the length reader
-                readOffset = presentStream.countBitsSet(readOffset);
-            }
-            if (readOffset > 0) {
-                if (dataStream == null) {
-                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is not present");
-                }
-                if (inDictionaryStream != null) {
-                    inDictionaryStream.skip(readOffset);
-                }
-                dataStream.skip(readOffset);
-            }
-        }
+        skipToReadOffset();
 
         int[] idsVector = new int[nextBatchSize];
         if (presentStream == null) {
@@ -205,6 +190,66 @@ public class SliceDictionaryStreamReader
         return block;
     }
 
+    @Override
+    public Block readBlock(Type type, int[] positions, int positionCount)
+            throws IOException
+    {
+        if (!rowGroupOpen) {
+            openRowGroup(type);
+        }
+
+        // null is the last entry in the slice dictionary
+        int[] idsVector = new int[nextBatchSize];
+        Arrays.fill(idsVector, dictionaryBlock.getPositionCount() - 1);
+
+        int position = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int selectedPosition = positions[i];
+            readOffset += selectedPosition - position;
+            skipToReadOffset();
+
+            if (presentStream == null || presentStream.nextBit()) {
+                if (dataStream == null) {
+                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is not present");
+                }
+                idsVector[selectedPosition] = toIntExact(dataStream.next());
+                if (inDictionaryStream != null && !inDictionaryStream.nextBit()) {
+                    // row group dictionary elements are after the main dictionary
+                    idsVector[selectedPosition] += stripeDictionarySize;
+                }
+            }
+            position = selectedPosition + 1;
+        }
+        Block block = new DictionaryBlock(nextBatchSize, dictionaryBlock, idsVector);
+
+        // the values after the last selected position are skipped with the next batch, if it is read
+        readOffset += nextBatchSize - position;
+        nextBatchSize = 0;
+        return block;
+    }
+
+    private void skipToReadOffset()
+            throws IOException
+    {
+        if (readOffset > 0) {
+            if (presentStream != null) {
+                // skip ahead the present bit reader, but count the set bits
+                // and use this as the skip size for the length reader
+                readOffset = presentStream.countBitsSet(readOffset);
+            }
+            if (readOffset > 0) {
+                if (dataStream == null) {
+                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is not present");
+                }
+                if (inDictionaryStream != null) {
+                    inDictionaryStream.skip(readOffset);
+                }
+                dataStream.skip(readOffset);
+            }
+        }
+        readOffset = 0;
+    }
+
     private void setDictionaryBlockData(byte[] dictionaryData, int[] dictionaryOffsets, int positionCount)
     {
         verify(positionCount > 0);
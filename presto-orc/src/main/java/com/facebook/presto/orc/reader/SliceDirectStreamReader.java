@@ -34,6 +34,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -101,22 +102,12 @@ public class SliceDirectStreamReader
         }
 
         if (readOffset > 0) {
-            if (presentStream != null) {
-                // skip ahead the present bit reader, but count the set bits
-                // and use this as the skip size for the length reader
-                readOffset = presentStream.countBitsSet(readOffset);
-            }
-            if (readOffset > 0) {
-                if (lengthStream == null) {
-                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but length stream is not present");
-                }
-                long dataSkipSize = lengthStream.sum(readOffset);
-                if (dataSkipSize > 0) {
-                    if (dataStream == null) {
-                        throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is not present");
-                    }
-                    dataStream.skip(dataSkipSize);
+            long dataSkipSize = skipLengths(readOffset);
+            if (dataSkipSize > 0) {
+                if (dataStream == null) {
+                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is not present");
                 }
+                dataStream.skip(dataSkipSize);
             }
         }
 
@@ -207,6 +198,99 @@ public class SliceDirectStreamReader
         return new VariableWidthBlock(currentBatchSize, slice, offsetVector, Optional.ofNullable(isNullVector));
     }
 
+    @Override
+    public Block readBlock(Type type, int[] positions, int positionCount)
+            throws IOException
+    {
+        if (!rowGroupOpen) {
+            openRowGroup();
+        }
+
+        // read the lengths of the selected values first, and remember the size of the data
+        // to skip before each of them, so the data of the skipped values is never copied
+        boolean[] isNullVector = new boolean[nextBatchSize];
+        Arrays.fill(isNullVector, true);
+        int[] lengthVector = new int[positionCount];
+        long[] dataSkipSizes = new long[positionCount];
+        long totalLength = 0;
+
+        int position = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int selectedPosition = positions[i];
+            dataSkipSizes[i] = skipLengths(readOffset + selectedPosition - position);
+            readOffset = 0;
+
+            if (presentStream == null || presentStream.nextBit()) {
+                if (lengthStream == null) {
+                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but length stream is not present");
+                }
+                lengthVector[i] = toIntExact(lengthStream.next());
+                isNullVector[selectedPosition] = false;
+                totalLength += lengthVector[i];
+            }
+            position = selectedPosition + 1;
+        }
+
+        if (totalLength > ONE_GIGABYTE) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR,
+                    format("Values in column \"%s\" are too large to process for Presto. %s column values are larger than 1GB [%s]", streamDescriptor.getFieldName(), positionCount, streamDescriptor.getOrcDataSourceId()));
+        }
+
+        byte[] data = new byte[toIntExact(totalLength)];
+        Slice slice = Slices.wrappedBuffer(data);
+        int[] offsetVector = new int[nextBatchSize + 1];
+        int selectedIndex = 0;
+        for (int i = 0; i < nextBatchSize; i++) {
+            int offset = offsetVector[i];
+            offsetVector[i + 1] = offset;
+            if (selectedIndex == positionCount || positions[selectedIndex] != i) {
+                continue;
+            }
+
+            if (dataSkipSizes[selectedIndex] > 0 || lengthVector[selectedIndex] > 0) {
+                if (dataStream == null) {
+                    throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but data stream is not present");
+                }
+                dataStream.skip(dataSkipSizes[selectedIndex]);
+
+                // read data without truncation, and adjust offsetVector with truncated length
+                int length = lengthVector[selectedIndex];
+                dataStream.next(data, offset, offset + length);
+                int truncatedLength = computeTruncatedLength(slice, offset, length, type);
+                verify(truncatedLength >= 0);
+                offsetVector[i + 1] = offset + truncatedLength;
+            }
+            selectedIndex++;
+        }
+
+        // the values after the last selected position are skipped with the next batch, if it is read
+        readOffset += nextBatchSize - position;
+        int currentBatchSize = nextBatchSize;
+        nextBatchSize = 0;
+
+        return new VariableWidthBlock(currentBatchSize, slice, offsetVector, Optional.of(isNullVector));
+    }
+
+    /**
+     * Skips the specified number of values in the present and length streams, and returns the size of their data.
+     */
+    private long skipLengths(int items)
+            throws IOException
+    {
+        if (items > 0 && presentStream != null) {
+            // skip ahead the present bit reader, but count the set bits
+            // and use this as the skip size for the length reader
+            items = presentStream.countBitsSet(items);
+        }
+        if (items == 0) {
+            return 0;
+        }
+        if (lengthStream == null) {
+            throw new OrcCorruptionException(streamDescriptor.getOrcDataSourceId(), "Value is not null but length stream is not present");
+        }
+        return lengthStream.sum(items);
+    }
+
     private void openRowGroup()
             throws IOException
     {
@@ -26,6 +26,18 @@ public interface StreamReader
     Block readBlock(Type type)
             throws IOException;
 
+    /**
+     * Reads the next batch, decoding only the values at the specified positions of the batch.
+     * The positions must be in increasing order. The values at the other positions of the
+     * returned block are null, unless the reader does not support skipping values and decodes
+     * the whole batch.
+     */
+    default Block readBlock(Type type, int[] positions, int positionCount)
+            throws IOException
+    {
+        return readBlock(type);
+    }
+
     void prepareNextRead(int batchSize);
 
     void startStripe(InputStreamSources dictionaryStreamSources, List<ColumnEncoding> encoding)
@@ -27,22 +27,37 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.primitives.Longs;
 import io.airlift.slice.Slice;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.FileSinkOperator.RecordWriter;
+import org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat;
+import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.Serializer;
+import org.apache.hadoop.hive.serde2.objectinspector.SettableStructObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.JobConf;
 import org.apache.hive.common.util.BloomFilter;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Properties;
 
+import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.facebook.presto.orc.OrcReader.MAX_BATCH_SIZE;
+import static com.facebook.presto.orc.OrcTester.createCustomOrcRecordReader;
+import static com.facebook.presto.orc.OrcTester.createSettableStructObjectInspector;
 import static com.facebook.presto.orc.TupleDomainOrcPredicate.checkInBloomFilter;
 import static com.facebook.presto.orc.TupleDomainOrcPredicate.extractDiscreteValues;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
@@ -50,10 +65,13 @@ import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.spi.type.DateType.DATE;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.IntegerType.INTEGER;
+import static com.facebook.presto.spi.type.RealType.REAL;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
 import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static io.airlift.slice.Slices.utf8Slice;
 import static io.airlift.slice.Slices.wrappedBuffer;
+import static java.lang.Float.floatToRawIntBits;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -66,6 +84,7 @@ public class TestOrcBloomFilters
     private static final int TEST_INTEGER = 12345;
     private static final String COLUMN_0 = "bigint_0";
     private static final String COLUMN_1 = "bigint_1";
+    private static final int ROWS_IN_ROW_GROUP = 10_000;
 
     private static final Map<Object, Type> TEST_VALUES = ImmutableMap.<Object, Type>builder()
             .put(utf8Slice(TEST_STRING), VARCHAR)
@@ -217,7 +236,7 @@ public class TestOrcBloomFilters
         }
 
         // test unsupported type: can be supported by ORC but is not implemented yet
-        assertTrue(checkInBloomFilter(bloomFilter, new Date(), DATE), "unsupported type DATE should always return true");
+        assertTrue(checkInBloomFilter(bloomFilter, 1234567890L, TIMESTAMP), "unsupported type TIMESTAMP should always return true");
     }
 
     @Test
@@ -231,7 +250,22 @@ public class TestOrcBloomFilters
         }
 
         // test unsupported type: can be supported by ORC but is not implemented yet
-        assertTrue(checkInBloomFilter(bloomFilter, new Date(), DATE), "unsupported type DATE should always return true");
+        assertTrue(checkInBloomFilter(bloomFilter, 1234567890L, TIMESTAMP), "unsupported type TIMESTAMP should always return true");
+    }
+
+    @Test
+    public void testBloomFilterDateAndReal()
+    {
+        BloomFilter bloomFilter = new BloomFilter(1_000, 0.01);
+
+        // hive writes dates as days since epoch and floats widened to doubles
+        bloomFilter.addLong(17_000);
+        bloomFilter.addDouble(1.5f);
+
+        assertTrue(checkInBloomFilter(bloomFilter, 17_000L, DATE));
+        assertFalse(checkInBloomFilter(bloomFilter, 17_001L, DATE));
+        assertTrue(checkInBloomFilter(bloomFilter, (long) floatToRawIntBits(1.5f), REAL));
+        assertFalse(checkInBloomFilter(bloomFilter, (long) floatToRawIntBits(2.5f), REAL));
     }
 
     @Test
@@ -324,6 +358,76 @@ public class TestOrcBloomFilters
         assertTrue(emptyPredicate.matches(1L, matchingStatisticsByColumnIndex));
     }
 
+    @Test
+    public void testRowGroupsSkipped()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            // a single stripe with the even values 0 to 59998, in the row groups [0, 19998], [20000, 39998] and [40000, 59998]
+            writeEvenValuesWithBloomFilter(tempFile.getFile(), 3 * ROWS_IN_ROW_GROUP);
+
+            // 20001 is in the min/max range of the second row group only, and only its bloom filter excludes it
+            assertRowGroupsSkipped(tempFile, 20_001L, true, 0, 2, 1);
+            assertRowGroupsSkipped(tempFile, 20_001L, false, ROWS_IN_ROW_GROUP, 2, 0);
+
+            // 20002 is in the second row group
+            assertRowGroupsSkipped(tempFile, 20_002L, true, ROWS_IN_ROW_GROUP, 2, 0);
+        }
+    }
+
+    private static void assertRowGroupsSkipped(
+            TempFile tempFile,
+            long value,
+            boolean bloomFiltersEnabled,
+            int expectedRows,
+            long expectedSkippedByStatistics,
+            long expectedSkippedByBloomFilter)
+            throws IOException
+    {
+        TupleDomainOrcPredicate<String> predicate = new TupleDomainOrcPredicate<>(
+                TupleDomain.withColumnDomains(ImmutableMap.of(COLUMN_0, Domain.singleValue(BIGINT, value))),
+                ImmutableList.of(new ColumnReference<>(COLUMN_0, 0, BIGINT)),
+                bloomFiltersEnabled);
+
+        try (OrcRecordReader reader = createCustomOrcRecordReader(tempFile, ORC, predicate, BIGINT, MAX_BATCH_SIZE)) {
+            int rows = 0;
+            for (int batchSize = reader.nextBatch(); batchSize != -1; batchSize = reader.nextBatch()) {
+                rows += batchSize;
+            }
+
+            assertEquals(rows, expectedRows);
+            assertEquals(reader.getRowGroupsSkippedByStatistics(), expectedSkippedByStatistics);
+            assertEquals(reader.getRowGroupsSkippedByBloomFilter(), expectedSkippedByBloomFilter);
+        }
+    }
+
+    private static void writeEvenValuesWithBloomFilter(File file, int count)
+            throws IOException, SerDeException
+    {
+        JobConf jobConf = new JobConf();
+        jobConf.set("hive.exec.orc.write.format", "0.12");
+
+        Properties tableProperties = new Properties();
+        tableProperties.setProperty("columns", "test");
+        tableProperties.setProperty("columns.types", "bigint");
+        tableProperties.setProperty("orc.bloom.filter.columns", "test");
+        tableProperties.setProperty("orc.bloom.filter.fpp", "0.001");
+
+        RecordWriter writer = new OrcOutputFormat().getHiveRecordWriter(jobConf, new Path(file.toURI()), Text.class, false, tableProperties, () -> {});
+
+        @SuppressWarnings("deprecation") Serializer serde = new OrcSerde();
+        SettableStructObjectInspector objectInspector = createSettableStructObjectInspector("test", BIGINT);
+        Object row = objectInspector.create();
+        StructField field = objectInspector.getAllStructFieldRefs().get(0);
+
+        for (int i = 0; i < count; i++) {
+            objectInspector.setStructFieldData(row, field, 2L * i);
+            writer.write(serde.serialize(row, objectInspector));
+        }
+
+        writer.close(false);
+    }
+
     private static HiveBloomFilter toHiveBloomFilter(OrcProto.BloomFilter emptyOrcBloomFilter)
     {
         return new HiveBloomFilter(emptyOrcBloomFilter.getBitsetList(), emptyOrcBloomFilter.getBitsetCount() * 64, emptyOrcBloomFilter.getNumHashFunctions());
@@ -32,6 +32,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static com.facebook.presto.orc.OrcEncoding.ORC;
@@ -40,10 +41,13 @@ import static com.facebook.presto.orc.StripeReader.isIndexStream;
 import static com.facebook.presto.orc.TestingOrcPredicate.ORC_ROW_GROUP_SIZE;
 import static com.facebook.presto.orc.TestingOrcPredicate.ORC_STRIPE_SIZE;
 import static com.facebook.presto.orc.metadata.CompressionKind.NONE;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static io.airlift.testing.Assertions.assertGreaterThanOrEqual;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.lang.Math.toIntExact;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 
 public class TestOrcWriter
@@ -120,4 +124,61 @@ public class TestOrcWriter
             }
         }
     }
+
+    @Test
+    public void testParallelEncodingAndPipelinedStripeFlush()
+            throws IOException
+    {
+        ExecutorService executor = newCachedThreadPool();
+        try {
+            TempFile tempFile = new TempFile();
+            OrcWriter writer = new OrcWriter(
+                    new OutputStreamOrcDataSink(new FileOutputStream(tempFile.getFile())),
+                    ImmutableList.of("test1", "test2", "test3", "test4"),
+                    ImmutableList.of(BIGINT, VARCHAR, BIGINT, VARCHAR),
+                    ORC,
+                    NONE,
+                    new OrcWriterOptions()
+                            .withStripeMinSize(new DataSize(0, MEGABYTE))
+                            .withStripeMaxRowCount(20_000)
+                            .withRowGroupMaxRowCount(ORC_ROW_GROUP_SIZE)
+                            .withEncodingParallelism(3)
+                            .withPipelinedStripeFlush(true),
+                    ImmutableMap.of(),
+                    HIVE_STORAGE_TIME_ZONE,
+                    true,
+                    OrcWriteValidationMode.BOTH,
+                    new OrcWriterStats(),
+                    executor);
+
+            int rowCount = 0;
+            for (int page = 0; page < 7; page++) {
+                int positionCount = 9_000;
+                BlockBuilder longBlockBuilder = BIGINT.createBlockBuilder(null, positionCount);
+                BlockBuilder sliceBlockBuilder = VARCHAR.createBlockBuilder(null, positionCount);
+                for (int position = 0; position < positionCount; position++) {
+                    BIGINT.writeLong(longBlockBuilder, rowCount);
+                    VARCHAR.writeSlice(sliceBlockBuilder, Slices.utf8Slice(String.valueOf(rowCount % 100)));
+                    rowCount++;
+                }
+                Block longBlock = longBlockBuilder.build();
+                Block sliceBlock = sliceBlockBuilder.build();
+                writer.write(new Page(longBlock, sliceBlock, longBlock, sliceBlock));
+            }
+            writer.close();
+            assertEquals(writer.getWrittenBytes(), tempFile.getFile().length());
+
+            DataSize dataSize = new DataSize(1, MEGABYTE);
+            OrcDataSource orcDataSource = new FileOrcDataSource(tempFile.getFile(), dataSize, dataSize, dataSize, true);
+            Footer footer = new OrcReader(orcDataSource, ORC, dataSize, dataSize, dataSize, dataSize).getFooter();
+            assertEquals(footer.getNumberOfRows(), rowCount);
+            assertEquals(footer.getStripes().size(), 4);
+
+            // verifies the content, statistics and stripe layout against what was written
+            writer.validate(orcDataSource);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static com.facebook.presto.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static com.facebook.presto.orc.OrcEncoding.ORC;
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.orc.OrcWriteValidation.OrcWriteValidationMode.BOTH;
+import static com.facebook.presto.orc.TestingOrcPredicate.ORC_ROW_GROUP_SIZE;
+import static com.facebook.presto.orc.TestingOrcPredicate.ORC_STRIPE_SIZE;
+import static com.facebook.presto.orc.metadata.CompressionKind.NONE;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.joda.time.DateTimeZone.UTC;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestSelectiveStreamReading
+{
+    private static final int ROW_COUNT = 25_000;
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR, VARCHAR);
+
+    @Test
+    public void testReadSelectedPositions()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile()) {
+            writeFile(tempFile);
+
+            DataSize dataSize = new DataSize(1, MEGABYTE);
+            OrcDataSource orcDataSource = new FileOrcDataSource(tempFile.getFile(), dataSize, dataSize, dataSize, true);
+            OrcReader orcReader = new OrcReader(orcDataSource, ORC, dataSize, dataSize, dataSize, dataSize);
+            try (OrcRecordReader recordReader = orcReader.createRecordReader(
+                    ImmutableMap.of(0, BIGINT, 1, VARCHAR, 2, VARCHAR),
+                    OrcPredicate.TRUE,
+                    UTC,
+                    newSimpleAggregatedMemoryContext(),
+                    OrcReader.INITIAL_BATCH_SIZE)) {
+                int batch = 0;
+                int rowCount = 0;
+                for (int batchSize = recordReader.nextBatch(); batchSize > 0; batchSize = recordReader.nextBatch()) {
+                    int firstRow = (int) recordReader.getFilePosition();
+                    batch++;
+                    rowCount += batchSize;
+
+                    // leave some batches unread, so the skipped values are carried over to the next batch
+                    if (batch % 4 == 0) {
+                        continue;
+                    }
+
+                    int[] positions = new int[batchSize];
+                    int positionCount = 0;
+                    for (int position = batch % 3; position < batchSize; position += 3) {
+                        positions[positionCount] = position;
+                        positionCount++;
+                    }
+
+                    for (int column = 0; column < TYPES.size(); column++) {
+                        Type type = TYPES.get(column);
+                        Block block = recordReader.readBlock(type, column, positions, positionCount);
+                        assertEquals(block.getPositionCount(), batchSize);
+                        for (int i = 0; i < positionCount; i++) {
+                            assertValue(type, block, positions[i], column, firstRow + positions[i]);
+                        }
+                    }
+                }
+                assertEquals(rowCount, ROW_COUNT);
+            }
+        }
+    }
+
+    private static void assertValue(Type type, Block block, int position, int column, int row)
+    {
+        Object expected = getValue(column, row);
+        if (expected == null) {
+            assertTrue(block.isNull(position));
+        }
+        else if (expected instanceof Long) {
+            assertEquals(type.getLong(block, position), (long) (Long) expected);
+        }
+        else {
+            assertEquals(type.getSlice(block, position).toStringUtf8(), expected);
+        }
+    }
+
+    private static Object getValue(int column, int row)
+    {
+        switch (column) {
+            case 0:
+                return row % 5 == 0 ? null : (long) row;
+            case 1:
+                // unique values, so the column is written with the direct encoding
+                return row % 7 == 0 ? null : "value_" + row;
+            case 2:
+                // few distinct values, so the column is written with the dictionary encoding
+                return "group_" + (row % 11);
+            default:
+                throw new IllegalArgumentException("Unsupported column: " + column);
+        }
+    }
+
+    private static void writeFile(TempFile tempFile)
+            throws IOException
+    {
+        OrcWriter writer = new OrcWriter(
+                new OutputStreamOrcDataSink(new FileOutputStream(tempFile.getFile())),
+                ImmutableList.of("bigint_col", "direct_col", "dictionary_col"),
+                TYPES,
+                ORC,
+                NONE,
+                new OrcWriterOptions()
+                        .withStripeMinSize(new DataSize(0, MEGABYTE))
+                        .withStripeMaxSize(new DataSize(32, MEGABYTE))
+                        .withStripeMaxRowCount(ORC_STRIPE_SIZE)
+                        .withRowGroupMaxRowCount(ORC_ROW_GROUP_SIZE)
+                        .withDictionaryMaxMemory(new DataSize(32, MEGABYTE)),
+                ImmutableMap.of(),
+                HIVE_STORAGE_TIME_ZONE,
+                true,
+                BOTH,
+                new OrcWriterStats());
+
+        Block[] blocks = new Block[TYPES.size()];
+        for (int column = 0; column < TYPES.size(); column++) {
+            Type type = TYPES.get(column);
+            BlockBuilder blockBuilder = type.createBlockBuilder(null, ROW_COUNT);
+            for (int row = 0; row < ROW_COUNT; row++) {
+                Object value = getValue(column, row);
+                if (value == null) {
+                    blockBuilder.appendNull();
+                }
+                else if (value instanceof Long) {
+                    type.writeLong(blockBuilder, (Long) value);
+                }
+                else {
+                    type.writeSlice(blockBuilder, utf8Slice((String) value));
+                }
+            }
+            blocks[column] = blockBuilder.build();
+        }
+        writer.write(new Page(blocks));
+        writer.close();
+    }
+}
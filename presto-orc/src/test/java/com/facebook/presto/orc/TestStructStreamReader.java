@@ -208,6 +208,26 @@ public class TestStructStreamReader
         assertEquals(actual.get(1), "field_c_value");
     }
 
+    /**
+     * Only some fields of the struct are read; the others are returned as null
+     */
+    @Test
+    public void testIncludedNestedFields() throws IOException
+    {
+        List<String> fields = new ArrayList<>(Arrays.asList("field_a", "field_b", "field_c"));
+        List<String> writerData = new ArrayList<>(Arrays.asList("field_a_value", "field_b_value", "field_c_value"));
+        Type type = getType(fields);
+
+        write(tempFile, type, writerData);
+        RowBlock readBlock = read(tempFile, type, ImmutableList.of(ImmutableList.of("field_a"), ImmutableList.of("FIELD_C")));
+        List actual = (List) type.getObjectValue(SESSION, readBlock, 0);
+
+        assertEquals(actual.size(), fields.size());
+        assertEquals(actual.get(0), "field_a_value");
+        assertNull(actual.get(1));
+        assertEquals(actual.get(2), "field_c_value");
+    }
+
     private void write(TempFile tempFile, Type writerType, List<String> data) throws IOException
     {
         OrcWriter writer = new OrcWriter(
@@ -240,6 +260,11 @@ public class TestStructStreamReader
     }
 
     private RowBlock read(TempFile tempFile, Type readerType) throws IOException
+    {
+        return read(tempFile, readerType, ImmutableList.of());
+    }
+
+    private RowBlock read(TempFile tempFile, Type readerType, List<List<String>> nestedFields) throws IOException
     {
         DataSize dataSize = new DataSize(1, MEGABYTE);
         OrcDataSource orcDataSource = new FileOrcDataSource(tempFile.getFile(), dataSize, dataSize, dataSize, true);
@@ -248,7 +273,12 @@ public class TestStructStreamReader
         Map<Integer, Type> includedColumns = new HashMap<>();
         includedColumns.put(0, readerType);
 
-        OrcRecordReader recordReader = orcReader.createRecordReader(includedColumns, OrcPredicate.TRUE, UTC, newSimpleAggregatedMemoryContext(), OrcReader.INITIAL_BATCH_SIZE);
+        Map<Integer, List<List<String>>> includedNestedFields = new HashMap<>();
+        if (!nestedFields.isEmpty()) {
+            includedNestedFields.put(0, nestedFields);
+        }
+
+        OrcRecordReader recordReader = orcReader.createRecordReader(includedColumns, includedNestedFields, OrcPredicate.TRUE, 0, orcDataSource.getSize(), UTC, newSimpleAggregatedMemoryContext(), OrcReader.INITIAL_BATCH_SIZE);
 
         recordReader.nextBatch();
         RowBlock block = (RowBlock) recordReader.readBlock(readerType, 0);
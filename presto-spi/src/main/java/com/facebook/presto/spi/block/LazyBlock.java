@@ -16,8 +16,11 @@ package com.facebook.presto.spi.block;
 import io.airlift.slice.Slice;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.util.Arrays;
+import java.util.Optional;
 import java.util.function.BiConsumer;
 
+import static com.facebook.presto.spi.block.BlockUtil.checkArrayRange;
 import static java.util.Objects.requireNonNull;
 
 public class LazyBlock
@@ -29,6 +32,7 @@ public class LazyBlock
     private LazyBlockLoader<LazyBlock> loader;
 
     private Block block;
+    private int[] selectedPositions;
 
     public LazyBlock(int positionCount, LazyBlockLoader<LazyBlock> loader)
     {
@@ -254,6 +258,28 @@ public class LazyBlock
         return block != null;
     }
 
+    /**
+     * Declares that only the values at the specified positions, in increasing order, will be
+     * read from this block, so the loader may decode only these values. The values at the
+     * other positions of the loaded block are undefined.
+     */
+    public void setSelectedPositions(int[] positions, int offset, int length)
+    {
+        checkArrayRange(positions, offset, length);
+        if (block != null) {
+            throw new IllegalStateException("block already loaded");
+        }
+        selectedPositions = Arrays.copyOfRange(positions, offset, offset + length);
+    }
+
+    /**
+     * Returns the positions declared with {@link #setSelectedPositions}, or empty if any position may be read.
+     */
+    public Optional<int[]> getSelectedPositions()
+    {
+        return Optional.ofNullable(selectedPositions);
+    }
+
     @Override
     public Block getLoadedBlock()
     {
@@ -274,5 +300,6 @@ public class LazyBlock
 
         // clear reference to loader to free resources, since load was successful
         loader = null;
+        selectedPositions = null;
     }
 }
@@ -116,6 +116,15 @@ public interface ConnectorMetadata
         return Optional.empty();
     }
 
+    /**
+     * Return a version of the data read through the specified table layout, which must change whenever
+     * that data may have changed, or empty if the connector cannot track changes of the data.
+     */
+    default Optional<String> getTableLayoutVersion(ConnectorSession session, ConnectorTableLayoutHandle layoutHandle)
+    {
+        return Optional.empty();
+    }
+
     /**
      * List table names, possibly filtered by schema. An empty list is returned if none match.
      * @deprecated replaced by {@link ConnectorMetadata#listTables(ConnectorSession, Optional)}
@@ -153,6 +162,18 @@ public interface ConnectorMetadata
      */
     Map<SchemaTableName, List<ColumnMetadata>> listTableColumns(ConnectorSession session, SchemaTablePrefix prefix);
 
+    /**
+     * Returns a handle for the specified row column that only has to produce the nested
+     * fields at the specified paths; the other fields of the rows may be null. Returns
+     * empty if the connector can not read the fields of the column separately.
+     *
+     * @throws RuntimeException if table or column handles are no longer valid
+     */
+    default Optional<ColumnHandle> pruneNestedFields(ConnectorSession session, ConnectorTableHandle tableHandle, ColumnHandle columnHandle, List<List<String>> fieldPaths)
+    {
+        return Optional.empty();
+    }
+
     /**
      * Get statistics for table for given filtering constraint.
      */
@@ -13,9 +13,13 @@
  */
 package com.facebook.presto.spi.connector;
 
+import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplitSource;
 import com.facebook.presto.spi.ConnectorTableLayoutHandle;
+import com.facebook.presto.spi.predicate.TupleDomain;
+
+import java.util.function.Supplier;
 
 public interface ConnectorSplitManager
 {
@@ -25,6 +29,22 @@ public interface ConnectorSplitManager
             ConnectorTableLayoutHandle layout,
             SplitSchedulingStrategy splitSchedulingStrategy);
 
+    /**
+     * Returns the splits of the layout, given a dynamic filter on the columns of the table that is
+     * collected from the other side of a join while the query runs. The filter is {@link TupleDomain#all()}
+     * until it is known and may narrow later, so the split source should read it as late as possible,
+     * and may skip the splits whose data can not match it.
+     */
+    default ConnectorSplitSource getSplits(
+            ConnectorTransactionHandle transactionHandle,
+            ConnectorSession session,
+            ConnectorTableLayoutHandle layout,
+            SplitSchedulingStrategy splitSchedulingStrategy,
+            Supplier<TupleDomain<ColumnHandle>> dynamicFilter)
+    {
+        return getSplits(transactionHandle, session, layout, splitSchedulingStrategy);
+    }
+
     enum SplitSchedulingStrategy
     {
         UNGROUPED_SCHEDULING,
@@ -5056,6 +5056,16 @@ public abstract class AbstractTestQueries
         assertQuery("SELECT orderkey FROM orders UNION ALL SELECT 123 UNION ALL (SELECT custkey FROM orders GROUP BY custkey)");
     }
 
+    @Test
+    public void testUnionRepeatedRelation()
+    {
+        assertQuery("SELECT orderkey FROM orders UNION ALL SELECT custkey FROM orders UNION ALL SELECT orderkey FROM orders");
+        assertQuery("SELECT orderkey FROM orders UNION SELECT custkey FROM orders UNION ALL SELECT orderkey FROM orders");
+        // the repeated relation is coerced in the outer union only
+        assertQuery("SELECT 1 UNION ALL SELECT CAST(2 AS BIGINT) UNION ALL SELECT 1");
+        assertQuery("SELECT regionkey FROM nation UNION ALL SELECT 2.5 UNION ALL SELECT regionkey FROM nation");
+    }
+
     @Test
     public void testUnionDistinct()
     {